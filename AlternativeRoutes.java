@@ -0,0 +1,371 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An AlternativeRoutes object computes a few sensible alternatives to the
+ * shortest Route between two locations of a RoadNetwork.
+ * <p>
+ * Alternatives are found with the plateau method. A search from the start
+ * and a search back from the end each build a tree of shortest paths, and
+ * a plateau is a maximal chain of edges on both trees. Every plateau gives
+ * a route: the shortest path from the start to the plateau, the plateau,
+ * and the shortest path from it to the end. Routes along long plateaus are
+ * natural alternatives, since they follow shortest paths for a long way
+ * without sharing them with the best route. They are considered in order
+ * of plateau length, and a route is kept only if it is loopless and
+ * sufficiently dissimilar from the routes already chosen: it is rejected
+ * if more than <tt>maxOverlap</tt> of its length is shared with one of
+ * them.
+ * <p>
+ * No route longer than <tt>maxStretch</tt> times the shortest route is
+ * useful, so both searches stop at that bound, and the backward search
+ * only enters nodes the forward one settled. A query therefore costs two
+ * bounded searches and a scan of the plateaus, and a query for a single
+ * route only the forward search to the end.
+ * <p>
+ * Small networks may have too few plateaus. The remaining routes are then
+ * looked for with the penalty method: the search is repeated with the
+ * edges of the routes found so far made longer, which costs one more
+ * search per round and is only done when the plateaus are used up.
+ * <p>
+ * AlternativeRoutes objects are not thread-safe; each thread should use
+ * its own instance.
+ */
+public class AlternativeRoutes {
+
+	/** Default maximal fraction of a route that may be shared with a better one. */
+	public static final double DEFAULT_MAX_OVERLAP = 0.7;
+
+	/** Default maximal ratio between an alternative and the shortest route. */
+	public static final double DEFAULT_MAX_STRETCH = 1.5;
+
+	// Fraction of its length added to an edge for every route found using it.
+	private static final double PENALTY = 1;
+
+	// Penalized searches per missing route before giving up.
+	private static final int PENALTY_ROUNDS = 4;
+
+	private final RoadNetwork network;
+	private final double maxOverlap;
+	private final double maxStretch;
+
+	// Scratch state of the searches, reset lazily using generation stamps.
+	private final NetworkSearch forward;
+	private final NetworkSearch backward;
+	private final NetworkSearch.EdgeWeight length;
+	private final NetworkSearch.EdgeWeight penalizedLength;
+	private final int[] nodeStamp;
+	private final int[] edgeStamp;
+	private final int[] penaltyStamp;
+	private final int[] penaltyCount;
+	private int stamp;
+	private int queryCount;
+
+	/**
+	 * Constructs a new AlternativeRoutes with the default overlap and
+	 * stretch limits.
+	 *
+	 * @requires network != null
+	 * @effects Constructs a new AlternativeRoutes over network.
+	 */
+	public AlternativeRoutes(RoadNetwork network) {
+		this(network, DEFAULT_MAX_OVERLAP, DEFAULT_MAX_STRETCH);
+	}
+
+	/**
+	 * Constructs a new AlternativeRoutes.
+	 *
+	 * @requires network != null && 0 <= maxOverlap <= 1 && maxStretch >= 1
+	 * @effects Constructs a new AlternativeRoutes over network, which
+	 *          rejects alternatives sharing more than maxOverlap of their
+	 *          length with a better route or longer than maxStretch times
+	 *          the shortest route.
+	 */
+	public AlternativeRoutes(RoadNetwork network, double maxOverlap, double maxStretch) {
+		if (network == null) {
+			throw new IllegalArgumentException("Network cannot be null");
+		}
+		if (maxOverlap < 0 || maxOverlap > 1) {
+			throw new IllegalArgumentException("maxOverlap must be between 0 and 1");
+		}
+		if (maxStretch < 1) {
+			throw new IllegalArgumentException("maxStretch must be at least 1");
+		}
+		this.network = network;
+		this.maxOverlap = maxOverlap;
+		this.maxStretch = maxStretch;
+		forward = new NetworkSearch(network);
+		backward = new NetworkSearch(network, true);
+		nodeStamp = new int[network.getNodeCount()];
+		edgeStamp = new int[network.getEdgeCount()];
+		penaltyStamp = new int[network.getEdgeCount()];
+		penaltyCount = new int[network.getEdgeCount()];
+		stamp = 0;
+		queryCount = 0;
+		length = (e, d) -> network.edges[e].length;
+		penalizedLength = (e, d) -> network.edges[e].length
+				* (penaltyStamp[e] == queryCount ? 1 + PENALTY * penaltyCount[e] : 1);
+	}
+
+	/**
+	 * Computes up to k dissimilar routes from one location to another.
+	 *
+	 * @requires from != null && to != null && !from.equals(to) && k > 0
+	 * @return a list of at most k loopless Routes from from to to, ordered
+	 *         by length, whose first element is a shortest route. The list
+	 *         is empty if to cannot be reached from from.
+	 */
+	public List<Route> computeAlternatives(GeoPoint from, GeoPoint to, int k) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("GeoPoints cannot be null");
+		}
+		if (from.equals(to)) {
+			throw new IllegalArgumentException("Start and end must differ");
+		}
+		if (k <= 0) {
+			throw new IllegalArgumentException("k must be positive");
+		}
+		List<Route> routes = new ArrayList<Route>();
+		int source = network.getNodeId(from);
+		int target = network.getNodeId(to);
+		if (source < 0 || target < 0) {
+			return routes;
+		}
+		if (!forward.run(source, 0, target, Double.POSITIVE_INFINITY, NetworkSearch.ALL_EDGES, length)) {
+			return routes;
+		}
+		List<Path> accepted = new ArrayList<Path>();
+		accepted.add(new Path(forward.getPath(target), forward.getKey(target)));
+
+		if (k > 1) {
+			double bound = forward.getKey(target) * maxStretch;
+			forward.resume(-1, bound, NetworkSearch.ALL_EDGES, length);
+			backward.run(target, 0, -1, bound, e -> forward.isSettled(network.edgeSource[e]), length);
+			List<Plateau> plateaus = findPlateaus(bound);
+			Collections.sort(plateaus);
+			for (int i = 0; i < plateaus.size() && accepted.size() < k; i++) {
+				int node = plateaus.get(i).start;
+				int[] toPlateau = forward.getPath(node);
+				int[] fromPlateau = backward.getPath(node);
+				int[] edges = Arrays.copyOf(toPlateau, toPlateau.length + fromPlateau.length);
+				System.arraycopy(fromPlateau, 0, edges, toPlateau.length, fromPlateau.length);
+				Path path = new Path(edges, forward.getKey(node) + backward.getKey(node));
+				if (isLoopless(path, source) && isDissimilar(path, accepted)) {
+					accepted.add(path);
+				}
+			}
+			if (accepted.size() < k) {
+				addPenalizedPaths(accepted, source, target, k, bound);
+			}
+			Collections.sort(accepted);
+		}
+		for (Path path : accepted) {
+			routes.add(network.toRoute(path.edges));
+		}
+		return routes;
+	}
+
+	/**
+	 * @requires both searches have run
+	 * @return the plateaus of the searches whose routes are no longer than
+	 *         bound, other than those of a single node.
+	 */
+	private List<Plateau> findPlateaus(double bound) {
+		List<Plateau> plateaus = new ArrayList<Plateau>();
+		for (int i = 0; i < forward.getSettledCount(); i++) {
+			int v = forward.getSettled(i);
+			if (!backward.isSettled(v) || forward.getKey(v) + backward.getKey(v) > bound
+					|| !isPlateauEdge(backward.getTreeEdge(v))) {
+				continue;
+			}
+			// v starts a plateau unless the edge reaching it is on one
+			if (isPlateauEdge(forward.getTreeEdge(v))) {
+				continue;
+			}
+			int end = v;
+			while (isPlateauEdge(backward.getTreeEdge(end))) {
+				end = network.edgeTarget[backward.getTreeEdge(end)];
+			}
+			plateaus.add(new Plateau(v, backward.getKey(v) - backward.getKey(end)));
+		}
+		return plateaus;
+	}
+
+	/**
+	 * @effects adds to accepted, until it holds k paths, the dissimilar
+	 *          paths no longer than bound found by searches in which every
+	 *          edge is longer by PENALTY times its length for each path
+	 *          found so far using it.
+	 */
+	private void addPenalizedPaths(List<Path> accepted, int source, int target, int k, double bound) {
+		queryCount++;
+		for (Path path : accepted) {
+			penalize(path);
+		}
+		for (int round = (k - accepted.size()) * PENALTY_ROUNDS; round > 0 && accepted.size() < k; round--) {
+			forward.run(source, 0, target, Double.POSITIVE_INFINITY, NetworkSearch.ALL_EDGES, penalizedLength);
+			int[] edges = forward.getPath(target);
+			double pathLength = 0;
+			for (int e : edges) {
+				pathLength += network.edges[e].length;
+			}
+			Path path = new Path(edges, pathLength);
+			if (pathLength <= bound && isDissimilar(path, accepted)) {
+				accepted.add(path);
+			}
+			penalize(path);
+		}
+	}
+
+	private void penalize(Path path) {
+		for (int e : path.edges) {
+			if (penaltyStamp[e] != queryCount) {
+				penaltyStamp[e] = queryCount;
+				penaltyCount[e] = 0;
+			}
+			penaltyCount[e]++;
+		}
+	}
+
+	/**
+	 * @return true iff e is an edge on the trees of both searches.
+	 */
+	private boolean isPlateauEdge(int e) {
+		if (e < 0) {
+			return false;
+		}
+		int u = network.edgeSource[e];
+		int v = network.edgeTarget[e];
+		return forward.isSettled(v) && forward.getTreeEdge(v) == e
+				&& backward.isSettled(u) && backward.getTreeEdge(u) == e;
+	}
+
+	/**
+	 * @return true iff path visits no node twice.
+	 */
+	private boolean isLoopless(Path path, int source) {
+		stamp++;
+		nodeStamp[source] = stamp;
+		for (int e : path.edges) {
+			int v = network.edgeTarget[e];
+			if (nodeStamp[v] == stamp) {
+				return false;
+			}
+			nodeStamp[v] = stamp;
+		}
+		return true;
+	}
+
+	/**
+	 * @return true iff path is none of the accepted paths, and no more than
+	 *         maxOverlap of its length is shared with any of them.
+	 */
+	private boolean isDissimilar(Path path, List<Path> accepted) {
+		stamp++;
+		for (int e : path.edges) {
+			edgeStamp[e] = stamp;
+		}
+		for (Path other : accepted) {
+			double shared = 0;
+			int sharedEdges = 0;
+			for (int e : other.edges) {
+				if (edgeStamp[e] == stamp) {
+					shared += network.edges[e].length;
+					sharedEdges++;
+				}
+			}
+			if (sharedEdges == path.edges.length || (path.length > 0 && shared / path.length > maxOverlap)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the fraction of a Route that is shared with another.
+	 *
+	 * @requires a != null && b != null
+	 * @return the total length of the GeoSegments of a that also appear in
+	 *         b, divided by the length of a. Returns 0 if a has no length.
+	 */
+	public static double overlapRatio(Route a, Route b) {
+		if (a == null || b == null) {
+			throw new IllegalArgumentException("Routes cannot be null");
+		}
+		if (a.getLength() == 0) {
+			return 0;
+		}
+		Set<GeoSegment> shared = new HashSet<GeoSegment>(b.geoSegments);
+		double length = 0;
+		Iterator<GeoSegment> it = a.getGeoSegments();
+		while (it.hasNext()) {
+			GeoSegment gs = it.next();
+			if (shared.contains(gs)) {
+				length += gs.getLength();
+			}
+		}
+		return length / a.getLength();
+	}
+
+	/**
+	 * Computes the pairwise overlap ratios of a list of Routes.
+	 *
+	 * @requires routes != null && no element of routes is null
+	 * @return a matrix m such that m[i][j] = overlapRatio(routes.get(i), routes.get(j)).
+	 */
+	public static double[][] overlapMatrix(List<Route> routes) {
+		if (routes == null) {
+			throw new IllegalArgumentException("Routes cannot be null");
+		}
+		double[][] m = new double[routes.size()][routes.size()];
+		for (int i = 0; i < routes.size(); i++) {
+			for (int j = 0; j < routes.size(); j++) {
+				m[i][j] = overlapRatio(routes.get(i), routes.get(j));
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * A Path is a sequence of edge ids of the network with its length.
+	 * Paths are ordered by length.
+	 */
+	private static class Path implements Comparable<Path> {
+		final int[] edges;
+		final double length;
+
+		Path(int[] edges, double length) {
+			this.edges = edges;
+			this.length = length;
+		}
+
+		public int compareTo(Path other) {
+			return Double.compare(length, other.length);
+		}
+	}
+
+	/**
+	 * A Plateau is identified by the node it starts from. Plateaus are
+	 * ordered from the longest.
+	 */
+	private static class Plateau implements Comparable<Plateau> {
+		final int start;
+		final double length;
+
+		Plateau(int start, double length) {
+			this.start = start;
+			this.length = length;
+		}
+
+		public int compareTo(Plateau other) {
+			return Double.compare(other.length, length);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class AlternativeRoutesTest {
+
+	private RoadNetwork mNetwork;
+	private GeoPoint gpHankin;			// Hankin Road, Natan Komoi & A.D. Gordon Intersection
+	private GeoPoint gpHagalilHanita;	// Hagalil & Hanita Intersection
+	private boolean mFailed;			// makes main() exit with status 1
+
+
+	public AlternativeRoutesTest() {
+		List<GeoSegment> segments = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : ExampleGeoSegments.segments) {
+			segments.add(gs);
+			segments.add(gs.reverse());
+		}
+		mNetwork = new RoadNetwork(segments);
+		gpHankin = ExampleGeoSegments.points[0];
+		gpHagalilHanita = ExampleGeoSegments.points[5];
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private boolean isLoopless(Route route) {
+		List<GeoPoint> visited = new ArrayList<GeoPoint>();
+		visited.add(route.getStart());
+		Iterator<GeoSegment> it = route.getGeoSegments();
+		while (it.hasNext()) {
+			GeoPoint gp = it.next().getP2();
+			if (visited.contains(gp))
+				return false;
+			visited.add(gp);
+		}
+		return true;
+	}
+
+
+	public void test() {
+		show("RoadNetwork");
+		show("Every endpoint is a node", mNetwork.getNodeCount() == 14);
+		show("Every segment is an edge", mNetwork.getEdgeCount() == 32);
+		show("Unknown points have no id",
+			mNetwork.getNodeId(new GeoPoint(0, 0)) == -1);
+
+		show("computeAlternatives()");
+		AlternativeRoutes alternatives = new AlternativeRoutes(mNetwork, 0.9, 3);
+		List<Route> routes = alternatives.computeAlternatives(gpHankin, gpHagalilHanita, 3);
+		show("Three alternatives are found", routes.size() == 3);
+		boolean ordered = true;
+		boolean endpoints = true;
+		boolean loopless = true;
+		for (int i = 0; i < routes.size(); i++) {
+			Route r = routes.get(i);
+			if (i > 0 && routes.get(i - 1).getLength() > r.getLength())
+				ordered = false;
+			if (!r.getStart().equals(gpHankin) || !r.getEnd().equals(gpHagalilHanita))
+				endpoints = false;
+			if (!isLoopless(r))
+				loopless = false;
+		}
+		show("Routes are ordered by length", ordered);
+		show("Routes connect the requested points", endpoints);
+		show("Routes are loopless", loopless);
+		show("First route is the shortest (1.85 km)",
+			Math.abs(routes.get(0).getLength() - 1.855) < 0.01);
+		show("A single route is returned for k = 1",
+			alternatives.computeAlternatives(gpHankin, gpHagalilHanita, 1).size() == 1);
+		show("Unreachable points give no routes",
+			alternatives.computeAlternatives(gpHankin, new GeoPoint(0, 0), 3).isEmpty());
+
+		show("overlapRatio()");
+		double[][] overlaps = AlternativeRoutes.overlapMatrix(routes);
+		boolean dissimilar = true;
+		for (int i = 0; i < routes.size(); i++) {
+			for (int j = 0; j < i; j++) {
+				if (overlaps[i][j] > 0.9)
+					dissimilar = false;
+			}
+		}
+		show("A route fully overlaps itself", overlaps[0][0] == 1.0);
+		show("Alternatives are dissimilar", dissimilar);
+	}
+
+
+	public void testSynthetic() {
+		show("Synthetic grid");
+		GeoSegment[] grid = SyntheticNetworks.grid(20000, 11);
+		List<GeoSegment> segments = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : grid) {
+			segments.add(gs);
+			segments.add(gs.reverse());
+		}
+		AlternativeRoutes alternatives = new AlternativeRoutes(new RoadNetwork(segments));
+		boolean found = true;
+		boolean valid = true;
+		boolean dissimilar = true;
+		for (int seed = 0; seed < 10; seed++) {
+			List<GeoSegment> walk = SyntheticNetworks.randomWalk(grid, 100, seed);
+			GeoPoint from = walk.get(0).getP1();
+			GeoPoint to = walk.get(walk.size() - 1).getP2();
+			if (from.equals(to))
+				continue;
+			List<Route> routes = alternatives.computeAlternatives(from, to, 3);
+			if (routes.size() != 3) {
+				found = false;
+				continue;
+			}
+			double shortest = alternatives.computeAlternatives(from, to, 1).get(0).getLength();
+			for (int i = 0; i < routes.size(); i++) {
+				Route r = routes.get(i);
+				if (!r.getStart().equals(from) || !r.getEnd().equals(to) || !isLoopless(r)
+						|| r.getLength() > shortest * AlternativeRoutes.DEFAULT_MAX_STRETCH + 1e-9
+						|| (i == 0 && Math.abs(r.getLength() - shortest) > 1e-9)
+						|| (i > 0 && routes.get(i - 1).getLength() > r.getLength()))
+					valid = false;
+			}
+			// of any two routes, the one chosen later shares little with the other
+			double[][] overlaps = AlternativeRoutes.overlapMatrix(routes);
+			for (int i = 0; i < routes.size(); i++) {
+				for (int j = 0; j < i; j++) {
+					if (Math.min(overlaps[i][j], overlaps[j][i]) > AlternativeRoutes.DEFAULT_MAX_OVERLAP)
+						dissimilar = false;
+				}
+			}
+		}
+		show("Three alternatives are found for every query", found);
+		show("Routes are loopless, ordered, and within the stretch bound", valid);
+		show("Alternatives are dissimilar", dissimilar);
+	}
+
+
+	public static void main(String[] args) {
+		AlternativeRoutesTest alternativesTest = new AlternativeRoutesTest();
+		alternativesTest.test();
+		alternativesTest.testSynthetic();
+		if (alternativesTest.mFailed)
+			System.exit(1);
+	}
+}
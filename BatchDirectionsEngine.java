@@ -0,0 +1,341 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * A BatchDirectionsEngine computes the directions of a large number of
+ * Routes with several RouteFormatters on a bounded pool of worker threads.
+ * <p>
+ * Routes are pulled from the input only when there is room for them: at
+ * most <tt>queueCapacity</tt> routes may wait for a worker or, in ordered
+ * mode, for an earlier route to be delivered, after which the caller of
+ * <tt>run</tt> blocks. Memory use therefore does not depend on the size of
+ * the input.
+ * <p>
+ * Each worker renders into its own reusable buffers. In unordered mode the
+ * buffers are handed to the sink directly, so no String is created for the
+ * directions at all; in ordered mode each result is copied once, to be held
+ * until the results of all the earlier routes have been delivered. Calls to
+ * the sink are never concurrent.
+ * <p>
+ * The formatters must allow computeDirections() to be called from several
+ * threads at once, as the formatters of this package do.
+ */
+public class BatchDirectionsEngine {
+
+	/**
+	 * A DirectionsSink receives the directions computed by a
+	 * BatchDirectionsEngine.
+	 */
+	public interface DirectionsSink {
+
+		/**
+		 * Receives the directions of one Route.
+		 *
+		 * @param index the position of route in the input, starting at 0.
+		 * @param route the route.
+		 * @param directions the directions of route; directions[i] is given
+		 *        by the i-th formatter of the engine. The contents of these
+		 *        sequences are only valid until this method returns.
+		 * @throws IOException if the directions cannot be consumed, which
+		 *         stops the batch.
+		 */
+		void accept(long index, Route route, CharSequence[] directions) throws IOException;
+	}
+
+	private final RouteFormatter[] formatters;
+	private final double heading;
+	private final int threads;
+	private final int queueCapacity;
+	private final boolean ordered;
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder characters = new LongAdder();
+	private final AtomicInteger queued = new AtomicInteger();
+	private volatile long startNanos;
+	private volatile long startCompleted;
+	private volatile long endNanos;
+
+	// Abs. Function: a pool of "threads" workers formatting routes with
+	// formatters, starting at heading, with at most queueCapacity routes
+	// waiting, delivering results in input order iff ordered.
+	// Rep. Invariant: formatters.length > 0 && no formatter is null &&
+	// threads > 0 && queueCapacity > 0 && 0 <= heading < 360
+
+	/**
+	 * Constructs a new BatchDirectionsEngine.
+	 *
+	 * @requires formatters != null && formatters is not empty && no element
+	 *           of formatters is null && 0 <= heading < 360 &&
+	 *           threads > 0 && queueCapacity > 0
+	 * @effects Constructs a new BatchDirectionsEngine that formats each route
+	 *          with every element of formatters, starting at heading, on
+	 *          threads worker threads with at most queueCapacity routes
+	 *          waiting. If ordered, routes are delivered to the sink in
+	 *          input order; otherwise as soon as they are formatted.
+	 */
+	public BatchDirectionsEngine(List<RouteFormatter> formatters, double heading,
+			int threads, int queueCapacity, boolean ordered) {
+		if (formatters == null || formatters.isEmpty()) {
+			throw new IllegalArgumentException("Formatters must be non-empty");
+		}
+		for (RouteFormatter formatter : formatters) {
+			if (formatter == null) {
+				throw new IllegalArgumentException("Formatter cannot be null");
+			}
+		}
+		if (heading < 0 || heading >= 360) {
+			throw new IllegalArgumentException("heading must be between 0 and 360");
+		}
+		if (threads <= 0 || queueCapacity <= 0) {
+			throw new IllegalArgumentException("threads and queueCapacity must be positive");
+		}
+		this.formatters = formatters.toArray(new RouteFormatter[0]);
+		this.heading = heading;
+		this.threads = threads;
+		this.queueCapacity = queueCapacity;
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Formats a stream of Routes.
+	 *
+	 * @requires routes != null && sink != null
+	 * @effects like run(routes.iterator(), sink).
+	 */
+	public void run(Stream<Route> routes, DirectionsSink sink) throws IOException {
+		if (routes == null) {
+			throw new IllegalArgumentException("Routes cannot be null");
+		}
+		run(routes.iterator(), sink);
+	}
+
+	/**
+	 * Formats a sequence of Routes, returning when all of them have been
+	 * delivered to the sink. An engine runs one batch at a time.
+	 *
+	 * @requires routes != null && sink != null && no route is null
+	 * @effects calls sink.accept(i, r, d) for the i-th route r of routes,
+	 *          where d[j] is formatters[j].computeDirections(r, heading).
+	 *          Stops at the first failure, after the routes already
+	 *          started have been processed.
+	 * @throws IOException if the sink fails.
+	 */
+	public synchronized void run(Iterator<Route> routes, DirectionsSink sink) throws IOException {
+		if (routes == null || sink == null) {
+			throw new IllegalArgumentException("Routes and sink cannot be null");
+		}
+		Batch batch = new Batch(sink);
+		ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "directions-worker");
+			t.setDaemon(true);
+			return t;
+		});
+		startCompleted = completed.sum();
+		startNanos = System.nanoTime();
+		endNanos = 0;
+		try {
+			long index = 0;
+			while (batch.failure.get() == null && routes.hasNext()) {
+				Route route = routes.next();
+				batch.permits.acquireUninterruptibly();
+				long i = index++;
+				queued.incrementAndGet();
+				submitted.increment();
+				pool.execute(() -> batch.process(i, route));
+			}
+		} finally {
+			pool.shutdown();
+			boolean interrupted = false;
+			while (true) {
+				try {
+					if (pool.awaitTermination(1, TimeUnit.DAYS)) {
+						break;
+					}
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			endNanos = System.nanoTime();
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		Throwable failure = batch.failure.get();
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
+	/**
+	 * Returns the number of routes taken from the input.
+	 *
+	 * @return the number of routes submitted to the workers by all the
+	 *         batches run so far.
+	 */
+	public long getRoutesSubmitted() {
+		return submitted.sum();
+	}
+
+	/**
+	 * Returns the number of routes processed.
+	 *
+	 * @return the number of routes whose processing has finished, in all
+	 *         the batches run so far.
+	 */
+	public long getRoutesCompleted() {
+		return completed.sum();
+	}
+
+	/**
+	 * Returns the number of characters of directions computed.
+	 *
+	 * @return the total length of the directions computed so far.
+	 */
+	public long getCharactersWritten() {
+		return characters.sum();
+	}
+
+	/**
+	 * Returns the number of routes waiting for a worker.
+	 *
+	 * @return the number of submitted routes not yet picked up by a worker.
+	 */
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	/**
+	 * Returns the throughput of the current or last batch.
+	 *
+	 * @return the number of routes completed per second since the start of
+	 *         the current batch, or during the last batch if none is
+	 *         running; 0 if no batch was run.
+	 */
+	public double getThroughput() {
+		long start = startNanos;
+		if (start == 0) {
+			return 0;
+		}
+		long end = endNanos != 0 ? endNanos : System.nanoTime();
+		return end == start ? 0 : (completed.sum() - startCompleted) * 1e9 / (end - start);
+	}
+
+	/**
+	 * A Batch holds the state of one run: its backpressure permits, the
+	 * results waiting for delivery and the per-worker buffers.
+	 */
+	private class Batch {
+		final DirectionsSink sink;
+		final Semaphore permits = new Semaphore(queueCapacity);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final Map<Long, Result> pending = new ConcurrentHashMap<Long, Result>();
+		final ThreadLocal<StringBuilder[]> buffers = ThreadLocal.withInitial(() -> {
+			StringBuilder[] b = new StringBuilder[formatters.length];
+			for (int i = 0; i < b.length; i++) {
+				b[i] = new StringBuilder();
+			}
+			return b;
+		});
+		final Object sinkLock = new Object();
+		long next = 0; // the next index to deliver in ordered mode; guarded by sinkLock
+
+		Batch(DirectionsSink sink) {
+			this.sink = sink;
+		}
+
+		void process(long index, Route route) {
+			queued.decrementAndGet();
+			StringBuilder[] b = null;
+			try {
+				if (failure.get() == null) {
+					b = buffers.get();
+					for (int i = 0; i < formatters.length; i++) {
+						b[i].setLength(0);
+						formatters[i].computeDirections(route, heading, b[i]);
+						characters.add(b[i].length());
+					}
+				}
+			} catch (Throwable t) {
+				failure.compareAndSet(null, t);
+				b = null;
+			}
+
+			if (ordered) {
+				CharSequence[] copies = null;
+				if (b != null) {
+					copies = new CharSequence[b.length];
+					for (int i = 0; i < b.length; i++) {
+						copies[i] = b[i].toString();
+					}
+				}
+				pending.put(index, new Result(route, copies));
+				deliverPending();
+			} else {
+				if (b != null) {
+					deliver(index, route, b);
+				}
+				permits.release();
+			}
+			completed.increment();
+		}
+
+		private void deliverPending() {
+			synchronized (sinkLock) {
+				Result result;
+				while ((result = pending.remove(next)) != null) {
+					if (result.directions != null) {
+						deliver(next, result.route, result.directions);
+					}
+					next++;
+					permits.release();
+				}
+			}
+		}
+
+		private void deliver(long index, Route route, CharSequence[] directions) {
+			synchronized (sinkLock) {
+				if (failure.get() != null) {
+					return;
+				}
+				try {
+					sink.accept(index, route, directions);
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The directions of a route, waiting to be delivered in order. Null
+	 * directions mark a route whose processing failed.
+	 */
+	private static class Result {
+		final Route route;
+		final CharSequence[] directions;
+
+		Result(Route route, CharSequence[] directions) {
+			this.route = route;
+			this.directions = directions;
+		}
+	}
+}
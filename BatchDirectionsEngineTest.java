@@ -0,0 +1,275 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BatchDirectionsEngineTest {
+
+	private List<Route> mRoutes;
+	private List<RouteFormatter> mFormatters;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public BatchDirectionsEngineTest() {
+		GeoSegment[] grid = SyntheticNetworks.grid(5000, 13);
+		mRoutes = new ArrayList<Route>();
+		for (int i = 0; i < 300; i++) {
+			List<GeoSegment> walk = SyntheticNetworks.randomWalk(grid, 1 + i % 37, i);
+			mRoutes.add(new Route(walk.get(0)).addSegments(walk.subList(1, walk.size())));
+		}
+		mFormatters = Arrays.asList(new WalkingRouteFormatter(), new DrivingRouteFormatter());
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	/**
+	 * A RecordingSink keeps copies of the directions it receives, and
+	 * notes whether it was ever called concurrently or with a route twice.
+	 */
+	private class RecordingSink implements BatchDirectionsEngine.DirectionsSink {
+		final String[][] received = new String[mRoutes.size()][];
+		final List<Long> order = new ArrayList<Long>();
+		final AtomicInteger inside = new AtomicInteger();
+		volatile boolean concurrent = false;
+		volatile boolean mismatched = false;
+
+		public void accept(long index, Route route, CharSequence[] directions) throws IOException {
+			if (inside.incrementAndGet() != 1)
+				concurrent = true;
+			String[] copies = new String[directions.length];
+			for (int i = 0; i < directions.length; i++)
+				copies[i] = directions[i].toString();
+			if (received[(int) index] != null || route != mRoutes.get((int) index))
+				mismatched = true;
+			received[(int) index] = copies;
+			order.add(index);
+			inside.decrementAndGet();
+		}
+
+		boolean correct() {
+			if (mismatched)
+				return false;
+			for (int r = 0; r < received.length; r++) {
+				if (received[r] == null)
+					return false;
+				for (int f = 0; f < mFormatters.size(); f++) {
+					if (!received[r][f].equals(mFormatters.get(f).computeDirections(mRoutes.get(r), 30)))
+						return false;
+				}
+			}
+			return true;
+		}
+
+		boolean inOrder() {
+			for (int i = 0; i < order.size(); i++) {
+				if (order.get(i) != i)
+					return false;
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * A FailingFormatter fails on the failAt-th line it writes.
+	 */
+	private static class FailingFormatter extends RouteFormatter {
+		private final AtomicInteger lines = new AtomicInteger();
+		private final int failAt;
+
+		FailingFormatter(int failAt) {
+			this.failAt = failAt;
+		}
+
+		protected void appendLine(TurnType turn, String name, double length, Appendable out)
+				throws IOException {
+			if (lines.incrementAndGet() == failAt)
+				throw new IllegalStateException("formatter failure");
+			out.append(name).append('\n');
+		}
+	}
+
+
+	/**
+	 * @return an Iterator over the routes that counts how many were taken.
+	 */
+	private Iterator<Route> counting(AtomicInteger taken) {
+		Iterator<Route> it = mRoutes.iterator();
+		return new Iterator<Route>() {
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			public Route next() {
+				taken.incrementAndGet();
+				return it.next();
+			}
+		};
+	}
+
+
+	public void testDelivery() throws IOException {
+		show("Ordered");
+		BatchDirectionsEngine engine = new BatchDirectionsEngine(mFormatters, 30, 4, 8, true);
+		RecordingSink sink = new RecordingSink();
+		engine.run(mRoutes.iterator(), sink);
+		show("Every route gets the directions of every formatter", sink.correct());
+		show("Routes are delivered in input order", sink.inOrder());
+		show("The sink is never called concurrently", !sink.concurrent);
+		show("Counters add up",
+			engine.getRoutesSubmitted() == mRoutes.size()
+			&& engine.getRoutesCompleted() == mRoutes.size()
+			&& engine.getQueueDepth() == 0
+			&& engine.getThroughput() > 0);
+		long characters = 0;
+		for (Route route : mRoutes) {
+			for (RouteFormatter formatter : mFormatters)
+				characters += formatter.computeDirections(route, 30).length();
+		}
+		show("Characters are counted", engine.getCharactersWritten() == characters);
+		sink = new RecordingSink();
+		engine.run(mRoutes.stream(), sink);
+		show("A second batch from a stream", sink.correct() && sink.inOrder()
+			&& engine.getRoutesCompleted() == 2 * mRoutes.size());
+
+		show("Unordered");
+		engine = new BatchDirectionsEngine(mFormatters, 30, 4, 8, false);
+		sink = new RecordingSink();
+		engine.run(mRoutes.iterator(), sink);
+		show("Every route is delivered once with its directions",
+			sink.correct() && sink.order.size() == mRoutes.size());
+		show("The sink is never called concurrently", !sink.concurrent);
+		engine = new BatchDirectionsEngine(mFormatters, 30, 1, 1, false);
+		sink = new RecordingSink();
+		engine.run(mRoutes.iterator(), sink);
+		show("A single thread delivers in order", sink.correct() && sink.inOrder());
+	}
+
+
+	public void testBackpressure() throws InterruptedException {
+		for (boolean ordered : new boolean[] { true, false }) {
+			show("Backpressure, " + (ordered ? "ordered" : "unordered"));
+			int capacity = 5;
+			BatchDirectionsEngine engine = new BatchDirectionsEngine(mFormatters, 30, 3, capacity, ordered);
+			CountDownLatch blocked = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			AtomicInteger delivered = new AtomicInteger();
+			AtomicInteger taken = new AtomicInteger();
+			AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+			Thread runner = new Thread(() -> {
+				try {
+					engine.run(counting(taken), (index, route, directions) -> {
+						blocked.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							throw new IOException(e);
+						}
+						delivered.incrementAndGet();
+					});
+				} catch (Throwable t) {
+					error.set(t);
+				}
+			});
+			runner.start();
+			blocked.await();
+			Thread.sleep(200);
+			// a route waits on every permit, and one more may have been
+			// taken from the input while waiting for a permit
+			show("A blocked sink stops the input",
+				taken.get() <= capacity + 1 && engine.getQueueDepth() <= capacity);
+			release.countDown();
+			runner.join();
+			show("Everything is delivered once the sink resumes",
+				error.get() == null && delivered.get() == mRoutes.size()
+				&& taken.get() == mRoutes.size());
+		}
+	}
+
+
+	public void testFailures() {
+		for (boolean ordered : new boolean[] { true, false }) {
+			show("Failures, " + (ordered ? "ordered" : "unordered"));
+			BatchDirectionsEngine engine = new BatchDirectionsEngine(mFormatters, 30, 4, 8, ordered);
+			AtomicInteger calls = new AtomicInteger();
+			AtomicInteger taken = new AtomicInteger();
+			IOException thrown = null;
+			try {
+				engine.run(counting(taken), (index, route, directions) -> {
+					if (calls.incrementAndGet() == 10)
+						throw new IOException("sink failure");
+				});
+			} catch (IOException e) {
+				thrown = e;
+			}
+			show("A sink failure is thrown by run()",
+				thrown != null && thrown.getMessage().equals("sink failure"));
+			show("The sink is not called after it fails", calls.get() == 10);
+			show("The input is not read to the end", taken.get() < mRoutes.size());
+
+			engine = new BatchDirectionsEngine(
+				Arrays.<RouteFormatter>asList(new WalkingRouteFormatter(), new FailingFormatter(50)),
+				30, 4, 8, ordered);
+			RuntimeException failure = null;
+			calls.set(0);
+			try {
+				engine.run(mRoutes.iterator(), (index, route, directions) -> calls.incrementAndGet());
+			} catch (RuntimeException e) {
+				failure = e;
+			} catch (IOException e) {
+				failure = null;
+			}
+			show("A formatter failure is thrown by run()",
+				failure instanceof IllegalStateException && failure.getMessage().equals("formatter failure"));
+			show("Later routes are not delivered", calls.get() < mRoutes.size());
+		}
+
+		show("Arguments");
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> new BatchDirectionsEngine(new ArrayList<RouteFormatter>(), 0, 1, 1, true),
+				() -> new BatchDirectionsEngine(mFormatters, 360, 1, 1, true),
+				() -> new BatchDirectionsEngine(mFormatters, 0, 0, 1, true),
+				() -> new BatchDirectionsEngine(mFormatters, 0, 1, 0, true) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		BatchDirectionsEngineTest engineTest = new BatchDirectionsEngineTest();
+		engineTest.testDelivery();
+		engineTest.testBackpressure();
+		engineTest.testFailures();
+		if (engineTest.mFailed)
+			System.exit(1);
+	}
+}
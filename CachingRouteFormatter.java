@@ -0,0 +1,255 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A CachingRouteFormatter produces the same directions as another
+ * RouteFormatter, remembering the lines it has already rendered.
+ * <p>
+ * A line of directions depends only on the geographic feature and on the
+ * turn taken onto it; since RouteFormatter reduces the heading change to a
+ * TurnType, lines are cached under the name and length of the feature
+ * together with the TurnType. These determine the line exactly, so equal
+ * features on different Routes share their cached lines.
+ * <p>
+ * The cache is bounded. Each of its shards is a segmented LRU: new lines
+ * enter a probationary segment and are promoted to a protected segment
+ * when hit again, so a scan over many one-off features cannot flush the
+ * popular ones. Shards are locked independently, and the formatter may be
+ * used from several threads at once if the formatter it wraps may.
+ */
+public class CachingRouteFormatter extends RouteFormatter {
+
+	private static final int SHARDS = 16;
+
+	// Fraction of each shard reserved for lines hit at least twice.
+	private static final double PROTECTED_RATIO = 0.8;
+
+	private final RouteFormatter delegate;
+	private final int capacity;
+	private final Shard[] shards;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	// Abs. Function: the formatter delegate, with a cache mapping (turn, name, length)
+	// to the line delegate renders for them.
+	// Rep. Invariant: delegate != null && capacity > 0 && shards.length is a power
+	// of two no greater than SHARDS or capacity && the capacities of the shards
+	// add up to capacity && for each shard : probation.size() + protect.size() <= its capacity
+
+	/**
+	 * Constructs a new CachingRouteFormatter.
+	 *
+	 * @requires delegate != null && capacity > 0
+	 * @effects Constructs a new CachingRouteFormatter producing the
+	 *          directions of delegate, caching at most capacity lines.
+	 */
+	public CachingRouteFormatter(RouteFormatter delegate, int capacity) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("Delegate cannot be null");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.delegate = delegate;
+		this.capacity = capacity;
+		// Small caches get fewer shards, so that each holds at least one line
+		// and their capacities add up to exactly capacity.
+		shards = new Shard[Math.min(SHARDS, Integer.highestOneBit(capacity))];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard(capacity / shards.length + (i < capacity % shards.length ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Writes a single line of directions, as the wrapped formatter would.
+	 * @param turn the turn taken onto the geographical feature.
+	 * @param name the name of the geographical feature.
+	 * @param length the length of the geographical feature, in kilometers.
+	 * @param out the sink to write the line to.
+	 * @effects appends to out the line delegate renders for turn, name and
+	 *          length, taken from the cache if possible.
+	 */
+	protected void appendLine(TurnType turn, String name, double length, Appendable out)
+			throws IOException {
+		Key key = new Key(turn, name, length);
+		Shard shard = shards[(key.hash ^ (key.hash >>> 16)) & (shards.length - 1)];
+		String line = shard.get(key);
+		if (line != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			StringBuilder sb = new StringBuilder();
+			delegate.appendLine(turn, name, length, sb);
+			line = sb.toString();
+			shard.put(key, line);
+		}
+		out.append(line);
+	}
+
+	/**
+	 * Returns the formatter whose lines are cached.
+	 *
+	 * @return the wrapped formatter.
+	 */
+	public RouteFormatter getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Returns the capacity of the cache.
+	 *
+	 * @return the number of lines this cache was sized for.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of cached lines.
+	 *
+	 * @return the number of lines currently cached.
+	 */
+	public int getSize() {
+		int size = 0;
+		for (Shard shard : shards) {
+			size += shard.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of cache hits.
+	 *
+	 * @return the number of lines served from the cache.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of cache misses.
+	 *
+	 * @return the number of lines rendered by the wrapped formatter.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of evictions.
+	 *
+	 * @return the number of lines dropped from the cache to make room.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the hit rate of the cache.
+	 *
+	 * @return getHitCount() / (getHitCount() + getMissCount()), or 0 if no
+	 *         line was requested.
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	/**
+	 * The key of a cached line.
+	 */
+	private static class Key {
+		final TurnType turn;
+		final String name;
+		final long lengthBits;
+		final int hash;
+
+		Key(TurnType turn, String name, double length) {
+			this.turn = turn;
+			this.name = name;
+			this.lengthBits = Double.doubleToLongBits(length);
+			this.hash = (name.hashCode() * 31 + Long.hashCode(lengthBits)) * 31 + turn.ordinal();
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return turn == other.turn && lengthBits == other.lengthBits && name.equals(other.name);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * A segmented LRU cache of lines, guarded by its own lock.
+	 */
+	private class Shard {
+		private final int probationCapacity;
+		private final int protectedCapacity;
+		// Both maps iterate from least to most recently used.
+		private final LinkedHashMap<Key, String> probation = new LinkedHashMap<Key, String>(16, 0.75f, true);
+		private final LinkedHashMap<Key, String> protect = new LinkedHashMap<Key, String>(16, 0.75f, true);
+
+		Shard(int capacity) {
+			protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+			probationCapacity = Math.max(1, capacity - protectedCapacity);
+		}
+
+		synchronized String get(Key key) {
+			String line = protect.get(key);
+			if (line != null) {
+				return line;
+			}
+			line = probation.remove(key);
+			if (line != null && protectedCapacity > 0) {
+				// A second hit: promote, demoting the coldest protected line.
+				if (protect.size() >= protectedCapacity) {
+					Map.Entry<Key, String> coldest = removeEldest(protect);
+					insertProbation(coldest.getKey(), coldest.getValue());
+				}
+				protect.put(key, line);
+			} else if (line != null) {
+				probation.put(key, line);
+			}
+			return line;
+		}
+
+		synchronized void put(Key key, String line) {
+			if (protect.containsKey(key) || probation.containsKey(key)) {
+				return; // rendered concurrently by another thread
+			}
+			insertProbation(key, line);
+		}
+
+		synchronized int size() {
+			return probation.size() + protect.size();
+		}
+
+		private void insertProbation(Key key, String line) {
+			if (probation.size() >= probationCapacity) {
+				removeEldest(probation);
+				evictions.increment();
+			}
+			probation.put(key, line);
+		}
+
+		private Map.Entry<Key, String> removeEldest(LinkedHashMap<Key, String> map) {
+			Iterator<Map.Entry<Key, String>> it = map.entrySet().iterator();
+			Map.Entry<Key, String> eldest = it.next();
+			Map.Entry<Key, String> copy = Map.entry(eldest.getKey(), eldest.getValue());
+			it.remove();
+			return copy;
+		}
+	}
+}
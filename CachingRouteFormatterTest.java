@@ -0,0 +1,205 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.List;
+
+public class CachingRouteFormatterTest {
+
+	private Route mTechnionRoute;
+	private Route mLongRoute;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public CachingRouteFormatterTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		mTechnionRoute = new Route(segments[0]);
+		for (int i : new int[] { 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnionRoute = mTechnionRoute.addSegment(segments[i]);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 5), 5000, 5);
+		mLongRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	/**
+	 * A CountingFormatter writes the fields of each line and counts the lines
+	 * it writes.
+	 */
+	private static class CountingFormatter extends RouteFormatter {
+		int lines = 0;
+
+		protected void appendLine(TurnType turn, String name, double length, Appendable out)
+				throws IOException {
+			lines++;
+			out.append(turn.toString()).append(' ').append(name).append(' ')
+				.append(Double.toString(length)).append('\n');
+		}
+	}
+
+
+	private static String line(RouteFormatter formatter, String name) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			formatter.appendLine(TurnType.LEFT, name, 1, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException("StringBuilder cannot fail", e);
+		}
+		return sb.toString();
+	}
+
+
+	public void testDirections() {
+		show("Directions");
+		boolean same = true;
+		for (RouteFormatter formatter : new RouteFormatter[] {
+				new WalkingRouteFormatter(), new DrivingRouteFormatter() }) {
+			for (int capacity : new int[] { 1, 64, 100000 }) {
+				CachingRouteFormatter cached = new CachingRouteFormatter(formatter, capacity);
+				for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+					for (double heading : new double[] { 0, 123.5, 359.9 }) {
+						String expected = formatter.computeDirections(route, heading);
+						if (!cached.computeDirections(route, heading).equals(expected)
+								|| !cached.computeDirections(route, heading).equals(expected)
+								|| !cached.computeDirectionsParallel(route, heading).equals(expected))
+							same = false;
+					}
+				}
+			}
+		}
+		show("Match the uncached formatter at every capacity", same);
+
+		CachingRouteFormatter cached = new CachingRouteFormatter(new DrivingRouteFormatter(), 1000);
+		cached.computeDirections(mTechnionRoute, 0);
+		long misses = cached.getMissCount();
+		cached.computeDirections(mTechnionRoute, 0);
+		show("Repeated directions are served from the cache",
+			cached.getMissCount() == misses
+			&& cached.getHitCount() == mTechnionRoute.geoFeatures.size()
+			&& cached.getHitRate() == 0.5);
+	}
+
+
+	public void testHits() {
+		show("Hits");
+		CountingFormatter delegate = new CountingFormatter();
+		CachingRouteFormatter cached = new CachingRouteFormatter(delegate, 100);
+		show("A new cache has no hit rate", cached.getHitRate() == 0 && cached.getSize() == 0);
+		String first = line(cached, "Hankin Road");
+		String second = line(cached, "Hankin Road");
+		show("A line is rendered by the delegate once",
+			first.equals(line(delegate, "Hankin Road")) && second.equals(first) && delegate.lines == 2);
+		show("Hits and misses are counted",
+			cached.getHitCount() == 1 && cached.getMissCount() == 1 && cached.getSize() == 1);
+		StringBuilder sb = new StringBuilder();
+		boolean distinct = true;
+		try {
+			cached.appendLine(TurnType.RIGHT, "Hankin Road", 1, sb);
+			cached.appendLine(TurnType.LEFT, "Hankin Road", 1.5, sb);
+			cached.appendLine(TurnType.LEFT, "Hanita", 1, sb);
+		} catch (IOException e) {
+			distinct = false;
+		}
+		show("Turn, name and length are all part of the key",
+			distinct && cached.getMissCount() == 4 && sb.toString().equals(
+				"RIGHT Hankin Road 1.0\nLEFT Hankin Road 1.5\nLEFT Hanita 1.0\n"));
+		show("The delegate is kept", cached.getDelegate() == delegate && cached.getCapacity() == 100);
+	}
+
+
+	public void testEviction() {
+		show("Eviction");
+		CountingFormatter delegate = new CountingFormatter();
+		CachingRouteFormatter cached = new CachingRouteFormatter(delegate, 1);
+		line(cached, "a");
+		line(cached, "b");
+		line(cached, "b");
+		line(cached, "a");
+		show("A single line cache keeps the last line",
+			cached.getSize() == 1 && cached.getHitCount() == 1 && cached.getMissCount() == 3
+			&& cached.getEvictionCount() == 2);
+
+		// 100 lines a shard: 80 protected and 20 on probation
+		cached = new CachingRouteFormatter(delegate, 1600);
+		for (int i = 0; i < 5000; i++)
+			line(cached, "scan " + i);
+		long misses = cached.getMissCount();
+		for (int i = 4980; i < 5000; i++)
+			line(cached, "scan " + i);
+		show("The most recent lines stay", cached.getMissCount() == misses);
+		for (int i = 0; i < 20; i++)
+			line(cached, "scan " + i);
+		show("The oldest lines are evicted", cached.getMissCount() == misses + 20);
+
+		for (int i = 0; i < 200; i++) {
+			line(cached, "popular " + i);
+			line(cached, "popular " + i);
+		}
+		for (int i = 5000; i < 15000; i++)
+			line(cached, "scan " + i);
+		misses = cached.getMissCount();
+		for (int i = 0; i < 200; i++)
+			line(cached, "popular " + i);
+		show("A scan does not flush lines hit twice", cached.getMissCount() == misses);
+	}
+
+
+	public void testCapacity() {
+		show("Capacity");
+		boolean bounded = true;
+		boolean full = true;
+		for (int capacity : new int[] { 1, 2, 3, 15, 16, 17, 31, 100, 1000 }) {
+			CachingRouteFormatter cached = new CachingRouteFormatter(new CountingFormatter(), capacity);
+			for (int i = 0; i < 20000; i++) {
+				line(cached, "line " + i);
+				line(cached, "line " + i);
+				if (cached.getSize() > capacity)
+					bounded = false;
+			}
+			if (cached.getSize() != capacity)
+				full = false;
+		}
+		show("The cache never holds more than its capacity", bounded);
+		show("A full cache holds exactly its capacity", full);
+
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> new CachingRouteFormatter(null, 10),
+				() -> new CachingRouteFormatter(new WalkingRouteFormatter(), 0),
+				() -> new CachingRouteFormatter(new WalkingRouteFormatter(), -1) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+	}
+
+
+	public static void main(String[] args) {
+		CachingRouteFormatterTest cacheTest = new CachingRouteFormatterTest();
+		cacheTest.testDirections();
+		cacheTest.testHits();
+		cacheTest.testEviction();
+		cacheTest.testCapacity();
+		if (cacheTest.mFailed)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,267 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A CompactRoadGraph is a RoadGraph held in Java arrays, built from
+ * GeoSegments.
+ * <p>
+ * The coordinates of the nodes are in two int columns, and the edges
+ * leaving each node are consecutive in the int column of their targets and
+ * the float columns of their lengths and headings, with a street name id per
+ * edge. A node takes 12 bytes and an edge 16, plus the distinct names, where
+ * a GeoSegment alone takes 40 and each GeoPoint 24; and graph searches scan
+ * the arrays sequentially instead of chasing references.
+ * <p>
+ * Among the edges leaving a node, the edges are numbered in the order of the
+ * segments they come from, and names are numbered in order of first
+ * appearance.
+ */
+public class CompactRoadGraph extends RoadGraph {
+
+	// node v is (latitude[v], longitude[v])
+	private final int[] latitude;
+	private final int[] longitude;
+	// the edges leaving node v are firstEdge[v] .. firstEdge[v+1]-1
+	private final int[] firstEdge;
+	private final int[] target;
+	private final float[] length;
+	private final float[] heading;
+	private final int[] nameId;
+	private final String[] names;
+
+	// Abs. Function: nodes[v] = (latitude[v], longitude[v]); edges[e] is the
+	// GeoSegment named names[nameId[e]] from nodes[source] to
+	// nodes[target[e]], where firstEdge[source] <= e < firstEdge[source+1],
+	// of length length[e] and heading heading[e].
+	// Rep. Invariant: latitude.length == longitude.length &&
+	// firstEdge.length == latitude.length + 1 && firstEdge[0] == 0 &&
+	// firstEdge is non-decreasing && firstEdge[latitude.length] == target.length &&
+	// length, heading and nameId have the length of target &&
+	// the nodes are strictly increasing by (latitude, longitude) &&
+	// 0 <= target[e] < latitude.length && 0 <= nameId[e] < names.length
+
+	/**
+	 * Constructs a new CompactRoadGraph.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @effects Constructs a new CompactRoadGraph whose edges are the elements
+	 *          of segments.
+	 */
+	public CompactRoadGraph(Iterable<GeoSegment> segments) {
+		if (segments == null) {
+			throw new IllegalArgumentException("Segments cannot be null");
+		}
+		// the only sequential passes: reading the input and numbering names
+		List<GeoSegment> input = new ArrayList<GeoSegment>();
+		Map<String, Integer> nameIds = new HashMap<String, Integer>();
+		List<String> nameList = new ArrayList<String>();
+		for (GeoSegment gs : segments) {
+			if (gs == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			input.add(gs);
+		}
+		int m = input.size();
+		int[] inputName = new int[m];
+		String lastName = null;
+		int lastId = -1;
+		for (int e = 0; e < m; e++) {
+			String name = input.get(e).name;
+			// the segments of a street usually share their name
+			if (name != lastName) {
+				Integer id = nameIds.get(name);
+				if (id == null) {
+					id = nameList.size();
+					nameIds.put(name, id);
+					nameList.add(name);
+				}
+				lastName = name;
+				lastId = id;
+			}
+			inputName[e] = lastId;
+		}
+		names = nameList.toArray(new String[0]);
+
+		// sort the endpoints, and number them by scanning for distinct keys
+		long[] endpoints = new long[2 * m];
+		IntStream.range(0, m).parallel().forEach(e -> {
+			GeoSegment gs = input.get(e);
+			endpoints[2 * e] = key(gs.p1.latitude, gs.p1.longitude);
+			endpoints[2 * e + 1] = key(gs.p2.latitude, gs.p2.longitude);
+		});
+		long[] sorted = endpoints.clone();
+		Arrays.parallelSort(sorted);
+		// rank[i] - 1 is the id of the node sorted[i]
+		int[] rank = new int[sorted.length];
+		IntStream.range(0, sorted.length).parallel()
+				.forEach(i -> rank[i] = i == 0 || sorted[i] != sorted[i - 1] ? 1 : 0);
+		Arrays.parallelPrefix(rank, Integer::sum);
+		int n = rank.length == 0 ? 0 : rank[rank.length - 1];
+		latitude = new int[n];
+		longitude = new int[n];
+		IntStream.range(0, sorted.length).parallel().forEach(i -> {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				latitude[rank[i] - 1] = latitude(sorted[i]);
+				longitude[rank[i] - 1] = longitude(sorted[i]);
+			}
+		});
+
+		// sort the edges by source, keeping the input order among equals
+		int[] inputTarget = new int[m];
+		long[] order = new long[m];
+		IntStream.range(0, m).parallel().forEach(e -> {
+			int source = rank[Arrays.binarySearch(sorted, endpoints[2 * e])] - 1;
+			inputTarget[e] = rank[Arrays.binarySearch(sorted, endpoints[2 * e + 1])] - 1;
+			order[e] = ((long) source << 32) | e;
+		});
+		Arrays.parallelSort(order);
+
+		target = new int[m];
+		length = new float[m];
+		heading = new float[m];
+		nameId = new int[m];
+		firstEdge = new int[n + 1];
+		IntStream.range(0, m).parallel().forEach(i -> {
+			int e = (int) order[i];
+			GeoSegment gs = input.get(e);
+			target[i] = inputTarget[e];
+			length[i] = (float) gs.length;
+			heading[i] = (float) gs.heading;
+			nameId[i] = inputName[e];
+			// edge i is the first of its source, and of the nodes between
+			// the previous source and it, which have no edges
+			int source = (int) (order[i] >>> 32);
+			int previous = i == 0 ? -1 : (int) (order[i - 1] >>> 32);
+			for (int v = previous + 1; v <= source; v++) {
+				firstEdge[v] = i;
+			}
+		});
+		int last = m == 0 ? -1 : (int) (order[m - 1] >>> 32);
+		for (int v = last + 1; v <= n; v++) {
+			firstEdge[v] = m;
+		}
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (latitude.length == longitude.length && firstEdge.length == latitude.length + 1);
+		assert (firstEdge[0] == 0 && firstEdge[latitude.length] == target.length);
+		assert (length.length == target.length && heading.length == target.length
+				&& nameId.length == target.length);
+	}
+
+	/**
+	 * Returns the number of nodes in this graph.
+	 *
+	 * @return the length of nodes.
+	 */
+	public int getNodeCount() {
+		return latitude.length;
+	}
+
+	/**
+	 * Returns the number of edges in this graph.
+	 *
+	 * @return the length of edges.
+	 */
+	public int getEdgeCount() {
+		return target.length;
+	}
+
+	/**
+	 * Returns the number of distinct street names in this graph.
+	 *
+	 * @return the length of names.
+	 */
+	public int getNameCount() {
+		return names.length;
+	}
+
+	/**
+	 * Returns the latitude of a node.
+	 *
+	 * @requires 0 <= v < getNodeCount()
+	 * @return the latitude of nodes[v], in millionths of degrees.
+	 */
+	public int getLatitude(int v) {
+		return latitude[v];
+	}
+
+	/**
+	 * Returns the longitude of a node.
+	 *
+	 * @requires 0 <= v < getNodeCount()
+	 * @return the longitude of nodes[v], in millionths of degrees.
+	 */
+	public int getLongitude(int v) {
+		return longitude[v];
+	}
+
+	/**
+	 * Returns the first edge leaving a node. The edges leaving node v are
+	 * getFirstEdge(v) .. getFirstEdge(v + 1) - 1.
+	 *
+	 * @requires 0 <= v <= getNodeCount()
+	 * @return the id of the first edge leaving nodes[v], or getEdgeCount() if
+	 *         v = getNodeCount().
+	 */
+	public int getFirstEdge(int v) {
+		return firstEdge[v];
+	}
+
+	/**
+	 * Returns the target of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the id of the node edges[e] leads to.
+	 */
+	public int getTarget(int e) {
+		return target[e];
+	}
+
+	/**
+	 * Returns the length of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the length of edges[e], in kilometers.
+	 */
+	public float getLength(int e) {
+		return length[e];
+	}
+
+	/**
+	 * Returns the heading of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the heading of edges[e], in degrees.
+	 */
+	public float getHeading(int e) {
+		return heading[e];
+	}
+
+	/**
+	 * Returns the name id of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the id of the name of edges[e].
+	 */
+	public int getNameId(int e) {
+		return nameId[e];
+	}
+
+	/**
+	 * Returns a street name.
+	 *
+	 * @requires 0 <= id < getNameCount()
+	 * @return names[id].
+	 */
+	public String getName(int id) {
+		return names[id];
+	}
+}
@@ -0,0 +1,173 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CompactRoadGraphTest {
+
+	private List<GeoSegment> mTechnion;
+	private List<GeoSegment> mSynthetic;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public CompactRoadGraphTest() {
+		mTechnion = twoWay(ExampleGeoSegments.segments);
+		mSynthetic = twoWay(SyntheticNetworks.randomPlanar(100000, 7));
+	}
+
+
+	private static List<GeoSegment> twoWay(GeoSegment[] segments) {
+		List<GeoSegment> list = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : segments) {
+			list.add(gs);
+			list.add(gs.reverse());
+		}
+		return list;
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	// Whether the edges of graph are exactly the segments, counting duplicates.
+	private boolean sameEdges(CompactRoadGraph graph, List<GeoSegment> segments) {
+		if (graph.getEdgeCount() != segments.size())
+			return false;
+		Map<GeoSegment, Integer> count = new HashMap<GeoSegment, Integer>();
+		for (GeoSegment gs : segments)
+			count.merge(gs, 1, Integer::sum);
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			Integer c = count.get(graph.getEdge(e));
+			if (c == null || c == 0)
+				return false;
+			count.put(graph.getEdge(e), c - 1);
+		}
+		return true;
+	}
+
+
+	// Whether every edge has the length, heading and name of its segment.
+	private boolean sameAttributes(CompactRoadGraph graph) {
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			GeoSegment gs = graph.getEdge(e);
+			if (Math.abs(graph.getLength(e) - gs.getLength()) > 1e-6 * Math.max(1, gs.getLength())
+					|| Math.abs(graph.getHeading(e) - gs.getHeading()) > 1e-4
+					|| !graph.getName(graph.getNameId(e)).equals(gs.getName()))
+				return false;
+		}
+		return true;
+	}
+
+
+	// Whether the nodes are sorted and the edges grouped by source.
+	private boolean wellOrdered(CompactRoadGraph graph) {
+		for (int v = 0; v + 1 < graph.getNodeCount(); v++) {
+			if (graph.getLatitude(v) > graph.getLatitude(v + 1)
+					|| graph.getLatitude(v) == graph.getLatitude(v + 1)
+						&& graph.getLongitude(v) >= graph.getLongitude(v + 1))
+				return false;
+		}
+		for (int v = 0; v < graph.getNodeCount(); v++) {
+			if (graph.getFirstEdge(v) > graph.getFirstEdge(v + 1))
+				return false;
+			for (int e = graph.getFirstEdge(v); e < graph.getFirstEdge(v + 1); e++) {
+				if (graph.getSource(e) != v || !graph.getEdge(e).getP1().equals(graph.getNode(v)))
+					return false;
+			}
+		}
+		return graph.getFirstEdge(graph.getNodeCount()) == graph.getEdgeCount();
+	}
+
+
+	private boolean findsNodes(CompactRoadGraph graph, List<GeoSegment> segments) {
+		for (GeoSegment gs : segments) {
+			int v = graph.getNodeId(gs.getP1());
+			if (v < 0 || !graph.getNode(v).equals(gs.getP1()))
+				return false;
+		}
+		return true;
+	}
+
+
+	private boolean sameGraph(CompactRoadGraph a, CompactRoadGraph b) {
+		if (a.getNodeCount() != b.getNodeCount() || a.getEdgeCount() != b.getEdgeCount()
+				|| a.getNameCount() != b.getNameCount())
+			return false;
+		for (int e = 0; e < a.getEdgeCount(); e++) {
+			if (a.getTarget(e) != b.getTarget(e) || a.getNameId(e) != b.getNameId(e)
+					|| a.getLength(e) != b.getLength(e))
+				return false;
+		}
+		return true;
+	}
+
+
+	public void test() {
+		show("Technion network");
+		CompactRoadGraph technion = new CompactRoadGraph(mTechnion);
+		RoadNetwork network = new RoadNetwork(mTechnion);
+		show("Same number of nodes as RoadNetwork", technion.getNodeCount() == network.getNodeCount());
+		show("Edges are the segments", sameEdges(technion, mTechnion));
+		show("Edges keep length, heading and name", sameAttributes(technion));
+		show("Nodes are sorted and edges grouped by source", wellOrdered(technion));
+		show("Every endpoint is found", findsNodes(technion, mTechnion));
+		show("Unknown point is not found", technion.getNodeId(new GeoPoint(0, 0)) == -1);
+		Set<String> names = new HashSet<String>();
+		for (GeoSegment gs : mTechnion)
+			names.add(gs.getName());
+		show("Names are distinct", technion.getNameCount() == names.size());
+		show("Names are numbered in order of appearance",
+			technion.getName(0).equals(mTechnion.get(0).getName()));
+
+		show("Synthetic network");
+		CompactRoadGraph synthetic = new CompactRoadGraph(mSynthetic);
+		show("Edges are the segments", sameEdges(synthetic, mSynthetic));
+		show("Edges keep length, heading and name", sameAttributes(synthetic));
+		show("Nodes are sorted and edges grouped by source", wellOrdered(synthetic));
+		show("Every endpoint is found", findsNodes(synthetic, mSynthetic));
+		show("Building is deterministic", sameGraph(synthetic, new CompactRoadGraph(mSynthetic)));
+
+		show("Edge cases");
+		CompactRoadGraph empty = new CompactRoadGraph(new ArrayList<GeoSegment>());
+		show("Empty graph", empty.getNodeCount() == 0 && empty.getEdgeCount() == 0
+			&& empty.getFirstEdge(0) == 0 && empty.getNodeId(new GeoPoint(0, 0)) == -1);
+		GeoSegment west = new GeoSegment("West", new GeoPoint(-1000000, -2000000), new GeoPoint(-1000000, 2000000));
+		CompactRoadGraph signs = new CompactRoadGraph(Arrays.asList(west, west.reverse(), west));
+		show("Negative coordinates and duplicate edges", signs.getNodeCount() == 2 && signs.getEdgeCount() == 3
+			&& signs.getLongitude(0) == -2000000 && sameEdges(signs, Arrays.asList(west, west.reverse(), west)));
+		boolean rejected = false;
+		try {
+			new CompactRoadGraph(Arrays.asList(west, null));
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("Null segment is rejected", rejected);
+	}
+
+
+	public static void main(String[] args) {
+		CompactRoadGraphTest graphTest = new CompactRoadGraphTest();
+		graphTest.test();
+		if (graphTest.mFailed)
+			System.exit(1);
+	}
+}
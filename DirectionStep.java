@@ -0,0 +1,148 @@
+package homework1;
+
+/**
+ * A DirectionStep is the structured form of one line of directions: the
+ * instructions for traversing a single geographic feature of a Route.
+ * DirectionSteps are immutable.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   turn : TurnType        // the turn taken onto the geographic feature
+ *   nameId : int           // the id of the name of the feature in its DirectionSteps
+ *   distance : real        // the length of the feature, in kilometers
+ *   duration : real        // the time it takes to traverse the feature, in minutes
+ *   startSegment : int     // index in the route of the first segment of the feature
+ *   endSegment : int       // index in the route just past its last segment
+ * </pre>
+ **/
+public class DirectionStep {
+	final TurnType turn;
+	final int nameId;
+	final double distance;
+	final double duration;
+	final int startSegment;
+	final int endSegment;
+
+	// Abs. Function: a step as described by the specification fields.
+	// Rep. Invariant: turn != null && nameId >= 0 && distance >= 0 &&
+	// duration >= 0 && 0 <= startSegment < endSegment
+
+	/**
+	 * Constructs a new DirectionStep.
+	 *
+	 * @requires turn != null && nameId >= 0 && distance >= 0 &&
+	 *           duration >= 0 && 0 <= startSegment < endSegment
+	 * @effects Constructs a new DirectionStep with the given fields.
+	 */
+	public DirectionStep(TurnType turn, int nameId, double distance, double duration,
+			int startSegment, int endSegment) {
+		if (turn == null) {
+			throw new IllegalArgumentException("TurnType cannot be null");
+		}
+		if (nameId < 0 || !(distance >= 0) || !(duration >= 0)
+				|| startSegment < 0 || endSegment <= startSegment) {
+			throw new IllegalArgumentException("Invalid step");
+		}
+		this.turn = turn;
+		this.nameId = nameId;
+		this.distance = distance;
+		this.duration = duration;
+		this.startSegment = startSegment;
+		this.endSegment = endSegment;
+	}
+
+	/**
+	 * Returns the turn taken onto the geographic feature.
+	 *
+	 * @return the turn taken onto the geographic feature.
+	 */
+	public TurnType getTurn() {
+		return turn;
+	}
+
+	/**
+	 * Returns the id of the name of the geographic feature.
+	 *
+	 * @return the id of the name of the geographic feature, as given by
+	 *         the DirectionSteps this step belongs to.
+	 */
+	public int getNameId() {
+		return nameId;
+	}
+
+	/**
+	 * Returns the length of the geographic feature.
+	 *
+	 * @return the length of the geographic feature, in kilometers.
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the time it takes to traverse the geographic feature.
+	 *
+	 * @return the time it takes to traverse the geographic feature, in
+	 *         minutes.
+	 */
+	public double getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Returns the index of the first segment of this step.
+	 *
+	 * @return the index, among the GeoSegments of the route, of the first
+	 *         segment of the geographic feature.
+	 */
+	public int getStartSegment() {
+		return startSegment;
+	}
+
+	/**
+	 * Returns the index just past the last segment of this step.
+	 *
+	 * @return the index, among the GeoSegments of the route, following the
+	 *         last segment of the geographic feature.
+	 */
+	public int getEndSegment() {
+		return endSegment;
+	}
+
+	/**
+	 * Compares the specified Object with this DirectionStep for equality.
+	 *
+	 * @return o != null && (o instanceof DirectionStep) && all the fields
+	 *         of o and this are equal.
+	 **/
+	public boolean equals(Object o) {
+		if (!(o instanceof DirectionStep)) {
+			return false;
+		}
+		DirectionStep other = (DirectionStep) o;
+		return turn == other.turn && nameId == other.nameId
+				&& Double.compare(distance, other.distance) == 0
+				&& Double.compare(duration, other.duration) == 0
+				&& startSegment == other.startSegment && endSegment == other.endSegment;
+	}
+
+	/**
+	 * Returns a hash code value for this DirectionStep.
+	 *
+	 * @return a hash code value for this DirectionStep.
+	 **/
+	public int hashCode() {
+		return ((turn.ordinal() * 31 + nameId) * 31 + startSegment) * 31 + endSegment;
+	}
+
+	/**
+	 * Returns a string representation of this.
+	 *
+	 * @return a string representation of this.
+	 **/
+	public String toString() {
+		return "DirectionStep [turn=" + turn + ", nameId=" + nameId + ", distance=" + distance
+				+ ", duration=" + duration + ", segments=" + startSegment + ".." + endSegment + "]";
+	}
+}
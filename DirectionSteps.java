@@ -0,0 +1,260 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DirectionSteps object is the structured form of the directions for
+ * following a Route: one DirectionStep per geographic feature. DirectionSteps
+ * are immutable.
+ * <p>
+ * Machine consumers can read the steps without building or parsing any
+ * text; a RouteFormatter renders them as text on demand. The steps are
+ * stored in primitive columns (a byte per turn, an int per name id, and so
+ * on), so a route with many steps does not hold one object per step; the
+ * DirectionStep objects are created only when asked for.
+ * <p>
+ * Street names are replaced by ids into a dictionary of the distinct names
+ * of the route, numbered in order of first appearance.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   steps : sequence       // the DirectionSteps, one per geographic feature
+ *   names : sequence       // the distinct street names, indexed by name id
+ *   mode : TravelMode      // the mode the durations are computed for
+ * </pre>
+ **/
+public class DirectionSteps {
+	private static final TurnType[] TURN_TYPES = TurnType.values();
+
+	final byte[] turns;
+	final int[] nameIds;
+	final double[] distances;
+	final double[] durations;
+	final int[] segmentStarts;
+	final String[] names;
+	final TravelMode mode;
+
+	// Abs. Function: steps[i] = new DirectionStep(TURN_TYPES[turns[i]], nameIds[i],
+	// distances[i], durations[i], segmentStarts[i], segmentStarts[i+1]).
+	// Rep. Invariant: turns, nameIds, distances and durations have the same length n &&
+	// segmentStarts.length == n + 1 && segmentStarts[0] == 0 && segmentStarts is
+	// increasing && for each i : 0 <= nameIds[i] < names.length && mode != null
+
+	private DirectionSteps(byte[] turns, int[] nameIds, double[] distances, double[] durations,
+			int[] segmentStarts, String[] names, TravelMode mode) {
+		this.turns = turns;
+		this.nameIds = nameIds;
+		this.distances = distances;
+		this.durations = durations;
+		this.segmentStarts = segmentStarts;
+		this.names = names;
+		this.mode = mode;
+		checkRep();
+	}
+
+	void checkRep() {
+		int n = turns.length;
+		assert (nameIds.length == n && distances.length == n && durations.length == n);
+		assert (segmentStarts.length == n + 1 && segmentStarts[0] == 0 && mode != null);
+		for (int i = 0; i < n; i++) {
+			assert (segmentStarts[i] < segmentStarts[i + 1]);
+			assert (nameIds[i] >= 0 && nameIds[i] < names.length);
+		}
+	}
+
+	/**
+	 * Computes the steps for following a Route.
+	 *
+	 * @requires route != null && mode != null && 0 <= heading < 360
+	 * @return the DirectionSteps for following route, starting at its start
+	 *         point and facing in heading, with durations for traveling
+	 *         in mode. The i-th step corresponds to the i-th GeoFeature of
+	 *         route and to the i-th line of its textual directions.
+	 */
+	public static DirectionSteps compute(Route route, double heading, TravelMode mode) {
+		if (route == null || mode == null) {
+			throw new IllegalArgumentException("Route and mode must not be null");
+		}
+		if (heading < 0 || heading >= 360) {
+			throw new IllegalArgumentException("heading must be between 0 and 360");
+		}
+		int n = route.geoFeatures.size();
+		byte[] turns = new byte[n];
+		int[] nameIds = new int[n];
+		double[] distances = new double[n];
+		double[] durations = new double[n];
+		int[] segmentStarts = new int[n + 1];
+		Map<String, Integer> ids = new HashMap<String, Integer>();
+		List<String> names = new ArrayList<String>();
+
+		int i = 0;
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			GeoFeature gf = it.next();
+			turns[i] = (byte) TurnType.classify(heading, gf.getStartHeading()).ordinal();
+			Integer id = ids.get(gf.getName());
+			if (id == null) {
+				id = names.size();
+				ids.put(gf.getName(), id);
+				names.add(gf.getName());
+			}
+			nameIds[i] = id;
+			distances[i] = gf.getLength();
+			durations[i] = mode.getMinutes(gf.getLength());
+			segmentStarts[i + 1] = segmentStarts[i] + gf.geoSegments.size();
+			heading = gf.getEndHeading();
+			i++;
+		}
+		return new DirectionSteps(turns, nameIds, distances, durations, segmentStarts,
+				names.toArray(new String[0]), mode);
+	}
+
+	/**
+	 * Returns the number of steps.
+	 *
+	 * @return the number of steps, that is of geographic features.
+	 */
+	public int getStepCount() {
+		return turns.length;
+	}
+
+	/**
+	 * Returns a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return the i-th step.
+	 */
+	public DirectionStep getStep(int i) {
+		return new DirectionStep(TURN_TYPES[turns[i]], nameIds[i], distances[i], durations[i],
+				segmentStarts[i], segmentStarts[i + 1]);
+	}
+
+	/**
+	 * Returns the turn of a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return getStep(i).getTurn().
+	 */
+	public TurnType getTurn(int i) {
+		return TURN_TYPES[turns[i]];
+	}
+
+	/**
+	 * Returns the name id of a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return getStep(i).getNameId().
+	 */
+	public int getNameId(int i) {
+		return nameIds[i];
+	}
+
+	/**
+	 * Returns the distance of a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return getStep(i).getDistance().
+	 */
+	public double getDistance(int i) {
+		return distances[i];
+	}
+
+	/**
+	 * Returns the duration of a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return getStep(i).getDuration().
+	 */
+	public double getDuration(int i) {
+		return durations[i];
+	}
+
+	/**
+	 * Returns the index of the first segment of a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return getStep(i).getStartSegment().
+	 */
+	public int getStartSegment(int i) {
+		return segmentStarts[i];
+	}
+
+	/**
+	 * Returns the index just past the last segment of a step.
+	 *
+	 * @requires 0 <= i < getStepCount()
+	 * @return getStep(i).getEndSegment().
+	 */
+	public int getEndSegment(int i) {
+		return segmentStarts[i + 1];
+	}
+
+	/**
+	 * Returns the number of distinct street names.
+	 *
+	 * @return the number of distinct names of the geographic features.
+	 */
+	public int getNameCount() {
+		return names.length;
+	}
+
+	/**
+	 * Returns a street name.
+	 *
+	 * @requires 0 <= nameId < getNameCount()
+	 * @return the street name whose id is nameId.
+	 */
+	public String getName(int nameId) {
+		return names[nameId];
+	}
+
+	/**
+	 * Returns the travel mode of the durations.
+	 *
+	 * @return the mode the durations of the steps are computed for.
+	 */
+	public TravelMode getTravelMode() {
+		return mode;
+	}
+
+	/**
+	 * Writes these steps as text.
+	 *
+	 * @requires formatter != null && out != null
+	 * @modifies out
+	 * @effects appends to out the directions formatter gives for the route
+	 *          and heading these steps were computed for.
+	 * @throws IOException if out fails.
+	 */
+	public void appendText(RouteFormatter formatter, Appendable out) throws IOException {
+		if (formatter == null || out == null) {
+			throw new IllegalArgumentException("Formatter and Appendable must not be null");
+		}
+		for (int i = 0; i < turns.length; i++) {
+			formatter.appendLine(TURN_TYPES[turns[i]], names[nameIds[i]], distances[i], out);
+		}
+	}
+
+	/**
+	 * Returns these steps as text.
+	 *
+	 * @requires formatter != null
+	 * @return the directions formatter gives for the route and heading
+	 *         these steps were computed for.
+	 */
+	public String toText(RouteFormatter formatter) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			appendText(formatter, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException("StringBuilder cannot fail", e);
+		}
+		return sb.toString();
+	}
+}
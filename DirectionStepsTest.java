@@ -0,0 +1,202 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+public class DirectionStepsTest {
+
+	private Route mTechnionRoute;
+	private Route mLongRoute;
+	private RouteFormatter[] mFormatters;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public DirectionStepsTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		mTechnionRoute = new Route(segments[0]);
+		for (int i : new int[] { 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnionRoute = mTechnionRoute.addSegment(segments[i]);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 3), 5000, 3);
+		mLongRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		mFormatters = new RouteFormatter[] {
+			new WalkingRouteFormatter(),
+			new DrivingRouteFormatter(),
+			new TemplateRouteFormatter("{turn} onto {name}: {km:0.0} km, {min:driving} min.") };
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	/**
+	 * @return true iff the i-th step of steps describes the i-th GeoFeature
+	 *         of route, and the steps cover the segments of route in order.
+	 */
+	private static boolean describes(DirectionSteps steps, Route route, double heading) {
+		if (steps.getStepCount() != route.geoFeatures.size())
+			return false;
+		int segment = 0;
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		for (int i = 0; it.hasNext(); i++) {
+			GeoFeature gf = it.next();
+			DirectionStep step = steps.getStep(i);
+			if (step.getTurn() != TurnType.classify(heading, gf.getStartHeading())
+					|| !steps.getName(step.getNameId()).equals(gf.getName())
+					|| step.getDistance() != gf.getLength()
+					|| step.getDuration() != steps.getTravelMode().getMinutes(gf.getLength())
+					|| step.getStartSegment() != segment
+					|| step.getEndSegment() != segment + gf.geoSegments.size())
+				return false;
+			if (!step.equals(new DirectionStep(steps.getTurn(i), steps.getNameId(i),
+					steps.getDistance(i), steps.getDuration(i),
+					steps.getStartSegment(i), steps.getEndSegment(i))))
+				return false;
+			segment = step.getEndSegment();
+			heading = gf.getEndHeading();
+		}
+		return segment == route.geoSegments.size();
+	}
+
+
+	/**
+	 * @return true iff the names of steps are distinct and numbered in order
+	 *         of first appearance.
+	 */
+	private static boolean dictionary(DirectionSteps steps) {
+		Set<String> names = new HashSet<String>();
+		int next = 0;
+		for (int i = 0; i < steps.getStepCount(); i++) {
+			int id = steps.getNameId(i);
+			if (id > next)
+				return false;
+			if (id == next) {
+				if (!names.add(steps.getName(id)))
+					return false;
+				next++;
+			}
+		}
+		return next == steps.getNameCount();
+	}
+
+
+	public void testSteps() {
+		show("Steps");
+		boolean describes = true;
+		boolean dictionary = true;
+		for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+			for (double heading : new double[] { 0, 123.5, 359.9 }) {
+				for (TravelMode mode : TravelMode.values()) {
+					DirectionSteps steps = DirectionSteps.compute(route, heading, mode);
+					if (!describes(steps, route, heading) || steps.getTravelMode() != mode)
+						describes = false;
+					if (!dictionary(steps))
+						dictionary = false;
+				}
+			}
+		}
+		show("A step per geographic feature, over its segments", describes);
+		show("Names are distinct, numbered by first appearance", dictionary);
+		DirectionSteps steps = DirectionSteps.compute(mTechnionRoute, 0, TravelMode.WALKING);
+		show("Hankin Road is named once near the Technion",
+			steps.getNameId(0) == 0 && steps.getNameId(6) == 0
+			&& steps.getName(0).equals("Hankin Road") && steps.getNameCount() == 6);
+		show("A step is a single segment", DirectionSteps.compute(new Route(ExampleGeoSegments.segments[0]),
+			0, TravelMode.DRIVING).getStep(0).equals(new DirectionStep(TurnType.classify(0,
+				ExampleGeoSegments.segments[0].getHeading()), 0, ExampleGeoSegments.segments[0].getLength(),
+				TravelMode.DRIVING.getMinutes(ExampleGeoSegments.segments[0].getLength()), 0, 1)));
+	}
+
+
+	public void testText() throws IOException {
+		for (RouteFormatter formatter : mFormatters) {
+			show("Text, " + formatter.getClass().getSimpleName());
+			for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+				String size = route.geoFeatures.size() + " features";
+				boolean same = true;
+				for (double heading : new double[] { 0, 123.5, 359.9 }) {
+					DirectionSteps steps = DirectionSteps.compute(route, heading, TravelMode.WALKING);
+					String expected = formatter.computeDirections(route, heading);
+					StringWriter writer = new StringWriter();
+					steps.appendText(formatter, writer);
+					if (!steps.toText(formatter).equals(expected) || !writer.toString().equals(expected))
+						same = false;
+				}
+				show("Matches computeDirections() (" + size + ")", same);
+			}
+		}
+		show("Text of the mode the durations are not computed for",
+			DirectionSteps.compute(mTechnionRoute, 0, TravelMode.DRIVING).toText(new WalkingRouteFormatter())
+				.equals(new WalkingRouteFormatter().computeDirections(mTechnionRoute, 0)));
+	}
+
+
+	public void testArguments() {
+		show("Arguments");
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> DirectionSteps.compute(null, 0, TravelMode.WALKING),
+				() -> DirectionSteps.compute(mTechnionRoute, 0, null),
+				() -> DirectionSteps.compute(mTechnionRoute, -1, TravelMode.WALKING),
+				() -> DirectionSteps.compute(mTechnionRoute, 360, TravelMode.WALKING),
+				() -> DirectionSteps.compute(mTechnionRoute, 0, TravelMode.WALKING).toText(null) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+		rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> new DirectionStep(null, 0, 1, 1, 0, 1),
+				() -> new DirectionStep(TurnType.LEFT, -1, 1, 1, 0, 1),
+				() -> new DirectionStep(TurnType.LEFT, 0, -1, 1, 0, 1),
+				() -> new DirectionStep(TurnType.LEFT, 0, 1, Double.NaN, 0, 1),
+				() -> new DirectionStep(TurnType.LEFT, 0, 1, 1, -1, 1),
+				() -> new DirectionStep(TurnType.LEFT, 0, 1, 1, 1, 1) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid steps are rejected", rejected);
+		DirectionStep step = new DirectionStep(TurnType.LEFT, 2, 1.5, 30, 3, 5);
+		show("Equal steps are equal and hash alike",
+			step.equals(new DirectionStep(TurnType.LEFT, 2, 1.5, 30, 3, 5))
+			&& step.hashCode() == new DirectionStep(TurnType.LEFT, 2, 1.5, 30, 3, 5).hashCode()
+			&& !step.equals(new DirectionStep(TurnType.RIGHT, 2, 1.5, 30, 3, 5))
+			&& !step.equals(new DirectionStep(TurnType.LEFT, 2, 1.5, 31, 3, 5))
+			&& !step.equals(null));
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		DirectionStepsTest stepsTest = new DirectionStepsTest();
+		stepsTest.testSteps();
+		stepsTest.testText();
+		stepsTest.testArguments();
+		if (stepsTest.mFailed)
+			System.exit(1);
+	}
+}
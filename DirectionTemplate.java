@@ -0,0 +1,189 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DirectionTemplate describes the textual form of a line of directions.
+ * DirectionTemplates are immutable and may be shared between threads.
+ * <p>
+ * A template is a String in which fields in braces are replaced by the
+ * properties of the geographic feature being traversed, e.g.
+ * <tt>"{turn} onto {name} and go {km} kilometers."</tt>. The fields are:
+ * <pre>
+ * {turn}          the turn onto the feature, e.g. "Turn slight right"
+ * {name}          the name of the feature
+ * {km}            its length in kilometers, as "#.#" (e.g. "1.4", "2")
+ * {km:#.#}        the same
+ * {km:0.0}        its length in kilometers, as "0.0" (e.g. "1.4", "2.0")
+ * {min}           the time to walk along it, rounded to the nearest minute
+ * {min:walking}   the same
+ * {min:driving}   the time to drive along it, rounded to the nearest minute
+ * </pre>
+ * The characters '{' and '}' are written as "{{" and "}}". Every rendered
+ * line is terminated by a newline.
+ * <p>
+ * A template is compiled once into a render plan: a sequence of literal
+ * chunks and typed field writers. Rendering a line walks the plan and
+ * writes each part directly into the sink, without parsing or allocation.
+ */
+public class DirectionTemplate {
+
+	// Operations of the render plan.
+	private static final byte LITERAL = 0;
+	private static final byte TURN = 1;
+	private static final byte NAME = 2;
+	private static final byte KM = 3;
+	private static final byte KM_FIXED = 4;
+	private static final byte MIN_WALKING = 5;
+	private static final byte MIN_DRIVING = 6;
+
+	private final String template;
+	private final byte[] ops;
+	private final String[] literals;
+	private final FixedPointFormat numberFormat;
+
+	// Abs. Function: the line obtained by concatenating, for each i, literals[i]
+	// if ops[i] == LITERAL and the value of the field ops[i] otherwise,
+	// followed by a newline.
+	// Rep. Invariant: template != null && ops.length == literals.length &&
+	// for each i : (ops[i] == LITERAL) == (literals[i] != null) && numberFormat != null
+
+	/**
+	 * Compiles a new DirectionTemplate.
+	 *
+	 * @requires template != null && template is well formed
+	 * @effects Constructs a new DirectionTemplate rendering lines of the form
+	 *          given by template.
+	 * @throws IllegalArgumentException if template has an unknown field or
+	 *         unbalanced braces.
+	 */
+	public DirectionTemplate(String template) {
+		if (template == null) {
+			throw new IllegalArgumentException("Template cannot be null");
+		}
+		this.template = template;
+		this.numberFormat = new FixedPointFormat();
+
+		List<Byte> opList = new ArrayList<Byte>();
+		List<String> literalList = new ArrayList<String>();
+		StringBuilder literal = new StringBuilder();
+		int i = 0;
+		while (i < template.length()) {
+			char c = template.charAt(i);
+			if (c == '{' && i + 1 < template.length() && template.charAt(i + 1) == '{') {
+				literal.append('{');
+				i += 2;
+			} else if (c == '}' && i + 1 < template.length() && template.charAt(i + 1) == '}') {
+				literal.append('}');
+				i += 2;
+			} else if (c == '{') {
+				int end = template.indexOf('}', i);
+				if (end < 0) {
+					throw new IllegalArgumentException("Unclosed field at position " + i);
+				}
+				if (literal.length() > 0) {
+					opList.add(LITERAL);
+					literalList.add(literal.toString());
+					literal.setLength(0);
+				}
+				opList.add(parseField(template.substring(i + 1, end), i));
+				literalList.add(null);
+				i = end + 1;
+			} else if (c == '}') {
+				throw new IllegalArgumentException("Unopened field end at position " + i);
+			} else {
+				literal.append(c);
+				i++;
+			}
+		}
+		literal.append('\n');
+		opList.add(LITERAL);
+		literalList.add(literal.toString());
+
+		ops = new byte[opList.size()];
+		for (int j = 0; j < ops.length; j++) {
+			ops[j] = opList.get(j);
+		}
+		literals = literalList.toArray(new String[0]);
+		checkRep();
+	}
+
+	private static byte parseField(String field, int position) {
+		switch (field) {
+		case "turn":
+			return TURN;
+		case "name":
+			return NAME;
+		case "km":
+		case "km:#.#":
+			return KM;
+		case "km:0.0":
+			return KM_FIXED;
+		case "min":
+		case "min:walking":
+			return MIN_WALKING;
+		case "min:driving":
+			return MIN_DRIVING;
+		default:
+			throw new IllegalArgumentException("Unknown field {" + field + "} at position " + position);
+		}
+	}
+
+	void checkRep() {
+		assert (template != null && ops.length == literals.length && numberFormat != null);
+		for (int i = 0; i < ops.length; i++) {
+			assert ((ops[i] == LITERAL) == (literals[i] != null));
+		}
+	}
+
+	/**
+	 * Writes the line of directions for a geographic feature.
+	 *
+	 * @requires turn != null && name != null && length >= 0 && out != null
+	 * @modifies out
+	 * @effects appends to out the newline-terminated line given by this
+	 *          template for a feature named name, of the given length in
+	 *          kilometers, entered by taking turn.
+	 * @throws IOException if out fails.
+	 */
+	public void render(TurnType turn, String name, double length, Appendable out) throws IOException {
+		for (int i = 0; i < ops.length; i++) {
+			switch (ops[i]) {
+			case LITERAL:
+				out.append(literals[i]);
+				break;
+			case TURN:
+				out.append(turn.getDescription());
+				break;
+			case NAME:
+				out.append(name);
+				break;
+			case KM:
+				numberFormat.appendOneDecimal(length, out);
+				break;
+			case KM_FIXED:
+				numberFormat.appendOneDecimalFixed(length, out);
+				break;
+			case MIN_WALKING:
+				numberFormat.appendInteger(Math.round(TravelMode.WALKING.getMinutes(length)), out);
+				break;
+			case MIN_DRIVING:
+				numberFormat.appendInteger(Math.round(TravelMode.DRIVING.getMinutes(length)), out);
+				break;
+			default:
+				throw new IllegalStateException("Unknown operation " + ops[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the source of this template.
+	 *
+	 * @return the template String this was compiled from.
+	 */
+	public String toString() {
+		return template;
+	}
+}
@@ -0,0 +1,146 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.List;
+
+public class DirectionTemplateTest {
+
+	private Route mTechnionRoute;
+	private Route mLongRoute;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public DirectionTemplateTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		mTechnionRoute = new Route(segments[0]);
+		for (int i : new int[] { 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnionRoute = mTechnionRoute.addSegment(segments[i]);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.radial(20000, 11), 5000, 11);
+		mLongRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static String render(String template, TurnType turn, String name, double length) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			new DirectionTemplate(template).render(turn, name, length, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException("StringBuilder cannot fail", e);
+		}
+		return sb.toString();
+	}
+
+
+	private static boolean rejects(String template) {
+		try {
+			new DirectionTemplate(template);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	private boolean sameDirections(RouteFormatter expected, RouteFormatter actual) {
+		for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+			for (double heading : new double[] { 0, 123.5, 359.9 }) {
+				if (!actual.computeDirections(route, heading).equals(expected.computeDirections(route, heading)))
+					return false;
+			}
+		}
+		return true;
+	}
+
+
+	public void test() {
+		show("TemplateRouteFormatter");
+		show("Reproduces DrivingRouteFormatter",
+			sameDirections(new DrivingRouteFormatter(),
+				new TemplateRouteFormatter("{turn} onto {name} and go {km} kilometers.")));
+		show("Reproduces WalkingRouteFormatter",
+			sameDirections(new WalkingRouteFormatter(),
+				new TemplateRouteFormatter("{turn} onto {name} and walk for {min} minutes.")));
+		show("Reproduces them in parallel",
+			new TemplateRouteFormatter("{turn} onto {name} and go {km} kilometers.")
+				.computeDirectionsParallel(mLongRoute, 0)
+				.equals(new DrivingRouteFormatter().computeDirections(mLongRoute, 0)));
+		show("Keeps its template",
+			new TemplateRouteFormatter("{name}").getTemplate().toString().equals("{name}"));
+
+		show("Fields");
+		show("turn and name",
+			render("{turn} onto {name}", TurnType.SHARP_LEFT, "Hanita", 1.4)
+				.equals("Turn sharp left onto Hanita\n"));
+		show("km drops a zero decimal",
+			render("{km} {km:#.#}", TurnType.LEFT, "x", 2.0).equals("2 2\n")
+			&& render("{km}", TurnType.LEFT, "x", 1.44).equals("1.4\n"));
+		show("km:0.0 keeps it",
+			render("{km:0.0}", TurnType.LEFT, "x", 2.0).equals("2.0\n")
+			&& render("{km:0.0}", TurnType.LEFT, "x", 0.05).equals("0.1\n"));
+		show("min is walking time",
+			render("{min} {min:walking}", TurnType.LEFT, "x", 1.36).equals("27 27\n"));
+		show("min:driving is driving time",
+			render("{min:driving}", TurnType.LEFT, "x", 10).equals("12\n"));
+		show("Braces are escaped by doubling",
+			render("{{{name}}} {{km}}", TurnType.LEFT, "Hagalil", 1).equals("{Hagalil} {km}\n"));
+		show("A template without fields is a literal line",
+			render("Go on.", TurnType.LEFT, "x", 1).equals("Go on.\n")
+			&& render("", TurnType.LEFT, "x", 1).equals("\n"));
+		show("Lines are appended to the sink", appends());
+
+		show("Parse errors");
+		show("Unknown fields are rejected",
+			rejects("{street}") && rejects("{km:0.00}") && rejects("{min:cycling}") && rejects("{}"));
+		show("Unclosed fields are rejected",
+			rejects("{turn onto {name") && rejects("{name} {"));
+		show("Unopened field ends are rejected",
+			rejects("name}") && rejects("{name}} onto"));
+		show("null is rejected", rejects(null));
+		boolean rejected;
+		try {
+			new TemplateRouteFormatter((DirectionTemplate) null);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("A null template formatter is rejected", rejected);
+	}
+
+
+	private boolean appends() {
+		StringBuilder sb = new StringBuilder("a\n");
+		DirectionTemplate template = new DirectionTemplate("{name}");
+		try {
+			template.render(TurnType.LEFT, "b", 1, sb);
+			template.render(TurnType.LEFT, "c", 1, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException("StringBuilder cannot fail", e);
+		}
+		return sb.toString().equals("a\nb\nc\n");
+	}
+
+
+	public static void main(String[] args) {
+		DirectionTemplateTest templateTest = new DirectionTemplateTest();
+		templateTest.test();
+		if (templateTest.mFailed)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,332 @@
+package homework1;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DirectionsCli is a headless command line front end to the RouteFormatters.
+ * It reads routes from the standard input or from files and writes their
+ * directions to the standard output, one route at a time, so it can be used
+ * in shell pipelines.
+ * <p>
+ * <b>Usage:</b>
+ *
+ * <pre>
+ *   java -cp classes homework1.DirectionsCli [options] [file ...]
+ *
+ *   --walking            walking directions (the default)
+ *   --driving            driving directions
+ *   --template=TEMPLATE  directions rendered by a DirectionTemplate
+ *   --heading=DEGREES    the initial heading, 0 &lt;= DEGREES &lt; 360 (default 0)
+ * </pre>
+ *
+ * A file named <tt>-</tt>, or no file at all, stands for the standard input.
+ * Naming it again reads on from where it stopped, as <tt>cat</tt> does.
+ * <p>
+ * <b>Input format:</b> one GeoSegment per line, as
+ * <tt>lat1,lon1,lat2,lon2,name</tt> with the coordinates in millionths of
+ * degrees; the name is the rest of the line, without surrounding whitespace,
+ * and may contain commas. The segments of a route are on consecutive lines,
+ * each starting where the previous one ends, and routes are separated by
+ * blank lines, which may hold whitespace, or by the end of a file. Lines
+ * starting with <tt>#</tt> are ignored. For example:
+ *
+ * <pre>
+ *   32782269,35013820,32779939,35013248,Hankin Road
+ *   32779939,35013248,32777660,35013800,Trumpeldor Avenue
+ * </pre>
+ *
+ * The directions of each route are written as soon as the route has been
+ * read, followed by a blank line. Malformed input is reported on the
+ * standard error with its line number, and the exit status is 2; I/O errors
+ * give an exit status of 1.
+ * <p>
+ * <b>Startup:</b> this class touches no AWT or Swing classes, and only the
+ * formatter that was asked for is ever loaded. Startup can be cut further
+ * with an AppCDS archive of the loaded classes, created once by a training
+ * run on a representative input (JDK 13 or later):
+ *
+ * <pre>
+ *   java -XX:ArchiveClassesAtExit=directions.jsa -cp classes \
+ *       homework1.DirectionsCli --driving sample.txt &gt; /dev/null
+ * </pre>
+ *
+ * and then used by every later run with the same JDK and class path:
+ *
+ * <pre>
+ *   java -XX:SharedArchiveFile=directions.jsa -XX:TieredStopAtLevel=1 \
+ *       -XX:+UseSerialGC -cp classes homework1.DirectionsCli --driving
+ * </pre>
+ *
+ * <tt>-XX:TieredStopAtLevel=1</tt> and <tt>-XX:+UseSerialGC</tt> suit short
+ * runs over small inputs; leave them out for large batches.
+ */
+public class DirectionsCli {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final int EXIT_IO_ERROR = 1;
+	private static final int EXIT_USAGE = 2;
+
+	private static final String USAGE = "usage: DirectionsCli [--walking | --driving | --template=TEMPLATE]"
+			+ " [--heading=DEGREES] [file ...]";
+
+	private final RouteFormatter formatter;
+	private final double heading;
+	private final Writer out;
+
+	// The segments of the route being read.
+	private final List<GeoSegment> segments = new ArrayList<GeoSegment>();
+
+	// Abs. Function: a filter writing to out the directions given by
+	// formatter, with initial heading heading, of each route read.
+	// Rep. Invariant: formatter != null && out != null &&
+	// 0 <= heading < 360 && segments != null
+
+	/**
+	 * @requires formatter != null && 0 <= heading < 360 && out != null
+	 * @effects Constructs a new DirectionsCli writing directions given by
+	 *          formatter to out.
+	 */
+	DirectionsCli(RouteFormatter formatter, double heading, Writer out) {
+		this.formatter = formatter;
+		this.heading = heading;
+		this.out = out;
+	}
+
+	/**
+	 * Reads routes and writes their directions.
+	 *
+	 * @requires in != null
+	 * @modifies in, out
+	 * @effects reads in to the end, and writes to out the directions of
+	 *          every route read.
+	 * @throws IllegalArgumentException if in is malformed. The message gives
+	 *         the line number.
+	 */
+	void process(BufferedReader in) throws IOException {
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			if (line.trim().isEmpty()) {
+				flushRoute(in, lineNumber);
+			} else if (line.charAt(0) != '#') {
+				try {
+					segments.add(parseSegment(line));
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		flushRoute(in, lineNumber);
+	}
+
+	/**
+	 * Writes the directions of the route read so far, if any.
+	 *
+	 * @modifies this, out
+	 * @effects writes the directions of the route made of segments to out,
+	 *          and empties segments. out is flushed if in has no more input
+	 *          ready, so that a reader at the other end of a pipe is not kept
+	 *          waiting.
+	 * @throws IllegalArgumentException if segments is not a route.
+	 */
+	private void flushRoute(BufferedReader in, int lineNumber) throws IOException {
+		if (segments.isEmpty()) {
+			return;
+		}
+		Route route;
+		try {
+			route = new Route(segments.get(0)).addSegments(segments.subList(1, segments.size()));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("line " + lineNumber + ": segments do not form a route", e);
+		}
+		segments.clear();
+		formatter.computeDirections(route, heading, out);
+		out.write('\n');
+		if (!in.ready()) {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Parses a GeoSegment.
+	 *
+	 * @requires line != null
+	 * @return the GeoSegment given by line, in the form
+	 *         <tt>lat1,lon1,lat2,lon2,name</tt>. Whitespace around the
+	 *         coordinates and the name is ignored.
+	 * @throws IllegalArgumentException if line is malformed.
+	 */
+	static GeoSegment parseSegment(String line) {
+		int[] coordinates = new int[4];
+		int start = 0;
+		for (int i = 0; i < coordinates.length; i++) {
+			int comma = line.indexOf(',', start);
+			if (comma < 0) {
+				throw new IllegalArgumentException("expected lat1,lon1,lat2,lon2,name");
+			}
+			try {
+				coordinates[i] = Integer.parseInt(line.substring(start, comma).trim());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("bad coordinate '" + line.substring(start, comma) + "'");
+			}
+			start = comma + 1;
+		}
+		String name = line.substring(start).trim();
+		if (name.isEmpty()) {
+			throw new IllegalArgumentException("missing street name");
+		}
+		return new GeoSegment(name, new GeoPoint(coordinates[0], coordinates[1]),
+				new GeoPoint(coordinates[2], coordinates[3]));
+	}
+
+	/**
+	 * Creates the formatter named by an option. Only the chosen formatter's
+	 * class is loaded: each formatter is created in a class of its own,
+	 * because verifying a method that creates one would load them all.
+	 *
+	 * @requires option != null
+	 * @return the RouteFormatter named by option, or null if option does not
+	 *         name one.
+	 * @throws IllegalArgumentException if option has a malformed template.
+	 */
+	private static RouteFormatter newFormatter(String option) {
+		if (option.equals("--walking")) {
+			return Walking.newFormatter();
+		} else if (option.equals("--driving")) {
+			return Driving.newFormatter();
+		} else if (option.startsWith("--template=")) {
+			return Template.newFormatter(option.substring("--template=".length()));
+		}
+		return null;
+	}
+
+	private static class Walking {
+		static RouteFormatter newFormatter() {
+			return new WalkingRouteFormatter();
+		}
+	}
+
+	private static class Driving {
+		static RouteFormatter newFormatter() {
+			return new DrivingRouteFormatter();
+		}
+	}
+
+	private static class Template {
+		static RouteFormatter newFormatter(String template) {
+			return new TemplateRouteFormatter(template);
+		}
+	}
+
+	private static BufferedReader open(String file) throws IOException {
+		Reader reader;
+		if (file.equals("-")) {
+			reader = new InputStreamReader(new FileInputStream(FileDescriptor.in), StandardCharsets.UTF_8);
+		} else {
+			reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+		}
+		return new BufferedReader(reader, BUFFER_SIZE);
+	}
+
+	private static void fail(String message, int status) {
+		System.err.println("DirectionsCli: " + message);
+		System.exit(status);
+	}
+
+	/**
+	 * Writes the directions of the routes in the files named by args, or in
+	 * the standard input, to the standard output.
+	 */
+	public static void main(String[] args) {
+		String formatterOption = "--walking";
+		double heading = 0;
+		List<String> files = new ArrayList<String>();
+		boolean options = true;
+		for (String arg : args) {
+			if (!options || !arg.startsWith("--")) {
+				files.add(arg);
+			} else if (arg.equals("--")) {
+				options = false;
+			} else if (arg.startsWith("--heading=")) {
+				try {
+					heading = Double.parseDouble(arg.substring("--heading=".length()));
+				} catch (NumberFormatException e) {
+					heading = Double.NaN;
+				}
+				if (!(heading >= 0 && heading < 360)) {
+					fail("heading must be in [0, 360): " + arg, EXIT_USAGE);
+				}
+			} else if (arg.equals("--help")) {
+				System.out.println(USAGE);
+				return;
+			} else {
+				formatterOption = arg;
+			}
+		}
+		if (files.isEmpty()) {
+			files.add("-");
+		}
+
+		RouteFormatter formatter = null;
+		try {
+			formatter = newFormatter(formatterOption);
+		} catch (IllegalArgumentException e) {
+			fail("bad template: " + e.getMessage(), EXIT_USAGE);
+		}
+		if (formatter == null) {
+			fail("unknown option " + formatterOption + "\n" + USAGE, EXIT_USAGE);
+		}
+
+		Writer out = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8),
+				BUFFER_SIZE);
+		DirectionsCli cli = new DirectionsCli(formatter, heading, out);
+		String file = null;
+		// the standard input is opened once and never closed
+		BufferedReader stdin = null;
+		try {
+			for (int i = 0; i < files.size(); i++) {
+				file = files.get(i);
+				if (file.equals("-")) {
+					if (stdin == null) {
+						stdin = open(file);
+					}
+					cli.process(stdin);
+				} else {
+					try (BufferedReader in = open(file)) {
+						cli.process(in);
+					}
+				}
+			}
+			out.flush();
+		} catch (IllegalArgumentException e) {
+			flushQuietly(out);
+			fail(file + ": " + e.getMessage(), EXIT_USAGE);
+		} catch (IOException e) {
+			flushQuietly(out);
+			fail(file + ": " + e.getMessage(), EXIT_IO_ERROR);
+		}
+	}
+
+	private static void flushQuietly(Writer out) {
+		try {
+			out.flush();
+		} catch (IOException e) {
+			// the error being reported matters more
+		}
+	}
+}
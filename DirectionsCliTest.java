@@ -0,0 +1,217 @@
+package homework1;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DirectionsCliTest {
+
+	private GeoSegment[] mSegments;
+	private String[] mLines;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public DirectionsCliTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		mSegments = new GeoSegment[12];
+		int k = 0;
+		for (int i : new int[] { 0, 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mSegments[k++] = segments[i];
+		mLines = new String[mSegments.length];
+		for (int i = 0; i < mSegments.length; i++)
+			mLines[i] = line(mSegments[i]);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static String line(GeoSegment gs) {
+		return gs.getP1().getLatitude() + "," + gs.getP1().getLongitude() + ","
+			+ gs.getP2().getLatitude() + "," + gs.getP2().getLongitude() + "," + gs.getName();
+	}
+
+
+	private static String lines(String... lines) {
+		return String.join("\n", lines) + "\n";
+	}
+
+
+	/**
+	 * @return the output of a DirectionsCli with formatter and heading given
+	 *         input, or the message of the exception it throws.
+	 */
+	private static String run(RouteFormatter formatter, double heading, String input) {
+		StringWriter out = new StringWriter();
+		try {
+			new DirectionsCli(formatter, heading, out).process(new BufferedReader(new StringReader(input)));
+		} catch (IllegalArgumentException | IOException e) {
+			return e.getMessage();
+		}
+		return out.toString();
+	}
+
+
+	/**
+	 * @return the directions a DirectionsCli writes for the routes.
+	 */
+	private static String directions(RouteFormatter formatter, double heading, List<List<GeoSegment>> routes) {
+		StringBuilder sb = new StringBuilder();
+		for (List<GeoSegment> segments : routes) {
+			Route route = new Route(segments.get(0)).addSegments(segments.subList(1, segments.size()));
+			sb.append(formatter.computeDirections(route, heading)).append('\n');
+		}
+		return sb.toString();
+	}
+
+
+	private static boolean rejects(String line) {
+		try {
+			DirectionsCli.parseSegment(line);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	public void testParsing() {
+		show("parseSegment()");
+		boolean same = true;
+		for (int i = 0; i < mSegments.length; i++) {
+			if (!DirectionsCli.parseSegment(mLines[i]).equals(mSegments[i]))
+				same = false;
+		}
+		show("Reads back the example segments", same);
+		GeoSegment gs = DirectionsCli.parseSegment(" 32782269 ,35013820, 32779939,35013248 , Hankin Road \t");
+		show("Whitespace around the fields is ignored", gs.getName().equals("Hankin Road")
+			&& gs.getP1().equals(new GeoPoint(32782269, 35013820))
+			&& gs.getP2().equals(new GeoPoint(32779939, 35013248)));
+		show("The name may contain commas",
+			DirectionsCli.parseSegment("1,2,3,4,Road 70, North").getName().equals("Road 70, North"));
+		show("Malformed lines are rejected",
+			rejects("1,2,3,4") && rejects("1,2,3,4,") && rejects("1,2,3,4,  ")
+			&& rejects("1,2,x,4,Hanita") && rejects("1,2,,4,Hanita") && rejects("")
+			&& rejects("1,2,3,99999999999,Hanita") && rejects("91000000,0,0,0,Hanita"));
+	}
+
+
+	public void testRoutes() {
+		RouteFormatter walking = new WalkingRouteFormatter();
+		RouteFormatter driving = new DrivingRouteFormatter();
+		List<GeoSegment> all = Arrays.asList(mSegments);
+		List<GeoSegment> first = all.subList(0, 5);
+		List<GeoSegment> second = all.subList(5, 12);
+
+		show("Routes");
+		show("A single route",
+			run(walking, 0, lines(mLines)).equals(directions(walking, 0, List.of(all))));
+		String twoRoutes = lines(Arrays.copyOfRange(mLines, 0, 5)) + "\n" + lines(Arrays.copyOfRange(mLines, 5, 12));
+		show("Routes separated by a blank line",
+			run(driving, 90, twoRoutes).equals(directions(driving, 90, List.of(first, second))));
+		String spaced = "# around the Technion\n\n" + lines(Arrays.copyOfRange(mLines, 0, 5)) + " \t\n\n"
+			+ "# back\n" + lines(Arrays.copyOfRange(mLines, 5, 12)) + "\n\n";
+		show("Whitespace-only and repeated separators, comments",
+			run(driving, 90, spaced).equals(directions(driving, 90, List.of(first, second))));
+		show("No final newline", run(walking, 0, String.join("\n", mLines))
+			.equals(directions(walking, 0, List.of(all))));
+		show("Empty input gives no directions", run(walking, 0, "").isEmpty()
+			&& run(walking, 0, "\n# nothing\n  \n").isEmpty());
+		String padded = lines(Arrays.copyOfRange(mLines, 0, 5)).replace(",Hankin Road", ", Hankin Road");
+		show("A name after a space joins the same feature",
+			run(walking, 0, padded).equals(directions(walking, 0, List.of(first))));
+
+		show("Errors");
+		show("A malformed line gives its number",
+			run(walking, 0, lines(mLines[0], "# comment", "1,2,x,4,Hanita", mLines[1]))
+				.equals("line 3: bad coordinate 'x'"));
+		show("A missing name gives its number",
+			run(walking, 0, lines(mLines[0], "", "1,2,3,4, ")).equals("line 3: missing street name"));
+		show("Segments that do not join give the line ending the route",
+			run(walking, 0, lines(mLines[0], mLines[2], "", mLines[3])).equals(
+				"line 3: segments do not form a route")
+			&& run(walking, 0, lines(mLines[0], mLines[1], mLines[3])).equals(
+				"line 3: segments do not form a route"));
+		show("A line that is not a segment gives its number", run(walking, 0,
+			lines(mLines[0], mLines[1], "", "bad")).equals("line 4: expected lat1,lon1,lat2,lon2,name"));
+	}
+
+
+	/**
+	 * @return the output of DirectionsCli run in a new JVM with args and
+	 *         input, followed by its exit status.
+	 */
+	private static String runMain(String input, String... args) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("homework1.DirectionsCli");
+		command.addAll(Arrays.asList(args));
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+		try (OutputStream stdin = process.getOutputStream()) {
+			stdin.write(input.getBytes(StandardCharsets.UTF_8));
+		}
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		return output + "status " + process.waitFor();
+	}
+
+
+	public void testMain() throws IOException, InterruptedException {
+		show("main()");
+		RouteFormatter driving = new DrivingRouteFormatter();
+		List<GeoSegment> all = Arrays.asList(mSegments);
+		String expected = directions(driving, 0, List.of(all));
+		show("Reads the standard input", runMain(lines(mLines), "--driving").equals(expected + "status 0"));
+		show("Reads the standard input once when it is named twice",
+			runMain(lines(mLines), "--driving", "-", "-").equals(expected + "status 0"));
+		File file = File.createTempFile("route", ".txt");
+		try {
+			Files.write(file.toPath(), lines(mLines).getBytes(StandardCharsets.UTF_8));
+			show("Reads files and the standard input in order",
+				runMain(lines(Arrays.copyOfRange(mLines, 0, 5)), "--driving", "--heading=90", "-",
+					file.getPath(), "-").equals(directions(driving, 90,
+						List.of(all.subList(0, 5), all)) + "status 0"));
+		} finally {
+			file.delete();
+		}
+		show("Malformed input exits with status 2",
+			runMain("1,2,x,4,Hanita\n", "--walking").equals("status 2")
+			&& runMain("", "--heading=360").equals("status 2")
+			&& runMain("", "--cycling").equals("status 2"));
+		show("A missing file exits with status 1",
+			runMain("", "no such file.txt").equals("status 1"));
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		DirectionsCliTest cliTest = new DirectionsCliTest();
+		cliTest.testParsing();
+		cliTest.testRoutes();
+		cliTest.testMain();
+		if (cliTest.mFailed)
+			System.exit(1);
+	}
+}
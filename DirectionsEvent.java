@@ -0,0 +1,44 @@
+package homework1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A DirectionsEvent is a Java Flight Recorder event that records a call to
+ * RouteFormatter.computeDirections() or computeDirectionsParallel(): the
+ * formatter, the size of the Route and the length of the directions
+ * written.
+ * <p>
+ * It is controlled by the settings of the recording under the name
+ * <tt>homework1.ComputeDirections</tt>; for example
+ * <tt>-XX:StartFlightRecording:+homework1.ComputeDirections#threshold=10ms</tt>
+ * records only the slow calls.
+ */
+@Name("homework1.ComputeDirections")
+@Label("Compute Directions")
+@Category({ "homework1", "Directions" })
+@Description("Directions computed by RouteFormatter.computeDirections() or computeDirectionsParallel()")
+final class DirectionsEvent extends Event {
+
+	@Label("Formatter")
+	Class<?> formatter;
+
+	@Label("Parallel")
+	@Description("Whether the lines were rendered on a fork-join pool")
+	boolean parallel;
+
+	@Label("Segment Count")
+	@Description("Number of GeoSegments of the Route")
+	int segmentCount;
+
+	@Label("Feature Count")
+	@Description("Number of GeoFeatures of the Route, one per line of directions")
+	int featureCount;
+
+	@Label("Output Length")
+	@Description("Number of characters of the directions")
+	long outputLength;
+}
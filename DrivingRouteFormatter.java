@@ -1,6 +1,7 @@
 package homework1;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
+import java.util.Iterator;
 
 /**
  * The DrivingDirections class creates a textual description of directions
@@ -22,21 +23,24 @@ import java.text.DecimalFormat;
  * the geographic feature. The length should be reported to tenth-of-a-
  * kilometer precision. Each line should be terminated by a newline and
  * should include no extra spaces other than those shown above.
+ * <p>
+ * Given a SpeedProfileTable and a departure time, <tt>computeDirections</tt>
+ * can also report the estimated time of arrival at the end of each line.
  */
 public class DrivingRouteFormatter extends RouteFormatter {
   
   	/**
-     * Computes a single line of a multi-line directions String that
+     * Writes a single line of a multi-line directions String that
      * represents the instructions for traversing a single geographic
      * feature.
-     * @requires 0 <= origHeading < 360
-     * @param geoFeature the geographical feature to traverse.
-     * @param origHeading the initial heading.
-     * @return A newline-terminated <tt>String</tt> that gives
+     * @param turn the turn taken onto the geographical feature.
+     * @param name the name of the geographical feature.
+     * @param length the length of the geographical feature, in kilometers.
+     * @param out the sink to write the line to.
+     * @effects appends to out a newline-terminated String that gives
      * 		   directions on how to traverse this geographical feature.<br>
-     * Calling <tt>computeLine</tt> with a GeoFeature instance and an
-     * initial heading should produce a newline-terminated String in the
-     * following form:
+     * The line has the following form, for a sharp left turn onto a
+     * feature named Hanita:
      * <p>
      * <tt>
      * Turn sharp left onto Hanita and go 1.4 kilometers.<br>
@@ -49,38 +53,88 @@ public class DrivingRouteFormatter extends RouteFormatter {
      * newline and should include no extra spaces other than those shown
      * above.
      **/
-  	public String computeLine(GeoFeature geoFeature, double origHeading) {
-  		
-  		// Implementation hint:
-		// You may find the class java.text.DecimalFormat useful when
-		// implementing this method. More info can be found at:
-  	    // http://docs.oracle.com/javase/tutorial/java/data/numberformat.html
-  		// and at:
-  		// http://docs.oracle.com/javase/8/docs/api/java/text/DecimalFormat.html
-		   		
-      if (geoFeature == null) {
-         throw new IllegalArgumentException("GeoFeature must not be null");
-      }  
-      if (origHeading < 0 || origHeading >= 360) {
+  	protected void appendLine(TurnType turn, String name, double length, Appendable out)
+  			throws IOException {
+      appendInstruction(turn, name, length, out);
+      out.append(".\n");
+  	}
+
+
+  	/**
+     * Give directions for following this Route, like computeDirections(),
+     * with the estimated time of arrival at the end of each geographic
+     * feature.
+     * <p>
+     * Each line has the following form:
+     * <p>
+     * <tt>
+     * Turn left onto Hagalil and go 1.4 kilometers, arriving at 08:17.<br>
+     * </tt>
+     * <p>
+     * where "08:17" is the time of day, rounded to the nearest minute, at
+     * which the end of the geographic feature is reached when driving at
+     * the speeds of profiles.
+     * @requires route != null && profiles != null &&
+     * 			0 <= heading < 360 && departure is finite
+     * @param route the route for which to print directions.
+     * @param heading the initial heading.
+     * @param profiles the driving speed of each street.
+     * @param departure the departure time, in minutes after midnight.
+     * @return A newline-terminated directions <tt>String</tt> giving
+     * 	       human-readable directions and arrival times along this route.
+     **/
+  	public String computeDirections(Route route, double heading,
+  			SpeedProfileTable profiles, double departure) {
+      if (route == null || profiles == null) {
+         throw new IllegalArgumentException("Route and profiles must not be null");
+      }
+      if (heading < 0 || heading >= 360) {
          throw new IllegalArgumentException("heading must be between 0 and 360");
       }
+      SpeedProfileTable.checkDeparture(departure);
+      StringBuilder directions = new StringBuilder();
+      double time = departure;
+      Iterator<GeoFeature> it = route.getGeoFeatures();
+      while (it.hasNext()) {
+         GeoFeature geoFeature = it.next();
+         time += profiles.getTravelMinutes(profiles.getProfileId(geoFeature.getName()),
+               geoFeature.getLength(), time);
+         TurnType turn = TurnType.classify(heading, geoFeature.getStartHeading());
+         try {
+            appendInstruction(turn, geoFeature.getName(), geoFeature.getLength(), directions);
+         } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder cannot fail", e);
+         }
+         long minute = Math.round(time) % SpeedProfileTable.MINUTES_PER_DAY;
+         if (minute < 0) {
+            minute += SpeedProfileTable.MINUTES_PER_DAY;
+         }
+         directions.append(", arriving at ");
+         directions.append(minute / 600).append(minute / 60 % 10);
+         directions.append(':');
+         directions.append(minute % 60 / 10).append(minute % 10);
+         directions.append(".\n");
+         heading = geoFeature.getEndHeading();
+      }
+      return directions.toString();
+  	}
 
-      StringBuffer line = new StringBuffer();
-      double distance = geoFeature.getLength();
-      String featureName = geoFeature.getName();
-      double newHeading = geoFeature.getStartHeading();
-      String turnString = getTurnString(origHeading, newHeading);
 
+  	/**
+     * Writes the instruction for traversing a geographic feature, without
+     * its terminating period and newline.
+     * @modifies out
+     * @effects appends to out a String of the form
+     *          <tt>Turn sharp left onto Hanita and go 1.4 kilometers</tt>.
+     */
+  	private void appendInstruction(TurnType turn, String name, double length, Appendable out)
+  			throws IOException {
+      out.append(turn.getDescription());
+      out.append(" onto ");
+      out.append(name);
+      out.append(" and go ");
       // Format the distance to one decimal place
-      DecimalFormat df = new DecimalFormat("#.#");
-      line.append(turnString);
-      line.append(" onto ");
-      line.append(featureName);
-      line.append(" and go ");
-      line.append(df.format(distance));
-      line.append(" kilometers.\n");
-
-      return line.toString();
-
+      numberFormat.appendOneDecimal(length, out);
+      out.append(" kilometers");
   	}
 }
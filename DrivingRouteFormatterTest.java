@@ -5,6 +5,7 @@ public class DrivingRouteFormatterTest {
 	private DrivingRouteFormatter mDirections;
   	private Route mShortRoute;
 
+  	private boolean mFailed;
   
   	public DrivingRouteFormatterTest() {
     	mDirections = new DrivingRouteFormatter();
@@ -22,13 +23,17 @@ public class DrivingRouteFormatterTest {
     
 		if (mDirections.computeDirections(mShortRoute, 0).equals(directions))
 			System.out.println("Test passed correctly");
-		else
+		else {
 			System.out.println("Test not passed correctly");
+			mFailed = true;
+		}
 	}
   	
   	
 	public static void main(String[] args) {
 		DrivingRouteFormatterTest directionsTest = new DrivingRouteFormatterTest();
 		directionsTest.test();
+		if (directionsTest.mFailed)
+			System.exit(1);
 	}
 }
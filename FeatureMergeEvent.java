@@ -0,0 +1,35 @@
+package homework1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A FeatureMergeEvent is a Java Flight Recorder event that records the
+ * merging of GeoSegments into the last GeoFeature of a Route, when they
+ * continue the same street, by Route.addSegment() or Route.addSegments().
+ * <p>
+ * It is controlled by the settings of the recording under the name
+ * <tt>homework1.FeatureMerge</tt>. Its stack trace is off by default, as the
+ * event is frequent.
+ */
+@Name("homework1.FeatureMerge")
+@Label("Feature Merge")
+@Category({ "homework1", "Routes" })
+@Description("GeoSegments merged into the last GeoFeature of a Route")
+@StackTrace(false)
+final class FeatureMergeEvent extends Event {
+
+	@Label("Feature Name")
+	String featureName;
+
+	@Label("Segments Merged")
+	int mergedSegments;
+
+	@Label("Segment Count")
+	@Description("Number of GeoSegments of the merged GeoFeature")
+	int segmentCount;
+}
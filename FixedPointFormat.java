@@ -0,0 +1,158 @@
+package homework1;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * A FixedPointFormat writes numbers in the forms used by the
+ * RouteFormatter subclasses directly into a character sink. FixedPointFormats
+ * are immutable and may be shared between threads.
+ * <p>
+ * Unlike <tt>java.text.DecimalFormat</tt>, which is expensive to create
+ * and is not thread-safe, a FixedPointFormat allocates no objects when
+ * writing a number. Its output is identical to that of DecimalFormat with
+ * the pattern <tt>"#.#"</tt> (or <tt>"0.0"</tt>) and the symbols of the
+ * same locale, including the HALF_EVEN rounding of the exact binary value
+ * of the number: ties are detected exactly with a fused multiply-add rather
+ * than by scaling the number, which would round it.
+ */
+public class FixedPointFormat {
+
+	// Numbers at least this large are delegated to DecimalFormat, keeping
+	// ten times their integer part exactly representable as a double.
+	private static final double LIMIT = 1e14;
+
+	private final DecimalFormatSymbols symbols;
+	private final char zeroDigit;
+	private final char decimalSeparator;
+	private final char minusSign;
+
+	// Abs. Function: the number formats "#.#" and "0.0" of the locale of symbols.
+	// Rep. Invariant: symbols != null && zeroDigit, decimalSeparator and
+	// minusSign are those of symbols.
+
+	/**
+	 * Constructs a new FixedPointFormat.
+	 *
+	 * @effects Constructs a new FixedPointFormat with the symbols of the
+	 *          default locale, as used by new DecimalFormat("#.#").
+	 */
+	public FixedPointFormat() {
+		this(DecimalFormatSymbols.getInstance());
+	}
+
+	/**
+	 * Constructs a new FixedPointFormat.
+	 *
+	 * @requires locale != null
+	 * @effects Constructs a new FixedPointFormat with the symbols of locale.
+	 */
+	public FixedPointFormat(Locale locale) {
+		this(DecimalFormatSymbols.getInstance(locale));
+	}
+
+	private FixedPointFormat(DecimalFormatSymbols symbols) {
+		this.symbols = symbols;
+		this.zeroDigit = symbols.getZeroDigit();
+		this.decimalSeparator = symbols.getDecimalSeparator();
+		this.minusSign = symbols.getMinusSign();
+	}
+
+	/**
+	 * Writes a number rounded to one decimal place.
+	 *
+	 * @requires out != null
+	 * @modifies out
+	 * @effects appends to out the String new DecimalFormat("#.#").format(value),
+	 *          e.g. "1.4", "12" or "0.1".
+	 * @throws IOException if out fails.
+	 */
+	public void appendOneDecimal(double value, Appendable out) throws IOException {
+		appendTenths(value, false, out);
+	}
+
+	/**
+	 * Writes a number rounded to one decimal place, always writing the
+	 * decimal digit.
+	 *
+	 * @requires out != null
+	 * @modifies out
+	 * @effects appends to out the String new DecimalFormat("0.0").format(value),
+	 *          e.g. "1.4", "12.0" or "0.1".
+	 * @throws IOException if out fails.
+	 */
+	public void appendOneDecimalFixed(double value, Appendable out) throws IOException {
+		appendTenths(value, true, out);
+	}
+
+	private void appendTenths(double value, boolean fixed, Appendable out) throws IOException {
+		if (!(Math.abs(value) < LIMIT)) {
+			// Huge, infinite or NaN values never occur in directions.
+			out.append(new DecimalFormat(fixed ? "0.0" : "#.#", symbols).format(value));
+			return;
+		}
+		boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+		double a = Math.abs(value);
+
+		// Find n such that n <= 10a < n + 1 holds exactly.
+		long n = (long) (a * 10);
+		if (Math.fma(a, 10, -n) < 0) {
+			n--;
+		} else if (Math.fma(a, 10, -(n + 1)) >= 0) {
+			n++;
+		}
+		// The sign of 10a - (n + 0.5) is exact, so ties are found exactly.
+		double d = Math.fma(a, 10, -(n + 0.5));
+		if (d > 0 || (d == 0 && (n & 1) == 1)) {
+			n++;
+		}
+
+		if (negative) {
+			out.append(minusSign);
+		}
+		appendDigits(n / 10, zeroDigit, out);
+		if (fixed || n % 10 != 0) {
+			out.append(decimalSeparator);
+			out.append((char) (zeroDigit + n % 10));
+		}
+	}
+
+	/**
+	 * Writes an integer.
+	 *
+	 * @requires out != null
+	 * @modifies out
+	 * @effects appends to out the String Long.toString(value).
+	 * @throws IOException if out fails.
+	 */
+	public void appendInteger(long value, Appendable out) throws IOException {
+		if (value < 0) {
+			out.append('-');
+			if (value == Long.MIN_VALUE) {
+				// -value overflows; write the last digit separately.
+				appendDigits(-(value / 10), '0', out);
+				out.append((char) ('0' - value % 10));
+				return;
+			}
+			value = -value;
+		}
+		appendDigits(value, '0', out);
+	}
+
+	/**
+	 * @requires value >= 0
+	 * @effects appends to out the decimal digits of value, using zero as
+	 *          the digit 0.
+	 */
+	private static void appendDigits(long value, char zero, Appendable out) throws IOException {
+		long power = 1;
+		while (power <= value / 10) {
+			power *= 10;
+		}
+		for (; power > 0; power /= 10) {
+			out.append((char) (zero + value / power % 10));
+		}
+	}
+}
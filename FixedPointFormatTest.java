@@ -0,0 +1,123 @@
+package homework1;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.Locale;
+import java.util.Random;
+
+public class FixedPointFormatTest {
+
+	private FixedPointFormat mFormat;
+	private DecimalFormat mReference;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public FixedPointFormatTest() {
+		mFormat = new FixedPointFormat();
+		mReference = new DecimalFormat("#.#");
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private String oneDecimal(FixedPointFormat format, double value) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			format.appendOneDecimal(value, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+
+	private String oneDecimalFixed(double value) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			mFormat.appendOneDecimalFixed(value, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+
+	private String integer(long value) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			mFormat.appendInteger(value, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+
+	private boolean sameAsReference(double value) {
+		return oneDecimal(mFormat, value).equals(mReference.format(value));
+	}
+
+
+	public void test() {
+		show("appendOneDecimal()");
+		show("0 is written as 0", oneDecimal(mFormat, 0).equals("0"));
+		show("1.0 drops its fraction", oneDecimal(mFormat, 1.0).equals("1"));
+		show("1.44 is written as 1.4", oneDecimal(mFormat, 1.44).equals("1.4"));
+		show("Exact tie 0.25 rounds to even", sameAsReference(0.25));
+		show("0.15 is below the tie in binary", sameAsReference(0.15));
+		show("0.45 is above the tie in binary", sameAsReference(0.45));
+		show("12.05 is above the tie in binary", sameAsReference(12.05));
+		show("0.95 carries into the integer part", sameAsReference(0.95));
+		show("Negative values", sameAsReference(-2.35) && sameAsReference(-0.04));
+		show("Huge values", sameAsReference(1e20));
+
+		boolean random = true;
+		Random rnd = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			double value = rnd.nextInt(100000) / 100.0;
+			if (!sameAsReference(value) || !sameAsReference(rnd.nextDouble() * 50))
+				random = false;
+		}
+		show("Random values match DecimalFormat", random);
+
+		FixedPointFormat german = new FixedPointFormat(Locale.GERMANY);
+		show("Locale decimal separator is used", oneDecimal(german, 1.44).equals("1,4"));
+
+		show("appendOneDecimalFixed()");
+		DecimalFormat fixed = new DecimalFormat("0.0");
+		show("1.0 keeps its fraction", oneDecimalFixed(1.0).equals("1.0"));
+		show("0.04 is written as 0.0", oneDecimalFixed(0.04).equals("0.0"));
+		show("Ties match DecimalFormat",
+			oneDecimalFixed(0.25).equals(fixed.format(0.25))
+			&& oneDecimalFixed(12.05).equals(fixed.format(12.05)));
+
+		show("appendInteger()");
+		show("0", integer(0).equals("0"));
+		show("27", integer(27).equals("27"));
+		show("-1200", integer(-1200).equals("-1200"));
+		show("Long.MIN_VALUE", integer(Long.MIN_VALUE).equals(Long.toString(Long.MIN_VALUE)));
+	}
+
+
+	public static void main(String[] args) {
+		FixedPointFormatTest formatTest = new FixedPointFormatTest();
+		formatTest.test();
+		if (formatTest.mFailed)
+			System.exit(1);
+	}
+}
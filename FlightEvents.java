@@ -0,0 +1,66 @@
+package homework1;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * FlightEvents begins the Java Flight Recorder events of this package, once
+ * the Flight Recorder is running.
+ * <p>
+ * Creating the first jdk.jfr.Event loads and registers a large part of the
+ * jdk.jfr module, which would triple the start-up time of a short program
+ * such as DirectionsCli even when nothing is recorded. Instrumented code
+ * therefore gets its events from here: until the Flight Recorder has been
+ * started, by -XX:StartFlightRecording, jcmd JFR.start or a
+ * jdk.jfr.Recording, each method returns null after reading a single static
+ * field, and the event classes are not loaded at all.
+ */
+final class FlightEvents {
+
+	private FlightEvents() {
+	}
+
+	/**
+	 * Begins a RouteConstructionEvent.
+	 *
+	 * @return a new, begun RouteConstructionEvent, or null if the Flight
+	 *         Recorder is not running.
+	 */
+	static RouteConstructionEvent beginRouteConstruction() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		RouteConstructionEvent event = new RouteConstructionEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Begins a FeatureMergeEvent.
+	 *
+	 * @return a new, begun FeatureMergeEvent, or null if the Flight Recorder
+	 *         is not running.
+	 */
+	static FeatureMergeEvent beginFeatureMerge() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		FeatureMergeEvent event = new FeatureMergeEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Begins a DirectionsEvent.
+	 *
+	 * @return a new, begun DirectionsEvent, or null if the Flight Recorder is
+	 *         not running.
+	 */
+	static DirectionsEvent beginDirections() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		DirectionsEvent event = new DirectionsEvent();
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,158 @@
+package homework1;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightEventsTest {
+
+	private GeoSegment mFirst;
+	private GeoSegment mSecond;
+	private GeoSegment mThird;
+	private GeoSegment mFourth;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public FlightEventsTest() {
+		mFirst = new GeoSegment("Trumpeldor Avenue", new GeoPoint(32783098, 35014528), new GeoPoint(32787081, 35020735));
+		mSecond = new GeoSegment("Trumpeldor Avenue", new GeoPoint(32787081, 35020735), new GeoPoint(32790000, 35021000));
+		mThird = new GeoSegment("Hagalil", new GeoPoint(32790000, 35021000), new GeoPoint(32795631, 35010296));
+		mFourth = new GeoSegment("Hagalil", new GeoPoint(32795631, 35010296), new GeoPoint(32796000, 35009000));
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+		List<RecordedEvent> result = new ArrayList<RecordedEvent>();
+		for (RecordedEvent event : events) {
+			if (event.getEventType().getName().equals(name))
+				result.add(event);
+		}
+		return result;
+	}
+
+
+	public void test() throws IOException {
+		show("Before recording");
+		show("No event is created", FlightEvents.beginRouteConstruction() == null
+			&& FlightEvents.beginFeatureMerge() == null && FlightEvents.beginDirections() == null);
+
+		show("Recording");
+		Path file = Files.createTempFile("events", ".jfr");
+		String directions;
+		try (Recording recording = new Recording()) {
+			recording.enable("homework1.RouteConstruction");
+			recording.enable("homework1.FeatureMerge");
+			recording.enable("homework1.ComputeDirections");
+			recording.start();
+			Route route = new Route(mFirst).addSegment(mSecond).addSegments(Arrays.asList(mThird, mFourth));
+			directions = new WalkingRouteFormatter().computeDirections(route, 0);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		Files.delete(file);
+
+		List<RecordedEvent> constructions = eventsOf(events, "homework1.RouteConstruction");
+		show("Route constructions are recorded", constructions.size() == 2
+			&& constructions.get(0).getString("method").equals("addSegment")
+			&& constructions.get(0).getInt("segmentCount") == 2
+			&& constructions.get(1).getString("method").equals("addSegments")
+			&& constructions.get(1).getInt("addedSegments") == 2
+			&& constructions.get(1).getInt("featureCount") == 2);
+		List<RecordedEvent> merges = eventsOf(events, "homework1.FeatureMerge");
+		show("Feature merge is recorded", merges.size() == 1
+			&& merges.get(0).getString("featureName").equals("Trumpeldor Avenue")
+			&& merges.get(0).getInt("segmentCount") == 2);
+		List<RecordedEvent> computed = eventsOf(events, "homework1.ComputeDirections");
+		show("Directions are recorded", computed.size() == 1
+			&& computed.get(0).getClass("formatter").getName().equals("homework1.WalkingRouteFormatter")
+			&& computed.get(0).getLong("outputLength") == directions.length()
+			&& computed.get(0).getInt("featureCount") == 2
+			&& !computed.get(0).getBoolean("parallel"));
+
+		show("Parallel directions");
+		// long enough to be split into chunks
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 7), 20000, 7);
+		Route longRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		file = Files.createTempFile("events", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("homework1.ComputeDirections");
+			recording.start();
+			directions = new DrivingRouteFormatter().computeDirectionsParallel(longRoute, 0);
+			recording.stop();
+			recording.dump(file);
+		}
+		computed = eventsOf(RecordingFile.readAllEvents(file), "homework1.ComputeDirections");
+		Files.delete(file);
+		show("Parallel directions are recorded once", computed.size() == 1
+			&& computed.get(0).getBoolean("parallel")
+			&& computed.get(0).getClass("formatter").getName().equals("homework1.DrivingRouteFormatter")
+			&& computed.get(0).getLong("outputLength") == directions.length()
+			&& computed.get(0).getInt("featureCount") == longRoute.geoFeatures.size()
+			&& computed.get(0).getInt("segmentCount") == longRoute.geoSegments.size());
+
+		show("Recording enabled during a call");
+		boolean completed;
+		try (Recording recording = new Recording()) {
+			recording.start();
+			Route route = new Route(mFirst).addSegment(mSecond);
+			// enables the event after computeDirections() has begun it
+			StringBuilder out = new StringBuilder();
+			Appendable enabling = new Appendable() {
+				public Appendable append(CharSequence csq) {
+					recording.enable("homework1.ComputeDirections");
+					out.append(csq);
+					return this;
+				}
+
+				public Appendable append(CharSequence csq, int start, int end) {
+					return append(csq.subSequence(start, end));
+				}
+
+				public Appendable append(char c) {
+					return append(String.valueOf(c));
+				}
+			};
+			try {
+				new WalkingRouteFormatter().computeDirections(route, 0, enabling);
+				completed = out.toString().equals(new WalkingRouteFormatter().computeDirections(route, 0));
+			} catch (NullPointerException e) {
+				completed = false;
+			}
+			recording.stop();
+		}
+		show("Directions are computed", completed);
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		FlightEventsTest eventsTest = new FlightEventsTest();
+		eventsTest.test();
+		if (eventsTest.mFailed)
+			System.exit(1);
+	}
+}
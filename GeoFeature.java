@@ -3,6 +3,7 @@ package homework1;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A GeoFeature represents a route from one location to another along a
@@ -189,6 +190,7 @@ public class GeoFeature {
 	 *         r.length = this.length + gs.length
 	 **/
 	public GeoFeature addSegment(GeoSegment gs) {
+		long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
 		if (gs == null) {
 			throw new IllegalArgumentException("GeoSegment cannot be null");
 		}
@@ -202,7 +204,7 @@ public class GeoFeature {
 		newSegments = List.copyOf(newSegments); // Immutable copy
 		checkRep();
 		// Create and return a new GeoFeature instance
-		return new GeoFeature(
+		GeoFeature feature = new GeoFeature(
 				this.start, // start remains the same
 				gs.p2, // end is the end of the new segment
 				this.startHeading, // start heading remains the same
@@ -210,6 +212,43 @@ public class GeoFeature {
 				this.name, // name remains the same
 				this.length + gs.length, // total length is updated
 				newSegments);
+		if (Metrics.ENABLED) {
+			Instruments.ADD_SEGMENT_NANOS.record(System.nanoTime() - startTime);
+			Instruments.ADD_SEGMENT_COPIED.add(geoSegments.size());
+		}
+		return feature;
+	}
+
+	/**
+	 * Extends this GeoFeature by a sequence of GeoSegments at once, copying
+	 * the segments of this only once.
+	 * 
+	 * @requires gss != null && gss is not empty && gss.get(0).p1 = this.end &&
+	 *           for each i : gss.get(i).name = this.name &&
+	 *           (i > 0 => gss.get(i).p1 = gss.get(i-1).p2)
+	 * @return the GeoFeature this.addSegment(gss.get(0)).addSegment(gss.get(1))...
+	 **/
+	public GeoFeature addSegments(List<GeoSegment> gss) {
+		if (gss == null || gss.isEmpty()) {
+			throw new IllegalArgumentException("GeoSegments cannot be null or empty");
+		}
+		List<GeoSegment> newSegments = new ArrayList<GeoSegment>(this.geoSegments.size() + gss.size());
+		newSegments.addAll(this.geoSegments);
+		GeoPoint newEnd = this.end;
+		double newLength = this.length;
+		for (GeoSegment gs : gss) {
+			if (gs == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			if (!newEnd.equals(gs.p1) || !this.name.equals(gs.name)) {
+				throw new IllegalArgumentException("GeoSegment does not match");
+			}
+			newSegments.add(gs);
+			newEnd = gs.p2;
+			newLength += gs.length;
+		}
+		return new GeoFeature(this.start, newEnd, this.startHeading,
+				gss.get(gss.size() - 1).heading, this.name, newLength, newSegments);
 	}
 
 	/**
@@ -286,4 +325,13 @@ public class GeoFeature {
 				.append(", geoSegments=").append(geoSegments).append("]");
 		return sb.toString();
 	}
+
+	/**
+	 * The instruments of GeoFeature, registered with Metrics only once
+	 * measuring is on and a GeoFeature is extended.
+	 */
+	private static final class Instruments {
+		static final LogHistogram ADD_SEGMENT_NANOS = Metrics.histogram("feature_add_segment_nanos");
+		static final LongAdder ADD_SEGMENT_COPIED = Metrics.counter("feature_add_segment_copied");
+	}
 }
@@ -15,6 +15,7 @@ public class GeoSegmentTest {
   	private GeoSegment gsEast2; 
   	private GeoSegment gsWest2;
   	private GeoSegment gsDiag; 
+  	private boolean mFailed;	// makes main() exit with status 1
   
   
   	public GeoSegmentTest() {
@@ -46,8 +47,10 @@ public class GeoSegmentTest {
 	public void show(String str, boolean ok) {
 		if (ok)
 			System.out.print("v ");
-		else
+		else {
 			System.out.print("x ");
+			mFailed = true;
+		}
 		System.out.println(str);	
 	}
   	
@@ -126,5 +129,7 @@ public class GeoSegmentTest {
 	public static void main(String[] args) {
 		GeoSegmentTest segmentTest = new GeoSegmentTest();
 		segmentTest.test();
+		if (segmentTest.mFailed)
+			System.exit(1);
 	}
 }
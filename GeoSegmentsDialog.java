@@ -1,31 +1,59 @@
 package homework1;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.Arrays;
 
 /**
  * A JDailog GUI for choosing a GeoSegemnt and adding it to the route shown
  * by RoutDirectionGUI.
  * <p>
+ * The segments are searched by street name as the user types: the list
+ * shows the segments of the best matching streets of a StreetNameIndex,
+ * queried once typing pauses, and is filled lazily as it is scrolled.
+ * <p>
  * A figure showing this GUI can be found in homework assignment #1.
  */
 public class GeoSegmentsDialog extends JDialog {
 
 	private static final long serialVersionUID = 1L;
 
+	// most streets listed for a query
+	private static final int MAX_STREETS = 1000;
+
+	// delay after the last keystroke before searching, in milliseconds
+	private static final int SEARCH_DELAY = 150;
+
 	// the RouteDirectionsGUI that this JDialog was opened from
 	private RouteFormatterGUI parent;
 	
-	// a control contained in this 
+	// controls contained in this 
 	private JList<GeoSegment> lstSegments;
+	private JTextField txtSearch;
+
+	private StreetSearchListModel model;
+	private Timer searchTimer;
 	
 	/**
 	 * Creates a new GeoSegmentsDialog JDialog.
 	 * @effects Creates a new GeoSegmentsDialog JDialog with owner-frame
-	 * 			owner and parent pnlParent
+	 * 			owner and parent pnlParent, offering the segments of
+	 * 			ExampleGeoSegments.
 	 */
 	public GeoSegmentsDialog(Frame owner, RouteFormatterGUI pnlParent) {
+		this(owner, pnlParent, new StreetNameIndex(Arrays.asList(ExampleGeoSegments.segments)));
+	}
+
+	/**
+	 * Creates a new GeoSegmentsDialog JDialog.
+	 * @requires index != null
+	 * @effects Creates a new GeoSegmentsDialog JDialog with owner-frame
+	 * 			owner and parent pnlParent, offering the segments of index
+	 */
+	public GeoSegmentsDialog(Frame owner, RouteFormatterGUI pnlParent, StreetNameIndex index) {
 		// create a modal JDialog with the an owner Frame (a modal window
 		// in one that doesn't allow other windows to be active at the
 		// same time).
@@ -35,20 +63,46 @@ public class GeoSegmentsDialog extends JDialog {
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout(10, 10));
 
-        // Label at the top
+        // Label and search field at the top
         JLabel lblTitle = new JLabel("GeoSegments:");
-        lblTitle.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 0));
-        add(lblTitle, BorderLayout.NORTH);
-
-        // Create the JList
-        DefaultListModel<GeoSegment> model = new DefaultListModel<>();
-        for (GeoSegment s : ExampleGeoSegments.segments) {
-            model.addElement(s);
-        }
+        txtSearch = new JTextField();
+        lblTitle.setLabelFor(txtSearch);
+        JPanel pnlSearch = new JPanel(new BorderLayout(10, 0));
+        pnlSearch.add(lblTitle, BorderLayout.WEST);
+        pnlSearch.add(txtSearch, BorderLayout.CENTER);
+        pnlSearch.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        add(pnlSearch, BorderLayout.NORTH);
+
+        // Create the JList, showing every street until a query is typed
+        model = new StreetSearchListModel(index, MAX_STREETS);
+        model.setQuery("");
         lstSegments = new JList<>(model);
         lstSegments.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         lstSegments.setVisibleRowCount(8);
         lstSegments.setFixedCellWidth(500);
+        lstSegments.setFixedCellHeight(
+                lstSegments.getFontMetrics(lstSegments.getFont()).getHeight() + 2);
+
+        // search once typing pauses
+        searchTimer = new Timer(SEARCH_DELAY, e -> search());
+        searchTimer.setRepeats(false);
+        txtSearch.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        txtSearch.addActionListener(e -> {
+            searchTimer.stop();
+            search();
+        });
 
         JScrollPane scrollPane = new JScrollPane(lstSegments);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
@@ -80,6 +134,15 @@ public class GeoSegmentsDialog extends JDialog {
     }
 
 
+	private void search() {
+		model.setQuery(txtSearch.getText().trim());
+		if (model.getSize() > 0) {
+			lstSegments.setSelectedIndex(0);
+			lstSegments.ensureIndexIsVisible(0);
+		}
+	}
+
+
 	    private void addSelectedSegment() {
         GeoSegment seg = lstSegments.getSelectedValue();
         if (seg == null) {
@@ -0,0 +1,316 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * An Isochrone is the part of a RoadNetwork that can be reached from an
+ * origin within a time budget using a given TravelMode. Isochrones are
+ * immutable.
+ * <p>
+ * A segment is covered partially when the budget runs out while traveling
+ * along it; its coverage is then the fraction of its length, measured from
+ * its p1, that can be reached. The boundary of the Isochrone is simplified
+ * to the convex hull of the origin and of the farthest reachable point of
+ * every covered segment.
+ * <p>
+ * The search is a Dijkstra search bounded by the budget, whose state is
+ * kept in primitive arrays. Catchment jobs over many sites should call
+ * <tt>computeAll</tt>, which runs the searches in parallel and reuses
+ * these arrays for all the sites of a chunk.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   origin : GeoPoint        // location the Isochrone is computed from
+ *   mode : TravelMode        // the way the network is traversed
+ *   minutes : real           // the time budget, in minutes
+ *   segments : sequence      // the reachable segments of the network
+ *   coverage : sequence      // the reachable fraction of each segment, 0 < c <= 1
+ *   boundary : sequence      // the distinct vertices of the boundary polygon, counter-clockwise
+ * </pre>
+ **/
+public class Isochrone {
+	// Number of chunks of origins computeAll() gives each thread, to balance
+	// the load when some searches take longer than others.
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	final GeoPoint origin;
+	final TravelMode mode;
+	final double minutes;
+	final GeoSegment[] segments;
+	final double[] coverage;
+	final List<GeoPoint> boundary;
+
+	// Abs. Function: the segments[i] are reachable from origin within minutes
+	// up to the fraction coverage[i] of their length, and boundary encloses them.
+	// Rep. Invariant: origin != null && mode != null && minutes >= 0 &&
+	// segments.length == coverage.length && for each i : 0 < coverage[i] <= 1 &&
+	// boundary != null && boundary.size() > 0
+
+	private Isochrone(GeoPoint origin, TravelMode mode, double minutes,
+			GeoSegment[] segments, double[] coverage, List<GeoPoint> boundary) {
+		this.origin = origin;
+		this.mode = mode;
+		this.minutes = minutes;
+		this.segments = segments;
+		this.coverage = coverage;
+		this.boundary = List.copyOf(boundary);
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (origin != null && mode != null && minutes >= 0);
+		assert (segments.length == coverage.length && boundary.size() > 0);
+		for (int i = 0; i < coverage.length; i++) {
+			assert (coverage[i] > 0 && coverage[i] <= 1);
+		}
+	}
+
+	/**
+	 * Computes the Isochrone of a GeoPoint.
+	 *
+	 * @requires network != null && origin != null && minutes >= 0 && mode != null
+	 * @return the Isochrone of origin in network for a budget of minutes
+	 *         minutes traveling in mode. If origin is not a node of network,
+	 *         nothing but origin itself is reachable.
+	 */
+	public static Isochrone compute(RoadNetwork network, GeoPoint origin,
+			double minutes, TravelMode mode) {
+		checkArguments(network, minutes, mode);
+		return new Search(network).run(origin, minutes, mode);
+	}
+
+	/**
+	 * Computes the Isochrones of many GeoPoints in parallel.
+	 *
+	 * @requires network != null && origins != null && no element of origins
+	 *           is null && minutes >= 0 && mode != null
+	 * @return a list whose i-th element is
+	 *         compute(network, origins.get(i), minutes, mode).
+	 */
+	public static List<Isochrone> computeAll(RoadNetwork network, List<GeoPoint> origins,
+			double minutes, TravelMode mode) {
+		checkArguments(network, minutes, mode);
+		if (origins == null) {
+			throw new IllegalArgumentException("Origins cannot be null");
+		}
+		// Each chunk allocates its own search arrays and drops them when it is
+		// done, so nothing network-sized outlives the call in pool threads.
+		Isochrone[] results = new Isochrone[origins.size()];
+		int chunks = Math.min(results.length, CHUNKS_PER_THREAD * ForkJoinPool.getCommonPoolParallelism());
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			Search search = new Search(network);
+			int to = (int) ((long) results.length * (c + 1) / chunks);
+			for (int i = (int) ((long) results.length * c / chunks); i < to; i++) {
+				results[i] = search.run(origins.get(i), minutes, mode);
+			}
+		});
+		return Arrays.asList(results);
+	}
+
+	private static void checkArguments(RoadNetwork network, double minutes, TravelMode mode) {
+		if (network == null || mode == null) {
+			throw new IllegalArgumentException("Network and mode cannot be null");
+		}
+		if (!(minutes >= 0)) {
+			throw new IllegalArgumentException("minutes must be non-negative");
+		}
+	}
+
+	/**
+	 * Returns the origin of this Isochrone.
+	 *
+	 * @return the location this Isochrone is computed from.
+	 */
+	public GeoPoint getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * Returns the travel mode of this Isochrone.
+	 *
+	 * @return the way the network is traversed.
+	 */
+	public TravelMode getTravelMode() {
+		return mode;
+	}
+
+	/**
+	 * Returns the time budget of this Isochrone.
+	 *
+	 * @return the time budget, in minutes.
+	 */
+	public double getMinutes() {
+		return minutes;
+	}
+
+	/**
+	 * Returns the number of reachable segments.
+	 *
+	 * @return the number of segments covered, fully or partially.
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * Returns a reachable segment.
+	 *
+	 * @requires 0 <= i < getSegmentCount()
+	 * @return the i-th reachable segment.
+	 */
+	public GeoSegment getSegment(int i) {
+		return segments[i];
+	}
+
+	/**
+	 * Returns the coverage of a reachable segment.
+	 *
+	 * @requires 0 <= i < getSegmentCount()
+	 * @return the fraction of the length of getSegment(i), measured from its
+	 *         p1, that is reachable, such that 0 < c <= 1.
+	 */
+	public double getCoverage(int i) {
+		return coverage[i];
+	}
+
+	/**
+	 * Returns an Iterator of the reachable segments.
+	 *
+	 * @return an Iterator of the segments covered, fully or partially.
+	 */
+	public Iterator<GeoSegment> getGeoSegments() {
+		return Arrays.asList(segments).iterator();
+	}
+
+	/**
+	 * Returns the boundary polygon of this Isochrone.
+	 *
+	 * @return an Iterator of the distinct vertices of the boundary, in
+	 *         counter-clockwise order.
+	 */
+	public Iterator<GeoPoint> getBoundary() {
+		return boundary.iterator();
+	}
+
+	/**
+	 * A Search holds the NetworkSearch of the bounded Dijkstra searches over
+	 * one network. Searches are not thread-safe.
+	 */
+	private static class Search {
+		private final RoadNetwork network;
+		private final NetworkSearch search;
+
+		Search(RoadNetwork network) {
+			this.network = network;
+			search = new NetworkSearch(network);
+		}
+
+		Isochrone run(GeoPoint origin, double minutes, TravelMode mode) {
+			if (origin == null) {
+				throw new IllegalArgumentException("Origin cannot be null");
+			}
+			int source = network.getNodeId(origin);
+			List<GeoPoint> reached = new ArrayList<GeoPoint>();
+			reached.add(origin);
+			if (source < 0) {
+				return new Isochrone(origin, mode, minutes, new GeoSegment[0], new double[0], reached);
+			}
+
+			// Bounded search: settles every node reachable within the budget.
+			search.run(source, 0, -1, minutes, NetworkSearch.ALL_EDGES,
+					(e, t) -> mode.getMinutes(network.edges[e].length));
+			int settledCount = search.getSettledCount();
+
+			// Every edge leaving a settled node is covered up to the budget.
+			int edgeCount = 0;
+			for (int i = 0; i < settledCount; i++) {
+				int v = search.getSettled(i);
+				edgeCount += network.firstOutEdge[v + 1] - network.firstOutEdge[v];
+			}
+			GeoSegment[] segments = new GeoSegment[edgeCount];
+			double[] coverage = new double[edgeCount];
+			int count = 0;
+			for (int i = 0; i < settledCount; i++) {
+				int v = search.getSettled(i);
+				double remaining = minutes - search.getKey(v);
+				for (int e = network.firstOutEdge[v]; e < network.firstOutEdge[v + 1]; e++) {
+					GeoSegment gs = network.edges[e];
+					double needed = mode.getMinutes(gs.length);
+					double c = needed <= remaining ? 1 : remaining / needed;
+					if (c <= 0) {
+						continue;
+					}
+					segments[count] = gs;
+					coverage[count] = c;
+					count++;
+					reached.add(c == 1 ? gs.p2 : interpolate(gs, c));
+				}
+			}
+			return new Isochrone(origin, mode, minutes, Arrays.copyOf(segments, count),
+					Arrays.copyOf(coverage, count), convexHull(reached));
+		}
+	}
+
+	/**
+	 * @requires 0 <= fraction <= 1
+	 * @return the point at the given fraction of the way from gs.p1 to gs.p2.
+	 */
+	private static GeoPoint interpolate(GeoSegment gs, double fraction) {
+		int lat = gs.p1.latitude + (int) Math.round((gs.p2.latitude - gs.p1.latitude) * fraction);
+		int lon = gs.p1.longitude + (int) Math.round((gs.p2.longitude - gs.p1.longitude) * fraction);
+		return new GeoPoint(lat, lon);
+	}
+
+	/**
+	 * Computes the convex hull of a set of points with Andrew's monotone
+	 * chain algorithm.
+	 *
+	 * @requires points != null && points.size() > 0
+	 * @return the distinct vertices of the convex hull of points, in
+	 *         counter-clockwise order (longitude as x, latitude as y).
+	 */
+	static List<GeoPoint> convexHull(List<GeoPoint> points) {
+		GeoPoint[] sorted = points.toArray(new GeoPoint[0]);
+		Arrays.sort(sorted, (a, b) -> a.longitude != b.longitude
+				? Integer.compare(a.longitude, b.longitude)
+				: Integer.compare(a.latitude, b.latitude));
+		// Coinciding points, such as the ends of segments meeting at a node,
+		// would otherwise all become vertices when fewer than 3 are distinct.
+		int distinct = 1;
+		for (int i = 1; i < sorted.length; i++) {
+			if (!sorted[i].equals(sorted[distinct - 1])) {
+				sorted[distinct++] = sorted[i];
+			}
+		}
+		sorted = Arrays.copyOf(sorted, distinct);
+		if (sorted.length < 3) {
+			return Arrays.asList(sorted);
+		}
+		GeoPoint[] hull = new GeoPoint[2 * sorted.length];
+		int k = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			while (k >= 2 && cross(hull[k - 2], hull[k - 1], sorted[i]) <= 0) {
+				k--;
+			}
+			hull[k++] = sorted[i];
+		}
+		for (int i = sorted.length - 2, lower = k + 1; i >= 0; i--) {
+			while (k >= lower && cross(hull[k - 2], hull[k - 1], sorted[i]) <= 0) {
+				k--;
+			}
+			hull[k++] = sorted[i];
+		}
+		return Arrays.asList(Arrays.copyOf(hull, Math.max(k - 1, 1)));
+	}
+
+	private static long cross(GeoPoint o, GeoPoint a, GeoPoint b) {
+		return (long) (a.longitude - o.longitude) * (b.latitude - o.latitude)
+				- (long) (a.latitude - o.latitude) * (b.longitude - o.longitude);
+	}
+}
@@ -0,0 +1,259 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class IsochroneTest {
+
+	private static final double tolerance = 1e-9;
+
+	private RoadNetwork mTechnion;
+	private RoadNetwork mGrid;
+	private GeoPoint gpHankin;			// Hankin Road, Natan Komoi & A.D. Gordon Intersection
+	private boolean mFailed;			// makes main() exit with status 1
+
+
+	public IsochroneTest() {
+		mTechnion = new RoadNetwork(twoWay(ExampleGeoSegments.segments));
+		mGrid = new RoadNetwork(twoWay(SyntheticNetworks.grid(2000, 5)));
+		gpHankin = ExampleGeoSegments.points[0];
+	}
+
+
+	private static List<GeoSegment> twoWay(GeoSegment[] segments) {
+		List<GeoSegment> result = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : segments) {
+			result.add(gs);
+			result.add(gs.reverse());
+		}
+		return result;
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	/**
+	 * @return the travel time from origin to every node of network, found by
+	 *         relaxing all the edges until nothing changes.
+	 */
+	private static double[] bellmanFord(RoadNetwork network, GeoPoint origin, TravelMode mode) {
+		double[] time = new double[network.getNodeCount()];
+		Arrays.fill(time, Double.POSITIVE_INFINITY);
+		time[network.getNodeId(origin)] = 0;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int e = 0; e < network.getEdgeCount(); e++) {
+				GeoSegment gs = network.getEdge(e);
+				double t = time[network.getNodeId(gs.getP1())] + mode.getMinutes(gs.getLength());
+				int w = network.getNodeId(gs.getP2());
+				if (t < time[w]) {
+					time[w] = t;
+					changed = true;
+				}
+			}
+		}
+		return time;
+	}
+
+
+	/**
+	 * @return true iff isochrone covers exactly the edges of network that
+	 *         can be reached within its budget, to the right fraction.
+	 */
+	private static boolean matchesReference(RoadNetwork network, Isochrone isochrone) {
+		double[] time = bellmanFord(network, isochrone.getOrigin(), isochrone.getTravelMode());
+		Map<GeoSegment, Double> expected = new HashMap<GeoSegment, Double>();
+		for (int e = 0; e < network.getEdgeCount(); e++) {
+			GeoSegment gs = network.getEdge(e);
+			double remaining = isochrone.getMinutes() - time[network.getNodeId(gs.getP1())];
+			double needed = isochrone.getTravelMode().getMinutes(gs.getLength());
+			double c = needed <= remaining ? 1 : remaining / needed;
+			if (c > 0)
+				expected.put(gs, c);
+		}
+		if (expected.size() != isochrone.getSegmentCount())
+			return false;
+		for (int i = 0; i < isochrone.getSegmentCount(); i++) {
+			Double c = expected.get(isochrone.getSegment(i));
+			if (c == null || Math.abs(c - isochrone.getCoverage(i)) > 1e-6)
+				return false;
+		}
+		return true;
+	}
+
+
+	private static long cross(GeoPoint o, GeoPoint a, GeoPoint b) {
+		return (long) (a.getLongitude() - o.getLongitude()) * (b.getLatitude() - o.getLatitude())
+			- (long) (a.getLatitude() - o.getLatitude()) * (b.getLongitude() - o.getLongitude());
+	}
+
+
+	/**
+	 * @return true iff hull has distinct vertices in counter-clockwise order
+	 *         and contains every point of points.
+	 */
+	private static boolean encloses(List<GeoPoint> hull, List<GeoPoint> points) {
+		if (hull.size() != hull.stream().distinct().count())
+			return false;
+		if (hull.size() < 3)
+			return true;
+		for (int i = 0; i < hull.size(); i++) {
+			GeoPoint a = hull.get(i);
+			GeoPoint b = hull.get((i + 1) % hull.size());
+			if (cross(a, b, hull.get((i + 2) % hull.size())) <= 0)
+				return false;
+			for (GeoPoint p : points) {
+				if (cross(a, b, p) < 0)
+					return false;
+			}
+		}
+		return true;
+	}
+
+
+	private static List<GeoPoint> boundary(Isochrone isochrone) {
+		List<GeoPoint> result = new ArrayList<GeoPoint>();
+		Iterator<GeoPoint> it = isochrone.getBoundary();
+		while (it.hasNext())
+			result.add(it.next());
+		return result;
+	}
+
+
+	private static boolean sameCoverage(Isochrone a, Isochrone b) {
+		if (a.getSegmentCount() != b.getSegmentCount())
+			return false;
+		for (int i = 0; i < a.getSegmentCount(); i++) {
+			if (!a.getSegment(i).equals(b.getSegment(i))
+					|| Math.abs(a.getCoverage(i) - b.getCoverage(i)) > tolerance)
+				return false;
+		}
+		return true;
+	}
+
+
+	public void testReachability() {
+		show("compute()");
+		Isochrone none = Isochrone.compute(mTechnion, gpHankin, 0, TravelMode.WALKING);
+		show("A zero budget reaches no segment",
+			none.getSegmentCount() == 0 && boundary(none).equals(List.of(gpHankin)));
+		Isochrone unknown = Isochrone.compute(mTechnion, new GeoPoint(0, 0), 60, TravelMode.DRIVING);
+		show("An unknown origin reaches nothing",
+			unknown.getSegmentCount() == 0 && boundary(unknown).size() == 1);
+		Isochrone all = Isochrone.compute(mTechnion, gpHankin, 1000, TravelMode.WALKING);
+		show("A large budget covers every segment fully",
+			all.getSegmentCount() == mTechnion.getEdgeCount() && all.getCoverage(0) == 1);
+
+		boolean technion = true;
+		for (double minutes : new double[] { 1, 5, 12.5, 30, 60 }) {
+			for (TravelMode mode : TravelMode.values()) {
+				for (int p = 0; p < ExampleGeoSegments.points.length; p += 3) {
+					if (!matchesReference(mTechnion, Isochrone.compute(mTechnion,
+							ExampleGeoSegments.points[p], minutes, mode)))
+						technion = false;
+				}
+			}
+		}
+		show("Matches exhaustive search near the Technion", technion);
+		boolean grid = true;
+		for (int e = 0; e < mGrid.getEdgeCount(); e += 997) {
+			GeoPoint origin = mGrid.getEdge(e).getP1();
+			if (!matchesReference(mGrid, Isochrone.compute(mGrid, origin, 3, TravelMode.DRIVING))
+					|| !matchesReference(mGrid, Isochrone.compute(mGrid, origin, 20, TravelMode.WALKING)))
+				grid = false;
+		}
+		show("Matches exhaustive search on a synthetic grid", grid);
+
+		show("TravelMode");
+		Isochrone walking = Isochrone.compute(mTechnion, gpHankin, 20, TravelMode.WALKING);
+		Isochrone driving = Isochrone.compute(mTechnion, gpHankin, 20, TravelMode.DRIVING);
+		show("Driving reaches farther than walking in the same time",
+			driving.getSegmentCount() > walking.getSegmentCount());
+		show("Budgets scale with the pace of the mode",
+			sameCoverage(walking, Isochrone.compute(mTechnion, gpHankin,
+				20 * TravelMode.DRIVING.getMinutesPerKm() / TravelMode.WALKING.getMinutesPerKm(),
+				TravelMode.DRIVING)));
+
+		show("computeAll()");
+		List<GeoPoint> origins = new ArrayList<GeoPoint>();
+		for (int e = 0; e < mGrid.getEdgeCount(); e += 13)
+			origins.add(mGrid.getEdge(e).getP1());
+		List<Isochrone> isochrones = Isochrone.computeAll(mGrid, origins, 4, TravelMode.DRIVING);
+		boolean same = isochrones.size() == origins.size();
+		for (int i = 0; same && i < origins.size(); i++) {
+			Isochrone expected = Isochrone.compute(mGrid, origins.get(i), 4, TravelMode.DRIVING);
+			if (!isochrones.get(i).getOrigin().equals(origins.get(i))
+					|| !sameCoverage(isochrones.get(i), expected)
+					|| !boundary(isochrones.get(i)).equals(boundary(expected)))
+				same = false;
+		}
+		show("Matches compute() for every origin, in order", same);
+		show("No origins give no isochrones",
+			Isochrone.computeAll(mGrid, new ArrayList<GeoPoint>(), 4, TravelMode.DRIVING).isEmpty());
+		show("A single origin", Isochrone.computeAll(mTechnion, List.of(gpHankin), 20,
+			TravelMode.WALKING).get(0).getSegmentCount() == walking.getSegmentCount());
+	}
+
+
+	public void testBoundary() {
+		show("Boundary");
+		boolean enclosed = true;
+		for (double minutes : new double[] { 2, 10, 30 }) {
+			Isochrone isochrone = Isochrone.compute(mTechnion, gpHankin, minutes, TravelMode.WALKING);
+			List<GeoPoint> points = new ArrayList<GeoPoint>();
+			points.add(gpHankin);
+			for (int i = 0; i < isochrone.getSegmentCount(); i++) {
+				if (isochrone.getCoverage(i) == 1)
+					points.add(isochrone.getSegment(i).getP2());
+			}
+			if (!encloses(boundary(isochrone), points))
+				enclosed = false;
+		}
+		show("Encloses the reachable points counter-clockwise", enclosed);
+
+		GeoPoint a = new GeoPoint(32780000, 35010000);
+		GeoPoint b = new GeoPoint(32781000, 35010000);
+		GeoPoint c = new GeoPoint(32781000, 35011000);
+		GeoPoint d = new GeoPoint(32780000, 35011000);
+		show("Coinciding points give a single vertex",
+			Isochrone.convexHull(List.of(a, a)).equals(List.of(a))
+			&& Isochrone.convexHull(List.of(a, a, a, a)).equals(List.of(a)));
+		show("Two distinct points give two vertices",
+			Isochrone.convexHull(List.of(b, a, b, a, b)).equals(List.of(a, b)));
+		show("Collinear points give their ends",
+			Isochrone.convexHull(List.of(a, new GeoPoint(32780500, 35010000), b, a)).size() == 2);
+		List<GeoPoint> square = Isochrone.convexHull(List.of(a, b, c, d, a, c,
+			new GeoPoint(32780500, 35010500)));
+		show("Inner and repeated points are dropped",
+			square.size() == 4 && encloses(square, List.of(a, b, c, d)));
+	}
+
+
+	public static void main(String[] args) {
+		IsochroneTest isochroneTest = new IsochroneTest();
+		isochroneTest.testReachability();
+		isochroneTest.testBoundary();
+		if (isochroneTest.mFailed)
+			System.exit(1);
+	}
+}
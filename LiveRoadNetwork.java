@@ -0,0 +1,295 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A LiveRoadNetwork is a RoadNetwork whose streets can be closed and
+ * reopened, and whose edge weights can be changed, while it is being
+ * searched.
+ * <p>
+ * Its state is a sequence of immutable RoadNetworkVersions. Writers collect
+ * changes in an Edit and publish them together as the next version, so an
+ * Edit applies entirely or not at all; readers call getSnapshot() and search
+ * the version it returns, which no later update can change. Reading the
+ * current version is a single volatile read, so readers never wait for
+ * writers or for each other, whatever the rate of updates. Routes are
+ * immutable too, so a Route found in a version, and the directions a
+ * RouteFormatter gives for it, never mix two versions.
+ * <p>
+ * Publishing copies only the pages of the version that the Edit changes
+ * (see RoadNetworkVersion), and Edits are published one at a time, each
+ * applied to the version current when it is published.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   network : RoadNetwork          // the streets, whose topology never changes
+ *   current : RoadNetworkVersion   // the latest published version
+ * </pre>
+ */
+public class LiveRoadNetwork {
+	private final RoadNetwork network;
+	// the edges of each street name
+	private final Map<String, int[]> streetEdges;
+	private final Object publishLock = new Object();
+	private volatile RoadNetworkVersion current;
+
+	// Abs. Function: network = network, current = current.
+	// Rep. Invariant: network != null && current != null &&
+	// current.network == network && streetEdges.get(name) holds exactly the
+	// edges of network named name, for each name of an edge of network
+
+	/**
+	 * Constructs a new LiveRoadNetwork.
+	 *
+	 * @requires network != null
+	 * @effects Constructs a new LiveRoadNetwork over network, whose version 0
+	 *          has every edge open and weighing its length.
+	 */
+	public LiveRoadNetwork(RoadNetwork network) {
+		if (network == null) {
+			throw new IllegalArgumentException("Network cannot be null");
+		}
+		this.network = network;
+		Map<String, List<Integer>> edges = new HashMap<String, List<Integer>>();
+		for (int e = 0; e < network.getEdgeCount(); e++) {
+			edges.computeIfAbsent(network.edges[e].name, name -> new ArrayList<Integer>()).add(e);
+		}
+		streetEdges = new HashMap<String, int[]>();
+		for (Map.Entry<String, List<Integer>> entry : edges.entrySet()) {
+			streetEdges.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+		}
+		current = RoadNetworkVersion.initial(network);
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (network != null && current != null && current.network == network);
+	}
+
+	/**
+	 * Returns the network of this LiveRoadNetwork.
+	 *
+	 * @return network.
+	 */
+	public RoadNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Returns the latest version of this network, without waiting for
+	 * writers.
+	 *
+	 * @return current.
+	 */
+	public RoadNetworkVersion getSnapshot() {
+		return current;
+	}
+
+	/**
+	 * Starts a batch of changes to this network.
+	 *
+	 * @return a new, empty Edit of this network.
+	 */
+	public Edit edit() {
+		return new Edit();
+	}
+
+	/**
+	 * Publishes the changes of an Edit as the next version.
+	 */
+	private RoadNetworkVersion publish(List<Change> changes) {
+		synchronized (publishLock) {
+			RoadNetworkVersion base = current;
+			double[][] weights = base.weights.clone();
+			long[][] closed = base.closed.clone();
+			for (Change change : changes) {
+				int p = change.edge >>> RoadNetworkVersion.PAGE_BITS;
+				int i = change.edge & (RoadNetworkVersion.PAGE_SIZE - 1);
+				if (change.kind == Change.WEIGHT) {
+					if (weights[p] == base.weights[p]) {
+						weights[p] = weights[p].clone();
+					}
+					weights[p][i] = change.weight;
+				} else {
+					if (closed[p] == base.closed[p]) {
+						closed[p] = closed[p].clone();
+					}
+					if (change.kind == Change.CLOSE) {
+						closed[p][i >>> 6] |= 1L << i;
+					} else {
+						closed[p][i >>> 6] &= ~(1L << i);
+					}
+				}
+			}
+			RoadNetworkVersion next = new RoadNetworkVersion(network, base.version + 1, weights, closed);
+			current = next;
+			return next;
+		}
+	}
+
+	/**
+	 * A Change is one step of an Edit.
+	 */
+	private static final class Change {
+		static final int CLOSE = 0;
+		static final int REOPEN = 1;
+		static final int WEIGHT = 2;
+
+		final int kind;
+		final int edge;
+		final double weight;
+
+		Change(int kind, int edge, double weight) {
+			this.kind = kind;
+			this.edge = edge;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * An Edit is a batch of changes to a LiveRoadNetwork, which publish()
+	 * applies in order as a single new version. Edits are not thread-safe;
+	 * each writer should use its own.
+	 * <p>
+	 * <b>The following fields are used in the specification:</b>
+	 *
+	 * <pre>
+	 *   changes : sequence    // the changes to apply, in order
+	 *   published : boolean   // whether this Edit has been published
+	 * </pre>
+	 */
+	public final class Edit {
+		private final List<Change> changes = new ArrayList<Change>();
+		private boolean published;
+
+		private Edit() {
+		}
+
+		/**
+		 * Closes every edge of a street.
+		 *
+		 * @requires name is the name of an edge of network
+		 * @modifies this
+		 * @effects appends to changes the closing of each edge named name.
+		 * @return this.
+		 */
+		public Edit closeStreet(String name) {
+			for (int e : edgesOf(name)) {
+				add(new Change(Change.CLOSE, e, 0));
+			}
+			return this;
+		}
+
+		/**
+		 * Reopens every edge of a street.
+		 *
+		 * @requires name is the name of an edge of network
+		 * @modifies this
+		 * @effects appends to changes the reopening of each edge named name.
+		 * @return this.
+		 */
+		public Edit reopenStreet(String name) {
+			for (int e : edgesOf(name)) {
+				add(new Change(Change.REOPEN, e, 0));
+			}
+			return this;
+		}
+
+		/**
+		 * Closes an edge.
+		 *
+		 * @requires 0 <= e < network.getEdgeCount()
+		 * @modifies this
+		 * @effects appends to changes the closing of edge e.
+		 * @return this.
+		 */
+		public Edit closeEdge(int e) {
+			add(new Change(Change.CLOSE, checkEdge(e), 0));
+			return this;
+		}
+
+		/**
+		 * Reopens an edge.
+		 *
+		 * @requires 0 <= e < network.getEdgeCount()
+		 * @modifies this
+		 * @effects appends to changes the reopening of edge e.
+		 * @return this.
+		 */
+		public Edit reopenEdge(int e) {
+			add(new Change(Change.REOPEN, checkEdge(e), 0));
+			return this;
+		}
+
+		/**
+		 * Sets the weight of an edge.
+		 *
+		 * @requires 0 <= e < network.getEdgeCount() && weight is finite and
+		 *           weight >= 0
+		 * @modifies this
+		 * @effects appends to changes the setting of the weight of edge e to
+		 *          weight.
+		 * @return this.
+		 */
+		public Edit setWeight(int e, double weight) {
+			if (!(weight >= 0) || Double.isInfinite(weight)) {
+				throw new IllegalArgumentException("Weight must be finite and non-negative");
+			}
+			add(new Change(Change.WEIGHT, checkEdge(e), weight));
+			return this;
+		}
+
+		/**
+		 * Returns the number of changes in this Edit.
+		 *
+		 * @return the length of changes.
+		 */
+		public int size() {
+			return changes.size();
+		}
+
+		/**
+		 * Publishes this Edit.
+		 *
+		 * @requires !published
+		 * @modifies this, the LiveRoadNetwork of this Edit
+		 * @effects sets current to a new version, numbered current.version + 1,
+		 *          which is current with changes applied in order, and sets
+		 *          published.
+		 * @return the new current.
+		 */
+		public RoadNetworkVersion publish() {
+			if (published) {
+				throw new IllegalStateException("Edit was already published");
+			}
+			published = true;
+			return LiveRoadNetwork.this.publish(changes);
+		}
+
+		private void add(Change change) {
+			if (published) {
+				throw new IllegalStateException("Edit was already published");
+			}
+			changes.add(change);
+		}
+
+		private int[] edgesOf(String name) {
+			int[] edges = streetEdges.get(name);
+			if (edges == null) {
+				throw new IllegalArgumentException("No street named " + name);
+			}
+			return edges;
+		}
+
+		private int checkEdge(int e) {
+			if (e < 0 || e >= network.getEdgeCount()) {
+				throw new IllegalArgumentException("No edge " + e);
+			}
+			return e;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LiveRoadNetworkTest {
+
+	private RoadNetwork mNetwork;
+	private GeoPoint mFrom;
+	private GeoPoint mTo;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public LiveRoadNetworkTest() {
+		GeoSegment[] grid = SyntheticNetworks.grid(20000, 3);
+		List<GeoSegment> twoWay = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : grid) {
+			twoWay.add(gs);
+			twoWay.add(gs.reverse());
+		}
+		mNetwork = new RoadNetwork(twoWay);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(grid, 300, 3);
+		mFrom = walk.get(0).getP1();
+		mTo = walk.get(walk.size() - 1).getP2();
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static boolean usesStreet(Route route, String name) {
+		for (Iterator<GeoSegment> it = route.getGeoSegments(); it.hasNext();) {
+			if (it.next().getName().equals(name))
+				return true;
+		}
+		return false;
+	}
+
+
+	private int[] edgesOf(String name) {
+		List<Integer> edges = new ArrayList<Integer>();
+		for (int e = 0; e < mNetwork.getEdgeCount(); e++) {
+			if (mNetwork.getEdge(e).getName().equals(name))
+				edges.add(e);
+		}
+		return edges.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+
+	private static boolean rejects(Runnable r) {
+		try {
+			r.run();
+			return false;
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			return true;
+		}
+	}
+
+
+	public void testUpdates() {
+		show("Updates");
+		LiveRoadNetwork live = new LiveRoadNetwork(mNetwork);
+		LiveRouter router = new LiveRouter(live);
+		RoadNetworkVersion initial = live.getSnapshot();
+		Route route = router.computeRoute(mFrom, mTo);
+		show("Initial version is 0 and all open", initial.getVersion() == 0 && initial.isOpen(0)
+			&& initial.getWeight(0) == mNetwork.getEdge(0).getLength());
+		show("Route is found", route != null && route.getStart().equals(mFrom) && route.getEnd().equals(mTo));
+
+		String street = route.getGeoFeatures().next().getName();
+		RoadNetworkVersion closed = live.edit().closeStreet(street).publish();
+		Route detour = router.computeRoute(mFrom, mTo);
+		show("Publishing makes the next version current", closed.getVersion() == 1 && live.getSnapshot() == closed);
+		show("Closed street is avoided", detour == null || !usesStreet(detour, street));
+		show("Pinned version is unchanged", initial.isOpen(edgesOf(street)[0])
+			&& router.computeRoute(initial, mFrom, mTo).equals(route));
+		live.edit().reopenStreet(street).publish();
+		show("Reopened street is used again", router.computeRoute(mFrom, mTo).equals(route));
+
+		Iterator<GeoSegment> segments = route.getGeoSegments();
+		GeoSegment first = segments.next();
+		int edge = -1;
+		for (int e = mNetwork.firstOutEdge[mNetwork.getNodeId(mFrom)]; edge < 0; e++) {
+			if (mNetwork.getEdge(e).equals(first))
+				edge = e;
+		}
+		RoadNetworkVersion heavy = live.edit().setWeight(edge, 1000).publish();
+		Route around = router.computeRoute(mFrom, mTo);
+		show("Heavy edge is avoided", heavy.getWeight(edge) == 1000 && !around.getGeoSegments().next().equals(first));
+		RoadNetworkVersion closedHeavy = live.edit().closeEdge(edge).publish();
+		RoadNetworkVersion reopened = live.edit().reopenEdge(edge).publish();
+		show("Closed edge keeps its weight", !closedHeavy.isOpen(edge) && reopened.isOpen(edge)
+			&& reopened.getWeight(edge) == 1000);
+		int lastPage = heavy.weights.length - 1;
+		show("Untouched pages are shared", heavy.weights.length > 1 && edge >> RoadNetworkVersion.PAGE_BITS != lastPage
+			&& heavy.weights[lastPage] == initial.weights[lastPage]
+			&& closedHeavy.weights[lastPage] == initial.weights[lastPage]);
+
+		show("Invalid edits");
+		show("Unknown street is rejected", rejects(() -> live.edit().closeStreet("No Such Street")));
+		show("Unknown edge is rejected", rejects(() -> live.edit().closeEdge(mNetwork.getEdgeCount())));
+		show("Negative weight is rejected", rejects(() -> live.edit().setWeight(0, -1)));
+		show("Infinite weight is rejected", rejects(() -> live.edit().setWeight(0, Double.POSITIVE_INFINITY)));
+		LiveRoadNetwork.Edit once = live.edit().closeEdge(0);
+		once.publish();
+		show("Edit is published once", rejects(once::publish) && rejects(() -> once.closeEdge(1)));
+	}
+
+
+	public void testConcurrentReads() throws InterruptedException {
+		show("Concurrent reads");
+		LiveRoadNetwork live = new LiveRoadNetwork(mNetwork);
+		String weighted = mNetwork.getEdge(0).getName();
+		String toggled = null;
+		for (int e = 0; toggled == null; e++) {
+			if (!mNetwork.getEdge(e).getName().equals(weighted))
+				toggled = mNetwork.getEdge(e).getName();
+		}
+		int[] weightedEdges = edgesOf(weighted);
+		int[] toggledEdges = edgesOf(toggled);
+		String closedStreet = toggled;
+
+		// every version k > 0 weighs each edge of one street k, and closes
+		// another street iff k is odd
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicBoolean consistent = new AtomicBoolean(true);
+		AtomicLong reads = new AtomicLong();
+		List<Thread> readers = new ArrayList<Thread>();
+		for (int t = 0; t < 3; t++) {
+			Thread reader = new Thread(() -> {
+				LiveRouter router = new LiveRouter(live);
+				while (!done.get()) {
+					RoadNetworkVersion v = live.getSnapshot();
+					long k = v.getVersion();
+					for (int e : weightedEdges) {
+						double expected = k == 0 ? mNetwork.getEdge(e).getLength() : k;
+						if (v.getWeight(e) != expected)
+							consistent.set(false);
+					}
+					for (int e : toggledEdges) {
+						if (v.isOpen(e) != (k % 2 == 0))
+							consistent.set(false);
+					}
+					Route route = router.computeRoute(v, mFrom, mTo);
+					if (k % 2 == 1 && route != null && usesStreet(route, closedStreet))
+						consistent.set(false);
+					reads.incrementAndGet();
+				}
+			});
+			readers.add(reader);
+			reader.start();
+		}
+		int versions = 2000;
+		for (int k = 1; k <= versions; k++) {
+			LiveRoadNetwork.Edit edit = live.edit();
+			for (int e : weightedEdges)
+				edit.setWeight(e, k);
+			if (k % 2 == 1)
+				edit.closeStreet(toggled);
+			else
+				edit.reopenStreet(toggled);
+			edit.publish();
+		}
+		Thread.sleep(50);
+		done.set(true);
+		for (Thread reader : readers)
+			reader.join();
+		show("Readers never see a half-applied edit", consistent.get() && reads.get() > 0);
+		show("Every edit is published", live.getSnapshot().getVersion() == versions);
+	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		LiveRoadNetworkTest liveTest = new LiveRoadNetworkTest();
+		liveTest.testUpdates();
+		liveTest.testConcurrentReads();
+		if (liveTest.mFailed)
+			System.exit(1);
+	}
+}
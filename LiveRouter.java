@@ -0,0 +1,76 @@
+package homework1;
+
+/**
+ * A LiveRouter finds the lightest Route through a LiveRoadNetwork: the
+ * Route of least total edge weight that uses no closed edge.
+ * <p>
+ * Each search reads a single RoadNetworkVersion, pinned when it starts, so
+ * updates published during a search do not affect it.
+ * <p>
+ * LiveRouters are not thread-safe; each thread should use its own
+ * instance. Any number of LiveRouters may search one LiveRoadNetwork while
+ * it is being updated.
+ */
+public class LiveRouter {
+	private final LiveRoadNetwork live;
+	private final RoadNetwork network;
+
+	// Scratch state of the searches, reused by every call.
+	private final NetworkSearch search;
+
+	/**
+	 * Constructs a new LiveRouter.
+	 *
+	 * @requires live != null
+	 * @effects Constructs a new LiveRouter over live.
+	 */
+	public LiveRouter(LiveRoadNetwork live) {
+		if (live == null) {
+			throw new IllegalArgumentException("Network cannot be null");
+		}
+		this.live = live;
+		this.network = live.getNetwork();
+		search = new NetworkSearch(network);
+	}
+
+	/**
+	 * Computes a lightest Route in the current version of the network.
+	 *
+	 * @requires from != null && to != null && !from.equals(to)
+	 * @return computeRoute(live.getSnapshot(), from, to).
+	 */
+	public Route computeRoute(GeoPoint from, GeoPoint to) {
+		return computeRoute(live.getSnapshot(), from, to);
+	}
+
+	/**
+	 * Computes a lightest Route in a version of the network.
+	 *
+	 * @requires version != null && version is a version of the network of
+	 *           this router && from != null && to != null && !from.equals(to)
+	 * @return a Route from from to to, made of edges open in version, whose
+	 *         total weight in version is least, or null if there is none.
+	 */
+	public Route computeRoute(RoadNetworkVersion version, GeoPoint from, GeoPoint to) {
+		if (version == null || from == null || to == null) {
+			throw new IllegalArgumentException("Arguments cannot be null");
+		}
+		if (version.network != network) {
+			throw new IllegalArgumentException("Version is not of this network");
+		}
+		if (from.equals(to)) {
+			throw new IllegalArgumentException("Start and end must differ");
+		}
+		int source = network.getNodeId(from);
+		int target = network.getNodeId(to);
+		if (source < 0 || target < 0) {
+			return null;
+		}
+
+		if (!search.run(source, 0, target, Double.POSITIVE_INFINITY, version::isOpen,
+				(e, d) -> version.getWeight(e))) {
+			return null;
+		}
+		return network.toRoute(search.getPath(target));
+	}
+}
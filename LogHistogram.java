@@ -0,0 +1,212 @@
+package homework1;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A LogHistogram counts non-negative long values, such as latencies in
+ * nanoseconds, in logarithmic buckets. It may be updated from several
+ * threads at once without locking.
+ * <p>
+ * As in an HDR histogram, every power of two is divided into SUB_BUCKETS
+ * buckets of equal width, so a value is known to within 1/SUB_BUCKETS of
+ * itself whatever its magnitude, and the whole range of long fits in fewer
+ * than a thousand buckets. Values below SUB_BUCKETS have a bucket each.
+ * <p>
+ * The bucket counts are striped: each thread counts into one of several
+ * copies of the buckets, chosen by the thread, so threads recording at the
+ * same time rarely update the same counter.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   values : multiset of long     // the values recorded
+ * </pre>
+ */
+public final class LogHistogram {
+
+	// log2 of the number of buckets per power of two.
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/**
+	 * The number of buckets per power of two.
+	 */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// Buckets needed for the values 0 .. Long.MAX_VALUE.
+	static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+	private static final int STRIPES = Math.min(16,
+			Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) * 2);
+
+	// Stripe s counts bucket b in counts[s * BUCKETS + b].
+	private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	// Abs. Function: values contains, for each b, the sum over s of
+	// counts[s * BUCKETS + b] values in bucket b; count, sum and max are
+	// the size, sum and maximum of values.
+	// Rep. Invariant: counts.length == STRIPES * BUCKETS && STRIPES is a
+	// power of two
+
+	/**
+	 * Constructs a new LogHistogram.
+	 *
+	 * @effects Constructs a new LogHistogram with no values.
+	 */
+	public LogHistogram() {
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @modifies this
+	 * @effects adds value to values; a negative value is recorded as 0.
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		int h = Thread.currentThread().hashCode();
+		int stripe = (h ^ (h >>> 16)) & (STRIPES - 1);
+		counts.incrementAndGet(stripe * BUCKETS + bucket(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Returns a snapshot of this.
+	 *
+	 * @return a Snapshot of values. Values recorded while the snapshot is
+	 *         taken may be partly included.
+	 */
+	public Snapshot snapshot() {
+		long[] buckets = new long[BUCKETS];
+		for (int s = 0; s < STRIPES; s++) {
+			for (int b = 0; b < BUCKETS; b++) {
+				buckets[b] += counts.get(s * BUCKETS + b);
+			}
+		}
+		long total = 0;
+		for (long c : buckets) {
+			total += c;
+		}
+		return new Snapshot(buckets, total, sum.sum(), max.get());
+	}
+
+	/**
+	 * Returns the bucket of a value.
+	 *
+	 * @requires value >= 0
+	 */
+	static int bucket(long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * Returns the smallest value in a bucket.
+	 *
+	 * @requires 0 <= bucket < BUCKETS
+	 */
+	static long lowestValue(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+		return (long) ((bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+	}
+
+	/**
+	 * Returns the largest value in a bucket.
+	 *
+	 * @requires 0 <= bucket < BUCKETS
+	 */
+	static long highestValue(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestValue(bucket + 1) - 1;
+	}
+
+	/**
+	 * A Snapshot is an immutable copy of the values of a LogHistogram at
+	 * some point.
+	 */
+	public static final class Snapshot {
+		private final long[] buckets;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] buckets, long count, long sum, long max) {
+			this.buckets = buckets;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * Returns the number of values.
+		 *
+		 * @return the size of values.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the sum of the values.
+		 *
+		 * @return the sum of values.
+		 */
+		public long getSum() {
+			return sum;
+		}
+
+		/**
+		 * Returns the largest value.
+		 *
+		 * @return the maximum of values, or 0 if values is empty.
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * Returns the mean of the values.
+		 *
+		 * @return the mean of values, or 0 if values is empty.
+		 */
+		public double getMean() {
+			return count == 0 ? 0 : sum / (double) count;
+		}
+
+		/**
+		 * Returns a percentile of the values.
+		 *
+		 * @requires 0 <= percentile <= 100
+		 * @return a value v, within 1/SUB_BUCKETS of itself of a value of
+		 *         values, such that percentile percent of values are at most
+		 *         v; or 0 if values is empty.
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (percentile < 0 || percentile > 100) {
+				throw new IllegalArgumentException("Percentile must be between 0 and 100");
+			}
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+			long seen = 0;
+			for (int b = 0; b < buckets.length; b++) {
+				seen += buckets[b];
+				if (seen >= rank) {
+					return Math.min(highestValue(b), max);
+				}
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LogHistogramTest {
+
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	public void testBuckets() {
+		show("Buckets");
+		show("Values below 32 have a bucket each",
+			LogHistogram.bucket(0) == 0 && LogHistogram.bucket(1) == 1 && LogHistogram.bucket(31) == 31
+			&& LogHistogram.lowestValue(31) == 31 && LogHistogram.highestValue(31) == 31);
+		show("32 starts the buckets two values wide",
+			LogHistogram.bucket(32) == 32 && LogHistogram.bucket(33) == 32 && LogHistogram.bucket(34) == 33
+			&& LogHistogram.lowestValue(32) == 32 && LogHistogram.highestValue(32) == 33);
+		show("63 and 64 are on either side of a power of two",
+			LogHistogram.bucket(62) == 47 && LogHistogram.bucket(63) == 47 && LogHistogram.bucket(64) == 48
+			&& LogHistogram.highestValue(47) == 63 && LogHistogram.lowestValue(48) == 64
+			&& LogHistogram.highestValue(48) == 67);
+		show("Long.MAX_VALUE is in the last bucket",
+			LogHistogram.bucket(Long.MAX_VALUE) == LogHistogram.BUCKETS - 1
+			&& LogHistogram.highestValue(LogHistogram.BUCKETS - 1) == Long.MAX_VALUE
+			&& LogHistogram.bucket(Long.MAX_VALUE - 1) == LogHistogram.BUCKETS - 1
+			&& LogHistogram.BUCKETS < 1000);
+
+		boolean contiguous = LogHistogram.lowestValue(0) == 0;
+		boolean precise = true;
+		for (int b = 0; b < LogHistogram.BUCKETS; b++) {
+			long low = LogHistogram.lowestValue(b);
+			long high = LogHistogram.highestValue(b);
+			if (LogHistogram.bucket(low) != b || LogHistogram.bucket(high) != b || high < low)
+				contiguous = false;
+			if (b + 1 < LogHistogram.BUCKETS && LogHistogram.lowestValue(b + 1) != high + 1)
+				contiguous = false;
+			if (high - low > low / LogHistogram.SUB_BUCKETS)
+				precise = false;
+		}
+		show("The buckets cover every value once, in order", contiguous);
+		show("Each bucket is within 1/16 of its values", precise);
+		boolean powers = true;
+		for (int shift = 0; shift < 63; shift++) {
+			for (long v : new long[] { (1L << shift) - 1, 1L << shift, (1L << shift) + 1 }) {
+				int b = LogHistogram.bucket(v);
+				if (v < LogHistogram.lowestValue(b) || v > LogHistogram.highestValue(b))
+					powers = false;
+			}
+		}
+		show("Values around every power of two fall in their bucket", powers);
+	}
+
+
+	public void testSnapshot() throws InterruptedException {
+		show("Snapshot");
+		LogHistogram empty = new LogHistogram();
+		LogHistogram.Snapshot none = empty.snapshot();
+		show("An empty histogram", none.getCount() == 0 && none.getSum() == 0 && none.getMax() == 0
+			&& none.getMean() == 0 && none.getValueAtPercentile(50) == 0 && none.getValueAtPercentile(100) == 0);
+
+		LogHistogram histogram = new LogHistogram();
+		for (long v = 1; v <= 1000; v++)
+			histogram.record(v);
+		LogHistogram.Snapshot s = histogram.snapshot();
+		show("Count, sum, max and mean", s.getCount() == 1000 && s.getSum() == 500500
+			&& s.getMax() == 1000 && s.getMean() == 500.5);
+		boolean percentiles = true;
+		for (double p : new double[] { 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9 }) {
+			long exact = (long) Math.ceil(p * 10);
+			long v = s.getValueAtPercentile(p);
+			if (v < exact || v > exact + exact / LogHistogram.SUB_BUCKETS)
+				percentiles = false;
+		}
+		show("Percentiles are within 1/16 above the exact values", percentiles);
+		show("The extremes", s.getValueAtPercentile(0) == 1 && s.getValueAtPercentile(100) == 1000);
+		boolean rejected = true;
+		for (double p : new double[] { -1, -0.001, 100.001, 101 }) {
+			try {
+				s.getValueAtPercentile(p);
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Percentiles out of range are rejected", rejected);
+
+		LogHistogram huge = new LogHistogram();
+		huge.record(Long.MAX_VALUE);
+		huge.record(-5);
+		LogHistogram.Snapshot h = huge.snapshot();
+		show("Negative values count as 0, Long.MAX_VALUE as itself",
+			h.getCount() == 2 && h.getMax() == Long.MAX_VALUE && h.getValueAtPercentile(50) == 0
+			&& h.getValueAtPercentile(100) == Long.MAX_VALUE);
+		histogram.record(7);
+		show("A snapshot does not change with the histogram",
+			s.getCount() == 1000 && histogram.snapshot().getCount() == 1001);
+
+		LogHistogram shared = new LogHistogram();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < 8; t++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 100000; i++)
+					shared.record(i % 100);
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		LogHistogram.Snapshot c = shared.snapshot();
+		show("Concurrent recording loses nothing", c.getCount() == 800000
+			&& c.getSum() == 8 * 1000 * 4950L && c.getMax() == 99 && c.getValueAtPercentile(50) == 49);
+	}
+
+
+	public void testText() throws IOException {
+		show("Metrics.appendText()");
+		Metrics.counter("histogram_test_calls").add(42);
+		LogHistogram nanos = Metrics.histogram("histogram_test_nanos");
+		for (long v = 1; v <= 100; v++)
+			nanos.record(v);
+		StringBuilder text = new StringBuilder();
+		Metrics.snapshot().appendText(text);
+		List<String> lines = new ArrayList<String>();
+		for (String line : text.toString().split("\n")) {
+			if (line.startsWith("histogram_test_"))
+				lines.add(line);
+		}
+		show("Counters, then histograms with their quantiles", lines.equals(List.of(
+			"histogram_test_calls 42",
+			"histogram_test_nanos_count 100",
+			"histogram_test_nanos_sum 5050",
+			"histogram_test_nanos_max 100",
+			"histogram_test_nanos{quantile=\"0.5\"} 51",
+			"histogram_test_nanos{quantile=\"0.9\"} 91",
+			"histogram_test_nanos{quantile=\"0.99\"} 99",
+			"histogram_test_nanos{quantile=\"0.999\"} 100")));
+		show("Every line is a name and a value", text.toString().endsWith("\n")
+			&& text.toString().matches("(?s)([a-z_0-9]+(\\{quantile=\"[0-9.]+\"\\})? [0-9]+\n)*"));
+		show("toString() is the text", Metrics.snapshot().toString().contains("histogram_test_calls 42\n"));
+		show("Registering again gives the same instrument",
+			Metrics.counter("histogram_test_calls").sum() == 42
+			&& Metrics.histogram("histogram_test_nanos") == nanos);
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> Metrics.counter(null),
+				() -> Metrics.counter(""),
+				() -> Metrics.counter("Histogram_test"),
+				() -> Metrics.counter("0histogram_test"),
+				() -> Metrics.histogram("histogram-test"),
+				() -> Metrics.counter("histogram_test_nanos"),
+				() -> Metrics.histogram("histogram_test_calls") }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Bad names and kinds are rejected", rejected);
+	}
+
+
+	public void testInstruments() {
+		if (!Metrics.ENABLED) {
+			show("Instruments not checked: run with -Dhomework1.metrics=true");
+			return;
+		}
+		show("Instruments");
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 7), 20000, 7);
+		Route route = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		RouteFormatter formatter = new DrivingRouteFormatter();
+		for (boolean parallel : new boolean[] { false, true }) {
+			long calls = Metrics.histogram("formatter_directions_nanos").snapshot().getCount();
+			long features = Metrics.counter("formatter_directions_features").sum();
+			long lines = Metrics.histogram("formatter_line_nanos").snapshot().getCount();
+			if (parallel)
+				formatter.computeDirectionsParallel(route, 0);
+			else
+				formatter.computeDirections(route, 0);
+			show((parallel ? "computeDirectionsParallel()" : "computeDirections()") + " is measured",
+				Metrics.histogram("formatter_directions_nanos").snapshot().getCount() == calls + 1
+				&& Metrics.counter("formatter_directions_features").sum() == features + route.geoFeatures.size()
+				&& Metrics.histogram("formatter_line_nanos").snapshot().getCount()
+					== lines + route.geoFeatures.size());
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		LogHistogramTest histogramTest = new LogHistogramTest();
+		histogramTest.testBuckets();
+		histogramTest.testSnapshot();
+		histogramTest.testText();
+		histogramTest.testInstruments();
+		if (histogramTest.mFailed)
+			System.exit(1);
+	}
+}
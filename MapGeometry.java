@@ -0,0 +1,392 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A MapGeometry holds the drawable geometry of a road network at several
+ * levels of detail. MapGeometries are immutable and may be shared between
+ * threads.
+ * <p>
+ * Level 0 holds every GeoSegment of the network, each drawn once whatever
+ * its direction. For the coarser levels the segments are first chained
+ * into polylines that run along a street until it branches, and each
+ * polyline is simplified with the Douglas-Peucker algorithm to within the
+ * tolerance of the level, dropping the polylines smaller than it. A map
+ * drawn at a scale where the tolerance is under a pixel looks the same at
+ * every level, but the coarse levels have far fewer lines to draw. Every
+ * level has its own SegmentGrid, to find the lines in view.
+ */
+public class MapGeometry {
+
+	// Tolerance of level 1, in millionths of degrees; each level quadruples it.
+	private static final int BASE_TOLERANCE = 2;
+
+	// Number of levels, the coarsest having a tolerance of about 0.5 km.
+	private static final int LEVELS = 7;
+
+	private final SegmentGrid[] levels;
+	private final int[] tolerances;
+	private final int minLat;
+	private final int minLon;
+	private final int maxLat;
+	private final int maxLon;
+
+	// Abs. Function: levels[i] holds the lines of the network simplified to
+	// within tolerances[i] millionths of degrees; the network lies within
+	// (minLat, minLon) - (maxLat, maxLon).
+	// Rep. Invariant: levels.length == tolerances.length == LEVELS &&
+	// tolerances[0] == 0 && tolerances is increasing
+
+	/**
+	 * Constructs a new MapGeometry.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @effects Constructs a new MapGeometry of the network made of segments.
+	 */
+	public MapGeometry(Iterable<GeoSegment> segments) {
+		if (segments == null) {
+			throw new IllegalArgumentException("Segments cannot be null");
+		}
+		// number the points, and keep one segment per pair of points
+		Map<GeoPoint, Integer> ids = new HashMap<GeoPoint, Integer>();
+		List<GeoPoint> points = new ArrayList<GeoPoint>();
+		List<GeoSegment> edges = new ArrayList<GeoSegment>();
+		Set<Long> seen = new HashSet<Long>();
+		for (GeoSegment gs : segments) {
+			if (gs == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			int a = id(gs.p1, ids, points);
+			int b = id(gs.p2, ids, points);
+			if (a != b && seen.add(((long) Math.min(a, b) << 32) | Math.max(a, b))) {
+				edges.add(gs);
+			}
+		}
+
+		int loLat = Integer.MAX_VALUE;
+		int loLon = Integer.MAX_VALUE;
+		int hiLat = Integer.MIN_VALUE;
+		int hiLon = Integer.MIN_VALUE;
+		for (GeoPoint p : points) {
+			loLat = Math.min(loLat, p.latitude);
+			hiLat = Math.max(hiLat, p.latitude);
+			loLon = Math.min(loLon, p.longitude);
+			hiLon = Math.max(hiLon, p.longitude);
+		}
+		if (points.isEmpty()) {
+			loLat = hiLat = loLon = hiLon = 0;
+		}
+		minLat = loLat;
+		minLon = loLon;
+		maxLat = hiLat;
+		maxLon = hiLon;
+
+		List<int[]> polylines = chain(edges, ids, points);
+
+		levels = new SegmentGrid[LEVELS];
+		tolerances = new int[LEVELS];
+		levels[0] = new SegmentGrid(edges.toArray(new GeoSegment[0]));
+		int tolerance = BASE_TOLERANCE;
+		for (int level = 1; level < LEVELS; level++) {
+			tolerances[level] = tolerance;
+			levels[level] = simplify(polylines, points, tolerance);
+			tolerance *= 4;
+		}
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (levels.length == LEVELS && tolerances.length == LEVELS && tolerances[0] == 0);
+		for (int i = 1; i < LEVELS; i++) {
+			assert (tolerances[i] > tolerances[i - 1]);
+		}
+	}
+
+	/**
+	 * Returns the number of levels of detail.
+	 *
+	 * @return the number of levels of detail.
+	 */
+	public int getLevelCount() {
+		return LEVELS;
+	}
+
+	/**
+	 * Returns the lines of a level of detail.
+	 *
+	 * @requires 0 <= level < getLevelCount()
+	 * @return the lines of the network at level, 0 being the finest.
+	 */
+	public SegmentGrid getLevel(int level) {
+		return levels[level];
+	}
+
+	/**
+	 * Returns the tolerance of a level of detail.
+	 *
+	 * @requires 0 <= level < getLevelCount()
+	 * @return the greatest distance, in millionths of degrees, between the
+	 *         network and its lines at level.
+	 */
+	public int getTolerance(int level) {
+		return tolerances[level];
+	}
+
+	/**
+	 * Chooses the level of detail for a scale.
+	 *
+	 * @requires microDegreesPerPixel > 0
+	 * @return the coarsest level whose tolerance is at most half of
+	 *         microDegreesPerPixel, so that its simplification is invisible.
+	 */
+	public int chooseLevel(double microDegreesPerPixel) {
+		int level = 0;
+		while (level + 1 < LEVELS && tolerances[level + 1] <= microDegreesPerPixel / 2) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * Returns the southern bound of the network.
+	 *
+	 * @return the least latitude of a point of the network.
+	 */
+	public int getMinLatitude() {
+		return minLat;
+	}
+
+	/**
+	 * Returns the western bound of the network.
+	 *
+	 * @return the least longitude of a point of the network.
+	 */
+	public int getMinLongitude() {
+		return minLon;
+	}
+
+	/**
+	 * Returns the northern bound of the network.
+	 *
+	 * @return the greatest latitude of a point of the network.
+	 */
+	public int getMaxLatitude() {
+		return maxLat;
+	}
+
+	/**
+	 * Returns the eastern bound of the network.
+	 *
+	 * @return the greatest longitude of a point of the network.
+	 */
+	public int getMaxLongitude() {
+		return maxLon;
+	}
+
+	private static int id(GeoPoint p, Map<GeoPoint, Integer> ids, List<GeoPoint> points) {
+		Integer id = ids.get(p);
+		if (id == null) {
+			id = points.size();
+			ids.put(p, id);
+			points.add(p);
+		}
+		return id;
+	}
+
+	/**
+	 * Chains the edges into polylines of point ids, which continue along a
+	 * street through every point where it does not branch.
+	 */
+	private static List<int[]> chain(List<GeoSegment> edges, Map<GeoPoint, Integer> ids,
+			List<GeoPoint> points) {
+		int n = points.size();
+		int m = edges.size();
+		int[] from = new int[m];
+		int[] to = new int[m];
+		int[] degree = new int[n];
+		for (int e = 0; e < m; e++) {
+			from[e] = ids.get(edges.get(e).p1);
+			to[e] = ids.get(edges.get(e).p2);
+			degree[from[e]]++;
+			degree[to[e]]++;
+		}
+		// incident edges of each point
+		int[] start = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			start[v + 1] = start[v] + degree[v];
+		}
+		int[] incident = new int[2 * m];
+		int[] fill = new int[n];
+		for (int e = 0; e < m; e++) {
+			incident[start[from[e]] + fill[from[e]]++] = e;
+			incident[start[to[e]] + fill[to[e]]++] = e;
+		}
+
+		boolean[] used = new boolean[m];
+		List<int[]> polylines = new ArrayList<int[]>();
+		for (int e = 0; e < m; e++) {
+			if (used[e]) {
+				continue;
+			}
+			used[e] = true;
+			// extend backwards from from[e], then forwards from to[e]
+			List<Integer> back = extend(from[e], e, edges, from, to, start, incident, used);
+			List<Integer> forward = extend(to[e], e, edges, from, to, start, incident, used);
+			int[] line = new int[back.size() + forward.size() + 2];
+			int k = 0;
+			for (int i = back.size() - 1; i >= 0; i--) {
+				line[k++] = back.get(i);
+			}
+			line[k++] = from[e];
+			line[k++] = to[e];
+			for (int v : forward) {
+				line[k++] = v;
+			}
+			polylines.add(line);
+		}
+		return polylines;
+	}
+
+	/**
+	 * Follows the street of edge e beyond point v while it continues
+	 * unambiguously, marking the edges taken, and returns the points reached.
+	 */
+	private static List<Integer> extend(int v, int e, List<GeoSegment> edges, int[] from, int[] to,
+			int[] start, int[] incident, boolean[] used) {
+		List<Integer> reached = new ArrayList<Integer>();
+		String name = edges.get(e).name;
+		while (true) {
+			// the single unused edge of the same street at v, if there is one
+			int next = -1;
+			for (int k = start[v]; k < start[v + 1]; k++) {
+				int f = incident[k];
+				if (!used[f] && edges.get(f).name.equals(name)) {
+					if (next >= 0) {
+						return reached;
+					}
+					next = f;
+				}
+			}
+			if (next < 0) {
+				return reached;
+			}
+			used[next] = true;
+			v = from[next] == v ? to[next] : from[next];
+			reached.add(v);
+		}
+	}
+
+	/**
+	 * Returns a SegmentGrid of the polylines simplified to within tolerance.
+	 */
+	private static SegmentGrid simplify(List<int[]> polylines, List<GeoPoint> points, int tolerance) {
+		IntList lat1 = new IntList();
+		IntList lon1 = new IntList();
+		IntList lat2 = new IntList();
+		IntList lon2 = new IntList();
+		int[] stack = new int[64];
+		for (int[] line : polylines) {
+			if (isSmall(line, points, tolerance)) {
+				continue;
+			}
+			boolean[] keep = new boolean[line.length];
+			keep[0] = true;
+			keep[line.length - 1] = true;
+			// iterative Douglas-Peucker over the ranges on the stack
+			int top = 0;
+			stack[top++] = 0;
+			stack[top++] = line.length - 1;
+			while (top > 0) {
+				int last = stack[--top];
+				int first = stack[--top];
+				GeoPoint a = points.get(line[first]);
+				GeoPoint b = points.get(line[last]);
+				double worst = tolerance;
+				int split = -1;
+				for (int i = first + 1; i < last; i++) {
+					double d = distance(points.get(line[i]), a, b);
+					if (d > worst) {
+						worst = d;
+						split = i;
+					}
+				}
+				if (split >= 0) {
+					keep[split] = true;
+					if (top + 4 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+					}
+					stack[top++] = first;
+					stack[top++] = split;
+					stack[top++] = split;
+					stack[top++] = last;
+				}
+			}
+			GeoPoint previous = points.get(line[0]);
+			for (int i = 1; i < line.length; i++) {
+				if (keep[i]) {
+					GeoPoint p = points.get(line[i]);
+					lat1.add(previous.latitude);
+					lon1.add(previous.longitude);
+					lat2.add(p.latitude);
+					lon2.add(p.longitude);
+					previous = p;
+				}
+			}
+		}
+		return new SegmentGrid(lat1.toArray(), lon1.toArray(), lat2.toArray(), lon2.toArray());
+	}
+
+	private static boolean isSmall(int[] line, List<GeoPoint> points, int tolerance) {
+		int loLat = Integer.MAX_VALUE;
+		int loLon = Integer.MAX_VALUE;
+		int hiLat = Integer.MIN_VALUE;
+		int hiLon = Integer.MIN_VALUE;
+		for (int v : line) {
+			GeoPoint p = points.get(v);
+			loLat = Math.min(loLat, p.latitude);
+			hiLat = Math.max(hiLat, p.latitude);
+			loLon = Math.min(loLon, p.longitude);
+			hiLon = Math.max(hiLon, p.longitude);
+		}
+		return (long) hiLat - loLat < tolerance && (long) hiLon - loLon < tolerance;
+	}
+
+	/**
+	 * Returns the distance, in millionths of degrees, from p to the line
+	 * segment from a to b.
+	 */
+	private static double distance(GeoPoint p, GeoPoint a, GeoPoint b) {
+		double dx = (double) b.longitude - a.longitude;
+		double dy = (double) b.latitude - a.latitude;
+		double px = (double) p.longitude - a.longitude;
+		double py = (double) p.latitude - a.latitude;
+		double lengthSquared = dx * dx + dy * dy;
+		double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+		return Math.hypot(px - t * dx, py - t * dy);
+	}
+
+	/**
+	 * A growable array of ints.
+	 */
+	private static class IntList {
+		private int[] values = new int[16];
+		private int size = 0;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
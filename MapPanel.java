@@ -0,0 +1,390 @@
+package homework1;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A JPanel showing a map of a road network with a Route drawn on top of
+ * it. The map is dragged with the mouse and zoomed with its wheel.
+ * <p>
+ * The network is drawn in square raster tiles, so that a frame only copies
+ * the tiles in view instead of drawing every segment. Missing tiles are
+ * rendered by background threads, and meanwhile the matching part of the
+ * tile one zoom level out is shown enlarged, if it is cached. A tile draws
+ * only the lines its SegmentGrid finds in its area, at the level of detail
+ * of the MapGeometry suited to its zoom, so rendering a tile costs about
+ * the same at every zoom. The most recently used tiles are cached, as many
+ * as are in view and a margin more, so the cache grows with the panel
+ * rather than holding a fixed number of tiles whatever its size.
+ * <p>
+ * The route changes more often than the network, and is drawn directly on
+ * every frame, skipping the segments out of view and the points closer
+ * than a pixel to the previous one.
+ */
+public class MapPanel extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int TILE_SIZE = 256;
+	// tiles cached beyond those in view, for panning back and zooming out
+	private static final int TILE_MARGIN = 64;
+	private static final int MAX_ZOOM = 22;
+
+	// Millionths of degrees of latitude per pixel at zoom 0; every zoom
+	// level halves it.
+	private static final double ZOOM0_SCALE = 1 << 20;
+
+	// A degree of longitude is shorter than a degree of latitude here.
+	private static final double LON_SCALE =
+			GeoPoint.KM_PER_DEGREE_LONGITUDE / GeoPoint.KM_PER_DEGREE_LATITUDE;
+
+	private static final Color BACKGROUND = new Color(0xf2efe9);
+	private static final Color ROAD = new Color(0x8a8a8a);
+	private static final Color ROUTE = new Color(0x2a6fdb);
+
+	private MapGeometry geometry;			// network shown in this
+	private Route route = null;				// route drawn over it
+	private int zoom = 0;
+	private double centerLat;				// center of the view, in
+	private double centerLon;				// millionths of degrees
+	private boolean fitted = false;			// view fitted to the network yet
+
+	// tiles by key, least recently used first, and the most of them kept;
+	// accessed on the EDT only
+	private final LinkedHashMap<Long, BufferedImage> tiles =
+			new LinkedHashMap<Long, BufferedImage>(64, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+					return size() > maxTiles;
+				}
+			};
+	private int maxTiles = TILE_MARGIN;
+	private final Set<Long> pending = new HashSet<Long>();	// EDT only
+	private volatile Set<Long> visibleTiles = new HashSet<Long>();
+
+	// Renders the tiles of every MapPanel. It is shared, rather than owned
+	// by each panel, so that panels need not be disposed of to free threads.
+	private static final ExecutorService RENDERER = Executors.newFixedThreadPool(
+			Math.max(1, Runtime.getRuntime().availableProcessors() - 1), r -> {
+				Thread t = new Thread(r, "map-tile-renderer");
+				t.setDaemon(true);
+				return t;
+			});
+
+	private Point dragFrom = null;
+
+
+	/**
+	 * Creates a new MapPanel.
+	 * @requires geometry != null
+	 * @effects Creates a new MapPanel showing geometry, initially fitted to
+	 * 			the panel, and no route.
+	 */
+	public MapPanel(MapGeometry geometry) {
+		if (geometry == null) {
+			throw new IllegalArgumentException("Geometry cannot be null");
+		}
+		this.geometry = geometry;
+		setBackground(BACKGROUND);
+		setPreferredSize(new Dimension(600, 300));
+
+		MouseAdapter mouse = new MouseAdapter() {
+			public void mousePressed(MouseEvent e) {
+				dragFrom = e.getPoint();
+			}
+
+			public void mouseDragged(MouseEvent e) {
+				if (dragFrom != null) {
+					pan(e.getX() - dragFrom.x, e.getY() - dragFrom.y);
+					dragFrom = e.getPoint();
+				}
+			}
+
+			public void mouseReleased(MouseEvent e) {
+				dragFrom = null;
+			}
+
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				zoomAt(e.getPoint(), e.getWheelRotation() < 0 ? 1 : -1);
+			}
+		};
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+		addMouseWheelListener(mouse);
+	}
+
+
+	/**
+	 * Shows another network.
+	 * @requires geometry != null
+	 * @effects Shows geometry instead of the current network, fitted to
+	 * 			the panel.
+	 */
+	public void setGeometry(MapGeometry geometry) {
+		if (geometry == null) {
+			throw new IllegalArgumentException("Geometry cannot be null");
+		}
+		this.geometry = geometry;
+		tiles.clear();
+		fitted = false;
+		repaint();
+	}
+
+
+	/**
+	 * Draws a route over the network.
+	 * @effects Draws route over the network instead of the current route,
+	 * 			or no route if route == null.
+	 */
+	public void setRoute(Route route) {
+		this.route = route;
+		repaint();
+	}
+
+
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		int width = getWidth();
+		int height = getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (!fitted) {
+			fit(width, height);
+		}
+		double scale = scale(zoom);
+		double left = worldX(centerLon, scale) - width / 2.0;
+		double top = worldY(centerLat, scale) - height / 2.0;
+
+		long tx0 = (long) Math.floor(left / TILE_SIZE);
+		long ty0 = (long) Math.floor(top / TILE_SIZE);
+		long tx1 = (long) Math.floor((left + width - 1) / TILE_SIZE);
+		long ty1 = (long) Math.floor((top + height - 1) / TILE_SIZE);
+		Set<Long> visible = new HashSet<Long>();
+		for (long ty = ty0; ty <= ty1; ty++) {
+			for (long tx = tx0; tx <= tx1; tx++) {
+				visible.add(key(zoom, tx, ty));
+			}
+		}
+		visibleTiles = visible;
+		maxTiles = visible.size() + TILE_MARGIN;
+		// the panel may have shrunk since the last frame
+		Iterator<Long> eldest = tiles.keySet().iterator();
+		while (tiles.size() > maxTiles) {
+			eldest.next();
+			eldest.remove();
+		}
+
+		for (long ty = ty0; ty <= ty1; ty++) {
+			for (long tx = tx0; tx <= tx1; tx++) {
+				int x = (int) Math.round(tx * TILE_SIZE - left);
+				int y = (int) Math.round(ty * TILE_SIZE - top);
+				long key = key(zoom, tx, ty);
+				BufferedImage tile = tiles.get(key);
+				if (tile != null) {
+					g.drawImage(tile, x, y, null);
+					continue;
+				}
+				request(key, zoom, tx, ty);
+				// meanwhile, enlarge a quarter of the tile one zoom level out
+				BufferedImage parent = zoom > 0 ? tiles.get(key(zoom - 1, tx >> 1, ty >> 1)) : null;
+				if (parent != null) {
+					int sx = (int) (tx & 1) * TILE_SIZE / 2;
+					int sy = (int) (ty & 1) * TILE_SIZE / 2;
+					g.drawImage(parent, x, y, x + TILE_SIZE, y + TILE_SIZE,
+							sx, sy, sx + TILE_SIZE / 2, sy + TILE_SIZE / 2, null);
+				}
+			}
+		}
+		drawRoute((Graphics2D) g, left, top, width, height, scale);
+	}
+
+
+	/**
+	 * Draws the route, culled to the view and thinned to a point per pixel.
+	 */
+	private void drawRoute(Graphics2D g, double left, double top, int width, int height,
+			double scale) {
+		if (route == null) {
+			return;
+		}
+		Path2D.Double path = new Path2D.Double();
+		boolean open = false;
+		double lastX = 0;
+		double lastY = 0;
+		Iterator<GeoSegment> it = route.getGeoSegments();
+		while (it.hasNext()) {
+			GeoSegment gs = it.next();
+			double x1 = worldX(gs.p1.longitude, scale) - left;
+			double y1 = worldY(gs.p1.latitude, scale) - top;
+			double x2 = worldX(gs.p2.longitude, scale) - left;
+			double y2 = worldY(gs.p2.latitude, scale) - top;
+			if (Math.max(x1, x2) < 0 || Math.min(x1, x2) > width
+					|| Math.max(y1, y2) < 0 || Math.min(y1, y2) > height) {
+				open = false;
+				continue;
+			}
+			if (!open) {
+				path.moveTo(x1, y1);
+				lastX = x1;
+				lastY = y1;
+				open = true;
+			}
+			if (Math.abs(x2 - lastX) >= 1 || Math.abs(y2 - lastY) >= 1 || !it.hasNext()) {
+				path.lineTo(x2, y2);
+				lastX = x2;
+				lastY = y2;
+			}
+		}
+		Graphics2D g2 = (Graphics2D) g.create();
+		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g2.setColor(ROUTE);
+		g2.setStroke(new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+		g2.draw(path);
+		g2.dispose();
+	}
+
+
+	/**
+	 * Drops the tiles requested for this panel that are not yet rendered,
+	 * when it is removed from its container.
+	 */
+	public void removeNotify() {
+		visibleTiles = new HashSet<Long>();
+		super.removeNotify();
+	}
+
+
+	/**
+	 * Renders a tile in the background, unless it is already pending.
+	 */
+	private void request(long key, int z, long tx, long ty) {
+		if (!pending.add(key)) {
+			return;
+		}
+		MapGeometry geo = geometry;
+		RENDERER.execute(() -> {
+			// skip tiles scrolled out of view while waiting
+			BufferedImage tile = visibleTiles.contains(key) ? renderTile(geo, z, tx, ty) : null;
+			SwingUtilities.invokeLater(() -> {
+				pending.remove(key);
+				if (tile != null && geo == geometry) {
+					tiles.put(key, tile);
+				}
+				repaint();
+			});
+		});
+	}
+
+
+	/**
+	 * Renders the lines of geo within a tile.
+	 */
+	private static BufferedImage renderTile(MapGeometry geo, int z, long tx, long ty) {
+		double scale = scale(z);
+		// opaque, as the tiles cover the background, so they are copied
+		// to the screen without blending
+		BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = tile.createGraphics();
+		g.setColor(BACKGROUND);
+		g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setColor(ROAD);
+		g.setStroke(new BasicStroke(z >= 16 ? 2f : 1f));
+
+		double left = tx * TILE_SIZE;
+		double top = ty * TILE_SIZE;
+		// the area of the tile, with a margin of two pixels for the stroke
+		int west = clamp(Math.floor((left - 2) * scale / LON_SCALE));
+		int east = clamp(Math.ceil((left + TILE_SIZE + 2) * scale / LON_SCALE));
+		int north = clamp(Math.ceil(-(top - 2) * scale));
+		int south = clamp(Math.floor(-(top + TILE_SIZE + 2) * scale));
+
+		Path2D.Double path = new Path2D.Double();
+		geo.getLevel(geo.chooseLevel(scale)).query(south, west, north, east,
+				(line, lat1, lon1, lat2, lon2) -> {
+					path.moveTo(worldX(lon1, scale) - left, worldY(lat1, scale) - top);
+					path.lineTo(worldX(lon2, scale) - left, worldY(lat2, scale) - top);
+				});
+		g.draw(path);
+		g.dispose();
+		return tile;
+	}
+
+
+	/**
+	 * Centers the view on the network, at the largest zoom showing all of it.
+	 */
+	private void fit(int width, int height) {
+		centerLat = ((double) geometry.getMinLatitude() + geometry.getMaxLatitude()) / 2;
+		centerLon = ((double) geometry.getMinLongitude() + geometry.getMaxLongitude()) / 2;
+		double latSpan = (double) geometry.getMaxLatitude() - geometry.getMinLatitude();
+		double lonSpan = ((double) geometry.getMaxLongitude() - geometry.getMinLongitude()) * LON_SCALE;
+		zoom = MAX_ZOOM;
+		while (zoom > 0 && (latSpan / scale(zoom) > height || lonSpan / scale(zoom) > width)) {
+			zoom--;
+		}
+		fitted = true;
+	}
+
+
+	private void pan(int dx, int dy) {
+		double scale = scale(zoom);
+		centerLon -= dx * scale / LON_SCALE;
+		centerLat += dy * scale;
+		repaint();
+	}
+
+
+	/**
+	 * Zooms in or out by a level, keeping the point under p in place.
+	 */
+	private void zoomAt(Point p, int change) {
+		int newZoom = Math.max(0, Math.min(MAX_ZOOM, zoom + change));
+		if (newZoom == zoom) {
+			return;
+		}
+		double dx = p.x - getWidth() / 2.0;
+		double dy = p.y - getHeight() / 2.0;
+		double oldScale = scale(zoom);
+		double newScale = scale(newZoom);
+		double lon = centerLon + dx * oldScale / LON_SCALE;
+		double lat = centerLat - dy * oldScale;
+		centerLon = lon - dx * newScale / LON_SCALE;
+		centerLat = lat + dy * newScale;
+		zoom = newZoom;
+		repaint();
+	}
+
+
+	private static double scale(int z) {
+		return ZOOM0_SCALE / (1L << z);
+	}
+
+	private static double worldX(double lon, double scale) {
+		return lon * LON_SCALE / scale;
+	}
+
+	private static double worldY(double lat, double scale) {
+		return -lat / scale;
+	}
+
+	private static int clamp(double microDegrees) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, microDegrees));
+	}
+
+	private static long key(int z, long tx, long ty) {
+		return ((long) z << 58) | ((tx & 0x1FFFFFFFL) << 29) | (ty & 0x1FFFFFFFL);
+	}
+}
@@ -0,0 +1,179 @@
+package homework1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A MappedRoadGraph is a RoadGraph read from a snapshot file mapped into
+ * memory, as written by RoadGraph.writeSnapshot().
+ * <p>
+ * Opening a snapshot reads only its header, so it takes the same time
+ * whatever the size of the graph, and the columns are paged in from the file
+ * as they are used. The columns live outside the Java heap, in pages that
+ * processes mapping the same file share. Street names are decoded from UTF-8
+ * the first time they are asked for.
+ * <p>
+ * The snapshot file must not be modified while it is mapped; writeSnapshot()
+ * replaces a file rather than writing into it, so that graphs mapped from the
+ * previous snapshot keep reading it.
+ */
+public final class MappedRoadGraph extends RoadGraph {
+
+	private final Path file;
+	private final int version;
+	private final IntBuffer latitude;
+	private final IntBuffer longitude;
+	private final IntBuffer firstEdge;
+	private final IntBuffer target;
+	private final FloatBuffer length;
+	private final FloatBuffer heading;
+	private final IntBuffer nameId;
+	private final IntBuffer nameOffsets;
+	private final ByteBuffer nameBytes;
+	// names[id] is null until getName(id) decodes it; a race decodes a name
+	// twice, into equal Strings, which are safe to publish without locking
+	private final String[] names;
+	// the mapped sections and their checksums, by section id, for verify()
+	private final ByteBuffer[] sections;
+	private final int[] crcs;
+
+	// Abs. Function: as for CompactRoadGraph, with the columns read from the
+	// buffers of the same names; names[id] is the UTF-8 string in nameBytes
+	// from nameOffsets[id] to nameOffsets[id+1].
+	// Rep. Invariant: as for CompactRoadGraph, with firstEdge.capacity() ==
+	// latitude.capacity() + 1 && nameOffsets.capacity() == names.length + 1 &&
+	// nameOffsets[names.length] == nameBytes.capacity()
+
+	/**
+	 * Constructs a new MappedRoadGraph over the sections of a snapshot, as
+	 * checked by RoadGraphSnapshot.open().
+	 */
+	MappedRoadGraph(Path file, int version, IntBuffer latitude, IntBuffer longitude, IntBuffer firstEdge,
+			IntBuffer target, FloatBuffer length, FloatBuffer heading, IntBuffer nameId, IntBuffer nameOffsets,
+			ByteBuffer nameBytes, ByteBuffer[] sections, int[] crcs) {
+		this.file = file;
+		this.version = version;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.firstEdge = firstEdge;
+		this.target = target;
+		this.length = length;
+		this.heading = heading;
+		this.nameId = nameId;
+		this.nameOffsets = nameOffsets;
+		this.nameBytes = nameBytes;
+		this.names = new String[nameOffsets.capacity() - 1];
+		this.sections = sections;
+		this.crcs = crcs;
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (firstEdge.capacity() == latitude.capacity() + 1 && longitude.capacity() == latitude.capacity());
+		assert (firstEdge.get(0) == 0 && firstEdge.get(latitude.capacity()) == target.capacity());
+		assert (length.capacity() == target.capacity() && heading.capacity() == target.capacity()
+				&& nameId.capacity() == target.capacity());
+		assert (nameOffsets.get(names.length) == nameBytes.capacity());
+	}
+
+	/**
+	 * Opens a snapshot file.
+	 *
+	 * @requires file != null
+	 * @return a MappedRoadGraph equal to the graph whose snapshot is in file.
+	 * @throws IOException if file cannot be read, is not a snapshot, or has
+	 *         a damaged header or a version this class cannot read.
+	 */
+	public static MappedRoadGraph open(Path file) throws IOException {
+		return RoadGraphSnapshot.open(file);
+	}
+
+	/**
+	 * Checks the whole snapshot against its checksums. Opening a snapshot
+	 * checks only its header, so that it stays fast for large graphs; call
+	 * this to detect damage to the columns as well, at the cost of reading
+	 * the whole file.
+	 *
+	 * @throws IOException if a column of the snapshot is damaged.
+	 */
+	public void verify() throws IOException {
+		int damaged = RoadGraphSnapshot.verify(sections, crcs);
+		if (damaged != 0) {
+			throw new IOException(file + " has a damaged section " + damaged);
+		}
+	}
+
+	/**
+	 * Returns the snapshot file of this graph.
+	 *
+	 * @return the file this graph was opened from.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the format version of the snapshot of this graph.
+	 *
+	 * @return the version of the file this graph was opened from.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	public int getNodeCount() {
+		return latitude.capacity();
+	}
+
+	public int getEdgeCount() {
+		return target.capacity();
+	}
+
+	public int getNameCount() {
+		return names.length;
+	}
+
+	public int getLatitude(int v) {
+		return latitude.get(v);
+	}
+
+	public int getLongitude(int v) {
+		return longitude.get(v);
+	}
+
+	public int getFirstEdge(int v) {
+		return firstEdge.get(v);
+	}
+
+	public int getTarget(int e) {
+		return target.get(e);
+	}
+
+	public float getLength(int e) {
+		return length.get(e);
+	}
+
+	public float getHeading(int e) {
+		return heading.get(e);
+	}
+
+	public int getNameId(int e) {
+		return nameId.get(e);
+	}
+
+	public String getName(int id) {
+		String name = names[id];
+		if (name == null) {
+			int start = nameOffsets.get(id);
+			byte[] bytes = new byte[nameOffsets.get(id + 1) - start];
+			nameBytes.get(start, bytes);
+			name = new String(bytes, StandardCharsets.UTF_8);
+			names[id] = name;
+		}
+		return name;
+	}
+}
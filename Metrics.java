@@ -0,0 +1,194 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics is the registry of the counters and histograms that measure this
+ * package at run time. Counters are LongAdders and histograms are
+ * LogHistograms, so both may be updated from any thread without locking.
+ * <p>
+ * Measuring is off unless the JVM is started with
+ * <tt>-Dhomework1.metrics=true</tt>. Instrumented code tests the constant
+ * ENABLED before doing any work, so when it is off the JIT compiler removes
+ * the measurements altogether.
+ * <p>
+ * The measurements can be read through snapshot(), written in a plain text
+ * format by appendText(), or served over HTTP by a MetricsServer. Time is
+ * measured in nanoseconds. The instruments of this package are:
+ *
+ * <pre>
+ *   route_add_segment_nanos          histogram of Route.addSegment()
+ *   route_add_segment_copied         GeoSegments and GeoFeatures copied by it
+ *   feature_add_segment_nanos        histogram of GeoFeature.addSegment()
+ *   feature_add_segment_copied       GeoSegments copied by it
+ *   formatter_directions_nanos       histogram of RouteFormatter.computeDirections()
+ *                                    and computeDirectionsParallel()
+ *   formatter_directions_features    GeoFeatures they formatted
+ *   formatter_line_nanos             histogram of RouteFormatter.computeLine()
+ * </pre>
+ */
+public final class Metrics {
+
+	/**
+	 * Whether measuring is on, as given by the system property
+	 * <tt>homework1.metrics</tt>.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("homework1.metrics");
+
+	private static final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>();
+	private static final ConcurrentMap<String, LogHistogram> histograms =
+			new ConcurrentHashMap<String, LogHistogram>();
+
+	private Metrics() {
+	}
+
+	/**
+	 * Returns a counter, creating it if needed.
+	 *
+	 * @requires name consists of lower case letters, digits and underscores,
+	 *           and is not the name of a histogram
+	 * @return the counter named name.
+	 */
+	public static LongAdder counter(String name) {
+		checkName(name, histograms);
+		return counters.computeIfAbsent(name, n -> new LongAdder());
+	}
+
+	/**
+	 * Returns a histogram, creating it if needed.
+	 *
+	 * @requires name consists of lower case letters, digits and underscores,
+	 *           and is not the name of a counter
+	 * @return the histogram named name.
+	 */
+	public static LogHistogram histogram(String name) {
+		checkName(name, counters);
+		return histograms.computeIfAbsent(name, n -> new LogHistogram());
+	}
+
+	/**
+	 * Returns a snapshot of all the counters and histograms.
+	 *
+	 * @return a Snapshot of the counters and histograms registered so far.
+	 */
+	public static Snapshot snapshot() {
+		SortedMap<String, Long> counterValues = new TreeMap<String, Long>();
+		for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+			counterValues.put(e.getKey(), e.getValue().sum());
+		}
+		SortedMap<String, LogHistogram.Snapshot> histogramValues = new TreeMap<String, LogHistogram.Snapshot>();
+		for (Map.Entry<String, LogHistogram> e : histograms.entrySet()) {
+			histogramValues.put(e.getKey(), e.getValue().snapshot());
+		}
+		return new Snapshot(counterValues, histogramValues);
+	}
+
+	private static void checkName(String name, Map<String, ?> otherKind) {
+		if (name == null || name.isEmpty()) {
+			throw new IllegalArgumentException("Name cannot be null or empty");
+		}
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c >= '0' && c <= '9' && i > 0 || c == '_')) {
+				throw new IllegalArgumentException("Bad metric name: " + name);
+			}
+		}
+		if (otherKind.containsKey(name)) {
+			throw new IllegalArgumentException("Metric " + name + " already has another kind");
+		}
+	}
+
+	/**
+	 * A Snapshot is an immutable copy of the counters and histograms at some
+	 * point.
+	 */
+	public static final class Snapshot {
+
+		// The quantiles given for each histogram by appendText().
+		private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+		private static final String[] QUANTILE_LABELS = { "0.5", "0.9", "0.99", "0.999" };
+
+		private final SortedMap<String, Long> counters;
+		private final SortedMap<String, LogHistogram.Snapshot> histograms;
+
+		private Snapshot(SortedMap<String, Long> counters, SortedMap<String, LogHistogram.Snapshot> histograms) {
+			this.counters = Collections.unmodifiableSortedMap(counters);
+			this.histograms = Collections.unmodifiableSortedMap(histograms);
+		}
+
+		/**
+		 * Returns the counters.
+		 *
+		 * @return an unmodifiable map from the name of each counter to its
+		 *         value, by name.
+		 */
+		public SortedMap<String, Long> getCounters() {
+			return counters;
+		}
+
+		/**
+		 * Returns the histograms.
+		 *
+		 * @return an unmodifiable map from the name of each histogram to its
+		 *         snapshot, by name.
+		 */
+		public SortedMap<String, LogHistogram.Snapshot> getHistograms() {
+			return histograms;
+		}
+
+		/**
+		 * Writes this in a plain text format, one value per line:
+		 *
+		 * <pre>
+		 *   route_add_segment_copied 5050
+		 *   route_add_segment_nanos_count 100
+		 *   route_add_segment_nanos_sum 81234
+		 *   route_add_segment_nanos_max 4511
+		 *   route_add_segment_nanos{quantile="0.5"} 703
+		 * </pre>
+		 *
+		 * which Prometheus and similar scrapers can read.
+		 *
+		 * @requires out != null
+		 * @modifies out
+		 * @effects appends the values of this to out.
+		 * @throws IOException if out fails.
+		 */
+		public void appendText(Appendable out) throws IOException {
+			for (Map.Entry<String, Long> e : counters.entrySet()) {
+				out.append(e.getKey()).append(' ').append(Long.toString(e.getValue())).append('\n');
+			}
+			for (Map.Entry<String, LogHistogram.Snapshot> e : histograms.entrySet()) {
+				String name = e.getKey();
+				LogHistogram.Snapshot h = e.getValue();
+				out.append(name).append("_count ").append(Long.toString(h.getCount())).append('\n');
+				out.append(name).append("_sum ").append(Long.toString(h.getSum())).append('\n');
+				out.append(name).append("_max ").append(Long.toString(h.getMax())).append('\n');
+				for (int i = 0; i < QUANTILES.length; i++) {
+					out.append(name).append("{quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+							.append(Long.toString(h.getValueAtPercentile(100 * QUANTILES[i]))).append('\n');
+				}
+			}
+		}
+
+		/**
+		 * @return this in the format of appendText().
+		 */
+		public String toString() {
+			StringBuilder text = new StringBuilder();
+			try {
+				appendText(text);
+			} catch (IOException e) {
+				throw new IllegalStateException("StringBuilder cannot fail", e);
+			}
+			return text.toString();
+		}
+	}
+}
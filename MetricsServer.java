@@ -0,0 +1,111 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A MetricsServer serves the Metrics of this JVM over HTTP, so that a local
+ * scraper can poll them. <tt>GET /metrics</tt> returns
+ * Metrics.snapshot() in the plain text format of
+ * Metrics.Snapshot.appendText().
+ * <p>
+ * The server listens on the loopback interface only, and answers from a
+ * single thread of its own. An application that wants its metrics scraped
+ * starts one, with <tt>-Dhomework1.metrics=true</tt>:
+ *
+ * <pre>
+ *   MetricsServer metrics = new MetricsServer(9464);
+ *   metrics.start();
+ * </pre>
+ */
+public class MetricsServer {
+
+	/**
+	 * The path the metrics are served at.
+	 */
+	public static final String PATH = "/metrics";
+
+	private final HttpServer server;
+
+	// Abs. Function: an HTTP server on server.getAddress() serving Metrics
+	// at PATH.
+	// Rep. Invariant: server != null
+
+	/**
+	 * Constructs a new MetricsServer.
+	 *
+	 * @requires 0 <= port <= 65535
+	 * @effects Constructs a new, stopped MetricsServer bound to port on the
+	 *          loopback interface, or to a free port if port is 0.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public MetricsServer(int port) throws IOException {
+		if (port < 0 || port > 65535) {
+			throw new IllegalArgumentException("Bad port: " + port);
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext(PATH, new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				serve(exchange);
+			}
+		});
+	}
+
+	/**
+	 * Returns the port this listens on.
+	 *
+	 * @return the port this is bound to.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Starts serving.
+	 *
+	 * @modifies this
+	 * @effects starts answering requests in a background thread.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops serving.
+	 *
+	 * @modifies this
+	 * @effects stops answering requests and releases the port.
+	 */
+	public void stop() {
+		server.stop(0);
+	}
+
+	private static void serve(HttpExchange exchange) throws IOException {
+		try {
+			if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = Metrics.snapshot().toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			if (exchange.getRequestMethod().equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+}
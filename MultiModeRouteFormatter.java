@@ -0,0 +1,158 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A MultiModeRouteFormatter computes the directions of several
+ * RouteFormatters for the same Route in a single pass.
+ * <p>
+ * The directions of every formatter are determined by the same sequence of
+ * turns, names and lengths, so this class walks the geographic features of
+ * the route once, classifies each turn once, and hands the results to the
+ * appendLine() of every formatter. The directions are identical to those the
+ * formatters compute separately.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   formatters : sequence  // the formatters whose directions are computed
+ * </pre>
+ */
+public class MultiModeRouteFormatter {
+
+	private final RouteFormatter[] formatters;
+
+	// Abs. Function: formatters = this.formatters
+	// Rep. Invariant: formatters.length > 0 && no element of formatters is null
+
+	/**
+	 * Constructs a new MultiModeRouteFormatter.
+	 *
+	 * @requires formatters != null && formatters is not empty && no element
+	 *           of formatters is null
+	 * @effects Constructs a new MultiModeRouteFormatter computing the
+	 *          directions of the elements of formatters, in order.
+	 */
+	public MultiModeRouteFormatter(RouteFormatter... formatters) {
+		if (formatters == null || formatters.length == 0) {
+			throw new IllegalArgumentException("Formatters must be non-empty");
+		}
+		for (RouteFormatter formatter : formatters) {
+			if (formatter == null) {
+				throw new IllegalArgumentException("Formatter cannot be null");
+			}
+		}
+		this.formatters = formatters.clone();
+		checkRep();
+	}
+
+	/**
+	 * Constructs a new MultiModeRouteFormatter.
+	 *
+	 * @requires formatters != null && formatters is not empty && no element
+	 *           of formatters is null
+	 * @effects Constructs a new MultiModeRouteFormatter computing the
+	 *          directions of the elements of formatters, in order.
+	 */
+	public MultiModeRouteFormatter(List<RouteFormatter> formatters) {
+		this(formatters == null ? null : formatters.toArray(new RouteFormatter[0]));
+	}
+
+	void checkRep() {
+		assert (formatters.length > 0);
+		for (RouteFormatter formatter : formatters) {
+			assert (formatter != null);
+		}
+	}
+
+	/**
+	 * Returns the number of formatters.
+	 *
+	 * @return the length of formatters.
+	 */
+	public int getFormatterCount() {
+		return formatters.length;
+	}
+
+	/**
+	 * Returns a formatter.
+	 *
+	 * @requires 0 <= i < getFormatterCount()
+	 * @return the i-th element of formatters.
+	 */
+	public RouteFormatter getFormatter(int i) {
+		return formatters[i];
+	}
+
+	/**
+	 * Gives directions for following a Route in every mode.
+	 *
+	 * @requires route != null && 0 <= heading < 360
+	 * @param route the route for which to print directions.
+	 * @param heading the initial heading.
+	 * @return an array d such that d[i] is
+	 *         formatters[i].computeDirections(route, heading).
+	 */
+	public String[] computeDirections(Route route, double heading) {
+		StringBuilder[] outs = new StringBuilder[formatters.length];
+		for (int i = 0; i < outs.length; i++) {
+			outs[i] = new StringBuilder();
+		}
+		try {
+			computeDirections(route, heading, outs);
+		} catch (IOException e) {
+			throw new IllegalStateException("StringBuilder cannot fail", e);
+		}
+		String[] directions = new String[outs.length];
+		for (int i = 0; i < outs.length; i++) {
+			directions[i] = outs[i].toString();
+		}
+		return directions;
+	}
+
+	/**
+	 * Writes directions for following a Route in every mode to character
+	 * sinks, one line of each mode at a time.
+	 *
+	 * @requires route != null && 0 <= heading < 360 && outs != null &&
+	 *           outs.length == getFormatterCount() && no element of outs
+	 *           is null
+	 * @param route the route for which to print directions.
+	 * @param heading the initial heading.
+	 * @param outs the sinks to write the directions to.
+	 * @modifies outs
+	 * @effects appends to outs[i] the String
+	 *          formatters[i].computeDirections(route, heading).
+	 * @throws IOException if an element of outs fails.
+	 */
+	public void computeDirections(Route route, double heading, Appendable[] outs)
+			throws IOException {
+		if (route == null) {
+			throw new IllegalArgumentException("Route must not be null");
+		}
+		if (heading < 0 || heading >= 360) {
+			throw new IllegalArgumentException("heading must be between 0 and 360");
+		}
+		if (outs == null || outs.length != formatters.length) {
+			throw new IllegalArgumentException("There must be an Appendable per formatter");
+		}
+		for (Appendable out : outs) {
+			if (out == null) {
+				throw new IllegalArgumentException("Appendable must not be null");
+			}
+		}
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			GeoFeature geoFeature = it.next();
+			TurnType turn = TurnType.classify(heading, geoFeature.getStartHeading());
+			String name = geoFeature.getName();
+			double length = geoFeature.getLength();
+			for (int i = 0; i < formatters.length; i++) {
+				formatters[i].appendLine(turn, name, length, outs[i]);
+			}
+			heading = geoFeature.getEndHeading();
+		}
+	}
+}
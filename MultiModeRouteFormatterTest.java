@@ -0,0 +1,131 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+public class MultiModeRouteFormatterTest {
+
+	private Route mTechnionRoute;
+	private Route mLongRoute;
+	private RouteFormatter[] mFormatters;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public MultiModeRouteFormatterTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		mTechnionRoute = new Route(segments[0]);
+		for (int i : new int[] { 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnionRoute = mTechnionRoute.addSegment(segments[i]);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.randomPlanar(20000, 9), 5000, 9);
+		mLongRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		mFormatters = new RouteFormatter[] {
+			new WalkingRouteFormatter(),
+			new DrivingRouteFormatter(),
+			new TemplateRouteFormatter("{turn} onto {name}: {km:0.0} km, {min:driving} min.") };
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	public void testDirections() throws IOException {
+		MultiModeRouteFormatter multi = new MultiModeRouteFormatter(mFormatters);
+		for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+			String size = route.geoFeatures.size() + " features";
+			show("Directions (" + size + ")");
+			for (double heading : new double[] { 0, 123.5, 359.9 }) {
+				String[] directions = multi.computeDirections(route, heading);
+				StringWriter[] writers = new StringWriter[mFormatters.length];
+				for (int i = 0; i < writers.length; i++)
+					writers[i] = new StringWriter();
+				multi.computeDirections(route, heading, writers);
+				boolean same = directions.length == mFormatters.length;
+				for (int i = 0; same && i < mFormatters.length; i++) {
+					String expected = mFormatters[i].computeDirections(route, heading);
+					if (!directions[i].equals(expected) || !writers[i].toString().equals(expected))
+						same = false;
+				}
+				show("Every mode matches its own formatter at heading " + heading, same);
+			}
+		}
+
+		show("Formatters");
+		show("A single formatter",
+			new MultiModeRouteFormatter(new DrivingRouteFormatter()).computeDirections(mTechnionRoute, 0)[0]
+				.equals(new DrivingRouteFormatter().computeDirections(mTechnionRoute, 0)));
+		RouteFormatter walking = new WalkingRouteFormatter();
+		String[] twice = new MultiModeRouteFormatter(walking, walking).computeDirections(mTechnionRoute, 0);
+		show("The same formatter twice", twice[0].equals(twice[1])
+			&& twice[0].equals(walking.computeDirections(mTechnionRoute, 0)));
+		MultiModeRouteFormatter fromList = new MultiModeRouteFormatter(Arrays.asList(mFormatters));
+		show("Formatters are kept in order", fromList.getFormatterCount() == mFormatters.length
+			&& fromList.getFormatter(0) == mFormatters[0] && fromList.getFormatter(2) == mFormatters[2]);
+		RouteFormatter[] formatters = mFormatters.clone();
+		MultiModeRouteFormatter copied = new MultiModeRouteFormatter(formatters);
+		formatters[0] = new DrivingRouteFormatter();
+		show("The formatters are copied", copied.getFormatter(0) == mFormatters[0]);
+	}
+
+
+	public void testArguments() {
+		show("Arguments");
+		MultiModeRouteFormatter multi = new MultiModeRouteFormatter(mFormatters);
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> new MultiModeRouteFormatter((RouteFormatter[]) null),
+				() -> new MultiModeRouteFormatter((List<RouteFormatter>) null),
+				() -> new MultiModeRouteFormatter(),
+				() -> new MultiModeRouteFormatter(new WalkingRouteFormatter(), null),
+				() -> multi.computeDirections(null, 0),
+				() -> multi.computeDirections(mTechnionRoute, -1),
+				() -> multi.computeDirections(mTechnionRoute, 360) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+		rejected = true;
+		for (Appendable[] outs : new Appendable[][] {
+				null,
+				new Appendable[] { new StringBuilder(), new StringBuilder() },
+				new Appendable[] { new StringBuilder(), null, new StringBuilder() } }) {
+			try {
+				multi.computeDirections(mTechnionRoute, 0, outs);
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			} catch (IOException e) {
+				rejected = false;
+			}
+		}
+		show("Sinks must match the formatters", rejected);
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		MultiModeRouteFormatterTest multiTest = new MultiModeRouteFormatterTest();
+		multiTest.testDirections();
+		multiTest.testArguments();
+		if (multiTest.mFailed)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,221 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A NetworkSearch runs Dijkstra's algorithm over a RoadNetwork, for the
+ * routers of this package. Searches differ only in the edges they may use,
+ * given by an EdgeFilter, and in the weights of those edges, given by an
+ * EdgeWeight; the key of a node is the least sum of weights along a path
+ * to it from the source. A backward search runs over the reverse graph,
+ * so the key of a node is the least weight of a path from it to the
+ * source of the search.
+ * <p>
+ * The scratch arrays of a NetworkSearch are reused by all its searches and
+ * reset lazily using a generation stamp, so a search costs nothing for the
+ * nodes it does not reach. NetworkSearches are not thread-safe; each thread
+ * should use its own instance.
+ */
+class NetworkSearch {
+
+	/**
+	 * An EdgeFilter decides which edges a search may use.
+	 */
+	interface EdgeFilter {
+		/**
+		 * @return true iff the search may use edge.
+		 */
+		boolean accepts(int edge);
+	}
+
+	/**
+	 * An EdgeWeight gives the weight of an edge when it is entered with a
+	 * given key, so that it can be a length as well as a travel time that
+	 * depends on the time of day.
+	 */
+	interface EdgeWeight {
+		/**
+		 * @return the non-negative amount by which edge adds to key. If the
+		 *         weight depends on key, entering edge with a greater key
+		 *         must not leave it with a smaller one.
+		 */
+		double getWeight(int edge, double key);
+	}
+
+	/** The EdgeFilter accepting every edge. */
+	static final EdgeFilter ALL_EDGES = edge -> true;
+
+	private final boolean backward;
+	// The edges leaving node v in the direction of the search are
+	// edgeIds[firstEdge[v]..firstEdge[v+1]-1], or those indices themselves
+	// if edgeIds is null; edge e leads from edgeTail[e] to edgeHead[e].
+	private final int[] firstEdge;
+	private final int[] edgeIds;
+	private final int[] edgeTail;
+	private final int[] edgeHead;
+	private final double[] key;
+	private final int[] prevEdge;
+	private final int[] reachedStamp;
+	private final int[] settledStamp;
+	private final NodeHeap heap;
+	private int[] settled;
+	private int settledCount;
+	private int source;
+	private int stamp;
+
+	/**
+	 * @requires network != null
+	 * @effects Constructs a new NetworkSearch over network.
+	 */
+	NetworkSearch(RoadNetwork network) {
+		this(network, false);
+	}
+
+	/**
+	 * @requires network != null
+	 * @effects Constructs a new NetworkSearch over network, or over its
+	 *          reverse if backward is true.
+	 */
+	NetworkSearch(RoadNetwork network, boolean backward) {
+		this.backward = backward;
+		firstEdge = backward ? network.firstInEdge : network.firstOutEdge;
+		edgeIds = backward ? network.inEdges : null;
+		edgeTail = backward ? network.edgeTarget : network.edgeSource;
+		edgeHead = backward ? network.edgeSource : network.edgeTarget;
+		int n = network.getNodeCount();
+		key = new double[n];
+		prevEdge = new int[n];
+		reachedStamp = new int[n];
+		settledStamp = new int[n];
+		heap = new NodeHeap();
+		settled = new int[16];
+		settledCount = 0;
+		source = -1;
+		stamp = 0;
+	}
+
+	/**
+	 * Runs a search, forgetting the previous one.
+	 *
+	 * @requires source is a node of the network && (target == -1 || target
+	 *           is a node of the network) && filter != null && weight != null
+	 * @effects settles, in order of key, the nodes reachable from source
+	 *          along edges accepted by filter whose key is at most bound,
+	 *          stopping as soon as target is settled. The key of source is
+	 *          start.
+	 * @return true iff target was settled.
+	 */
+	boolean run(int source, double start, int target, double bound, EdgeFilter filter, EdgeWeight weight) {
+		this.source = source;
+		stamp++;
+		settledCount = 0;
+		heap.clear();
+		key[source] = start;
+		prevEdge[source] = -1;
+		reachedStamp[source] = stamp;
+		heap.push(source, start);
+		return resume(target, bound, filter, weight);
+	}
+
+	/**
+	 * Continues the last search where it stopped.
+	 *
+	 * @requires run() was called && (target == -1 || target is a node of
+	 *           the network) && filter != null && weight != null
+	 * @effects settles, in order of key, the further nodes reachable from
+	 *          the source of the last search along edges accepted by filter
+	 *          whose key is at most bound, stopping as soon as target is
+	 *          settled.
+	 * @return true iff target was settled by this call.
+	 */
+	boolean resume(int target, double bound, EdgeFilter filter, EdgeWeight weight) {
+		while (!heap.isEmpty() && heap.peekKey() <= bound) {
+			int v = heap.poll();
+			if (settledStamp[v] == stamp) {
+				continue;
+			}
+			settledStamp[v] = stamp;
+			if (settledCount == settled.length) {
+				settled = Arrays.copyOf(settled, settledCount * 2);
+			}
+			settled[settledCount++] = v;
+			for (int i = firstEdge[v]; i < firstEdge[v + 1]; i++) {
+				int e = edgeIds == null ? i : edgeIds[i];
+				int w = edgeHead[e];
+				if (settledStamp[w] == stamp || !filter.accepts(e)) {
+					continue;
+				}
+				double k = key[v] + weight.getWeight(e, key[v]);
+				if (reachedStamp[w] != stamp || k < key[w]) {
+					reachedStamp[w] = stamp;
+					key[w] = k;
+					prevEdge[w] = e;
+					heap.push(w, k);
+				}
+			}
+			// the edges of target are relaxed, so the search can be resumed
+			if (v == target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the number of nodes settled by the last search.
+	 */
+	int getSettledCount() {
+		return settledCount;
+	}
+
+	/**
+	 * @requires 0 <= i < getSettledCount()
+	 * @return the i-th node settled by the last search.
+	 */
+	int getSettled(int i) {
+		return settled[i];
+	}
+
+	/**
+	 * @return true iff node was settled by the last search.
+	 */
+	boolean isSettled(int node) {
+		return settledStamp[node] == stamp;
+	}
+
+	/**
+	 * @requires node was settled by the last search
+	 * @return the key of node.
+	 */
+	double getKey(int node) {
+		return key[node];
+	}
+
+	/**
+	 * @requires node was settled by the last search
+	 * @return the last edge of the path of getPath(node), or the first one
+	 *         for a backward search, or -1 if node is the source.
+	 */
+	int getTreeEdge(int node) {
+		return prevEdge[node];
+	}
+
+	/**
+	 * @requires node was settled by the last search
+	 * @return the edges of a path of least key from the source of the last
+	 *         search to node, or from node to the source for a backward
+	 *         search, in order.
+	 */
+	int[] getPath(int node) {
+		int count = 0;
+		for (int v = node; v != source; v = edgeTail[prevEdge[v]]) {
+			count++;
+		}
+		int[] edges = new int[count];
+		int i = backward ? 0 : count;
+		for (int v = node; v != source; v = edgeTail[prevEdge[v]]) {
+			edges[backward ? i++ : --i] = prevEdge[v];
+		}
+		return edges;
+	}
+}
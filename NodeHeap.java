@@ -0,0 +1,102 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A NodeHeap is a binary min-heap of (node, key) pairs stored in primitive
+ * arrays, used by the graph searches of this package.
+ * <p>
+ * A node may be pushed more than once with different keys; searches are
+ * expected to skip entries of nodes they have already settled ("lazy
+ * deletion"), which avoids a decrease-key operation and any index map.
+ */
+class NodeHeap {
+	private int[] nodes;
+	private double[] keys;
+	private int size;
+
+	// Abs. Function: a multiset of pairs {(nodes[i], keys[i]) | 0 <= i < size}
+	// Rep. Invariant: 0 <= size <= nodes.length == keys.length &&
+	// for each 0 < i < size : keys[(i - 1) / 2] <= keys[i]
+
+	/**
+	 * @effects Constructs an empty NodeHeap.
+	 */
+	NodeHeap() {
+		nodes = new int[64];
+		keys = new double[64];
+		size = 0;
+	}
+
+	/**
+	 * @return true iff this heap contains no entries.
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @effects removes all the entries of this heap, keeping its capacity.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @effects adds the entry (node, key) to this heap.
+	 */
+	void push(int node, double key) {
+		if (size == nodes.length) {
+			nodes = Arrays.copyOf(nodes, size * 2);
+			keys = Arrays.copyOf(keys, size * 2);
+		}
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key) {
+				break;
+			}
+			nodes[i] = nodes[parent];
+			keys[i] = keys[parent];
+			i = parent;
+		}
+		nodes[i] = node;
+		keys[i] = key;
+	}
+
+	/**
+	 * @requires !isEmpty()
+	 * @return the smallest key in this heap.
+	 */
+	double peekKey() {
+		return keys[0];
+	}
+
+	/**
+	 * @requires !isEmpty()
+	 * @effects removes the entry with the smallest key from this heap.
+	 * @return the node of the removed entry.
+	 */
+	int poll() {
+		int top = nodes[0];
+		int lastNode = nodes[--size];
+		double lastKey = keys[size];
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child]) {
+				child++;
+			}
+			if (lastKey <= keys[child]) {
+				break;
+			}
+			nodes[i] = nodes[child];
+			keys[i] = keys[child];
+			i = child;
+		}
+		nodes[i] = lastNode;
+		keys[i] = lastKey;
+		return top;
+	}
+}
@@ -0,0 +1,483 @@
+package homework1;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An OffHeapSegmentTable is a table of GeoSegments held in native memory,
+ * outside the Java heap, one fixed-size record per segment.
+ * <p>
+ * A record packs the coordinates of both endpoints as ints, the length and
+ * heading as doubles, and the id of the street name in a dictionary of the
+ * distinct names, which stays on the heap. The garbage collector sees one
+ * table instead of a GeoSegment and two GeoPoints per segment, so a table of
+ * millions of segments adds nothing to the time of a collection.
+ * <p>
+ * Segments are read through a Cursor, a flyweight that reads the record it
+ * is positioned at, and consumed without copying them to the heap by
+ * computeDirections(), which feeds the records to a RouteFormatter. Route and
+ * GeoFeature hold GeoSegment objects, so route() and feature() build them
+ * from a view that creates each GeoSegment only as it is read.
+ * <p>
+ * Segments are added to the end of a table until it reaches its capacity.
+ * Adding is not thread-safe, but once a table is filled, any number of
+ * threads may read it. close() frees its memory, after which every method but
+ * close() throws IllegalStateException.
+ * <p>
+ * java.lang.foreign is a preview API in Java 21, so this class is built by
+ * the offheap profile of the Maven build and run with --enable-preview.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   segments : sequence    // the segments added to this table, in order
+ *   capacity : int         // the largest number of segments this table can hold
+ * </pre>
+ */
+public final class OffHeapSegmentTable implements AutoCloseable {
+
+	/**
+	 * The layout of a record.
+	 */
+	static final StructLayout RECORD = MemoryLayout.structLayout(
+			ValueLayout.JAVA_INT.withName("p1Latitude"),
+			ValueLayout.JAVA_INT.withName("p1Longitude"),
+			ValueLayout.JAVA_INT.withName("p2Latitude"),
+			ValueLayout.JAVA_INT.withName("p2Longitude"),
+			ValueLayout.JAVA_DOUBLE.withName("length"),
+			ValueLayout.JAVA_DOUBLE.withName("heading"),
+			ValueLayout.JAVA_INT.withName("nameId"),
+			MemoryLayout.paddingLayout(4)).withName("GeoSegment");
+
+	private static final long RECORD_SIZE = RECORD.byteSize();
+	private static final long P1_LATITUDE = offset("p1Latitude");
+	private static final long P1_LONGITUDE = offset("p1Longitude");
+	private static final long P2_LATITUDE = offset("p2Latitude");
+	private static final long P2_LONGITUDE = offset("p2Longitude");
+	private static final long LENGTH = offset("length");
+	private static final long HEADING = offset("heading");
+	private static final long NAME_ID = offset("nameId");
+
+	private final Arena arena;
+	private final MemorySegment records;
+	private final int capacity;
+	private int size;
+	private final Map<String, Integer> nameIds = new HashMap<String, Integer>();
+	private final List<String> names = new ArrayList<String>();
+
+	// Abs. Function: segments[i] is the GeoSegment named names[nameId] from
+	// (p1Latitude, p1Longitude) to (p2Latitude, p2Longitude), of length length
+	// and heading heading, where these are the fields of the record at
+	// records[i * RECORD_SIZE].
+	// Rep. Invariant: 0 <= size <= capacity &&
+	// records.byteSize() == capacity * RECORD_SIZE &&
+	// names.get(nameIds.get(name)) == name for each name in nameIds &&
+	// 0 <= nameId < names.size() for each of the first size records
+
+	private static long offset(String field) {
+		return RECORD.byteOffset(PathElement.groupElement(field));
+	}
+
+	/**
+	 * Constructs a new OffHeapSegmentTable.
+	 *
+	 * @requires capacity >= 0
+	 * @effects Constructs a new, empty OffHeapSegmentTable that can hold
+	 *          capacity segments, allocating the memory for all of them.
+	 */
+	public OffHeapSegmentTable(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity cannot be negative");
+		}
+		this.capacity = capacity;
+		this.arena = Arena.ofShared();
+		this.records = arena.allocate(capacity * RECORD_SIZE, RECORD.byteAlignment());
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (0 <= size && size <= capacity && records.byteSize() == capacity * RECORD_SIZE);
+		assert (names.size() == nameIds.size());
+	}
+
+	/**
+	 * Adds a segment to the end of this table.
+	 *
+	 * @requires gs != null && size() < getCapacity()
+	 * @modifies this
+	 * @effects appends gs to segments.
+	 * @return the index of gs in this table.
+	 */
+	public int add(GeoSegment gs) {
+		if (gs == null) {
+			throw new IllegalArgumentException("GeoSegment cannot be null");
+		}
+		if (size == capacity) {
+			throw new IllegalStateException("Table is full");
+		}
+		Integer nameId = nameIds.get(gs.name);
+		if (nameId == null) {
+			nameId = names.size();
+			nameIds.put(gs.name, nameId);
+			names.add(gs.name);
+		}
+		long base = size * RECORD_SIZE;
+		records.set(ValueLayout.JAVA_INT, base + P1_LATITUDE, gs.p1.latitude);
+		records.set(ValueLayout.JAVA_INT, base + P1_LONGITUDE, gs.p1.longitude);
+		records.set(ValueLayout.JAVA_INT, base + P2_LATITUDE, gs.p2.latitude);
+		records.set(ValueLayout.JAVA_INT, base + P2_LONGITUDE, gs.p2.longitude);
+		records.set(ValueLayout.JAVA_DOUBLE, base + LENGTH, gs.length);
+		records.set(ValueLayout.JAVA_DOUBLE, base + HEADING, gs.heading);
+		records.set(ValueLayout.JAVA_INT, base + NAME_ID, nameId);
+		return size++;
+	}
+
+	/**
+	 * Returns the number of segments in this table.
+	 *
+	 * @return the length of segments.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of segments this table can hold.
+	 *
+	 * @return capacity.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of distinct street names in this table.
+	 *
+	 * @return the number of distinct names of segments.
+	 */
+	public int getNameCount() {
+		return names.size();
+	}
+
+	/**
+	 * Returns a street name.
+	 *
+	 * @requires 0 <= id < getNameCount()
+	 * @return the name whose id is id, as returned by Cursor.getNameId().
+	 */
+	public String getName(int id) {
+		return names.get(id);
+	}
+
+	/**
+	 * Returns a new Cursor over this table.
+	 *
+	 * @return a Cursor positioned at segments[0].
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Returns a segment of this table as a GeoSegment.
+	 *
+	 * @requires 0 <= index < size()
+	 * @return a new GeoSegment equal to segments[index].
+	 */
+	public GeoSegment get(int index) {
+		return cursor().at(index).toGeoSegment();
+	}
+
+	/**
+	 * Returns a view of some segments of this table as a List of GeoSegments.
+	 * The view creates a new GeoSegment each time an element is read.
+	 *
+	 * @requires 0 <= from <= to <= size()
+	 * @return an unmodifiable List equal to segments[from .. to - 1].
+	 */
+	public List<GeoSegment> asList(int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		return new SegmentList(from, to);
+	}
+
+	/**
+	 * Returns some segments of this table as a Route.
+	 *
+	 * @requires 0 <= from < to <= size() && each segment in
+	 *           segments[from .. to - 1] starts where the previous one ends
+	 * @return a new Route whose GeoSegments are segments[from .. to - 1].
+	 */
+	public Route route(int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		if (from == to) {
+			throw new IllegalArgumentException("Route cannot be empty");
+		}
+		Route route = new Route(get(from));
+		return to - from == 1 ? route : route.addSegments(asList(from + 1, to));
+	}
+
+	/**
+	 * Returns some segments of this table as a GeoFeature.
+	 *
+	 * @requires 0 <= from < to <= size() && each segment in
+	 *           segments[from .. to - 1] starts where the previous one ends
+	 *           and has the name of the previous one
+	 * @return a new GeoFeature whose GeoSegments are segments[from .. to - 1].
+	 */
+	public GeoFeature feature(int from, int to) {
+		Objects.checkFromToIndex(from, to, size);
+		if (from == to) {
+			throw new IllegalArgumentException("GeoFeature cannot be empty");
+		}
+		GeoFeature feature = new GeoFeature(get(from));
+		return to - from == 1 ? feature : feature.addSegments(asList(from + 1, to));
+	}
+
+	/**
+	 * Writes directions for following some segments of this table, like
+	 * formatter.computeDirections(route(from, to), heading, out), but reading
+	 * the records directly, without creating a GeoSegment, GeoFeature or
+	 * Route.
+	 *
+	 * @requires formatter != null && out != null && 0 <= from < to <= size()
+	 *           && 0 <= heading < 360 && each segment in segments[from .. to - 1]
+	 *           starts where the previous one ends
+	 * @modifies out
+	 * @effects appends to out the String
+	 *          formatter.computeDirections(route(from, to), heading).
+	 * @throws IOException if out fails.
+	 */
+	public void computeDirections(RouteFormatter formatter, int from, int to, double heading, Appendable out)
+			throws IOException {
+		if (formatter == null || out == null) {
+			throw new IllegalArgumentException("Formatter and Appendable must not be null");
+		}
+		if (heading < 0 || heading >= 360) {
+			throw new IllegalArgumentException("heading must be between 0 and 360");
+		}
+		Objects.checkFromToIndex(from, to, size);
+		if (from == to) {
+			throw new IllegalArgumentException("Route cannot be empty");
+		}
+		Cursor cursor = cursor().at(from);
+		// the current feature: its name, start heading and length so far
+		int nameId = cursor.getNameId();
+		double startHeading = cursor.getHeading();
+		double length = cursor.getLength();
+		for (int i = from + 1; i < to; i++) {
+			int endLatitude = cursor.getP2Latitude();
+			int endLongitude = cursor.getP2Longitude();
+			double endHeading = cursor.getHeading();
+			cursor.at(i);
+			if (cursor.getP1Latitude() != endLatitude || cursor.getP1Longitude() != endLongitude) {
+				throw new IllegalArgumentException("GeoSegment does not match");
+			}
+			if (cursor.getNameId() == nameId) {
+				length += cursor.getLength();
+			} else {
+				formatter.appendLine(TurnType.classify(heading, startHeading), names.get(nameId), length, out);
+				heading = endHeading;
+				nameId = cursor.getNameId();
+				startHeading = cursor.getHeading();
+				length = cursor.getLength();
+			}
+		}
+		formatter.appendLine(TurnType.classify(heading, startHeading), names.get(nameId), length, out);
+	}
+
+	/**
+	 * Frees the memory of this table. Closing a closed table has no effect.
+	 *
+	 * @modifies this
+	 * @effects frees the records of this table, after which its methods throw
+	 *          IllegalStateException.
+	 */
+	@Override
+	public void close() {
+		if (arena.scope().isAlive()) {
+			arena.close();
+		}
+	}
+
+	/**
+	 * A Cursor reads the segments of an OffHeapSegmentTable in place. Its
+	 * getters mirror those of GeoSegment, and read the segment the Cursor is
+	 * positioned at; at() moves it. A Cursor is not thread-safe, but any
+	 * number of threads may each use their own Cursor over a table.
+	 * <p>
+	 * <b>The following fields are used in the specification:</b>
+	 *
+	 * <pre>
+	 *   index : int    // the index of the segment this Cursor reads
+	 * </pre>
+	 */
+	public final class Cursor {
+		private long base;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Positions this Cursor at a segment.
+		 *
+		 * @requires 0 <= index < size()
+		 * @modifies this
+		 * @effects this.index = index
+		 * @return this.
+		 */
+		public Cursor at(int index) {
+			Objects.checkIndex(index, size);
+			base = index * RECORD_SIZE;
+			return this;
+		}
+
+		/**
+		 * Returns the index of the segment this Cursor reads.
+		 *
+		 * @return index.
+		 */
+		public int getIndex() {
+			return (int) (base / RECORD_SIZE);
+		}
+
+		/**
+		 * Returns the name of the segment.
+		 *
+		 * @return the name of segments[index].
+		 */
+		public String getName() {
+			return names.get(getNameId());
+		}
+
+		/**
+		 * Returns the id of the name of the segment.
+		 *
+		 * @return the id of the name of segments[index], as passed to
+		 *         OffHeapSegmentTable.getName().
+		 */
+		public int getNameId() {
+			return records.get(ValueLayout.JAVA_INT, base + NAME_ID);
+		}
+
+		/**
+		 * Returns the start of the segment.
+		 *
+		 * @return a new GeoPoint equal to the p1 of segments[index].
+		 */
+		public GeoPoint getP1() {
+			return new GeoPoint(getP1Latitude(), getP1Longitude());
+		}
+
+		/**
+		 * Returns the end of the segment.
+		 *
+		 * @return a new GeoPoint equal to the p2 of segments[index].
+		 */
+		public GeoPoint getP2() {
+			return new GeoPoint(getP2Latitude(), getP2Longitude());
+		}
+
+		/**
+		 * Returns the latitude of the start of the segment.
+		 *
+		 * @return the latitude of the p1 of segments[index], in millionths
+		 *         of degrees.
+		 */
+		public int getP1Latitude() {
+			return records.get(ValueLayout.JAVA_INT, base + P1_LATITUDE);
+		}
+
+		/**
+		 * Returns the longitude of the start of the segment.
+		 *
+		 * @return the longitude of the p1 of segments[index], in millionths
+		 *         of degrees.
+		 */
+		public int getP1Longitude() {
+			return records.get(ValueLayout.JAVA_INT, base + P1_LONGITUDE);
+		}
+
+		/**
+		 * Returns the latitude of the end of the segment.
+		 *
+		 * @return the latitude of the p2 of segments[index], in millionths
+		 *         of degrees.
+		 */
+		public int getP2Latitude() {
+			return records.get(ValueLayout.JAVA_INT, base + P2_LATITUDE);
+		}
+
+		/**
+		 * Returns the longitude of the end of the segment.
+		 *
+		 * @return the longitude of the p2 of segments[index], in millionths
+		 *         of degrees.
+		 */
+		public int getP2Longitude() {
+			return records.get(ValueLayout.JAVA_INT, base + P2_LONGITUDE);
+		}
+
+		/**
+		 * Returns the length of the segment.
+		 *
+		 * @return the length of segments[index], in kilometers.
+		 */
+		public double getLength() {
+			return records.get(ValueLayout.JAVA_DOUBLE, base + LENGTH);
+		}
+
+		/**
+		 * Returns the heading of the segment.
+		 *
+		 * @return the heading of segments[index], in degrees.
+		 */
+		public double getHeading() {
+			return records.get(ValueLayout.JAVA_DOUBLE, base + HEADING);
+		}
+
+		/**
+		 * Returns the segment as a GeoSegment.
+		 *
+		 * @return a new GeoSegment equal to segments[index].
+		 */
+		public GeoSegment toGeoSegment() {
+			return new GeoSegment(getName(), getP1(), getP2());
+		}
+	}
+
+	/**
+	 * A SegmentList is an unmodifiable view of some segments of the table.
+	 */
+	private final class SegmentList extends AbstractList<GeoSegment> implements RandomAccess {
+		private final int from;
+		private final int to;
+
+		SegmentList(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public GeoSegment get(int index) {
+			Objects.checkIndex(index, to - from);
+			return OffHeapSegmentTable.this.get(from + index);
+		}
+
+		@Override
+		public int size() {
+			return to - from;
+		}
+	}
+}
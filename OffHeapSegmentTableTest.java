@@ -0,0 +1,133 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.List;
+
+public class OffHeapSegmentTableTest {
+
+	private List<GeoSegment> mWalk;
+	private OffHeapSegmentTable mTable;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public OffHeapSegmentTableTest() {
+		mWalk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 5), 2000, 5);
+		mTable = new OffHeapSegmentTable(mWalk.size());
+		for (GeoSegment gs : mWalk)
+			mTable.add(gs);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	// Whether the cursor reads back every segment of the walk.
+	private boolean cursorMirrorsSegments() {
+		OffHeapSegmentTable.Cursor cursor = mTable.cursor();
+		for (int i = 0; i < mWalk.size(); i++) {
+			GeoSegment gs = mWalk.get(i);
+			cursor.at(i);
+			if (!cursor.getName().equals(gs.getName()) || !cursor.getP1().equals(gs.getP1())
+					|| !cursor.getP2().equals(gs.getP2()) || cursor.getLength() != gs.getLength()
+					|| cursor.getHeading() != gs.getHeading() || !cursor.toGeoSegment().equals(gs)
+					|| cursor.getIndex() != i)
+				return false;
+		}
+		return true;
+	}
+
+
+	private boolean sameDirections(RouteFormatter formatter, Route route, int from, int to, double heading) {
+		StringBuilder direct = new StringBuilder();
+		try {
+			mTable.computeDirections(formatter, from, to, heading, direct);
+		} catch (IOException e) {
+			throw new IllegalStateException("StringBuilder cannot fail", e);
+		}
+		return direct.toString().equals(formatter.computeDirections(route, heading));
+	}
+
+
+	private static boolean throwsIllegalState(Runnable r) {
+		try {
+			r.run();
+			return false;
+		} catch (IllegalStateException e) {
+			return true;
+		}
+	}
+
+
+	public void test() {
+		show("Cursor");
+		show("Size and capacity", mTable.size() == mWalk.size() && mTable.getCapacity() == mWalk.size());
+		show("Cursor mirrors the GeoSegment getters", cursorMirrorsSegments());
+		show("List view equals the segments", mTable.asList(0, mTable.size()).equals(mWalk));
+		boolean outOfRange = false;
+		try {
+			mTable.cursor().at(mTable.size());
+		} catch (IndexOutOfBoundsException e) {
+			outOfRange = true;
+		}
+		show("Cursor rejects an index out of range", outOfRange);
+
+		show("Adapters");
+		Route route = new Route(mWalk.get(0)).addSegments(mWalk.subList(1, mWalk.size()));
+		show("Route equals the heap route", mTable.route(0, mTable.size()).equals(route));
+		show("Part of a route", mTable.route(10, 20).equals(new Route(mWalk.get(10)).addSegments(mWalk.subList(11, 20))));
+		// the first street the walk follows for more than one segment
+		int start = 0;
+		while (!mWalk.get(start).getName().equals(mWalk.get(start + 1).getName()))
+			start++;
+		int end = start + 1;
+		while (end < mWalk.size() && mWalk.get(end).getName().equals(mWalk.get(start).getName()))
+			end++;
+		show("Feature equals the heap feature", mTable.feature(start, end)
+			.equals(new GeoFeature(mWalk.get(start)).addSegments(mWalk.subList(start + 1, end))));
+		show("Walking directions match", sameDirections(new WalkingRouteFormatter(), route, 0, mTable.size(), 0));
+		show("Driving directions match", sameDirections(new DrivingRouteFormatter(), route, 0, mTable.size(), 90));
+		show("Directions of one segment match",
+			sameDirections(new WalkingRouteFormatter(), new Route(mWalk.get(7)), 7, 8, 180));
+
+		show("Edge cases");
+		OffHeapSegmentTable small = new OffHeapSegmentTable(2);
+		GeoSegment north = new GeoSegment("North", new GeoPoint(32000000, 35000000), new GeoPoint(32001000, 35000000));
+		GeoSegment east = new GeoSegment("East", new GeoPoint(0, 0), new GeoPoint(0, 1000));
+		small.add(north);
+		small.add(east);
+		show("Full table rejects segments", throwsIllegalState(() -> small.add(north)));
+		boolean disconnected = false;
+		try {
+			small.computeDirections(new WalkingRouteFormatter(), 0, 2, 0, new StringBuilder());
+		} catch (IllegalArgumentException | IOException e) {
+			disconnected = true;
+		}
+		show("Disconnected segments are rejected", disconnected);
+		small.close();
+		small.close();
+		show("Closed table cannot be read", throwsIllegalState(() -> small.get(0)));
+		mTable.close();
+	}
+
+
+	public static void main(String[] args) {
+		OffHeapSegmentTableTest tableTest = new OffHeapSegmentTableTest();
+		tableTest.test();
+		if (tableTest.mFailed)
+			System.exit(1);
+	}
+}
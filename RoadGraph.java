@@ -0,0 +1,220 @@
+package homework1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A RoadGraph is a directed graph of GeoSegments stored as compressed sparse
+ * rows, for graph algorithms over large networks. RoadGraphs are immutable.
+ * <p>
+ * The nodes are the distinct endpoints of the segments, numbered in order
+ * of latitude and then longitude, so a GeoPoint is found by binary search.
+ * Every GeoSegment is an edge leading from its p1 to its p2, and the edges
+ * leaving each node are numbered consecutively, in order of their source
+ * node. Each edge has a length, a heading and the id of its street name.
+ * <p>
+ * Subclasses decide where the columns live: a CompactRoadGraph holds them
+ * in Java arrays, and a MappedRoadGraph reads them from a snapshot file
+ * written by writeSnapshot().
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   nodes : sequence      // the distinct endpoints of the segments, by latitude and longitude
+ *   edges : sequence      // the segments, ordered by the id of their p1
+ *   names : sequence      // the distinct names of the segments
+ * </pre>
+ */
+public abstract class RoadGraph {
+
+	/**
+	 * Returns the number of nodes in this graph.
+	 *
+	 * @return the length of nodes.
+	 */
+	public abstract int getNodeCount();
+
+	/**
+	 * Returns the number of edges in this graph.
+	 *
+	 * @return the length of edges.
+	 */
+	public abstract int getEdgeCount();
+
+	/**
+	 * Returns the number of distinct street names in this graph.
+	 *
+	 * @return the length of names.
+	 */
+	public abstract int getNameCount();
+
+	/**
+	 * Returns the latitude of a node.
+	 *
+	 * @requires 0 <= v < getNodeCount()
+	 * @return the latitude of nodes[v], in millionths of degrees.
+	 */
+	public abstract int getLatitude(int v);
+
+	/**
+	 * Returns the longitude of a node.
+	 *
+	 * @requires 0 <= v < getNodeCount()
+	 * @return the longitude of nodes[v], in millionths of degrees.
+	 */
+	public abstract int getLongitude(int v);
+
+	/**
+	 * Returns the first edge leaving a node. The edges leaving node v are
+	 * getFirstEdge(v) .. getFirstEdge(v + 1) - 1.
+	 *
+	 * @requires 0 <= v <= getNodeCount()
+	 * @return the id of the first edge leaving nodes[v], or getEdgeCount() if
+	 *         v = getNodeCount().
+	 */
+	public abstract int getFirstEdge(int v);
+
+	/**
+	 * Returns the target of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the id of the node edges[e] leads to.
+	 */
+	public abstract int getTarget(int e);
+
+	/**
+	 * Returns the length of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the length of edges[e], in kilometers.
+	 */
+	public abstract float getLength(int e);
+
+	/**
+	 * Returns the heading of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the heading of edges[e], in degrees.
+	 */
+	public abstract float getHeading(int e);
+
+	/**
+	 * Returns the name id of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the id of the name of edges[e].
+	 */
+	public abstract int getNameId(int e);
+
+	/**
+	 * Returns a street name.
+	 *
+	 * @requires 0 <= id < getNameCount()
+	 * @return names[id].
+	 */
+	public abstract String getName(int id);
+
+	/**
+	 * Returns the id of a node of this graph.
+	 *
+	 * @return the v such that nodes[v] = (latitude, longitude), or -1 if
+	 *         there is none.
+	 */
+	public int getNodeId(int latitude, int longitude) {
+		long key = key(latitude, longitude);
+		int lo = 0;
+		int hi = getNodeCount() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			long midKey = key(getLatitude(mid), getLongitude(mid));
+			if (midKey < key) {
+				lo = mid + 1;
+			} else if (midKey > key) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the id of a node of this graph.
+	 *
+	 * @requires gp != null
+	 * @return the v such that nodes[v] = gp, or -1 if there is none.
+	 */
+	public int getNodeId(GeoPoint gp) {
+		return getNodeId(gp.latitude, gp.longitude);
+	}
+
+	/**
+	 * Returns a node of this graph as a GeoPoint.
+	 *
+	 * @requires 0 <= v < getNodeCount()
+	 * @return a new GeoPoint equal to nodes[v].
+	 */
+	public GeoPoint getNode(int v) {
+		return new GeoPoint(getLatitude(v), getLongitude(v));
+	}
+
+	/**
+	 * Returns the source of an edge.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return the id of the node edges[e] leaves.
+	 */
+	public int getSource(int e) {
+		// the last node whose first edge is at most e
+		int lo = 0;
+		int hi = getNodeCount();
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (getFirstEdge(mid) <= e) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns an edge of this graph as a GeoSegment.
+	 *
+	 * @requires 0 <= e < getEdgeCount()
+	 * @return a new GeoSegment equal to edges[e].
+	 */
+	public GeoSegment getEdge(int e) {
+		return new GeoSegment(getName(getNameId(e)), getNode(getSource(e)), getNode(getTarget(e)));
+	}
+
+	/**
+	 * Writes this graph to a snapshot file, which MappedRoadGraph.open()
+	 * can map back into memory.
+	 *
+	 * @requires file != null
+	 * @effects replaces file, atomically, by a snapshot of this graph.
+	 * @throws IOException if the file cannot be written.
+	 * @see homework1.RoadGraphSnapshot
+	 */
+	public void writeSnapshot(Path file) throws IOException {
+		RoadGraphSnapshot.write(this, file);
+	}
+
+	/**
+	 * Returns the sort key of a node: ordering keys orders nodes by latitude
+	 * and then longitude.
+	 */
+	static long key(int latitude, int longitude) {
+		return ((long) latitude << 32) | ((longitude ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+	}
+
+	static int latitude(long key) {
+		return (int) (key >> 32);
+	}
+
+	static int longitude(long key) {
+		return (int) key ^ Integer.MIN_VALUE;
+	}
+}
@@ -0,0 +1,363 @@
+package homework1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * RoadGraphSnapshot reads and writes the snapshot files of RoadGraphs.
+ * <p>
+ * A snapshot holds the columns of a RoadGraph exactly as they are laid out
+ * in memory, so it is opened by mapping it rather than by parsing it: the
+ * operating system reads the pages of a column when they are first used,
+ * and processes that map the same snapshot share them in its page cache.
+ * <p>
+ * <b>Format</b> (all numbers little-endian):
+ *
+ * <pre>
+ *   offset  size
+ *        0     8   magic "HW1GRAPH"
+ *        8     4   format version, VERSION
+ *       12     4   number of sections, s
+ *       16     4   number of nodes, n
+ *       20     4   number of edges, m
+ *       24     4   number of names, k
+ *       28     4   CRC-32C of the header, computed with this field zero
+ *       32  32 s   section table, one entry per section:
+ *                    int id, int 0, long offset, long length,
+ *                    int CRC-32C of the section, int 0
+ * </pre>
+ *
+ * followed by the sections, each starting at a multiple of 64 bytes, and
+ * padding to a multiple of 64 bytes:
+ *
+ * <pre>
+ *   LATITUDE      int[n]      node latitudes
+ *   LONGITUDE     int[n]      node longitudes
+ *   FIRST_EDGE    int[n + 1]  first edge of each node
+ *   TARGET        int[m]      edge targets
+ *   LENGTH        float[m]    edge lengths, in kilometers
+ *   HEADING       float[m]    edge headings, in degrees
+ *   NAME_ID       int[m]      edge name ids
+ *   NAME_OFFSETS  int[k + 1]  start of each name in NAME_BYTES
+ *   NAME_BYTES    byte[]      the names, in UTF-8
+ * </pre>
+ *
+ * Readers ignore sections they do not know, so later versions may add
+ * sections, such as routing preprocessing, that older readers can skip; a
+ * change that older readers cannot skip increments the version, and readers
+ * refuse versions newer than their own.
+ * <p>
+ * Opening a snapshot checks the header, its checksum and the extent of the
+ * sections, which reads one page. The checksums of the sections are
+ * checked only by MappedRoadGraph.verify(), as that reads the whole file.
+ */
+final class RoadGraphSnapshot {
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	static final int VERSION = 1;
+
+	// "HW1GRAPH" read as a little-endian long
+	private static final long MAGIC = ByteBuffer.wrap("HW1GRAPH".getBytes(StandardCharsets.US_ASCII))
+			.order(ByteOrder.LITTLE_ENDIAN).getLong();
+
+	private static final int FIXED_HEADER_SIZE = 32;
+	private static final int SECTION_ENTRY_SIZE = 32;
+	private static final int HEADER_CRC_OFFSET = 28;
+	private static final int ALIGNMENT = 64;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	static final int LATITUDE = 1;
+	static final int LONGITUDE = 2;
+	static final int FIRST_EDGE = 3;
+	static final int TARGET = 4;
+	static final int LENGTH = 5;
+	static final int HEADING = 6;
+	static final int NAME_ID = 7;
+	static final int NAME_OFFSETS = 8;
+	static final int NAME_BYTES = 9;
+
+	// The sections of the current version, by id.
+	private static final int SECTION_COUNT = 9;
+
+	private RoadGraphSnapshot() {
+	}
+
+	/**
+	 * A column of a RoadGraph, as written to a section.
+	 */
+	private interface Column {
+		/**
+		 * Writes element i of this column to buffer.
+		 */
+		void put(ByteBuffer buffer, int i);
+	}
+
+	/**
+	 * Writes a snapshot.
+	 *
+	 * @requires graph != null && file != null
+	 * @effects writes a snapshot of graph to a temporary file next to file,
+	 *          and then moves it over file, atomically where the file system
+	 *          allows it, so that readers never see a partial snapshot.
+	 * @throws IOException if the file cannot be written.
+	 */
+	static void write(RoadGraph graph, Path file) throws IOException {
+		if (graph == null || file == null) {
+			throw new IllegalArgumentException("Graph and file cannot be null");
+		}
+		int n = graph.getNodeCount();
+		int m = graph.getEdgeCount();
+		int k = graph.getNameCount();
+		ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+		int[] nameOffsets = new int[k + 1];
+		for (int id = 0; id < k; id++) {
+			nameBytes.write(graph.getName(id).getBytes(StandardCharsets.UTF_8));
+			nameOffsets[id + 1] = nameBytes.size();
+		}
+		byte[] names = nameBytes.toByteArray();
+
+		Path directory = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_SIZE + SECTION_COUNT * SECTION_ENTRY_SIZE)
+						.order(ByteOrder.LITTLE_ENDIAN);
+				header.putLong(MAGIC).putInt(VERSION).putInt(SECTION_COUNT).putInt(n).putInt(m).putInt(k).putInt(0);
+
+				long offset = align(header.capacity());
+				offset = writeSection(channel, header, LATITUDE, offset, n, 4, (b, i) -> b.putInt(graph.getLatitude(i)));
+				offset = writeSection(channel, header, LONGITUDE, offset, n, 4,
+						(b, i) -> b.putInt(graph.getLongitude(i)));
+				offset = writeSection(channel, header, FIRST_EDGE, offset, n + 1, 4,
+						(b, i) -> b.putInt(graph.getFirstEdge(i)));
+				offset = writeSection(channel, header, TARGET, offset, m, 4, (b, i) -> b.putInt(graph.getTarget(i)));
+				offset = writeSection(channel, header, LENGTH, offset, m, 4, (b, i) -> b.putFloat(graph.getLength(i)));
+				offset = writeSection(channel, header, HEADING, offset, m, 4,
+						(b, i) -> b.putFloat(graph.getHeading(i)));
+				offset = writeSection(channel, header, NAME_ID, offset, m, 4, (b, i) -> b.putInt(graph.getNameId(i)));
+				offset = writeSection(channel, header, NAME_OFFSETS, offset, k + 1, 4,
+						(b, i) -> b.putInt(nameOffsets[i]));
+				offset = writeSection(channel, header, NAME_BYTES, offset, names.length, 1, (b, i) -> b.put(names[i]));
+				// pad the file, so that even an empty last section lies within it
+				writeFully(channel, ByteBuffer.allocate((int) (offset - channel.size())), channel.size());
+
+				CRC32C crc = new CRC32C();
+				crc.update(header.array());
+				header.putInt(HEADER_CRC_OFFSET, (int) crc.getValue());
+				header.rewind();
+				writeFully(channel, header, 0);
+				channel.force(true);
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Writes a section and its entry in the section table.
+	 *
+	 * @modifies channel, header
+	 * @effects writes count elements of column, of size bytes each, to
+	 *          channel at offset, and appends their entry to header.
+	 * @return the offset of the next section.
+	 */
+	private static long writeSection(FileChannel channel, ByteBuffer header, int id, long offset, int count,
+			int size, Column column) throws IOException {
+		CRC32C crc = new CRC32C();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		long position = offset;
+		for (int i = 0; i < count; i++) {
+			if (buffer.remaining() < size) {
+				position += flush(channel, buffer, position, crc);
+			}
+			column.put(buffer, i);
+		}
+		position += flush(channel, buffer, position, crc);
+
+		long length = (long) count * size;
+		header.putInt(id).putInt(0).putLong(offset).putLong(length).putInt((int) crc.getValue()).putInt(0);
+		return align(offset + length);
+	}
+
+	private static int flush(FileChannel channel, ByteBuffer buffer, long position, CRC32C crc)
+			throws IOException {
+		buffer.flip();
+		int written = buffer.remaining();
+		crc.update(buffer.duplicate());
+		writeFully(channel, buffer, position);
+		buffer.clear();
+		return written;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private static long align(long offset) {
+		return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/**
+	 * Opens a snapshot.
+	 *
+	 * @requires file != null
+	 * @return a MappedRoadGraph of the snapshot in file.
+	 * @throws IOException if file cannot be read, is not a snapshot, has a
+	 *         damaged header, or has a version newer than VERSION.
+	 */
+	static MappedRoadGraph open(Path file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("File cannot be null");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer fixed = read(channel, 0, FIXED_HEADER_SIZE, size, file);
+			if (fixed.getLong(0) != MAGIC) {
+				throw new IOException(file + " is not a road graph snapshot");
+			}
+			int version = fixed.getInt(8);
+			if (version < 1 || version > VERSION) {
+				throw new IOException(file + " has snapshot version " + version + ", but only versions up to "
+						+ VERSION + " can be read");
+			}
+			int sections = fixed.getInt(12);
+			int n = fixed.getInt(16);
+			int m = fixed.getInt(20);
+			int k = fixed.getInt(24);
+			if (sections < 0 || sections > (size - FIXED_HEADER_SIZE) / SECTION_ENTRY_SIZE || n < 0 || m < 0
+					|| k < 0) {
+				throw new IOException(file + " has a damaged header");
+			}
+			ByteBuffer header = read(channel, 0, FIXED_HEADER_SIZE + sections * SECTION_ENTRY_SIZE, size, file);
+			int expectedCrc = header.getInt(HEADER_CRC_OFFSET);
+			header.putInt(HEADER_CRC_OFFSET, 0);
+			CRC32C crc = new CRC32C();
+			crc.update(header.array());
+			if ((int) crc.getValue() != expectedCrc) {
+				throw new IOException(file + " has a damaged header");
+			}
+
+			ByteBuffer[] mapped = new ByteBuffer[SECTION_COUNT + 1];
+			int[] crcs = new int[SECTION_COUNT + 1];
+			for (int s = 0; s < sections; s++) {
+				int entry = FIXED_HEADER_SIZE + s * SECTION_ENTRY_SIZE;
+				int id = header.getInt(entry);
+				long offset = header.getLong(entry + 8);
+				long length = header.getLong(entry + 16);
+				if (id < 1 || id > SECTION_COUNT) {
+					continue;
+				}
+				if (offset < 0 || length < 0 || offset > size - length) {
+					throw new IOException(file + " is truncated");
+				}
+				if (length > Integer.MAX_VALUE) {
+					throw new IOException(file + " has a section too large to map");
+				}
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+				mapped[id] = buffer.order(ByteOrder.LITTLE_ENDIAN);
+				crcs[id] = header.getInt(entry + 24);
+			}
+
+			IntBuffer latitude = ints(mapped, LATITUDE, n, file);
+			IntBuffer longitude = ints(mapped, LONGITUDE, n, file);
+			IntBuffer firstEdge = ints(mapped, FIRST_EDGE, n + 1, file);
+			IntBuffer target = ints(mapped, TARGET, m, file);
+			FloatBuffer length = floats(mapped, LENGTH, m, file);
+			FloatBuffer heading = floats(mapped, HEADING, m, file);
+			IntBuffer nameId = ints(mapped, NAME_ID, m, file);
+			IntBuffer nameOffsets = ints(mapped, NAME_OFFSETS, k + 1, file);
+			ByteBuffer nameBytes = section(mapped, NAME_BYTES, file);
+			if (firstEdge.get(0) != 0 || firstEdge.get(n) != m || nameOffsets.get(0) != 0
+					|| nameOffsets.get(k) != nameBytes.capacity()) {
+				throw new IOException(file + " is inconsistent");
+			}
+			// the mappings stay valid after the channel is closed
+			return new MappedRoadGraph(file, version, latitude, longitude, firstEdge, target, length, heading,
+					nameId, nameOffsets, nameBytes, mapped, crcs);
+		}
+	}
+
+	/**
+	 * Checks the sections of a snapshot against their checksums.
+	 *
+	 * @requires mapped and crcs are as passed to the MappedRoadGraph
+	 * @return the id of the first section whose checksum does not match, or
+	 *         0 if all of them match.
+	 */
+	static int verify(ByteBuffer[] mapped, int[] crcs) {
+		byte[] chunk = new byte[BUFFER_SIZE];
+		for (int id = 1; id <= SECTION_COUNT; id++) {
+			ByteBuffer section = mapped[id].duplicate();
+			section.clear();
+			CRC32C crc = new CRC32C();
+			while (section.hasRemaining()) {
+				int length = Math.min(chunk.length, section.remaining());
+				section.get(chunk, 0, length);
+				crc.update(chunk, 0, length);
+			}
+			if ((int) crc.getValue() != crcs[id]) {
+				return id;
+			}
+		}
+		return 0;
+	}
+
+	private static ByteBuffer read(FileChannel channel, long offset, int length, long size, Path file)
+			throws IOException {
+		if (offset + length > size) {
+			throw new IOException(file + " is truncated");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new IOException(file + " is truncated");
+			}
+		}
+		return buffer;
+	}
+
+	private static ByteBuffer section(ByteBuffer[] mapped, int id, Path file) throws IOException {
+		if (mapped[id] == null) {
+			throw new IOException(file + " has no section " + id);
+		}
+		return mapped[id];
+	}
+
+	private static IntBuffer ints(ByteBuffer[] mapped, int id, int count, Path file) throws IOException {
+		ByteBuffer section = section(mapped, id, file);
+		if (section.capacity() != 4L * count) {
+			throw new IOException(file + " has a section " + id + " of the wrong length");
+		}
+		return section.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+
+	private static FloatBuffer floats(ByteBuffer[] mapped, int id, int count, Path file) throws IOException {
+		ByteBuffer section = section(mapped, id, file);
+		if (section.capacity() != 4L * count) {
+			throw new IOException(file + " has a section " + id + " of the wrong length");
+		}
+		return section.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+	}
+}
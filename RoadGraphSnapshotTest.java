@@ -0,0 +1,188 @@
+package homework1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RoadGraphSnapshotTest {
+
+	private Path mDirectory;
+	private CompactRoadGraph mTechnion;
+	private CompactRoadGraph mSynthetic;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public RoadGraphSnapshotTest() throws IOException {
+		mDirectory = Files.createTempDirectory("snapshots");
+		List<GeoSegment> technion = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : ExampleGeoSegments.segments) {
+			technion.add(gs);
+			technion.add(gs.reverse());
+		}
+		mTechnion = new CompactRoadGraph(technion);
+		List<GeoSegment> synthetic = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : SyntheticNetworks.randomPlanar(100000, 11))
+			synthetic.add(gs);
+		mSynthetic = new CompactRoadGraph(synthetic);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	// Whether every column of a equals the same column of b.
+	private boolean sameGraph(RoadGraph a, RoadGraph b) {
+		if (a.getNodeCount() != b.getNodeCount() || a.getEdgeCount() != b.getEdgeCount()
+				|| a.getNameCount() != b.getNameCount())
+			return false;
+		for (int v = 0; v < a.getNodeCount(); v++) {
+			if (a.getLatitude(v) != b.getLatitude(v) || a.getLongitude(v) != b.getLongitude(v)
+					|| a.getFirstEdge(v) != b.getFirstEdge(v))
+				return false;
+		}
+		for (int e = 0; e < a.getEdgeCount(); e++) {
+			if (a.getTarget(e) != b.getTarget(e) || a.getNameId(e) != b.getNameId(e)
+					|| a.getLength(e) != b.getLength(e) || a.getHeading(e) != b.getHeading(e))
+				return false;
+		}
+		for (int id = 0; id < a.getNameCount(); id++) {
+			if (!a.getName(id).equals(b.getName(id)))
+				return false;
+		}
+		return a.getFirstEdge(a.getNodeCount()) == b.getFirstEdge(b.getNodeCount());
+	}
+
+
+	private static boolean opens(Path file) {
+		try {
+			MappedRoadGraph.open(file);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+
+	private static boolean verifies(Path file) {
+		try {
+			MappedRoadGraph.open(file).verify();
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+
+	// The position of section id in file, from its table of sections: an
+	// entry of 32 bytes per section after the fixed header of 32 bytes.
+	private static long sectionOffset(Path file, int id) throws IOException {
+		ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		for (int s = 0; s < b.getInt(12); s++) {
+			if (b.getInt(32 + s * 32) == id)
+				return b.getLong(32 + s * 32 + 8);
+		}
+		throw new IOException(file + " has no section " + id);
+	}
+
+
+	// Copies file to a new file with one byte flipped.
+	private Path damage(Path file, String name, long position) throws IOException {
+		Path copy = mDirectory.resolve(name);
+		Files.copy(file, copy);
+		try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer b = ByteBuffer.allocate(1);
+			channel.read(b, position);
+			b.put(0, (byte) (b.get(0) ^ 0x5A));
+			b.rewind();
+			channel.write(b, position);
+		}
+		return copy;
+	}
+
+
+	public void test() throws IOException {
+		show("Round trip");
+		Path technionFile = mDirectory.resolve("technion.graph");
+		mTechnion.writeSnapshot(technionFile);
+		MappedRoadGraph technion = MappedRoadGraph.open(technionFile);
+		show("Technion graph is read back", sameGraph(mTechnion, technion));
+		show("Snapshot has the current version", technion.getVersion() == RoadGraphSnapshot.VERSION);
+		show("Nodes and edges are found in the snapshot",
+			technion.getNodeId(mTechnion.getNode(3)) == 3 && technion.getEdge(5).equals(mTechnion.getEdge(5)));
+		Path syntheticFile = mDirectory.resolve("synthetic.graph");
+		mSynthetic.writeSnapshot(syntheticFile);
+		MappedRoadGraph synthetic = MappedRoadGraph.open(syntheticFile);
+		show("Synthetic graph is read back", sameGraph(mSynthetic, synthetic));
+		boolean verified = true;
+		try {
+			synthetic.verify();
+		} catch (IOException e) {
+			verified = false;
+		}
+		show("Intact snapshot verifies", verified);
+		Path emptyFile = mDirectory.resolve("empty.graph");
+		CompactRoadGraph empty = new CompactRoadGraph(new ArrayList<GeoSegment>());
+		empty.writeSnapshot(emptyFile);
+		show("Empty graph is read back", sameGraph(empty, MappedRoadGraph.open(emptyFile)));
+
+		show("Replacing");
+		mTechnion.writeSnapshot(syntheticFile);
+		show("Rewritten file holds the new graph", sameGraph(mTechnion, MappedRoadGraph.open(syntheticFile)));
+		show("Graph mapped before keeps reading the old file", sameGraph(mSynthetic, synthetic));
+		try (var files = Files.list(mDirectory)) {
+			show("No temporary files are left", files.noneMatch(p -> p.toString().endsWith(".tmp")));
+		}
+
+		show("Damage");
+		show("Damaged magic is rejected", !opens(damage(technionFile, "magic.graph", 0)));
+		show("Damaged header is rejected", !opens(damage(technionFile, "header.graph", 18)));
+		Path column = damage(technionFile, "column.graph", Files.size(technionFile) - 100);
+		show("Damaged column opens", opens(column));
+		show("Damaged column fails verification", !verifies(column));
+		show("Offsets not starting at 0 are rejected",
+			!opens(damage(technionFile, "edges.graph", sectionOffset(technionFile, RoadGraphSnapshot.FIRST_EDGE)))
+			&& !opens(damage(technionFile, "names.graph",
+				sectionOffset(technionFile, RoadGraphSnapshot.NAME_OFFSETS))));
+		Path truncated = mDirectory.resolve("truncated.graph");
+		Files.write(truncated, Arrays.copyOf(Files.readAllBytes(technionFile), 200));
+		show("Truncated snapshot is rejected", !opens(truncated));
+		Path text = mDirectory.resolve("text.graph");
+		Files.writeString(text, "not a graph");
+		show("Other files are rejected", !opens(text));
+
+		try (var files = Files.list(mDirectory)) {
+			for (Path p : (Iterable<Path>) files::iterator)
+				Files.delete(p);
+		}
+		Files.delete(mDirectory);
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		RoadGraphSnapshotTest snapshotTest = new RoadGraphSnapshotTest();
+		snapshotTest.test();
+		if (snapshotTest.mFailed)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,214 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A RoadNetwork is a directed graph of GeoSegments. RoadNetworks are
+ * immutable.
+ * <p>
+ * The nodes of the graph are the GeoPoints at the ends of the segments, and
+ * every GeoSegment is an edge leading from its p1 to its p2. A two-way
+ * street should therefore be given to the network as a segment and its
+ * reverse.
+ * <p>
+ * Nodes and edges are numbered 0..getNodeCount()-1 and
+ * 0..getEdgeCount()-1, and the outgoing edges of each node are numbered
+ * consecutively, so that graph searches can keep their state in primitive
+ * arrays indexed by these numbers.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   nodes : sequence      // the distinct endpoints of the segments
+ *   edges : sequence      // the segments, ordered by the id of their p1
+ * </pre>
+ **/
+public class RoadNetwork {
+	final GeoPoint[] nodes;
+	final GeoSegment[] edges;
+	final int[] edgeSource;
+	final int[] edgeTarget;
+	final int[] firstOutEdge;
+	final int[] firstInEdge;
+	final int[] inEdges;
+	final Map<GeoPoint, Integer> nodeIds;
+
+	// Abs. Function: the directed graph whose nodes are nodes[0..nodes.length-1]
+	// and whose edges are edges[0..edges.length-1]. The outgoing edges of
+	// node v are edges[firstOutEdge[v]..firstOutEdge[v+1]-1], and its incoming
+	// edges are edges[inEdges[firstInEdge[v]..firstInEdge[v+1]-1]].
+	// Rep. Invariant: all arrays != null && nodeIds != null &&
+	// firstOutEdge.length == nodes.length + 1 && firstOutEdge[nodes.length] == edges.length &&
+	// firstInEdge.length == nodes.length + 1 && inEdges.length == edges.length &&
+	// for each e : nodes[edgeSource[e]] == edges[e].p1 && nodes[edgeTarget[e]] == edges[e].p2 &&
+	// for each v : nodeIds.get(nodes[v]) == v.
+
+	/**
+	 * Constructs a new RoadNetwork.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @effects Constructs a new RoadNetwork whose edges are the elements of
+	 *          segments.
+	 **/
+	public RoadNetwork(Iterable<GeoSegment> segments) {
+		if (segments == null) {
+			throw new IllegalArgumentException("Segments cannot be null");
+		}
+		List<GeoSegment> input = new ArrayList<GeoSegment>();
+		List<GeoPoint> points = new ArrayList<GeoPoint>();
+		nodeIds = new HashMap<GeoPoint, Integer>();
+		for (GeoSegment gs : segments) {
+			if (gs == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			input.add(gs);
+			addNode(gs.p1, points);
+			addNode(gs.p2, points);
+		}
+		nodes = points.toArray(new GeoPoint[0]);
+
+		// Counting sort of the edges by their source node.
+		firstOutEdge = new int[nodes.length + 1];
+		for (GeoSegment gs : input) {
+			firstOutEdge[nodeIds.get(gs.p1) + 1]++;
+		}
+		for (int v = 0; v < nodes.length; v++) {
+			firstOutEdge[v + 1] += firstOutEdge[v];
+		}
+		int[] next = Arrays.copyOf(firstOutEdge, nodes.length);
+		edges = new GeoSegment[input.size()];
+		edgeSource = new int[input.size()];
+		edgeTarget = new int[input.size()];
+		for (GeoSegment gs : input) {
+			int source = nodeIds.get(gs.p1);
+			int e = next[source]++;
+			edges[e] = gs;
+			edgeSource[e] = source;
+			edgeTarget[e] = nodeIds.get(gs.p2);
+		}
+
+		// The same sort of the edge ids by their target node, for searches
+		// over the reverse graph.
+		firstInEdge = new int[nodes.length + 1];
+		for (int e = 0; e < edges.length; e++) {
+			firstInEdge[edgeTarget[e] + 1]++;
+		}
+		for (int v = 0; v < nodes.length; v++) {
+			firstInEdge[v + 1] += firstInEdge[v];
+		}
+		next = Arrays.copyOf(firstInEdge, nodes.length);
+		inEdges = new int[edges.length];
+		for (int e = 0; e < edges.length; e++) {
+			inEdges[next[edgeTarget[e]]++] = e;
+		}
+		checkRep();
+	}
+
+	private void addNode(GeoPoint gp, List<GeoPoint> points) {
+		if (!nodeIds.containsKey(gp)) {
+			nodeIds.put(gp, points.size());
+			points.add(gp);
+		}
+	}
+
+	void checkRep() {
+		assert (nodes != null && edges != null && edgeSource != null && edgeTarget != null
+				&& firstOutEdge != null && firstInEdge != null && inEdges != null && nodeIds != null);
+		assert (firstOutEdge.length == nodes.length + 1 && firstOutEdge[nodes.length] == edges.length);
+		assert (firstInEdge.length == nodes.length + 1 && firstInEdge[nodes.length] == edges.length);
+		assert (nodeIds.size() == nodes.length);
+	}
+
+	/**
+	 * Returns the number of nodes in this network.
+	 *
+	 * @return the number of distinct segment endpoints in this network.
+	 */
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * Returns the number of edges in this network.
+	 *
+	 * @return the number of segments in this network.
+	 */
+	public int getEdgeCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the id of a node of this network.
+	 *
+	 * @return the id of gp in this network, or -1 if gp is not an endpoint
+	 *         of any of its segments.
+	 */
+	public int getNodeId(GeoPoint gp) {
+		Integer id = nodeIds.get(gp);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns a node of this network.
+	 *
+	 * @requires 0 <= id < getNodeCount()
+	 * @return the GeoPoint whose id is id.
+	 */
+	public GeoPoint getNode(int id) {
+		return nodes[id];
+	}
+
+	/**
+	 * Returns an edge of this network.
+	 *
+	 * @requires 0 <= id < getEdgeCount()
+	 * @return the GeoSegment whose id is id.
+	 */
+	public GeoSegment getEdge(int id) {
+		return edges[id];
+	}
+
+	/**
+	 * Returns an Iterator of the segments leaving a GeoPoint.
+	 *
+	 * @requires gp != null
+	 * @return an Iterator of all the GeoSegments gs of this network such
+	 *         that gs.p1 = gp.
+	 */
+	public Iterator<GeoSegment> getOutgoingSegments(GeoPoint gp) {
+		int v = getNodeId(gp);
+		if (v < 0) {
+			return List.<GeoSegment>of().iterator();
+		}
+		return Arrays.asList(edges).subList(firstOutEdge[v], firstOutEdge[v + 1]).iterator();
+	}
+
+	/**
+	 * Returns an Iterator of all the segments of this network.
+	 *
+	 * @return an Iterator of the GeoSegments of this network.
+	 */
+	public Iterator<GeoSegment> getGeoSegments() {
+		return Arrays.asList(edges).iterator();
+	}
+
+	/**
+	 * Builds the Route that follows a sequence of edges of this network.
+	 *
+	 * @requires path != null && path.length > 0 && the edges of path are
+	 *           properly oriented
+	 * @return the Route made of the segments path[0], ..., path[path.length-1].
+	 */
+	Route toRoute(int[] path) {
+		List<GeoSegment> rest = new ArrayList<GeoSegment>(path.length - 1);
+		for (int i = 1; i < path.length; i++) {
+			rest.add(edges[path[i]]);
+		}
+		return new Route(edges[path[0]]).addSegments(rest);
+	}
+}
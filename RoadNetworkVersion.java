@@ -0,0 +1,121 @@
+package homework1;
+
+/**
+ * A RoadNetworkVersion is the state of a LiveRoadNetwork between two
+ * updates: which edges of its RoadNetwork are closed, and the weight of each
+ * edge. RoadNetworkVersions are immutable, so a search that reads a single
+ * version sees a consistent network however the LiveRoadNetwork changes
+ * meanwhile.
+ * <p>
+ * The weights and closures are kept in pages of PAGE_SIZE edges. A new
+ * version copies only the pages its update changes and shares the others
+ * with the version it was made from, so an update costs time and memory in
+ * proportion to the edges it changes rather than to the network.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   network : RoadNetwork   // the network whose edges this version describes
+ *   version : long          // the number of updates this version follows
+ *   open : sequence         // for each edge, whether it may be traversed
+ *   weight : sequence       // for each edge, the cost of traversing it
+ * </pre>
+ */
+public final class RoadNetworkVersion {
+
+	static final int PAGE_BITS = 10;
+	static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	final RoadNetwork network;
+	final long version;
+	// the weight of edge e is weights[e >>> PAGE_BITS][e & PAGE_MASK]
+	final double[][] weights;
+	// edge e is closed iff bit e & 63 of closed[e >>> PAGE_BITS][(e & PAGE_MASK) >>> 6] is set
+	final long[][] closed;
+
+	// Abs. Function: open[e] = the bit of e in closed is clear,
+	// weight[e] = weights[e >>> PAGE_BITS][e & PAGE_MASK].
+	// Rep. Invariant: network != null && version >= 0 &&
+	// weights.length == closed.length == ceil(network.getEdgeCount() / PAGE_SIZE) &&
+	// every page of weights has PAGE_SIZE elements and every page of closed
+	// PAGE_SIZE / 64 && every weight is finite and >= 0 &&
+	// no page is modified once the version is constructed
+
+	RoadNetworkVersion(RoadNetwork network, long version, double[][] weights, long[][] closed) {
+		this.network = network;
+		this.version = version;
+		this.weights = weights;
+		this.closed = closed;
+		checkRep();
+	}
+
+	/**
+	 * Returns the first version of a network, with every edge open and
+	 * weighing its length.
+	 */
+	static RoadNetworkVersion initial(RoadNetwork network) {
+		int m = network.getEdgeCount();
+		int pages = (m + PAGE_SIZE - 1) >>> PAGE_BITS;
+		double[][] weights = new double[pages][];
+		long[][] closed = new long[pages][];
+		for (int p = 0; p < pages; p++) {
+			weights[p] = new double[PAGE_SIZE];
+			closed[p] = new long[PAGE_SIZE / 64];
+			for (int i = 0; i < PAGE_SIZE && (p << PAGE_BITS) + i < m; i++) {
+				weights[p][i] = network.edges[(p << PAGE_BITS) + i].length;
+			}
+		}
+		return new RoadNetworkVersion(network, 0, weights, closed);
+	}
+
+	void checkRep() {
+		assert (network != null && version >= 0 && weights.length == closed.length);
+		assert (weights.length == (network.getEdgeCount() + PAGE_SIZE - 1) >>> PAGE_BITS);
+	}
+
+	/**
+	 * Returns the network of this version.
+	 *
+	 * @return network.
+	 */
+	public RoadNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Returns the number of this version.
+	 *
+	 * @return version, which is 0 for the network before any update and
+	 *         grows by one with each update.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns whether an edge is open.
+	 *
+	 * @requires 0 <= e < network.getEdgeCount()
+	 * @return open[e].
+	 */
+	public boolean isOpen(int e) {
+		return (closed[e >>> PAGE_BITS][(e & PAGE_MASK) >>> 6] & (1L << e)) == 0;
+	}
+
+	/**
+	 * Returns the weight of an edge. A closed edge keeps its weight, which
+	 * applies again once it is reopened.
+	 *
+	 * @requires 0 <= e < network.getEdgeCount()
+	 * @return weight[e].
+	 */
+	public double getWeight(int e) {
+		return weights[e >>> PAGE_BITS][e & PAGE_MASK];
+	}
+
+	@Override
+	public String toString() {
+		return "RoadNetworkVersion [version=" + version + ", edges=" + network.getEdgeCount() + "]";
+	}
+}
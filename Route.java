@@ -3,6 +3,7 @@ package homework1;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A Route is a path that traverses arbitrary GeoSegments, regardless
@@ -173,6 +174,8 @@ public class Route {
     *         r.length = this.length + gs.length
     **/
    public Route addSegment(GeoSegment gs) {
+      long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+      RouteConstructionEvent event = FlightEvents.beginRouteConstruction();
       if (gs == null) {
          throw new IllegalArgumentException("GeoSegment cannot be null");
       }
@@ -187,16 +190,18 @@ public class Route {
       newSegments.add(gs);
       List<GeoFeature> newGeoFeatures;
       if (geoFeatures.get(geoFeatures.size()-1).getName().equals(gs.getName())) {
+         FeatureMergeEvent merge = FlightEvents.beginFeatureMerge();
          newGeoFeatures = new ArrayList<GeoFeature>(this.geoFeatures);
          GeoFeature tmp = geoFeatures.get(geoFeatures.size()-1).addSegment(gs);
          newGeoFeatures.remove(geoFeatures.size()-1);
          newGeoFeatures.add(tmp);
+         commit(merge, tmp, 1);
       } else {
          newGeoFeatures = new ArrayList<GeoFeature>(this.geoFeatures);
          newGeoFeatures.add(new GeoFeature(gs));
       }
       checkRep();
-      return new Route(
+      Route route = new Route(
             this.start,
             gs.p2,
             this.startHeading,
@@ -205,6 +210,113 @@ public class Route {
             gs,
             List.copyOf(newSegments),
             List.copyOf(newGeoFeatures));
+      if (Metrics.ENABLED) {
+         Instruments.ADD_SEGMENT_NANOS.record(System.nanoTime() - startTime);
+         Instruments.ADD_SEGMENT_COPIED.add(geoSegments.size() + geoFeatures.size());
+      }
+      commit(event, "addSegment", 1, route);
+      return route;
+   }
+
+   /**
+    * Creates a new route that is equal to this route with a sequence of
+    * GeoSegments appended to its end. Unlike repeated calls to addSegment(),
+    * which copy the whole route for every segment, this copies the route
+    * once, so long routes can be built in time linear in their length.
+    * 
+    * @requires gss != null && no element of gss is null && (gss is not
+    *           empty => gss.get(0).p1 == this.end) && for each 0 < i :
+    *           gss.get(i).p1 == gss.get(i-1).p2
+    * @return the Route this.addSegment(gss.get(0)).addSegment(gss.get(1))...,
+    *         or this if gss is empty
+    **/
+   public Route addSegments(List<GeoSegment> gss) {
+      if (gss == null) {
+         throw new IllegalArgumentException("GeoSegments cannot be null");
+      }
+      if (gss.isEmpty()) {
+         return this;
+      }
+      RouteConstructionEvent event = FlightEvents.beginRouteConstruction();
+      GeoPoint newEnd = this.end;
+      double newLength = this.length;
+      for (GeoSegment gs : gss) {
+         if (gs == null) {
+            throw new IllegalArgumentException("GeoSegment cannot be null");
+         }
+         if (!newEnd.equals(gs.p1)) {
+            throw new IllegalArgumentException("GeoSegment does not match");
+         }
+         newEnd = gs.p2;
+         newLength += gs.length;
+      }
+
+      List<GeoSegment> newSegments = new ArrayList<GeoSegment>(this.geoSegments.size() + gss.size());
+      newSegments.addAll(this.geoSegments);
+      newSegments.addAll(gss);
+      List<GeoFeature> newGeoFeatures = new ArrayList<GeoFeature>(this.geoFeatures);
+      // append each run of equally named segments as a whole
+      int i = 0;
+      while (i < gss.size()) {
+         String name = gss.get(i).getName();
+         int j = i + 1;
+         while (j < gss.size() && gss.get(j).getName().equals(name)) {
+            j++;
+         }
+         GeoFeature last = newGeoFeatures.get(newGeoFeatures.size() - 1);
+         if (last.getName().equals(name)) {
+            FeatureMergeEvent merge = FlightEvents.beginFeatureMerge();
+            GeoFeature merged = last.addSegments(gss.subList(i, j));
+            newGeoFeatures.set(newGeoFeatures.size() - 1, merged);
+            commit(merge, merged, j - i);
+         } else {
+            GeoFeature feature = new GeoFeature(gss.get(i));
+            if (j > i + 1) {
+               feature = feature.addSegments(gss.subList(i + 1, j));
+            }
+            newGeoFeatures.add(feature);
+         }
+         i = j;
+      }
+      GeoSegment last = gss.get(gss.size() - 1);
+      Route route = new Route(
+            this.start,
+            newEnd,
+            this.startHeading,
+            last.heading,
+            newLength,
+            last,
+            newSegments,
+            newGeoFeatures);
+      commit(event, "addSegments", gss.size(), route);
+      return route;
+   }
+
+   /**
+    * Commits a RouteConstructionEvent for a new Route, if there is one and
+    * the recording settings ask for it.
+    */
+   private static void commit(RouteConstructionEvent event, String method, int added, Route route) {
+      if (event != null && event.shouldCommit()) {
+         event.method = method;
+         event.addedSegments = added;
+         event.segmentCount = route.geoSegments.size();
+         event.featureCount = route.geoFeatures.size();
+         event.commit();
+      }
+   }
+
+   /**
+    * Commits a FeatureMergeEvent for a merged GeoFeature, if there is one
+    * and the recording settings ask for it.
+    */
+   private static void commit(FeatureMergeEvent event, GeoFeature merged, int added) {
+      if (event != null && event.shouldCommit()) {
+         event.featureName = merged.name;
+         event.mergedSegments = added;
+         event.segmentCount = merged.geoSegments.size();
+         event.commit();
+      }
    }
 
    /**
@@ -303,4 +415,12 @@ public class Route {
       return sb.toString();
    }
 
+   /**
+    * The instruments of Route, registered with Metrics only once measuring
+    * is on and a Route is extended.
+    */
+   private static final class Instruments {
+      static final LogHistogram ADD_SEGMENT_NANOS = Metrics.histogram("route_add_segment_nanos");
+      static final LongAdder ADD_SEGMENT_COPIED = Metrics.counter("route_add_segment_copied");
+   }
 }
@@ -0,0 +1,41 @@
+package homework1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A RouteConstructionEvent is a Java Flight Recorder event that records a
+ * call to Route.addSegment() or Route.addSegments() and the size of the
+ * Route it built.
+ * <p>
+ * Like all JFR events, it is controlled by the settings of the recording,
+ * under the name <tt>homework1.RouteConstruction</tt>; for example
+ * <tt>-XX:StartFlightRecording:+homework1.RouteConstruction#enabled=false</tt>
+ * leaves it out. Its stack trace is off by default, as the event is
+ * frequent.
+ */
+@Name("homework1.RouteConstruction")
+@Label("Route Construction")
+@Category({ "homework1", "Routes" })
+@Description("A Route extended by Route.addSegment() or Route.addSegments()")
+@StackTrace(false)
+final class RouteConstructionEvent extends Event {
+
+	@Label("Method")
+	String method;
+
+	@Label("Segments Added")
+	int addedSegments;
+
+	@Label("Segment Count")
+	@Description("Number of GeoSegments of the new Route")
+	int segmentCount;
+
+	@Label("Feature Count")
+	@Description("Number of GeoFeatures of the new Route")
+	int featureCount;
+}
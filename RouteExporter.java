@@ -0,0 +1,368 @@
+package homework1;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A RouteExporter writes Routes, their geographic features and, optionally,
+ * their directions as GeoJSON or GPX. RouteExporters are immutable and may
+ * be shared between threads if their RouteFormatter may.
+ * <p>
+ * The documents are streamed: they are written to the sink while the
+ * segments and features of the route are iterated, with no document tree
+ * and no intermediate Strings. Coordinates are written digit by digit from
+ * the integer millionths of degrees of the GeoPoints, so they are exact.
+ * Large exports should go to a buffered sink, such as those returned by
+ * newGzipWriter() and newChannelWriter().
+ * <p>
+ * The GeoJSON document is a FeatureCollection holding a LineString for the
+ * whole route followed by a LineString for each geographic feature, whose
+ * properties are its name, its length in meters and, if the exporter has a
+ * formatter, its turn and line of directions. The GPX document holds the
+ * route as a <tt>rte</tt> with a point at the start of each geographic
+ * feature and one at its end, and as a <tt>trk</tt> through every segment.
+ */
+public class RouteExporter {
+
+	// Size of the buffers of the writers returned by the factory methods.
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final RouteFormatter formatter;
+	private final FixedPointFormat numberFormat = new FixedPointFormat(Locale.ROOT);
+
+	// Abs. Function: an exporter of routes, annotating their features with
+	// the directions of formatter if formatter != null.
+	// Rep. Invariant: numberFormat != null
+
+	/**
+	 * Constructs a new RouteExporter.
+	 *
+	 * @effects Constructs a new RouteExporter that writes no directions.
+	 */
+	public RouteExporter() {
+		this.formatter = null;
+	}
+
+	/**
+	 * Constructs a new RouteExporter.
+	 *
+	 * @requires formatter != null
+	 * @effects Constructs a new RouteExporter that annotates each
+	 *          geographic feature with its line of directions, as given by
+	 *          formatter.
+	 */
+	public RouteExporter(RouteFormatter formatter) {
+		if (formatter == null) {
+			throw new IllegalArgumentException("Formatter cannot be null");
+		}
+		this.formatter = formatter;
+	}
+
+	/**
+	 * Returns a Writer that compresses what it is given with gzip.
+	 *
+	 * @requires out != null
+	 * @return a buffered UTF-8 Writer to a GZIPOutputStream wrapping out.
+	 *         Closing it finishes the compressed stream and closes out.
+	 * @throws IOException if the gzip header cannot be written.
+	 */
+	public static Writer newGzipWriter(OutputStream out) throws IOException {
+		if (out == null) {
+			throw new IllegalArgumentException("OutputStream cannot be null");
+		}
+		return new BufferedWriter(new OutputStreamWriter(
+				new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/**
+	 * Returns a Writer to a channel, such as a FileChannel.
+	 *
+	 * @requires channel != null
+	 * @return a buffered UTF-8 Writer to channel. Closing it closes channel.
+	 */
+	public static Writer newChannelWriter(WritableByteChannel channel) {
+		if (channel == null) {
+			throw new IllegalArgumentException("Channel cannot be null");
+		}
+		return Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes a Route as a GeoJSON document.
+	 *
+	 * @requires route != null && 0 <= heading < 360 && out != null
+	 * @param route the route to export.
+	 * @param heading the initial heading, used for the directions.
+	 * @param out the sink to write the document to.
+	 * @modifies out
+	 * @effects appends to out a GeoJSON FeatureCollection describing route.
+	 * @throws IOException if out fails.
+	 */
+	public void writeGeoJson(Route route, double heading, Appendable out) throws IOException {
+		checkArguments(route, heading, out);
+		StringBuilder line = formatter == null ? null : new StringBuilder();
+
+		out.append("{\"type\":\"FeatureCollection\",\"features\":[\n");
+		out.append("{\"type\":\"Feature\",\"properties\":{\"kind\":\"route\",\"length_m\":");
+		appendMeters(route.getLength(), out);
+		out.append("},\"geometry\":");
+		appendLineString(route.getGeoSegments(), out);
+		out.append('}');
+
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			GeoFeature gf = it.next();
+			out.append(",\n{\"type\":\"Feature\",\"properties\":{\"kind\":\"feature\",\"name\":");
+			appendJsonString(gf.getName(), out);
+			out.append(",\"length_m\":");
+			appendMeters(gf.getLength(), out);
+			if (formatter != null) {
+				TurnType turn = TurnType.classify(heading, gf.getStartHeading());
+				out.append(",\"turn\":\"").append(turn.name()).append("\",\"instruction\":");
+				appendJsonString(renderLine(turn, gf, line), out);
+			}
+			out.append("},\"geometry\":");
+			appendLineString(gf.getGeoSegments(), out);
+			out.append('}');
+			heading = gf.getEndHeading();
+		}
+		out.append("\n]}\n");
+	}
+
+	/**
+	 * Writes a Route as a GPX 1.1 document.
+	 *
+	 * @requires route != null && 0 <= heading < 360 && out != null
+	 * @param route the route to export.
+	 * @param heading the initial heading, used for the directions.
+	 * @param out the sink to write the document to.
+	 * @modifies out
+	 * @effects appends to out a GPX document describing route.
+	 * @throws IOException if out fails.
+	 */
+	public void writeGpx(Route route, double heading, Appendable out) throws IOException {
+		checkArguments(route, heading, out);
+		StringBuilder line = formatter == null ? null : new StringBuilder();
+
+		out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		out.append("<gpx version=\"1.1\" creator=\"homework1\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n");
+		out.append("<rte>\n");
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			GeoFeature gf = it.next();
+			appendGpxPoint("rtept", gf.getStart(), out);
+			out.append("><name>");
+			appendXmlText(gf.getName(), out);
+			out.append("</name>");
+			if (formatter != null) {
+				TurnType turn = TurnType.classify(heading, gf.getStartHeading());
+				out.append("<desc>");
+				appendXmlText(renderLine(turn, gf, line), out);
+				out.append("</desc>");
+			}
+			out.append("</rtept>\n");
+			heading = gf.getEndHeading();
+		}
+		appendGpxPoint("rtept", route.getEnd(), out);
+		out.append("/>\n</rte>\n<trk><trkseg>\n");
+		Iterator<GeoSegment> segments = route.getGeoSegments();
+		GeoSegment gs = segments.next();
+		appendGpxPoint("trkpt", gs.p1, out);
+		out.append("/>\n");
+		while (true) {
+			appendGpxPoint("trkpt", gs.p2, out);
+			out.append("/>\n");
+			if (!segments.hasNext()) {
+				break;
+			}
+			gs = segments.next();
+		}
+		out.append("</trkseg></trk>\n</gpx>\n");
+	}
+
+	private static void checkArguments(Route route, double heading, Appendable out) {
+		if (route == null || out == null) {
+			throw new IllegalArgumentException("Route and Appendable must not be null");
+		}
+		if (heading < 0 || heading >= 360) {
+			throw new IllegalArgumentException("heading must be between 0 and 360");
+		}
+	}
+
+	/**
+	 * Renders the line of directions for gf into line, without its newline.
+	 */
+	private CharSequence renderLine(TurnType turn, GeoFeature gf, StringBuilder line)
+			throws IOException {
+		line.setLength(0);
+		formatter.appendLine(turn, gf.getName(), gf.getLength(), line);
+		int end = line.length();
+		while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+			end--;
+		}
+		line.setLength(end);
+		return line;
+	}
+
+	/**
+	 * Writes a GeoJSON LineString through the points of a connected
+	 * sequence of segments.
+	 */
+	private static void appendLineString(Iterator<GeoSegment> segments, Appendable out)
+			throws IOException {
+		out.append("{\"type\":\"LineString\",\"coordinates\":[");
+		GeoSegment gs = segments.next();
+		appendPosition(gs.p1, out);
+		while (true) {
+			out.append(',');
+			appendPosition(gs.p2, out);
+			if (!segments.hasNext()) {
+				break;
+			}
+			gs = segments.next();
+		}
+		out.append("]}");
+	}
+
+	/**
+	 * Writes a GeoJSON position, which lists the longitude first.
+	 */
+	private static void appendPosition(GeoPoint p, Appendable out) throws IOException {
+		out.append('[');
+		appendDegrees(p.longitude, out);
+		out.append(',');
+		appendDegrees(p.latitude, out);
+		out.append(']');
+	}
+
+	/**
+	 * Writes the opening of a GPX point element, up to its closing bracket.
+	 */
+	private static void appendGpxPoint(String element, GeoPoint p, Appendable out)
+			throws IOException {
+		out.append('<').append(element).append(" lat=\"");
+		appendDegrees(p.latitude, out);
+		out.append("\" lon=\"");
+		appendDegrees(p.longitude, out);
+		out.append('"');
+	}
+
+	/**
+	 * Writes an angle given in millionths of degrees as a decimal number of
+	 * degrees, without trailing zeros in its fraction.
+	 */
+	static void appendDegrees(int microDegrees, Appendable out) throws IOException {
+		long value = microDegrees;
+		if (value < 0) {
+			out.append('-');
+			value = -value;
+		}
+		long degrees = value / 1000000;
+		int fraction = (int) (value % 1000000);
+		appendUnsigned(degrees, out);
+		if (fraction != 0) {
+			out.append('.');
+			int divisor = 100000;
+			while (fraction != 0) {
+				out.append((char) ('0' + fraction / divisor));
+				fraction %= divisor;
+				divisor /= 10;
+			}
+		}
+	}
+
+	private static void appendUnsigned(long value, Appendable out) throws IOException {
+		if (value >= 10) {
+			appendUnsigned(value / 10, out);
+		}
+		out.append((char) ('0' + value % 10));
+	}
+
+	private void appendMeters(double km, Appendable out) throws IOException {
+		numberFormat.appendInteger(Math.round(km * 1000), out);
+	}
+
+	/**
+	 * Writes s as a quoted JSON string.
+	 */
+	static void appendJsonString(CharSequence s, Appendable out) throws IOException {
+		out.append('"');
+		int start = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\') {
+				continue;
+			}
+			out.append(s, start, i);
+			start = i + 1;
+			switch (c) {
+			case '"':
+				out.append("\\\"");
+				break;
+			case '\\':
+				out.append("\\\\");
+				break;
+			case '\n':
+				out.append("\\n");
+				break;
+			case '\r':
+				out.append("\\r");
+				break;
+			case '\t':
+				out.append("\\t");
+				break;
+			default:
+				out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+			}
+		}
+		out.append(s, start, s.length());
+		out.append('"');
+	}
+
+	/**
+	 * Writes s as XML character data, usable in attributes as well.
+	 */
+	static void appendXmlText(CharSequence s, Appendable out) throws IOException {
+		int start = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			String escape;
+			switch (c) {
+			case '&':
+				escape = "&amp;";
+				break;
+			case '<':
+				escape = "&lt;";
+				break;
+			case '>':
+				escape = "&gt;";
+				break;
+			case '"':
+				escape = "&quot;";
+				break;
+			case '\'':
+				escape = "&apos;";
+				break;
+			default:
+				if (c >= 0x20 || c == '\n' || c == '\r' || c == '\t') {
+					continue;
+				}
+				escape = "\uFFFD"; // not allowed in XML 1.0
+			}
+			out.append(s, start, i).append(escape);
+			start = i + 1;
+		}
+		out.append(s, start, s.length());
+	}
+}
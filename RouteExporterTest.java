@@ -0,0 +1,311 @@
+package homework1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+public class RouteExporterTest {
+
+	private static final Pattern POSITION = Pattern.compile("\\[(-?[0-9.]+),(-?[0-9.]+)\\]");
+
+	private Route mShortRoute;
+	private Route mTechnionRoute;
+	private Route mLongRoute;
+	private GeoPoint gpA;
+	private GeoPoint gpB;
+	private GeoPoint gpC;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public RouteExporterTest() {
+		gpA = new GeoPoint(32780000, 35010000);
+		gpB = new GeoPoint(32781500, 35010000);
+		gpC = new GeoPoint(32781500, 35012250);
+		mShortRoute = new Route(new GeoSegment("Hankin Road", gpA, gpB))
+			.addSegment(new GeoSegment("Hanita", gpB, gpC));
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		mTechnionRoute = new Route(segments[0]);
+		for (int i : new int[] { 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnionRoute = mTechnionRoute.addSegment(segments[i]);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 17), 5000, 17);
+		mLongRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static String geoJson(RouteExporter exporter, Route route, double heading) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		exporter.writeGeoJson(route, heading, sb);
+		return sb.toString();
+	}
+
+
+	private static String gpx(RouteExporter exporter, Route route, double heading) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		exporter.writeGpx(route, heading, sb);
+		return sb.toString();
+	}
+
+
+	private static int microDegrees(String degrees) {
+		return new BigDecimal(degrees).movePointRight(6).intValueExact();
+	}
+
+
+	/**
+	 * @return the points of route, the points of each of its GeoFeatures in
+	 *         turn, as GeoJSON lists them.
+	 */
+	private static List<GeoPoint> expectedPositions(Route route) {
+		List<GeoPoint> points = new ArrayList<GeoPoint>();
+		addPoints(route.getGeoSegments(), points);
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext())
+			addPoints(it.next().getGeoSegments(), points);
+		return points;
+	}
+
+
+	private static void addPoints(Iterator<GeoSegment> segments, List<GeoPoint> points) {
+		GeoSegment gs = segments.next();
+		points.add(gs.getP1());
+		points.add(gs.getP2());
+		while (segments.hasNext())
+			points.add(segments.next().getP2());
+	}
+
+
+	private static List<GeoPoint> positions(String geoJson) {
+		List<GeoPoint> points = new ArrayList<GeoPoint>();
+		Matcher m = POSITION.matcher(geoJson);
+		while (m.find())
+			points.add(new GeoPoint(microDegrees(m.group(2)), microDegrees(m.group(1))));
+		return points;
+	}
+
+
+	private static Document parseXml(String xml) {
+		try {
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+
+	private static String readAll(InputStream in) throws IOException {
+		try (InputStream is = in) {
+			return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+
+	public void testGeoJson() throws IOException {
+		show("GeoJSON");
+		String meters = Math.round(mShortRoute.getLength() * 1000) + "";
+		String hankin = Math.round(new GeoSegment("", gpA, gpB).getLength() * 1000) + "";
+		String hanita = Math.round(new GeoSegment("", gpB, gpC).getLength() * 1000) + "";
+		show("A short route",
+			geoJson(new RouteExporter(), mShortRoute, 0).equals(
+				"{\"type\":\"FeatureCollection\",\"features\":[\n"
+				+ "{\"type\":\"Feature\",\"properties\":{\"kind\":\"route\",\"length_m\":" + meters + "},"
+				+ "\"geometry\":{\"type\":\"LineString\",\"coordinates\":"
+				+ "[[35.01,32.78],[35.01,32.7815],[35.01225,32.7815]]}},\n"
+				+ "{\"type\":\"Feature\",\"properties\":{\"kind\":\"feature\",\"name\":\"Hankin Road\","
+				+ "\"length_m\":" + hankin + "},"
+				+ "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[35.01,32.78],[35.01,32.7815]]}},\n"
+				+ "{\"type\":\"Feature\",\"properties\":{\"kind\":\"feature\",\"name\":\"Hanita\","
+				+ "\"length_m\":" + hanita + "},"
+				+ "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[35.01,32.7815],[35.01225,32.7815]]}}\n"
+				+ "]}\n"));
+		show("Directions annotate the features",
+			geoJson(new RouteExporter(new DrivingRouteFormatter()), mShortRoute, 0).contains(
+				"\"name\":\"Hanita\",\"length_m\":" + hanita
+				+ ",\"turn\":\"RIGHT\",\"instruction\":\"Turn right onto Hanita and go 0.2 kilometers.\"}"));
+
+		boolean exact = true;
+		boolean features = true;
+		for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+			String json = geoJson(new RouteExporter(new WalkingRouteFormatter()), route, 45);
+			if (!positions(json).equals(expectedPositions(route)))
+				exact = false;
+			int count = json.split("\"kind\":\"feature\"", -1).length - 1;
+			int instructions = json.split("\"instruction\":", -1).length - 1;
+			if (count != route.geoFeatures.size() || instructions != count)
+				features = false;
+		}
+		show("Coordinates are exact", exact);
+		show("A GeoJSON Feature per geographic feature", features);
+		String directions = new WalkingRouteFormatter().computeDirections(mTechnionRoute, 45);
+		String json = geoJson(new RouteExporter(new WalkingRouteFormatter()), mTechnionRoute, 45);
+		boolean lines = true;
+		for (String line : directions.split("\n")) {
+			if (!json.contains("\"instruction\":\"" + line + "\""))
+				lines = false;
+		}
+		show("The instructions are the lines of the directions", lines);
+
+		StringBuilder sb = new StringBuilder();
+		RouteExporter.appendJsonString("a \"b\" \\ c\n\t\u0001", sb);
+		show("Strings are escaped", sb.toString().equals("\"a \\\"b\\\" \\\\ c\\n\\t\\u0001\""));
+		sb = new StringBuilder();
+		for (int d : new int[] { 0, 1, -500000, 32780000, 35012250, -35012250, Integer.MIN_VALUE, Integer.MAX_VALUE })
+			RouteExporter.appendDegrees(d, sb.append(' '));
+		show("Degrees are exact, without trailing zeros", sb.toString().equals(
+			" 0 0.000001 -0.5 32.78 35.01225 -35.01225 -2147.483648 2147.483647"));
+	}
+
+
+	public void testGpx() throws IOException {
+		show("GPX");
+		String gpx = gpx(new RouteExporter(), mShortRoute, 0);
+		show("A short route", gpx.equals(
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<gpx version=\"1.1\" creator=\"homework1\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n"
+			+ "<rte>\n"
+			+ "<rtept lat=\"32.78\" lon=\"35.01\"><name>Hankin Road</name></rtept>\n"
+			+ "<rtept lat=\"32.7815\" lon=\"35.01\"><name>Hanita</name></rtept>\n"
+			+ "<rtept lat=\"32.7815\" lon=\"35.01225\"/>\n"
+			+ "</rte>\n<trk><trkseg>\n"
+			+ "<trkpt lat=\"32.78\" lon=\"35.01\"/>\n"
+			+ "<trkpt lat=\"32.7815\" lon=\"35.01\"/>\n"
+			+ "<trkpt lat=\"32.7815\" lon=\"35.01225\"/>\n"
+			+ "</trkseg></trk>\n</gpx>\n"));
+
+		boolean wellFormed = true;
+		boolean points = true;
+		for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+			Document doc = parseXml(gpx(new RouteExporter(new DrivingRouteFormatter()), route, 45));
+			if (doc == null) {
+				wellFormed = false;
+				continue;
+			}
+			if (doc.getElementsByTagName("rtept").getLength() != route.geoFeatures.size() + 1
+					|| doc.getElementsByTagName("desc").getLength() != route.geoFeatures.size()
+					|| doc.getElementsByTagName("trkpt").getLength() != route.geoSegments.size() + 1)
+				points = false;
+		}
+		show("Documents are well formed", wellFormed);
+		show("A route point per feature and a track point per segment", points);
+		Document doc = parseXml(gpx(new RouteExporter(new DrivingRouteFormatter()), mTechnionRoute, 45));
+		NodeList descs = doc.getElementsByTagName("desc");
+		String[] lines = new DrivingRouteFormatter().computeDirections(mTechnionRoute, 45).split("\n");
+		boolean same = descs.getLength() == lines.length;
+		for (int i = 0; same && i < lines.length; i++) {
+			if (!descs.item(i).getTextContent().equals(lines[i]))
+				same = false;
+		}
+		show("The descriptions are the lines of the directions", same);
+
+		Route odd = new Route(new GeoSegment("Tom & \"Jerry\" <St> 'x'\u0002", gpA, gpB));
+		doc = parseXml(gpx(new RouteExporter(new WalkingRouteFormatter()), odd, 0));
+		show("Names are escaped", doc != null
+			&& doc.getElementsByTagName("name").item(0).getTextContent().equals("Tom & \"Jerry\" <St> 'x'\uFFFD"));
+	}
+
+
+	public void testWriters() throws IOException {
+		show("Writers");
+		RouteExporter exporter = new RouteExporter(new DrivingRouteFormatter());
+		String expected = geoJson(exporter, mLongRoute, 45);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (Writer writer = RouteExporter.newGzipWriter(bytes)) {
+			exporter.writeGeoJson(mLongRoute, 45, writer);
+		}
+		show("The gzip writer compresses the document",
+			bytes.size() < expected.length()
+			&& readAll(new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))).equals(expected));
+
+		expected = gpx(exporter, mLongRoute, 45);
+		bytes = new ByteArrayOutputStream();
+		try (Writer writer = RouteExporter.newChannelWriter(Channels.newChannel(bytes))) {
+			exporter.writeGpx(mLongRoute, 45, writer);
+		}
+		show("The channel writer writes the document",
+			new String(bytes.toByteArray(), StandardCharsets.UTF_8).equals(expected));
+
+		Route hebrew = new Route(new GeoSegment("\u05d7\u05e0\u05d9\u05ea\u05d4", gpA, gpB));
+		bytes = new ByteArrayOutputStream();
+		try (Writer writer = RouteExporter.newChannelWriter(Channels.newChannel(bytes))) {
+			exporter.writeGeoJson(hebrew, 0, writer);
+		}
+		show("Documents are UTF-8", new String(bytes.toByteArray(), StandardCharsets.UTF_8)
+			.equals(geoJson(exporter, hebrew, 0)));
+
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> new RouteExporter(null),
+				() -> RouteExporter.newChannelWriter(null) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		for (double heading : new double[] { -1, 360 }) {
+			try {
+				exporter.writeGeoJson(mShortRoute, heading, new StringBuilder());
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			exporter.writeGpx(null, 0, new StringBuilder());
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			RouteExporter.newGzipWriter(null);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		show("Invalid arguments are rejected", rejected);
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		RouteExporterTest exporterTest = new RouteExporterTest();
+		exporterTest.testGeoJson();
+		exporterTest.testGpx();
+		exporterTest.testWriters();
+		if (exporterTest.mFailed)
+			System.exit(1);
+	}
+}
@@ -1,13 +1,32 @@
 package homework1;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * A RouteFormatter class knows how to create a textual description of
  * directions from one location to another. The class is abstract to
- * support different textual descriptions.
+ * support different textual descriptions: subclasses define the form of
+ * each line by implementing appendLine(), which computeLine() goes through
+ * unless a subclass overrides it.
  */
 public abstract class RouteFormatter {
 
+  	// Writes the numbers of the directions. It allocates nothing and is
+  	// thread-safe, so formatters can be shared between threads.
+  	final FixedPointFormat numberFormat = new FixedPointFormat();
+
+  	// Number of geographic features rendered by each parallel task.
+  	private static final int PARALLEL_CHUNK = 512;
+
+
   	/**
      * Give directions for following this Route, starting at its start point
      * and facing in the specified heading.
@@ -19,23 +38,175 @@ public abstract class RouteFormatter {
      * 	       human-readable directions from start to end along this route.
      **/
   	public String computeDirections(Route route, double heading) {
-  		// Implementation hint:
-		// This method should call computeLine() for each geographic
-		// feature in this route and concatenate the results into a single
-		// String.
+  		StringBuilder directions = new StringBuilder();
+  		try {
+  			computeDirections(route, heading, directions);
+  		} catch (IOException e) {
+  			throw new IllegalStateException("StringBuilder cannot fail", e);
+  		}
+  		return directions.toString();
+  	}
+
+
+  	/**
+     * Writes directions for following this Route, starting at its start
+     * point and facing in the specified heading, to a character sink.
+     * <p>
+     * The directions are written line by line as they are computed, with
+     * no intermediate Strings, so that long directions can be streamed to
+     * a file or a socket.
+     * @requires route != null && out != null &&
+     * 			0 <= heading < 360
+     * @param route the route for which to print directions.
+   	 * @param heading the initial heading.
+   	 * @param out the sink to write the directions to.
+     * @modifies out
+     * @effects appends to out the String computeDirections(route, heading).
+     * @throws IOException if out fails.
+     **/
+  	public void computeDirections(Route route, double heading, Appendable out) throws IOException {
   		if(route == null){
          throw new IllegalArgumentException("Route must not be null");
       }
       if(heading < 0 || heading >= 360) {
   			throw new IllegalArgumentException("heading must be between 0 and 360");
   		}
-  		StringBuffer directions = new StringBuffer();
+  		if (out == null) {
+  			throw new IllegalArgumentException("Appendable must not be null");
+  		}
+  		long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+  		DirectionsEvent event = FlightEvents.beginDirections();
+  		// the event is committed only if it was enabled from the start,
+  		// when the output began to be counted
+  		CountingAppendable counter = null;
+  		if (event != null && event.isEnabled()) {
+  			counter = new CountingAppendable(out);
+  			out = counter;
+  		}
   		Iterator<GeoFeature> it = route.getGeoFeatures();
   		while(it.hasNext()) {
   			GeoFeature geoFeature = it.next();
-  			directions.append(computeLine(geoFeature, heading));
+  			computeLine(geoFeature, heading, out);
   			heading = geoFeature.getEndHeading();
-  			
+  		}
+  		if (Metrics.ENABLED) {
+  			Instruments.DIRECTIONS_NANOS.record(System.nanoTime() - startTime);
+  			Instruments.DIRECTIONS_FEATURES.add(route.geoFeatures.size());
+  		}
+  		if (counter != null && event.shouldCommit()) {
+  			event.formatter = getClass();
+  			event.segmentCount = route.geoSegments.size();
+  			event.featureCount = route.geoFeatures.size();
+  			event.outputLength = counter.count;
+  			event.commit();
+  		}
+  	}
+
+
+  	/**
+     * Give directions for following this Route, like computeDirections(),
+     * rendering the lines on the common fork-join pool.
+     * @requires route != null && 
+     * 			0 <= heading < 360
+     * @param route the route for which to print directions.
+   	 * @param heading the initial heading.
+     * @return computeDirections(route, heading).
+     **/
+  	public String computeDirectionsParallel(Route route, double heading) {
+  		return computeDirectionsParallel(route, heading, ForkJoinPool.commonPool());
+  	}
+
+
+  	/**
+     * Give directions for following this Route, like computeDirections(),
+     * rendering the lines on a fork-join pool.
+     * <p>
+     * The heading at the start of each geographic feature is the end
+     * heading of the previous one, so all of them are known up front. The
+     * features are split into chunks that are rendered concurrently into
+     * separate buffers, which are then concatenated in order; the result is
+     * identical to that of the sequential computeDirections(). Short routes
+     * are rendered sequentially.
+     * <p>
+     * Subclasses used with this method must allow appendLine() to be called
+     * from several threads at once, as the formatters of this package do.
+     * <p>
+     * The call is measured, and recorded by the Flight Recorder, as a call
+     * to computeDirections() is.
+     * @requires route != null && pool != null &&
+     * 			0 <= heading < 360
+     * @param route the route for which to print directions.
+   	 * @param heading the initial heading.
+   	 * @param pool the pool to render the lines on.
+     * @return computeDirections(route, heading).
+     **/
+  	public String computeDirectionsParallel(Route route, double heading, ForkJoinPool pool) {
+  		if (route == null || pool == null) {
+  			throw new IllegalArgumentException("Route and pool must not be null");
+  		}
+  		if (heading < 0 || heading >= 360) {
+  			throw new IllegalArgumentException("heading must be between 0 and 360");
+  		}
+  		GeoFeature[] features = route.geoFeatures.toArray(new GeoFeature[0]);
+  		if (features.length < 2 * PARALLEL_CHUNK) {
+  			return computeDirections(route, heading);
+  		}
+  		long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+  		DirectionsEvent event = FlightEvents.beginDirections();
+  		double[] headings = new double[features.length];
+  		headings[0] = heading;
+  		for (int i = 1; i < features.length; i++) {
+  			headings[i] = features[i - 1].getEndHeading();
+  		}
+
+  		int chunks = (features.length + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+  		List<RecursiveTask<StringBuilder>> tasks = new ArrayList<RecursiveTask<StringBuilder>>(chunks);
+  		for (int c = 0; c < chunks; c++) {
+  			int from = c * PARALLEL_CHUNK;
+  			int to = Math.min(from + PARALLEL_CHUNK, features.length);
+  			tasks.add(new RecursiveTask<StringBuilder>() {
+  				private static final long serialVersionUID = 1L;
+
+  				protected StringBuilder compute() {
+  					StringBuilder lines = new StringBuilder();
+  					try {
+  						for (int i = from; i < to; i++) {
+  							computeLine(features[i], headings[i], lines);
+  						}
+  					} catch (IOException e) {
+  						throw new IllegalStateException("StringBuilder cannot fail", e);
+  					}
+  					return lines;
+  				}
+  			});
+  		}
+  		pool.invoke(new RecursiveAction() {
+  			private static final long serialVersionUID = 1L;
+
+  			protected void compute() {
+  				ForkJoinTask.invokeAll(tasks);
+  			}
+  		});
+
+  		int length = 0;
+  		for (RecursiveTask<StringBuilder> task : tasks) {
+  			length += task.join().length();
+  		}
+  		StringBuilder directions = new StringBuilder(length);
+  		for (RecursiveTask<StringBuilder> task : tasks) {
+  			directions.append(task.join());
+  		}
+  		if (Metrics.ENABLED) {
+  			Instruments.DIRECTIONS_NANOS.record(System.nanoTime() - startTime);
+  			Instruments.DIRECTIONS_FEATURES.add(features.length);
+  		}
+  		if (event != null && event.shouldCommit()) {
+  			event.formatter = getClass();
+  			event.parallel = true;
+  			event.segmentCount = route.geoSegments.size();
+  			event.featureCount = features.length;
+  			event.outputLength = length;
+  			event.commit();
   		}
   		return directions.toString();
   	}
@@ -45,13 +216,57 @@ public abstract class RouteFormatter {
      * Computes a single line of a multi-line directions String that
      * represents the instructions for traversing a single geographic
      * feature.
-     * @requires geoFeature != null
+     * <p>
+     * The line is the one written by computeLine(geoFeature, origHeading, out),
+     * through which the directions are computed; a subclass overriding this
+     * method should override that one to match.
+     * @requires geoFeature != null && 0 <= origHeading < 360
      * @param geoFeature the geographical feature to traverse.
    	 * @param origHeading the initial heading.
      * @return A newline-terminated <tt>String</tt> that gives directions
      * 		   on how to traverse this geographic feature.
      */
-  	public abstract String computeLine(GeoFeature geoFeature, double origHeading);
+  	public String computeLine(GeoFeature geoFeature, double origHeading) {
+  		StringBuilder line = new StringBuilder();
+  		try {
+  			computeLine(geoFeature, origHeading, line);
+  		} catch (IOException e) {
+  			throw new IllegalStateException("StringBuilder cannot fail", e);
+  		}
+  		return line.toString();
+  	}
+
+
+  	/**
+     * Writes a single line of directions that represents the instructions
+     * for traversing a single geographic feature to a character sink.
+     * <p>
+     * The line is written by appendLine(), with the turn from origHeading to
+     * the start heading of geoFeature.
+     * @requires geoFeature != null && out != null &&
+     * 			0 <= origHeading < 360
+     * @param geoFeature the geographical feature to traverse.
+   	 * @param origHeading the initial heading.
+   	 * @param out the sink to write the line to.
+     * @modifies out
+     * @effects appends to out the String computeLine(geoFeature, origHeading).
+     * @throws IOException if out fails.
+     */
+  	public void computeLine(GeoFeature geoFeature, double origHeading, Appendable out)
+  			throws IOException {
+  		if (geoFeature == null) {
+  			throw new IllegalArgumentException("GeoFeature must not be null");
+  		}
+  		if (origHeading < 0 || origHeading >= 360) {
+  			throw new IllegalArgumentException("heading must be between 0 and 360");
+  		}
+  		long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+  		TurnType turn = TurnType.classify(origHeading, geoFeature.getStartHeading());
+  		appendLine(turn, geoFeature.getName(), geoFeature.getLength(), out);
+  		if (Metrics.ENABLED) {
+  			Instruments.LINE_NANOS.record(System.nanoTime() - startTime);
+  		}
+  	}
 
 
   	/**
@@ -72,34 +287,72 @@ public abstract class RouteFormatter {
      * U-turn               if 179 <= a
      * </pre>
      * and likewise for left turns.
+     * @see homework1.TurnType
      */
   	protected String getTurnString(double origHeading, double newHeading) {
-  		if (origHeading < 0 || origHeading >= 360) {
-  			throw new IllegalArgumentException("origHeading must be between 0 and 360");
-  		}
-  		if (newHeading < 0 || newHeading >= 360) {
-  			throw new IllegalArgumentException("newHeading must be between 0 and 360");
-  		}
-  		double angle = Math.abs(newHeading - origHeading);
-  		if (angle < 10) {
-  			return "Continue";
-  		} else if (angle < 60) {
-  			return "Turn slight right";
-  		} else if (angle < 120) {
-  			return "Turn right";
-  		} else if (angle < 179) {
-  			return "Turn sharp right";
-  		} else if (angle < 181) {
-  			return "U-turn";
-  		} else if (angle < 240) {
-  			return "Turn sharp left";
-  		} else if (angle < 300) {
-  			return "Turn left";
-  		} else if (angle < 350) {
-  			return "Turn slight left";
-  		} else {
-  			return "Continue";
-  		}
+  		return TurnType.classify(origHeading, newHeading).getDescription();
+  	}
+
+
+  	/**
+     * Writes the line of directions for a geographic feature to a character
+     * sink. Subclasses define the textual form of the directions by
+     * implementing this method.
+     * @requires turn != null && name != null && length >= 0 && out != null
+     * @param turn the turn taken onto the geographic feature.
+     * @param name the name of the geographic feature.
+     * @param length the length of the geographic feature, in kilometers.
+     * @param out the sink to write the line to.
+     * @modifies out
+     * @effects appends to out a newline-terminated line that gives
+     * 		    directions on how to traverse the geographic feature.
+     * @throws IOException if out fails.
+     */
+  	protected abstract void appendLine(TurnType turn, String name, double length, Appendable out)
+  			throws IOException;
+
+
+  	/**
+  	 * The instruments of RouteFormatter, registered with Metrics only once
+  	 * measuring is on and directions are computed.
+  	 */
+  	private static final class Instruments {
+  		static final LogHistogram DIRECTIONS_NANOS = Metrics.histogram("formatter_directions_nanos");
+  		static final LongAdder DIRECTIONS_FEATURES = Metrics.counter("formatter_directions_features");
+  		static final LogHistogram LINE_NANOS = Metrics.histogram("formatter_line_nanos");
   	}
 
+
+  	/**
+  	 * A CountingAppendable passes characters on to another Appendable and
+  	 * counts them.
+  	 */
+  	private static final class CountingAppendable implements Appendable {
+  		private final Appendable out;
+  		long count;
+
+  		CountingAppendable(Appendable out) {
+  			this.out = out;
+  		}
+
+  		public Appendable append(CharSequence csq) throws IOException {
+  			CharSequence chars = csq == null ? "null" : csq;
+  			out.append(chars);
+  			count += chars.length();
+  			return this;
+  		}
+
+  		public Appendable append(CharSequence csq, int start, int end) throws IOException {
+  			CharSequence chars = csq == null ? "null" : csq;
+  			out.append(chars, start, end);
+  			count += end - start;
+  			return this;
+  		}
+
+  		public Appendable append(char c) throws IOException {
+  			out.append(c);
+  			count++;
+  			return this;
+  		}
+  	}
 }
@@ -3,6 +3,10 @@ package homework1;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 
 
@@ -17,14 +21,28 @@ public class RouteFormatterGUI extends JPanel {
 
 	private static final long serialVersionUID = 1L;
 
+	// walking and driving directions, computed in a single pass
+	private static final MultiModeRouteFormatter DIRECTIONS =
+			new MultiModeRouteFormatter(new WalkingRouteFormatter(), new DrivingRouteFormatter());
+
 	private Route route = null;				// Route shown in this
 
+	// Segments added but not yet part of route, guarded by itself. They are
+	// appended to route, and the directions recomputed, by a DirectionsWorker
+	// off the event dispatch thread; segments added while it is busy are
+	// appended together on its next round.
+	private final List<GeoSegment> pendingSegments = new ArrayList<GeoSegment>();
+	private GeoPoint pendingEnd = null;		// end of route and pendingSegments
+	private DirectionsWorker worker = null;	// running worker, if any
+
 	private GeoSegmentsDialog dlgSegments;	// secondary window
 
 	// some of the controls contained in this
 	private JList<GeoSegment> lstSegments;
+	private RouteSegmentsListModel segmentsModel;
 	private JTextArea txtWalkingDirections;
 	private JTextArea txtDrivingDirections;
+	private MapPanel pnlMap;
 
 
 	/**
@@ -38,8 +56,12 @@ public class RouteFormatterGUI extends JPanel {
 		dlgSegments.pack();
 
 		// create components
-		lstSegments = new JList<>(new DefaultListModel<GeoSegment>());
+		segmentsModel = new RouteSegmentsListModel();
+		lstSegments = new JList<>(segmentsModel);
 		lstSegments.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		// fixed cells, so that long routes are not measured row by row
+		lstSegments.setPrototypeCellValue(ExampleGeoSegments.segments[0]);
+		lstSegments.setFixedCellWidth(600);
 		JScrollPane scrlSegments = new JScrollPane(lstSegments);
 		scrlSegments.setPreferredSize(new Dimension(450, 100));
 
@@ -131,32 +153,178 @@ public class RouteFormatterGUI extends JPanel {
 		c.anchor = GridBagConstraints.SOUTH;
 		gridbag.setConstraints(btnAddSegment, c);
 		this.add(btnAddSegment);
+
+		// map of the example network, with the route drawn over it
+		pnlMap = new MapPanel(new MapGeometry(Arrays.asList(ExampleGeoSegments.segments)));
+		c.gridx = 0;
+		c.gridy = 6;
+		c.gridwidth = 3;
+		c.gridheight = 1;
+		c.insets = new Insets(20,0,0,0);
+		c.anchor = GridBagConstraints.CENTER;
+		gridbag.setConstraints(pnlMap, c);
+		this.add(pnlMap);
 	}
 
 
 	/**
 	 * Add new segment to the Route shown by this.
-	 * @requires segments != null && segment.p1 == this.route.end
+	 * @requires called on the event dispatch thread
 	 * @effects Add new segment to the end of the route shown by this as
 	 * 			defined by Route.addSegment(). In addition, updates the
 	 * 			walking direction and the driving direction of the GUI
 	 * 			with the return value of
-	 * 			RouteDirection.computeDirections(this.route,0)
+	 * 			RouteDirection.computeDirections(this.route,0).
+	 * 			The route and directions are computed in the background
+	 * 			and shown when ready.
+	 * @throws IllegalArgumentException if segment == null or segment.p1
+	 * 			is not the end of the route, including the segments
+	 * 			added before.
 	 */
 	public void addSegment(GeoSegment segment) {
-		DefaultListModel<GeoSegment> model =
-				(DefaultListModel<GeoSegment>)(this.lstSegments.getModel());
-		
-		if (route == null) {
-            route = new Route(segment);
-        } else {
-            route = route.addSegment(segment);   
-        }
-		model.addElement(segment); 
-		WalkingRouteFormatter walkingDirection = new WalkingRouteFormatter();
-        txtWalkingDirections.setText(walkingDirection.computeDirections(route, 0));
-		DrivingRouteFormatter drivingDirection = new DrivingRouteFormatter();
-        txtDrivingDirections.setText(drivingDirection.computeDirections(route, 0));
+		addSegments(List.of(segment));
+	}
+
+
+	/**
+	 * Add new segments to the Route shown by this.
+	 * @requires called on the event dispatch thread
+	 * @effects Like calling addSegment() on every element of segments, in
+	 * 			order.
+	 * @throws IllegalArgumentException if segments is null, contains null
+	 * 			or does not continue the route; then nothing is added.
+	 */
+	public void addSegments(List<GeoSegment> segments) {
+		if (segments == null) {
+			throw new IllegalArgumentException("GeoSegments cannot be null");
+		}
+		// validate here, as the route itself is extended in the background
+		GeoPoint end = pendingEnd;
+		for (GeoSegment segment : segments) {
+			if (segment == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			if (end != null && !end.equals(segment.getP1())) {
+				throw new IllegalArgumentException("GeoSegment does not match");
+			}
+			end = segment.getP2();
+		}
+		if (segments.isEmpty()) {
+			return;
+		}
+		pendingEnd = end;
+		synchronized (pendingSegments) {
+			pendingSegments.addAll(segments);
+		}
+		if (worker == null) {
+			worker = new DirectionsWorker(route);
+			worker.execute();
+		}
+	}
+
+
+	/**
+	 * Shows a route and its directions, unless a longer route is shown.
+	 */
+	private void showDirections(Directions directions) {
+		if (directions.route == null || (route != null
+				&& directions.route.geoSegments.size() <= route.geoSegments.size())) {
+			return;
+		}
+		route = directions.route;
+		segmentsModel.setRoute(route);
+		txtWalkingDirections.setText(directions.text[0]);
+		txtDrivingDirections.setText(directions.text[1]);
+		pnlMap.setRoute(route);
+	}
+
+
+	/**
+	 * A route together with its walking and driving directions.
+	 */
+	private static class Directions {
+		final Route route;
+		final String[] text;
+
+		Directions(Route route, String[] text) {
+			this.route = route;
+			this.text = text;
+		}
+	}
+
+
+	/**
+	 * A DirectionsWorker appends the pending segments to the route and
+	 * computes its directions, until no segment is pending. Each round takes
+	 * all the segments added so far, so a burst of additions costs a single
+	 * computation of the directions.
+	 */
+	private class DirectionsWorker extends SwingWorker<Directions, Directions> {
+		private Route current;
+
+		DirectionsWorker(Route route) {
+			this.current = route;
+		}
+
+		protected Directions doInBackground() {
+			Directions last = new Directions(current, null);
+			while (true) {
+				List<GeoSegment> batch;
+				synchronized (pendingSegments) {
+					if (pendingSegments.isEmpty()) {
+						return last;
+					}
+					batch = new ArrayList<GeoSegment>(pendingSegments);
+					pendingSegments.clear();
+				}
+				if (current == null) {
+					current = new Route(batch.get(0));
+					batch = batch.subList(1, batch.size());
+				}
+				current = current.addSegments(batch);
+				last = new Directions(current, DIRECTIONS.computeDirections(current, 0));
+				publish(last);
+			}
+		}
+
+		protected void process(List<Directions> chunks) {
+			// rounds that arrive after done() are either shown by it or failed
+			if (worker == this) {
+				showDirections(chunks.get(chunks.size() - 1));
+			}
+		}
+
+		protected void done() {
+			worker = null;
+			try {
+				Directions last = get();
+				if (last.text != null) {
+					showDirections(last);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// drop the segments that were not shown, so that new ones are
+				// validated against the end of the route shown
+				synchronized (pendingSegments) {
+					pendingSegments.clear();
+				}
+				pendingEnd = route == null ? null : route.getEnd();
+				JOptionPane.showMessageDialog(RouteFormatterGUI.this,
+						"Cannot compute directions: " + e.getCause(),
+						"Directions failed",
+						JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			// segments added after the last round was taken
+			synchronized (pendingSegments) {
+				if (pendingSegments.isEmpty()) {
+					return;
+				}
+			}
+			worker = new DirectionsWorker(route);
+			worker.execute();
+		}
 	}
 
 
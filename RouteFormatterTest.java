@@ -0,0 +1,187 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class RouteFormatterTest {
+
+	private Route mTechnionRoute;
+	private Route mLongRoute;
+	private Route[] mParallelRoutes;
+	private RouteFormatter[] mFormatters;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public RouteFormatterTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		// around the Technion: Hankin Road, Trumpeldor Avenue, Hagalil,
+		// Hanita, Simha Golan Road, Ruppin Road and back along Hankin Road
+		mTechnionRoute = new Route(segments[0]);
+		for (int i : new int[] { 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnionRoute = mTechnionRoute.addSegment(segments[i]);
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 7), 5000, 7);
+		mLongRoute = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		mFormatters = new RouteFormatter[] {
+			new WalkingRouteFormatter(),
+			new DrivingRouteFormatter() };
+
+		// long enough for computeDirectionsParallel() to split into chunks:
+		// exactly 1024 features, and a few thousand in a grid and in a
+		// random planar network
+		walk = SyntheticNetworks.randomWalk(SyntheticNetworks.grid(20000, 7), 20000, 7);
+		Route exact = new Route(walk.get(0));
+		for (int i = 1; exact.geoFeatures.size() < 1024; i++)
+			exact = exact.addSegment(walk.get(i));
+		Route grid = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		walk = SyntheticNetworks.randomWalk(SyntheticNetworks.randomPlanar(20000, 7), 5000, 7);
+		Route planar = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		mParallelRoutes = new Route[] { exact, grid, planar };
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	/**
+	 * @return the directions of route computed one computeLine() at a time.
+	 */
+	private static String byLines(RouteFormatter formatter, Route route, double heading) {
+		StringBuilder sb = new StringBuilder();
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			GeoFeature gf = it.next();
+			sb.append(formatter.computeLine(gf, heading));
+			heading = gf.getEndHeading();
+		}
+		return sb.toString();
+	}
+
+
+	public void testAppendable() throws IOException {
+		for (RouteFormatter formatter : mFormatters) {
+			String name = formatter.getClass().getSimpleName();
+			show(name);
+			for (Route route : new Route[] { mTechnionRoute, mLongRoute }) {
+				String expected = formatter.computeDirections(route, 45);
+				StringBuilder sb = new StringBuilder();
+				formatter.computeDirections(route, 45, sb);
+				StringWriter writer = new StringWriter();
+				formatter.computeDirections(route, 45, writer);
+				String size = route.geoFeatures.size() + " features";
+				show("StringBuilder sink matches String (" + size + ")",
+					sb.toString().equals(expected));
+				show("Writer sink matches String (" + size + ")",
+					writer.toString().equals(expected));
+				show("computeLine() one feature at a time matches (" + size + ")",
+					byLines(formatter, route, 45).equals(expected));
+			}
+			GeoFeature gf = mTechnionRoute.getGeoFeatures().next();
+			StringBuilder line = new StringBuilder("prefix ");
+			formatter.computeLine(gf, 200, line);
+			show("computeLine() appends to the sink",
+				line.toString().equals("prefix " + formatter.computeLine(gf, 200)));
+		}
+
+		show("Lines");
+		show("Walking lines",
+			new WalkingRouteFormatter().computeDirections(mTechnionRoute, 0).equals(
+				"Turn slight right onto Hankin Road and walk for 2 minutes.\n"
+				+ "Turn slight right onto Trumpeldor Avenue and walk for 15 minutes.\n"
+				+ "Turn left onto Hagalil and walk for 27 minutes.\n"
+				+ "Turn sharp left onto Hanita and walk for 23 minutes.\n"
+				+ "Turn sharp right onto Simha Golan Road and walk for 26 minutes.\n"
+				+ "Turn slight left onto Ruppin Road and walk for 11 minutes.\n"
+				+ "Turn left onto Hankin Road and walk for 31 minutes.\n"));
+		show("Driving lines",
+			new DrivingRouteFormatter().computeDirections(mTechnionRoute, 0).equals(
+				"Turn slight right onto Hankin Road and go 0.1 kilometers.\n"
+				+ "Turn slight right onto Trumpeldor Avenue and go 0.7 kilometers.\n"
+				+ "Turn left onto Hagalil and go 1.4 kilometers.\n"
+				+ "Turn sharp left onto Hanita and go 1.2 kilometers.\n"
+				+ "Turn sharp right onto Simha Golan Road and go 1.3 kilometers.\n"
+				+ "Turn slight left onto Ruppin Road and go 0.6 kilometers.\n"
+				+ "Turn left onto Hankin Road and go 1.6 kilometers.\n"));
+		boolean turns = true;
+		for (double heading = 0; heading < 360; heading += 7.5) {
+			if (!new DrivingRouteFormatter().getTurnString(90, heading)
+					.equals(TurnType.classify(90, heading).getDescription()))
+				turns = false;
+		}
+		show("getTurnString() describes the turn", turns);
+		RouteFormatter shouting = new DrivingRouteFormatter() {
+			public void computeLine(GeoFeature geoFeature, double origHeading, Appendable out)
+					throws IOException {
+				out.append(getTurnString(origHeading, geoFeature.getStartHeading()).toUpperCase())
+					.append('\n');
+			}
+
+			public String computeLine(GeoFeature geoFeature, double origHeading) {
+				return getTurnString(origHeading, geoFeature.getStartHeading()).toUpperCase() + "\n";
+			}
+		};
+		show("Subclasses can override computeLine()",
+			shouting.computeDirections(mTechnionRoute, 0).startsWith("TURN SLIGHT RIGHT\nTURN SLIGHT RIGHT\n")
+			&& byLines(shouting, mTechnionRoute, 0).equals(shouting.computeDirections(mTechnionRoute, 0)));
+		boolean rejected;
+		try {
+			new WalkingRouteFormatter().computeDirections(mTechnionRoute, 0, null);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("A null sink is rejected", rejected);
+	}
+
+
+	public void testParallel() {
+		RouteFormatter[] formatters = {
+			new WalkingRouteFormatter(),
+			new DrivingRouteFormatter(),
+			new TemplateRouteFormatter("{turn} onto {name}: {km:0.0} km, {min:driving} min.") };
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			for (RouteFormatter formatter : formatters) {
+				show("computeDirectionsParallel(), " + formatter.getClass().getSimpleName());
+				for (Route route : mParallelRoutes) {
+					String size = route.geoFeatures.size() + " features";
+					String expected = formatter.computeDirections(route, 90);
+					show("Common pool matches computeDirections() (" + size + ")",
+						formatter.computeDirectionsParallel(route, 90).equals(expected));
+					show("Three threads match computeDirections() (" + size + ")",
+						formatter.computeDirectionsParallel(route, 90, pool).equals(expected));
+				}
+				show("Short routes match computeDirections()",
+					formatter.computeDirectionsParallel(mTechnionRoute, 0)
+						.equals(formatter.computeDirections(mTechnionRoute, 0)));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		RouteFormatterTest formatterTest = new RouteFormatterTest();
+		formatterTest.testAppendable();
+		formatterTest.testParallel();
+		if (formatterTest.mFailed)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,93 @@
+package homework1;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * A ListModel of the GeoSegments of a Route, for showing long routes in a
+ * JList.
+ * <p>
+ * The model holds no copy of the segments: its elements are read from the
+ * immutable segment list of the Route when the JList paints them, and
+ * replacing the Route by one that extends it only announces the appended
+ * segments. Showing a route of any length therefore costs nothing beyond
+ * the rows that are visible, provided the JList has a fixed cell height and
+ * width, so that it need not measure every row.
+ */
+public class RouteSegmentsListModel extends AbstractListModel<GeoSegment> {
+
+	private static final long serialVersionUID = 1L;
+
+	private Route route = null;
+
+	// Abs. Function: the sequence route.geoSegments, or the empty sequence
+	// if route == null.
+	// Rep. Invariant: true
+
+	/**
+	 * Returns the route shown by this.
+	 *
+	 * @return the Route whose segments are the elements of this, or null if
+	 *         this is empty.
+	 */
+	public Route getRoute() {
+		return route;
+	}
+
+	/**
+	 * Shows another route.
+	 *
+	 * @requires called on the event dispatch thread
+	 * @modifies this
+	 * @effects makes the segments of newRoute the elements of this, or
+	 *          makes this empty if newRoute == null, and notifies the
+	 *          listeners of this.
+	 */
+	public void setRoute(Route newRoute) {
+		Route oldRoute = route;
+		int oldSize = getSize();
+		route = newRoute;
+		int newSize = getSize();
+		if (oldRoute != null && newRoute != null && isExtension(newRoute, oldRoute)) {
+			if (newSize > oldSize) {
+				fireIntervalAdded(this, oldSize, newSize - 1);
+			}
+			return;
+		}
+		if (oldSize > 0) {
+			fireIntervalRemoved(this, 0, oldSize - 1);
+		}
+		if (newSize > 0) {
+			fireIntervalAdded(this, 0, newSize - 1);
+		}
+	}
+
+	/**
+	 * Returns the number of segments shown.
+	 *
+	 * @return the number of GeoSegments of the route, or 0 if there is none.
+	 */
+	public int getSize() {
+		return route == null ? 0 : route.geoSegments.size();
+	}
+
+	/**
+	 * Returns a segment.
+	 *
+	 * @requires 0 <= index < getSize()
+	 * @return the index-th GeoSegment of the route.
+	 */
+	public GeoSegment getElementAt(int index) {
+		return route.geoSegments.get(index);
+	}
+
+	/**
+	 * Returns whether longer starts with the segments of shorter. Routes are
+	 * only ever extended, so comparing the last segment of shorter suffices.
+	 */
+	private static boolean isExtension(Route longer, Route shorter) {
+		int n = shorter.geoSegments.size();
+		return longer.geoSegments.size() >= n
+				&& longer.geoSegments.get(n - 1) == shorter.geoSegments.get(n - 1)
+				&& longer.start.equals(shorter.start);
+	}
+}
@@ -0,0 +1,192 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RouteTest {
+
+	private GeoSegment[] mTechnion;
+	private List<List<GeoSegment>> mWalks;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public RouteTest() {
+		GeoSegment[] segments = ExampleGeoSegments.segments;
+		// Hankin Road, Trumpeldor Avenue, Hagalil, Hanita, Simha Golan Road,
+		// Ruppin Road and back along Hankin Road
+		mTechnion = new GeoSegment[12];
+		int k = 0;
+		for (int i : new int[] { 0, 1, 2, 3, 4, 5, 7, 8, 9, 10, 11, 12 })
+			mTechnion[k++] = segments[i];
+		mWalks = new ArrayList<List<GeoSegment>>();
+		mWalks.add(Arrays.asList(mTechnion));
+		mWalks.add(SyntheticNetworks.randomWalk(SyntheticNetworks.grid(2000, 19), 500, 19));
+		mWalks.add(SyntheticNetworks.randomWalk(SyntheticNetworks.radial(2000, 19), 500, 19));
+		mWalks.add(SyntheticNetworks.randomWalk(SyntheticNetworks.randomPlanar(2000, 19), 500, 19));
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	/**
+	 * @return true iff a and b agree on every specification field.
+	 */
+	private static boolean same(GeoFeature a, GeoFeature b) {
+		return a.equals(b) && a.getStart().equals(b.getStart()) && a.getEnd().equals(b.getEnd())
+			&& a.getStartHeading() == b.getStartHeading() && a.getEndHeading() == b.getEndHeading()
+			&& a.getLength() == b.getLength();
+	}
+
+
+	/**
+	 * @return true iff a and b agree on every specification field.
+	 */
+	private static boolean same(Route a, Route b) {
+		if (!a.equals(b) || !a.getStart().equals(b.getStart()) || !a.getEnd().equals(b.getEnd())
+				|| a.getStartHeading() != b.getStartHeading() || a.getEndHeading() != b.getEndHeading()
+				|| a.getLength() != b.getLength() || a.geoFeatures.size() != b.geoFeatures.size())
+			return false;
+		for (int i = 0; i < a.geoFeatures.size(); i++) {
+			if (!same(a.geoFeatures.get(i), b.geoFeatures.get(i)))
+				return false;
+		}
+		return true;
+	}
+
+
+	private static Route oneByOne(Route route, List<GeoSegment> gss) {
+		for (GeoSegment gs : gss)
+			route = route.addSegment(gs);
+		return route;
+	}
+
+
+	private static boolean rejects(Route route, List<GeoSegment> gss) {
+		try {
+			route.addSegments(gss);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	private static boolean rejects(GeoFeature gf, List<GeoSegment> gss) {
+		try {
+			gf.addSegments(gss);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	public void testRouteAddSegments() {
+		show("Route.addSegments()");
+		boolean whole = true;
+		boolean chunks = true;
+		for (List<GeoSegment> walk : mWalks) {
+			Route first = new Route(walk.get(0));
+			List<GeoSegment> rest = walk.subList(1, walk.size());
+			Route expected = oneByOne(first, rest);
+			if (!same(first.addSegments(rest), expected))
+				whole = false;
+			for (int size : new int[] { 1, 2, 3, 7 }) {
+				Route route = first;
+				for (int i = 0; i < rest.size(); i += size)
+					route = route.addSegments(rest.subList(i, Math.min(i + size, rest.size())));
+				if (!same(route, expected))
+					chunks = false;
+			}
+		}
+		show("Matches repeated addSegment()", whole);
+		show("Matches it in chunks of any size", chunks);
+
+		// Trumpeldor Avenue is made of two segments: the second one, and the
+		// first segment of Hagalil, are added together
+		Route trumpeldor = new Route(mTechnion[0]).addSegment(mTechnion[1]);
+		Route merged = trumpeldor.addSegments(List.of(mTechnion[2], mTechnion[3]));
+		show("A segment of the same name merges into the last feature",
+			same(merged, trumpeldor.addSegment(mTechnion[2]).addSegment(mTechnion[3]))
+			&& merged.geoFeatures.size() == 3);
+		Route back = new Route(mTechnion[0]).addSegments(Arrays.asList(mTechnion).subList(1, 10));
+		show("A run merges into the last feature",
+			same(back.addSegments(List.of(mTechnion[10], mTechnion[11])),
+				back.addSegment(mTechnion[10]).addSegment(mTechnion[11])));
+		Route hankin = new Route(mTechnion[0]);
+		show("No segments give the same Route", hankin.addSegments(new ArrayList<GeoSegment>()) == hankin);
+
+		show("Errors");
+		Route route = new Route(mTechnion[0]);
+		List<GeoSegment> withNull = new ArrayList<GeoSegment>();
+		withNull.add(mTechnion[1]);
+		withNull.add(null);
+		show("null is rejected", rejects(route, null) && rejects(route, withNull));
+		show("A first segment that does not continue the route is rejected",
+			rejects(route, List.of(mTechnion[2], mTechnion[3])));
+		show("A later segment that does not continue is rejected",
+			rejects(route, List.of(mTechnion[1], mTechnion[3])));
+		show("A rejected call leaves the route unchanged",
+			same(route, new Route(mTechnion[0])));
+	}
+
+
+	public void testFeatureAddSegments() {
+		show("GeoFeature.addSegments()");
+		boolean runs = true;
+		for (List<GeoSegment> walk : mWalks) {
+			int i = 0;
+			while (i < walk.size()) {
+				int j = i + 1;
+				while (j < walk.size() && walk.get(j).getName().equals(walk.get(i).getName()))
+					j++;
+				GeoFeature gf = new GeoFeature(walk.get(i));
+				GeoFeature expected = gf;
+				for (GeoSegment gs : walk.subList(i + 1, j))
+					expected = expected.addSegment(gs);
+				if (j > i + 1 && !same(gf.addSegments(walk.subList(i + 1, j)), expected))
+					runs = false;
+				i = j;
+			}
+		}
+		show("Matches repeated addSegment()", runs);
+
+		GeoFeature hankin = new GeoFeature(mTechnion[0]);
+		GeoFeature trumpeldor = new GeoFeature(mTechnion[1]);
+		List<GeoSegment> withNull = new ArrayList<GeoSegment>();
+		withNull.add(mTechnion[2]);
+		withNull.add(null);
+		show("null and empty lists are rejected",
+			rejects(hankin, null) && rejects(hankin, new ArrayList<GeoSegment>())
+			&& rejects(trumpeldor, withNull));
+		show("A segment of another name is rejected",
+			rejects(hankin, List.of(mTechnion[1])));
+		show("A segment that does not continue the feature is rejected",
+			rejects(trumpeldor, List.of(mTechnion[1])));
+	}
+
+
+	public static void main(String[] args) {
+		RouteTest routeTest = new RouteTest();
+		routeTest.testRouteAddSegments();
+		routeTest.testFeatureAddSegments();
+		if (routeTest.mFailed)
+			System.exit(1);
+	}
+}
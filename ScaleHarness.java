@@ -0,0 +1,164 @@
+package homework1;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * ScaleHarness measures how building and formatting Routes scales with
+ * their length, over SyntheticNetworks of growing size.
+ * <p>
+ * <b>Usage:</b>
+ *
+ * <pre>
+ *   java -Xmx8g -cp classes homework1.ScaleHarness [grid | radial | planar]
+ *       [maxSegments] [maxRouteLength] [seed]
+ * </pre>
+ *
+ * For each network size 10^3, 10^4, ... up to maxSegments (default 10^6),
+ * the harness generates a network, takes a random walk through it of
+ * min(size, maxRouteLength) segments (default 10^5), and then builds a Route
+ * of the walk one segment at a time with Route.addSegment and at once with
+ * Route.addSegments, and computes its walking and driving directions. It
+ * prints one line per size, giving for every step the time taken and the
+ * heap allocated, and for the network and the Route the heap they retain.
+ * A step whose cost grows faster than the size column, such as building a
+ * Route one segment at a time, is one to fix.
+ */
+public class ScaleHarness {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private static final String HEADER = String.format("%-7s %9s %8s | %8s %8s %8s | %8s %8s %8s"
+			+ " | %8s %8s | %8s %8s | %8s %8s | %8s %8s",
+			"network", "segments", "route",
+			"gen ms", "gen MB", "net MB",
+			"add ms", "add MB", "route MB",
+			"bulk ms", "bulk MB",
+			"walk ms", "walk MB",
+			"drive ms", "drive MB",
+			"out KB", "features");
+
+	// Allocated bytes of this thread when the last step started.
+	private static long stepAllocated;
+	private static long stepStart;
+
+	/**
+	 * Runs the harness.
+	 */
+	public static void main(String[] args) {
+		String kind = args.length > 0 ? args[0] : "planar";
+		int maxSegments = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		int maxRouteLength = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+		if (!kind.equals("grid") && !kind.equals("radial") && !kind.equals("planar")) {
+			System.err.println("usage: ScaleHarness [grid | radial | planar] [maxSegments] [maxRouteLength] [seed]");
+			System.exit(2);
+		}
+		enableAllocationCounting();
+
+		System.out.println(HEADER);
+		for (long size = 1000; size <= maxSegments; size *= 10) {
+			run(kind, (int) size, maxRouteLength, seed);
+		}
+	}
+
+	private static void run(String kind, int size, int maxRouteLength, long seed) {
+		long baseHeap = retainedHeap();
+		start();
+		GeoSegment[] network;
+		if (kind.equals("grid")) {
+			network = SyntheticNetworks.grid(size, seed);
+		} else if (kind.equals("radial")) {
+			network = SyntheticNetworks.radial(size, seed);
+		} else {
+			network = SyntheticNetworks.randomPlanar(size, seed);
+		}
+		String generate = stop();
+		long networkHeap = retainedHeap() - baseHeap;
+
+		List<GeoSegment> walk = SyntheticNetworks.randomWalk(network, Math.min(size, maxRouteLength), seed);
+
+		long walkHeap = retainedHeap();
+		start();
+		Route route = new Route(walk.get(0));
+		for (int i = 1; i < walk.size(); i++) {
+			route = route.addSegment(walk.get(i));
+		}
+		String add = stop();
+		long routeHeap = retainedHeap() - walkHeap;
+
+		start();
+		Route bulk = new Route(walk.get(0)).addSegments(walk.subList(1, walk.size()));
+		String addBulk = stop();
+		if (!bulk.equals(route)) {
+			throw new IllegalStateException("addSegments and addSegment built different Routes");
+		}
+
+		start();
+		String walking = new WalkingRouteFormatter().computeDirections(route, 0);
+		String formatWalking = stop();
+		start();
+		String driving = new DrivingRouteFormatter().computeDirections(route, 0);
+		String formatDriving = stop();
+
+		int features = 0;
+		for (int i = 0; i < driving.length(); i++) {
+			if (driving.charAt(i) == '\n') {
+				features++;
+			}
+		}
+		System.out.println(String.format("%-7s %9d %8d | %s %8.1f | %s %8.1f | %s | %s | %s | %8d %8d",
+				kind, network.length, walk.size(),
+				generate, networkHeap / 1e6,
+				add, routeHeap / 1e6,
+				addBulk, formatWalking, formatDriving,
+				(walking.length() + driving.length()) / 1000, features));
+	}
+
+	private static void enableAllocationCounting() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+			if (threads.isThreadAllocatedMemorySupported()) {
+				threads.setThreadAllocatedMemoryEnabled(true);
+			}
+		}
+	}
+
+	/**
+	 * Returns the bytes allocated by this thread so far, or 0 if this JVM
+	 * does not count them.
+	 */
+	private static long allocated() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	private static void start() {
+		stepAllocated = allocated();
+		stepStart = System.nanoTime();
+	}
+
+	/**
+	 * Returns the time taken and the heap allocated since start(), formatted
+	 * as two columns.
+	 */
+	private static String stop() {
+		long nanos = System.nanoTime() - stepStart;
+		long bytes = allocated() - stepAllocated;
+		return String.format("%8.1f %8.1f", nanos / 1e6, bytes / 1e6);
+	}
+
+	/**
+	 * Returns the bytes of heap in use after a full collection.
+	 */
+	private static long retainedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
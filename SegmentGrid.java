@@ -0,0 +1,239 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A SegmentGrid is a spatial index of straight lines between GeoPoints,
+ * such as GeoSegments, for finding those crossing a rectangle. SegmentGrids
+ * are immutable and may be queried from several threads at once.
+ * <p>
+ * The bounding box of the lines is divided into a uniform grid of cells,
+ * and each line is listed in every cell its own bounding box overlaps. A
+ * query visits the cells overlapping the rectangle; a line listed in
+ * several of them is reported only from the first, so no per-query state
+ * is needed to avoid duplicates. The lines are stored in primitive columns.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ *
+ * <pre>
+ *   lines : sequence       // the lines (lat1, lon1, lat2, lon2), in millionths of degrees
+ * </pre>
+ */
+public class SegmentGrid {
+
+	/**
+	 * A LineVisitor receives the lines found by a query.
+	 */
+	public interface LineVisitor {
+
+		/**
+		 * Receives a line, given in millionths of degrees.
+		 *
+		 * @param line the index of the line in the grid.
+		 */
+		void visit(int line, int lat1, int lon1, int lat2, int lon2);
+	}
+
+	// Average number of lines per cell the grid is sized for.
+	private static final int LINES_PER_CELL = 8;
+
+	private final int[] lat1;
+	private final int[] lon1;
+	private final int[] lat2;
+	private final int[] lon2;
+
+	private final int minLat;
+	private final int minLon;
+	private final int maxLat;
+	private final int maxLon;
+	private final int rows;
+	private final int columns;
+	private final long cellHeight;
+	private final long cellWidth;
+	// The lines of cell c are cellLines[cellStart[c] .. cellStart[c+1]).
+	private final int[] cellStart;
+	private final int[] cellLines;
+
+	// Abs. Function: lines[i] = (lat1[i], lon1[i], lat2[i], lon2[i])
+	// Rep. Invariant: the four columns have the same length && rows > 0 &&
+	// columns > 0 && cellStart.length == rows * columns + 1 && each line is
+	// listed in every cell its bounding box overlaps.
+
+	/**
+	 * Constructs a new SegmentGrid.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @effects Constructs a new SegmentGrid whose lines are the segments,
+	 *          in order.
+	 */
+	public SegmentGrid(GeoSegment[] segments) {
+		this(coordinates(segments, 0), coordinates(segments, 1), coordinates(segments, 2),
+				coordinates(segments, 3));
+	}
+
+	/**
+	 * Constructs a new SegmentGrid.
+	 *
+	 * @requires the arguments are non-null and have the same length
+	 * @effects Constructs a new SegmentGrid whose i-th line runs from
+	 *          (lat1[i], lon1[i]) to (lat2[i], lon2[i]). The arrays are
+	 *          used directly and must not be modified afterwards.
+	 */
+	public SegmentGrid(int[] lat1, int[] lon1, int[] lat2, int[] lon2) {
+		if (lat1 == null || lon1 == null || lat2 == null || lon2 == null) {
+			throw new IllegalArgumentException("Coordinates cannot be null");
+		}
+		int n = lat1.length;
+		if (lon1.length != n || lat2.length != n || lon2.length != n) {
+			throw new IllegalArgumentException("Coordinates must have the same length");
+		}
+		this.lat1 = lat1;
+		this.lon1 = lon1;
+		this.lat2 = lat2;
+		this.lon2 = lon2;
+
+		int loLat = Integer.MAX_VALUE;
+		int loLon = Integer.MAX_VALUE;
+		int hiLat = Integer.MIN_VALUE;
+		int hiLon = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			loLat = Math.min(loLat, Math.min(lat1[i], lat2[i]));
+			hiLat = Math.max(hiLat, Math.max(lat1[i], lat2[i]));
+			loLon = Math.min(loLon, Math.min(lon1[i], lon2[i]));
+			hiLon = Math.max(hiLon, Math.max(lon1[i], lon2[i]));
+		}
+		if (n == 0) {
+			loLat = hiLat = loLon = hiLon = 0;
+		}
+		minLat = loLat;
+		minLon = loLon;
+		maxLat = hiLat;
+		maxLon = hiLon;
+
+		// square-ish cells, about LINES_PER_CELL lines each
+		long height = (long) maxLat - minLat + 1;
+		long width = (long) maxLon - minLon + 1;
+		double cells = Math.max(1, n / (double) LINES_PER_CELL);
+		double side = Math.sqrt(height * (double) width / cells);
+		rows = (int) Math.max(1, Math.min(4096, Math.ceil(height / side)));
+		columns = (int) Math.max(1, Math.min(4096, Math.ceil(width / side)));
+		cellHeight = (height + rows - 1) / rows;
+		cellWidth = (width + columns - 1) / columns;
+
+		// count, then fill, the lines of each cell
+		cellStart = new int[rows * columns + 1];
+		for (int i = 0; i < n; i++) {
+			int r0 = row(Math.min(lat1[i], lat2[i]));
+			int r1 = row(Math.max(lat1[i], lat2[i]));
+			int c0 = column(Math.min(lon1[i], lon2[i]));
+			int c1 = column(Math.max(lon1[i], lon2[i]));
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					cellStart[r * columns + c + 1]++;
+				}
+			}
+		}
+		for (int c = 0; c < rows * columns; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		cellLines = new int[cellStart[rows * columns]];
+		int[] fill = Arrays.copyOf(cellStart, rows * columns);
+		for (int i = 0; i < n; i++) {
+			int r0 = row(Math.min(lat1[i], lat2[i]));
+			int r1 = row(Math.max(lat1[i], lat2[i]));
+			int c0 = column(Math.min(lon1[i], lon2[i]));
+			int c1 = column(Math.max(lon1[i], lon2[i]));
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					cellLines[fill[r * columns + c]++] = i;
+				}
+			}
+		}
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (lon1.length == lat1.length && lat2.length == lat1.length && lon2.length == lat1.length);
+		assert (rows > 0 && columns > 0 && cellStart.length == rows * columns + 1);
+	}
+
+	/**
+	 * Returns the number of lines.
+	 *
+	 * @return the length of lines.
+	 */
+	public int getLineCount() {
+		return lat1.length;
+	}
+
+	/**
+	 * Finds the lines whose bounding boxes overlap a rectangle.
+	 *
+	 * @requires visitor != null
+	 * @effects calls visitor.visit() once for every line whose bounding box
+	 *          overlaps the rectangle from (south, west) to (north, east),
+	 *          inclusive, and possibly for lines near it.
+	 */
+	public void query(int south, int west, int north, int east, LineVisitor visitor) {
+		if (visitor == null) {
+			throw new IllegalArgumentException("Visitor cannot be null");
+		}
+		if (lat1.length == 0 || north < minLat || south > maxLat || east < minLon || west > maxLon
+				|| north < south || east < west) {
+			return;
+		}
+		int r0 = row(Math.max(south, minLat));
+		int r1 = row(Math.min(north, maxLat));
+		int c0 = column(Math.max(west, minLon));
+		int c1 = column(Math.min(east, maxLon));
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int cell = r * columns + c;
+				for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+					int i = cellLines[k];
+					// report each line from the first queried cell listing it
+					int firstRow = Math.max(r0, row(Math.min(lat1[i], lat2[i])));
+					int firstColumn = Math.max(c0, column(Math.min(lon1[i], lon2[i])));
+					if (firstRow == r && firstColumn == c) {
+						visitor.visit(i, lat1[i], lon1[i], lat2[i], lon2[i]);
+					}
+				}
+			}
+		}
+	}
+
+	private int row(int lat) {
+		return (int) (((long) lat - minLat) / cellHeight);
+	}
+
+	private int column(int lon) {
+		return (int) (((long) lon - minLon) / cellWidth);
+	}
+
+	private static int[] coordinates(GeoSegment[] segments, int which) {
+		if (segments == null) {
+			throw new IllegalArgumentException("Segments cannot be null");
+		}
+		int[] values = new int[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			GeoSegment gs = segments[i];
+			if (gs == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			switch (which) {
+			case 0:
+				values[i] = gs.p1.latitude;
+				break;
+			case 1:
+				values[i] = gs.p1.longitude;
+				break;
+			case 2:
+				values[i] = gs.p2.latitude;
+				break;
+			default:
+				values[i] = gs.p2.longitude;
+			}
+		}
+		return values;
+	}
+}
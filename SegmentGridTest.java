@@ -0,0 +1,175 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SegmentGridTest {
+
+	private GeoSegment[] mSegments;
+	private SegmentGrid mGrid;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public SegmentGridTest() {
+		mSegments = SyntheticNetworks.randomPlanar(20000, 31);
+		mGrid = new SegmentGrid(mSegments);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static boolean overlaps(GeoSegment gs, int south, int west, int north, int east) {
+		return Math.max(gs.getP1().getLatitude(), gs.getP2().getLatitude()) >= south
+			&& Math.min(gs.getP1().getLatitude(), gs.getP2().getLatitude()) <= north
+			&& Math.max(gs.getP1().getLongitude(), gs.getP2().getLongitude()) >= west
+			&& Math.min(gs.getP1().getLongitude(), gs.getP2().getLongitude()) <= east;
+	}
+
+
+	/**
+	 * @return true iff a query of grid over the box visits every segment of
+	 *         segments overlapping it exactly once, with its coordinates, and
+	 *         no other segment more than once.
+	 */
+	private static boolean matchesBruteForce(SegmentGrid grid, GeoSegment[] segments,
+			int south, int west, int north, int east) {
+		int[] visits = new int[segments.length];
+		boolean[] coordinates = { true };
+		grid.query(south, west, north, east, (line, lat1, lon1, lat2, lon2) -> {
+			visits[line]++;
+			GeoSegment gs = segments[line];
+			if (lat1 != gs.getP1().getLatitude() || lon1 != gs.getP1().getLongitude()
+					|| lat2 != gs.getP2().getLatitude() || lon2 != gs.getP2().getLongitude())
+				coordinates[0] = false;
+		});
+		for (int i = 0; i < segments.length; i++) {
+			if (visits[i] > 1 || (visits[i] == 0 && overlaps(segments[i], south, west, north, east)))
+				return false;
+		}
+		return coordinates[0];
+	}
+
+
+	public void testQuery() {
+		show("query()");
+		int minLat = Integer.MAX_VALUE, maxLat = Integer.MIN_VALUE;
+		int minLon = Integer.MAX_VALUE, maxLon = Integer.MIN_VALUE;
+		for (GeoSegment gs : mSegments) {
+			for (GeoPoint p : new GeoPoint[] { gs.getP1(), gs.getP2() }) {
+				minLat = Math.min(minLat, p.getLatitude());
+				maxLat = Math.max(maxLat, p.getLatitude());
+				minLon = Math.min(minLon, p.getLongitude());
+				maxLon = Math.max(maxLon, p.getLongitude());
+			}
+		}
+		int height = maxLat - minLat;
+		int width = maxLon - minLon;
+		Random random = new Random(31);
+		boolean boxes = true;
+		for (int i = 0; i < 300; i++) {
+			// boxes from a point to a fifth of the network, some sticking out of it
+			int south = minLat - height / 10 + random.nextInt(height + height / 5);
+			int west = minLon - width / 10 + random.nextInt(width + width / 5);
+			int north = south + (i % 3 == 0 ? 0 : random.nextInt(height / 5 + 1));
+			int east = west + (i % 3 == 0 ? 0 : random.nextInt(width / 5 + 1));
+			if (!matchesBruteForce(mGrid, mSegments, south, west, north, east))
+				boxes = false;
+		}
+		show("Random boxes match brute force", boxes);
+		show("The whole network", matchesBruteForce(mGrid, mSegments, minLat, minLon, maxLat, maxLon)
+			&& matchesBruteForce(mGrid, mSegments, Integer.MIN_VALUE, Integer.MIN_VALUE,
+				Integer.MAX_VALUE, Integer.MAX_VALUE));
+		GeoSegment gs = mSegments[mSegments.length / 2];
+		show("The end point of a segment",
+			matchesBruteForce(mGrid, mSegments, gs.getP2().getLatitude(), gs.getP2().getLongitude(),
+				gs.getP2().getLatitude(), gs.getP2().getLongitude()));
+		int[] count = { 0 };
+		mGrid.query(maxLat + 1, minLon, maxLat + 1000, maxLon, (line, lat1, lon1, lat2, lon2) -> count[0]++);
+		mGrid.query(maxLat, maxLon, minLat, minLon, (line, lat1, lon1, lat2, lon2) -> count[0]++);
+		show("Boxes outside the network or inverted find nothing", count[0] == 0);
+
+		show("Shapes");
+		GeoSegment[] example = ExampleGeoSegments.segments;
+		SegmentGrid technion = new SegmentGrid(example);
+		boolean small = technion.getLineCount() == example.length;
+		for (GeoSegment s : example) {
+			if (!matchesBruteForce(technion, example, s.getP1().getLatitude(), s.getP1().getLongitude(),
+					s.getP1().getLatitude() + 500, s.getP1().getLongitude() + 500))
+				small = false;
+		}
+		show("The example segments", small);
+		GeoPoint a = new GeoPoint(32780000, 35010000);
+		GeoSegment[] line = new GeoSegment[100];
+		for (int i = 0; i < line.length; i++)
+			line[i] = new GeoSegment("Hanita", a, new GeoPoint(32780000, 35010000 + 100 * (i + 1)));
+		SegmentGrid flat = new SegmentGrid(line);
+		show("Segments along a parallel, overlapping",
+			matchesBruteForce(flat, line, 32780000, 35012000, 32780000, 35012000)
+			&& matchesBruteForce(flat, line, 32779000, 35000000, 32781000, 35010050));
+		GeoSegment[] point = { new GeoSegment("Hanita", a, a), new GeoSegment("Hanita", a, a) };
+		show("Segments of zero length",
+			matchesBruteForce(new SegmentGrid(point), point, 32780000, 35010000, 32780000, 35010000));
+		SegmentGrid empty = new SegmentGrid(new GeoSegment[0]);
+		count[0] = 0;
+		empty.query(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+			(l, lat1, lon1, lat2, lon2) -> count[0]++);
+		show("An empty grid finds nothing", empty.getLineCount() == 0 && count[0] == 0);
+
+		show("Columns");
+		int[] lat1 = new int[mSegments.length];
+		int[] lon1 = new int[mSegments.length];
+		int[] lat2 = new int[mSegments.length];
+		int[] lon2 = new int[mSegments.length];
+		for (int i = 0; i < mSegments.length; i++) {
+			lat1[i] = mSegments[i].getP1().getLatitude();
+			lon1[i] = mSegments[i].getP1().getLongitude();
+			lat2[i] = mSegments[i].getP2().getLatitude();
+			lon2[i] = mSegments[i].getP2().getLongitude();
+		}
+		SegmentGrid columns = new SegmentGrid(lat1, lon1, lat2, lon2);
+		int[] fromSegments = new int[mSegments.length];
+		int[] fromColumns = new int[mSegments.length];
+		int south = minLat + height / 3, west = minLon + width / 3;
+		mGrid.query(south, west, south + height / 4, west + width / 4, (l, la1, lo1, la2, lo2) -> fromSegments[l]++);
+		columns.query(south, west, south + height / 4, west + width / 4, (l, la1, lo1, la2, lo2) -> fromColumns[l]++);
+		show("Columns give the same grid as segments", Arrays.equals(fromSegments, fromColumns));
+
+		boolean rejected = true;
+		GeoSegment[] withNull = { mSegments[0], null };
+		for (Runnable r : new Runnable[] {
+				() -> new SegmentGrid((GeoSegment[]) null),
+				() -> new SegmentGrid(withNull),
+				() -> mGrid.query(0, 0, 1, 1, null) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+	}
+
+
+	public static void main(String[] args) {
+		SegmentGridTest gridTest = new SegmentGridTest();
+		gridTest.testQuery();
+		if (gridTest.mFailed)
+			System.exit(1);
+	}
+}
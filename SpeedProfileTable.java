@@ -0,0 +1,334 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A SpeedProfileTable records how the driving speed along each street
+ * changes during the day.
+ * <p>
+ * The profile of a street is given as one speed per time-of-day bucket,
+ * the speed at the start of the bucket; the speed between bucket starts is
+ * interpolated linearly, wrapping around midnight. Streets without a
+ * profile are driven at the default speed.
+ * <p>
+ * Travel times are computed by integrating the speed over time rather than
+ * by sampling it at the departure time. As a consequence, leaving later
+ * never results in arriving earlier (the FIFO property), which is what
+ * makes time-dependent Dijkstra searches correct.
+ * <p>
+ * Profiles are stored compactly: breakpoints that lie on the line between
+ * their neighbors are dropped, each remaining breakpoint takes two shorts
+ * (its minute of the day and its speed in tenths of km/h), and streets
+ * with identical profiles share a single copy. Edges refer to profiles by
+ * an int id, so a network's edges need no per-edge speed data.
+ * <p>
+ * A SpeedProfileTable must not be modified while it is being queried by
+ * other threads; queries alone are thread-safe.
+ */
+public class SpeedProfileTable {
+
+	/** Number of minutes in a day. */
+	public static final int MINUTES_PER_DAY = 24 * 60;
+
+	// Profile p uses breakpoints profileStart[p]..profileStart[p+1]-1, which
+	// are sorted by minute. Profile 0 is the default profile.
+	private short[] breakMinute;
+	private short[] breakSpeed;
+	private int[] profileStart;
+	private int profileCount;
+	private int breakCount;
+	private final Map<String, Integer> streetProfiles;
+	private final Map<String, Integer> sharedProfiles;
+
+	// Abs. Function: a map from street names to piecewise-linear functions
+	// from the time of day to a speed, with a default function for all
+	// other streets.
+	// Rep. Invariant: 0 < profileCount && profileStart[0] == 0 &&
+	// profileStart[profileCount] == breakCount && each profile has at least one breakpoint &&
+	// every breakSpeed > 0 && every 0 <= breakMinute < MINUTES_PER_DAY.
+
+	/**
+	 * Constructs a new SpeedProfileTable.
+	 *
+	 * @requires defaultKmh > 0
+	 * @effects Constructs a new SpeedProfileTable with no street profiles,
+	 *          in which all streets are driven at defaultKmh km/h.
+	 */
+	public SpeedProfileTable(double defaultKmh) {
+		breakMinute = new short[16];
+		breakSpeed = new short[16];
+		profileStart = new int[8];
+		profileCount = 0;
+		breakCount = 0;
+		streetProfiles = new HashMap<String, Integer>();
+		sharedProfiles = new HashMap<String, Integer>();
+		addProfile(new double[] { defaultKmh });
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (profileCount > 0 && profileStart[0] == 0 && profileStart[profileCount] == breakCount);
+		for (int p = 0; p < profileCount; p++) {
+			assert (profileStart[p] < profileStart[p + 1]);
+		}
+	}
+
+	/**
+	 * Sets the profile of a street.
+	 *
+	 * @requires street != null && kmhPerBucket != null &&
+	 *           MINUTES_PER_DAY % kmhPerBucket.length == 0 &&
+	 *           every element of kmhPerBucket is positive
+	 * @modifies this
+	 * @effects the speed along street at the start of bucket i, that is at
+	 *          minute i * (MINUTES_PER_DAY / kmhPerBucket.length) of the day,
+	 *          becomes kmhPerBucket[i] km/h.
+	 */
+	public void setProfile(String street, double[] kmhPerBucket) {
+		if (street == null) {
+			throw new IllegalArgumentException("Street cannot be null");
+		}
+		streetProfiles.put(street, addProfile(kmhPerBucket));
+		checkRep();
+	}
+
+	/**
+	 * @return the id of a profile equal to the given one, adding it if needed.
+	 */
+	private int addProfile(double[] kmhPerBucket) {
+		if (kmhPerBucket == null || kmhPerBucket.length == 0
+				|| MINUTES_PER_DAY % kmhPerBucket.length != 0) {
+			throw new IllegalArgumentException("Buckets must divide the day evenly");
+		}
+		int n = kmhPerBucket.length;
+		int bucketMinutes = MINUTES_PER_DAY / n;
+		short[] speeds = new short[n];
+		for (int i = 0; i < n; i++) {
+			if (!(kmhPerBucket[i] > 0) || kmhPerBucket[i] * 10 > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("Invalid speed: " + kmhPerBucket[i]);
+			}
+			speeds[i] = (short) Math.max(1, Math.round(kmhPerBucket[i] * 10));
+		}
+
+		// Drop the breakpoints that lie on the line between their neighbors.
+		short[] minutes = new short[n];
+		short[] kept = new short[n];
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			int prev = speeds[(i + n - 1) % n];
+			int next = speeds[(i + 1) % n];
+			if (n < 3 || speeds[i] - prev != next - speeds[i]) {
+				minutes[count] = (short) (i * bucketMinutes);
+				kept[count] = speeds[i];
+				count++;
+			}
+		}
+		if (count == 0) {
+			// A constant profile.
+			minutes[0] = 0;
+			kept[0] = speeds[0];
+			count = 1;
+		}
+
+		String key = Arrays.toString(Arrays.copyOf(minutes, count))
+				+ Arrays.toString(Arrays.copyOf(kept, count));
+		Integer shared = sharedProfiles.get(key);
+		if (shared != null) {
+			return shared;
+		}
+		if (breakCount + count > breakMinute.length) {
+			int capacity = Math.max(breakMinute.length * 2, breakCount + count);
+			breakMinute = Arrays.copyOf(breakMinute, capacity);
+			breakSpeed = Arrays.copyOf(breakSpeed, capacity);
+		}
+		if (profileCount + 2 > profileStart.length) {
+			profileStart = Arrays.copyOf(profileStart, profileStart.length * 2);
+		}
+		System.arraycopy(minutes, 0, breakMinute, breakCount, count);
+		System.arraycopy(kept, 0, breakSpeed, breakCount, count);
+		breakCount += count;
+		int id = profileCount++;
+		profileStart[profileCount] = breakCount;
+		sharedProfiles.put(key, id);
+		return id;
+	}
+
+	/**
+	 * Returns the id of the profile of a street.
+	 *
+	 * @requires street != null
+	 * @return the id of the profile used for street, 0 being the default
+	 *         profile.
+	 */
+	public int getProfileId(String street) {
+		Integer id = streetProfiles.get(street);
+		return id == null ? 0 : id;
+	}
+
+	/**
+	 * Returns the number of distinct profiles.
+	 *
+	 * @return the number of distinct profiles stored, including the default one.
+	 */
+	public int getProfileCount() {
+		return profileCount;
+	}
+
+	/**
+	 * Returns the speed of a profile at some time.
+	 *
+	 * @requires 0 <= profileId < getProfileCount()
+	 * @return the speed, in km/h, given by the profile at minute minute
+	 *         (taken modulo the length of a day).
+	 */
+	public double getKmh(int profileId, double minute) {
+		return speedAt(profileId, floorMod(minute)) * 60;
+	}
+
+	/**
+	 * Computes the time it takes to drive a distance.
+	 *
+	 * @requires 0 <= profileId < getProfileCount() && km is finite && km >= 0 &&
+	 *           departure is finite
+	 * @return the time, in minutes, it takes to drive km kilometers with
+	 *         the profile profileId when leaving at minute departure. The
+	 *         result is FIFO: departure + result never decreases as
+	 *         departure increases.
+	 */
+	public double getTravelMinutes(int profileId, double km, double departure) {
+		if (profileId < 0 || profileId >= profileCount) {
+			throw new IllegalArgumentException("Unknown profile: " + profileId);
+		}
+		if (!(km >= 0) || km == Double.POSITIVE_INFINITY) {
+			throw new IllegalArgumentException("km must be finite and non-negative");
+		}
+		checkDeparture(departure);
+		int first = profileStart[profileId];
+		int count = profileStart[profileId + 1] - first;
+		double remaining = km;
+		double elapsed = 0;
+		double tod = floorMod(departure);
+		// Whole days of driving cover the same distance whatever the time of
+		// day, so they are skipped at once rather than piece by piece.
+		double dayKm = getDayKm(profileId);
+		if (remaining > dayKm) {
+			double days = Math.floor(remaining / dayKm);
+			remaining = Math.max(0, remaining - days * dayKm);
+			elapsed = days * MINUTES_PER_DAY;
+		}
+		while (true) {
+			// The piece of the profile containing tod, from breakpoint i to i + 1.
+			int i = count - 1;
+			while (i > 0 && breakMinute[first + i] > tod) {
+				i--;
+			}
+			if (breakMinute[first + i] > tod) {
+				i = count - 1; // before the first breakpoint, on the piece wrapping midnight
+			}
+			double end = breakMinute[first + (i + 1) % count];
+			if (end <= tod) {
+				end += MINUTES_PER_DAY;
+			}
+			double v0 = speedAt(profileId, tod);
+			double v1 = breakSpeed[first + (i + 1) % count] / 600.0;
+			double span = end - tod;
+			double pieceKm = (v0 + v1) / 2 * span;
+			if (pieceKm >= remaining) {
+				// Solve v0 * dt + a * dt^2 / 2 = remaining for the acceleration a.
+				double a = (v1 - v0) / span;
+				double dt = 2 * remaining / (v0 + Math.sqrt(Math.max(0, v0 * v0 + 2 * a * remaining)));
+				return elapsed + dt;
+			}
+			remaining -= pieceKm;
+			elapsed += span;
+			tod = end >= MINUTES_PER_DAY ? end - MINUTES_PER_DAY : end;
+		}
+	}
+
+	/**
+	 * Computes the time it takes to drive along a Route.
+	 *
+	 * @requires route != null && departure is finite
+	 * @return the time, in minutes, it takes to drive along route when
+	 *         leaving at minute departure.
+	 */
+	public double getTravelMinutes(Route route, double departure) {
+		if (route == null) {
+			throw new IllegalArgumentException("Route cannot be null");
+		}
+		checkDeparture(departure);
+		double time = departure;
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			GeoFeature gf = it.next();
+			time += getTravelMinutes(getProfileId(gf.getName()), gf.getLength(), time);
+		}
+		return time - departure;
+	}
+
+	/**
+	 * Checks that a departure time is a finite number of minutes.
+	 *
+	 * @throws IllegalArgumentException if departure is NaN or infinite.
+	 */
+	static void checkDeparture(double departure) {
+		if (Double.isNaN(departure) || Double.isInfinite(departure)) {
+			throw new IllegalArgumentException("Departure must be finite: " + departure);
+		}
+	}
+
+	/**
+	 * @return the distance, in km, driven in a whole day with the profile.
+	 */
+	private double getDayKm(int profileId) {
+		int first = profileStart[profileId];
+		int count = profileStart[profileId + 1] - first;
+		double tenthsTimesMinutes = 0;
+		for (int i = 0; i < count; i++) {
+			int j = (i + 1) % count;
+			int span = breakMinute[first + j] - breakMinute[first + i];
+			if (span <= 0) {
+				span += MINUTES_PER_DAY;
+			}
+			tenthsTimesMinutes += (breakSpeed[first + i] + breakSpeed[first + j]) / 2.0 * span;
+		}
+		return tenthsTimesMinutes / 600.0;
+	}
+
+	/**
+	 * @requires 0 <= tod < MINUTES_PER_DAY
+	 * @return the speed of the profile at minute tod, in km per minute.
+	 */
+	private double speedAt(int profileId, double tod) {
+		int first = profileStart[profileId];
+		int count = profileStart[profileId + 1] - first;
+		if (count == 1) {
+			return breakSpeed[first] / 600.0;
+		}
+		int i = count - 1;
+		while (i > 0 && breakMinute[first + i] > tod) {
+			i--;
+		}
+		double start = breakMinute[first + i];
+		if (start > tod) {
+			start -= MINUTES_PER_DAY;
+			i = count - 1;
+		}
+		int j = (i + 1) % count;
+		double end = breakMinute[first + j];
+		if (end <= start) {
+			end += MINUTES_PER_DAY;
+		}
+		double s0 = breakSpeed[first + i];
+		double s1 = breakSpeed[first + j];
+		return (s0 + (s1 - s0) * (tod - start) / (end - start)) / 600.0;
+	}
+
+	private static double floorMod(double minute) {
+		double tod = minute % MINUTES_PER_DAY;
+		return tod < 0 ? tod + MINUTES_PER_DAY : tod;
+	}
+}
@@ -0,0 +1,545 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A StreetNameIndex finds GeoSegments by the name of their street, for
+ * type-ahead search. StreetNameIndexes are immutable and may be shared
+ * between threads.
+ * <p>
+ * Matching ignores case. A query matches, in order of rank:
+ * <pre>
+ * 0. the streets whose name starts with it,
+ * 1. the streets with another word of their name starting with it,
+ * 2. if it has at least three characters, the streets whose name contains
+ *    it anywhere else.
+ * </pre>
+ * Streets of rank 0 and 2 are listed alphabetically; streets of rank 1 are
+ * listed alphabetically by their name from the matching word on.
+ * <p>
+ * The three ranks are served by three structures, so that finding the
+ * first k matches costs about k steps after a binary search, regardless of
+ * the number of streets. The names are sorted, so those of rank 0 are a
+ * range of them. The starts of the other words of the names are sorted by
+ * the text from them on, so those of rank 1 are a range as well. Names of
+ * rank 2 are found through an index from each trigram (three consecutive
+ * characters) to the sorted ids of the names containing it: the candidates
+ * are the names listed under the rarest trigram of the query, checked one
+ * by one.
+ * <p>
+ * The segments of each street are kept together, so the segments matching
+ * a query can be read lazily, street by street.
+ */
+public class StreetNameIndex {
+
+	// Distinct names, sorted by their lower-case form, and that form.
+	private final String[] names;
+	private final String[] keys;
+	// The segments of name i are segments[segmentStart[i] .. segmentStart[i+1]).
+	private final GeoSegment[] segments;
+	private final int[] segmentStart;
+	// Starts of words other than the first: name id in the upper half,
+	// offset in the lower, sorted by the key from the offset on.
+	private final long[] wordStarts;
+	// The names containing trigram trigrams[t] are postings[postingStart[t] ..
+	// postingStart[t+1]), in increasing order.
+	private final long[] trigrams;
+	private final int[] postingStart;
+	private final int[] postings;
+
+	// Abs. Function: the segments given to the constructor, grouped by name.
+	// Rep. Invariant: keys[i] = names[i].toLowerCase() && keys is sorted
+	// and has no duplicates && segmentStart is increasing, with
+	// segmentStart[0] = 0 and segmentStart[names.length] = segments.length
+	// && wordStarts is sorted by suffix && trigrams is sorted && each list
+	// of postings is sorted.
+
+	/**
+	 * Constructs a new StreetNameIndex.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @effects Constructs a new StreetNameIndex of segments. Segments of
+	 *          the same street keep their relative order.
+	 */
+	public StreetNameIndex(Iterable<GeoSegment> segments) {
+		if (segments == null) {
+			throw new IllegalArgumentException("Segments cannot be null");
+		}
+		// group the segments by street name
+		Map<String, List<GeoSegment>> byKey = new HashMap<String, List<GeoSegment>>();
+		Map<String, String> nameOfKey = new HashMap<String, String>();
+		int count = 0;
+		for (GeoSegment gs : segments) {
+			if (gs == null) {
+				throw new IllegalArgumentException("GeoSegment cannot be null");
+			}
+			String key = normalize(gs.name);
+			List<GeoSegment> list = byKey.get(key);
+			if (list == null) {
+				list = new ArrayList<GeoSegment>(2);
+				byKey.put(key, list);
+				nameOfKey.put(key, gs.name);
+			}
+			list.add(gs);
+			count++;
+		}
+
+		keys = byKey.keySet().toArray(new String[0]);
+		Arrays.sort(keys);
+		names = new String[keys.length];
+		this.segments = new GeoSegment[count];
+		segmentStart = new int[keys.length + 1];
+		int next = 0;
+		for (int i = 0; i < keys.length; i++) {
+			names[i] = nameOfKey.get(keys[i]);
+			segmentStart[i] = next;
+			for (GeoSegment gs : byKey.get(keys[i])) {
+				this.segments[next++] = gs;
+			}
+		}
+		segmentStart[keys.length] = next;
+
+		wordStarts = buildWordStarts();
+
+		// collect the trigrams of every name, name by name
+		int trigramCount = 0;
+		for (String key : keys) {
+			trigramCount += Math.max(0, key.length() - 2);
+		}
+		long[] all = new long[trigramCount];
+		int p = 0;
+		for (String key : keys) {
+			for (int j = 0; j + 3 <= key.length(); j++) {
+				all[p++] = trigram(key, j);
+			}
+		}
+		long[] sorted = all.clone();
+		Arrays.sort(sorted);
+		int distinct = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				sorted[distinct++] = sorted[i];
+			}
+		}
+		trigrams = Arrays.copyOf(sorted, distinct);
+
+		// count, then fill, the names of each trigram, skipping repeats of a
+		// trigram within one name
+		int[] trigramIds = new int[all.length];
+		for (int i = 0; i < all.length; i++) {
+			trigramIds[i] = Arrays.binarySearch(trigrams, all[i]);
+		}
+		postingStart = new int[distinct + 1];
+		int[] lastName = new int[distinct];
+		Arrays.fill(lastName, -1);
+		p = 0;
+		for (int i = 0; i < keys.length; i++) {
+			for (int j = 0; j + 3 <= keys[i].length(); j++) {
+				int t = trigramIds[p++];
+				if (lastName[t] != i) {
+					lastName[t] = i;
+					postingStart[t + 1]++;
+				}
+			}
+		}
+		for (int t = 0; t < distinct; t++) {
+			postingStart[t + 1] += postingStart[t];
+		}
+		postings = new int[postingStart[distinct]];
+		int[] fill = Arrays.copyOf(postingStart, distinct);
+		Arrays.fill(lastName, -1);
+		p = 0;
+		for (int i = 0; i < keys.length; i++) {
+			for (int j = 0; j + 3 <= keys[i].length(); j++) {
+				int t = trigramIds[p++];
+				if (lastName[t] != i) {
+					lastName[t] = i;
+					postings[fill[t]++] = i;
+				}
+			}
+		}
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (names.length == keys.length && segmentStart.length == names.length + 1);
+		assert (segmentStart[names.length] == segments.length);
+		for (int i = 1; i < keys.length; i++) {
+			assert (keys[i - 1].compareTo(keys[i]) < 0);
+		}
+		for (int i = 1; i < wordStarts.length; i++) {
+			assert (compareSuffixes(wordStarts[i - 1], wordStarts[i]) < 0);
+		}
+		assert (postingStart.length == trigrams.length + 1);
+	}
+
+	/**
+	 * Returns the number of distinct street names.
+	 *
+	 * @return the number of distinct names, ignoring case, of the segments.
+	 */
+	public int getNameCount() {
+		return names.length;
+	}
+
+	/**
+	 * Returns the number of segments.
+	 *
+	 * @return the number of segments of this index.
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * Returns a street name.
+	 *
+	 * @requires 0 <= nameId < getNameCount()
+	 * @return the name whose id is nameId. Names are numbered in
+	 *         alphabetical order, ignoring case.
+	 */
+	public String getName(int nameId) {
+		return names[nameId];
+	}
+
+	/**
+	 * Returns the number of segments of a street.
+	 *
+	 * @requires 0 <= nameId < getNameCount()
+	 * @return the number of segments named getName(nameId).
+	 */
+	public int getSegmentCount(int nameId) {
+		return segmentStart[nameId + 1] - segmentStart[nameId];
+	}
+
+	/**
+	 * Returns a segment of a street.
+	 *
+	 * @requires 0 <= nameId < getNameCount() && 0 <= i < getSegmentCount(nameId)
+	 * @return the i-th segment named getName(nameId).
+	 */
+	public GeoSegment getSegment(int nameId, int i) {
+		return segments[segmentStart[nameId] + i];
+	}
+
+	/**
+	 * Finds the streets matching a query.
+	 *
+	 * @requires query != null && maxNames >= 0
+	 * @return the ids of the first maxNames streets matching query, best
+	 *         first. Every street matches the empty query.
+	 */
+	public int[] findNames(String query, int maxNames) {
+		if (query == null || maxNames < 0) {
+			throw new IllegalArgumentException("Invalid query");
+		}
+		String q = normalize(query);
+		int[] result = new int[Math.min(maxNames, names.length)];
+		int n = 0;
+
+		// rank 0: a range of the names
+		for (int i = lowerBound(q); i < keys.length && n < result.length
+				&& keys[i].startsWith(q); i++) {
+			result[n++] = i;
+		}
+		if (n == result.length || q.isEmpty()) {
+			return Arrays.copyOf(result, n);
+		}
+
+		// rank 1: a range of the word starts, listing each name once
+		Set<Integer> listed = new HashSet<Integer>();
+		for (int w = lowerBoundWordStart(q); w < wordStarts.length && n < result.length; w++) {
+			int i = (int) (wordStarts[w] >>> 32);
+			int offset = (int) wordStarts[w];
+			if (!keys[i].startsWith(q, offset)) {
+				break;
+			}
+			if (!keys[i].startsWith(q) && listed.add(i)) {
+				result[n++] = i;
+			}
+		}
+		if (n == result.length || q.length() < 3) {
+			return Arrays.copyOf(result, n);
+		}
+
+		// rank 2: the names under the rarest trigram of q that contain q
+		int best = rarestTrigram(q);
+		if (best >= 0) {
+			for (int c = postingStart[best]; c < postingStart[best + 1] && n < result.length; c++) {
+				int i = postings[c];
+				if (rank(keys[i], q) == 2) {
+					result[n++] = i;
+				}
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Orders the streets among a set that match a query.
+	 *
+	 * @requires query != null && nameIds != null && for each i :
+	 *           0 <= nameIds[i] < getNameCount()
+	 * @return the elements of nameIds that match query, without repeats, in
+	 *         the order findNames(query, getNameCount()) lists them. This
+	 *         allows the results of a query to be refined as it is typed.
+	 */
+	public int[] findNames(String query, int[] nameIds) {
+		if (query == null || nameIds == null) {
+			throw new IllegalArgumentException("Invalid query");
+		}
+		String q = normalize(query);
+		List<long[]> matches = new ArrayList<long[]>();
+		Set<Integer> seen = new HashSet<Integer>();
+		for (int i : nameIds) {
+			if (!seen.add(i)) {
+				continue;
+			}
+			int rank = rank(keys[i], q);
+			if (rank >= 0) {
+				// for rank 1, the matching word start that sorts first
+				long word = rank == 1 ? firstWordStart(i, q) : -1;
+				matches.add(new long[] { rank, word, i });
+			}
+		}
+		matches.sort((a, b) -> {
+			if (a[0] != b[0]) {
+				return Long.compare(a[0], b[0]);
+			}
+			return a[0] == 1 ? compareSuffixes(a[1], b[1]) : Long.compare(a[2], b[2]);
+		});
+		int[] result = new int[matches.size()];
+		for (int j = 0; j < result.length; j++) {
+			result[j] = (int) matches.get(j)[2];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns how well a street matches a query.
+	 *
+	 * @requires 0 <= nameId < getNameCount() && query != null
+	 * @return the rank of the street for query: 0 if its name starts with
+	 *         query, 1 if another word of it does, 2 if it contains query
+	 *         elsewhere and query has at least three characters, and -1 if
+	 *         it does not match.
+	 */
+	public int getRank(int nameId, String query) {
+		if (query == null) {
+			throw new IllegalArgumentException("Invalid query");
+		}
+		return rank(keys[nameId], normalize(query));
+	}
+
+	/**
+	 * Finds the segments of the streets matching a query.
+	 *
+	 * @requires query != null && k >= 0
+	 * @return the first k segments of the streets findNames(query, k), in
+	 *         the order of their streets.
+	 */
+	public List<GeoSegment> search(String query, int k) {
+		List<GeoSegment> result = new ArrayList<GeoSegment>();
+		for (int nameId : findNames(query, k)) {
+			for (int i = segmentStart[nameId]; i < segmentStart[nameId + 1]; i++) {
+				if (result.size() == k) {
+					return result;
+				}
+				result.add(segments[i]);
+			}
+		}
+		return result;
+	}
+
+	private static int rank(String key, String q) {
+		if (key.startsWith(q)) {
+			return 0;
+		}
+		int at = key.indexOf(q);
+		if (at < 0) {
+			return -1;
+		}
+		while (at > 0) {
+			if (isWordStart(key, at)) {
+				return 1;
+			}
+			at = key.indexOf(q, at + 1);
+		}
+		return q.length() >= 3 ? 2 : -1;
+	}
+
+	private static boolean isWordStart(String key, int at) {
+		return Character.isLetterOrDigit(key.charAt(at))
+				&& !Character.isLetterOrDigit(key.charAt(at - 1));
+	}
+
+	/**
+	 * Returns the entry of wordStarts for the start of a word of name i
+	 * that starts with q and sorts first.
+	 * @requires rank(keys[i], q) == 1
+	 */
+	private long firstWordStart(int i, String q) {
+		long first = -1;
+		for (int at = keys[i].indexOf(q, 1); at > 0; at = keys[i].indexOf(q, at + 1)) {
+			if (isWordStart(keys[i], at)) {
+				long word = ((long) i << 32) | at;
+				if (first < 0 || compareSuffixes(word, first) < 0) {
+					first = word;
+				}
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Returns the starts of the words of the names other than their first,
+	 * sorted by suffix.
+	 */
+	private long[] buildWordStarts() {
+		int count = 0;
+		for (String key : keys) {
+			for (int at = 1; at < key.length(); at++) {
+				if (isWordStart(key, at)) {
+					count++;
+				}
+			}
+		}
+		long[] words = new long[count];
+		int w = 0;
+		for (int i = 0; i < keys.length; i++) {
+			for (int at = 1; at < keys[i].length(); at++) {
+				if (isWordStart(keys[i], at)) {
+					words[w++] = ((long) i << 32) | at;
+				}
+			}
+		}
+		// java.util sorts primitives only by value; merge sort by suffix
+		mergeSort(words, new long[words.length], 0, words.length);
+		return words;
+	}
+
+	private void mergeSort(long[] a, long[] tmp, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(a, tmp, from, mid);
+		mergeSort(a, tmp, mid, to);
+		if (compareSuffixes(a[mid - 1], a[mid]) <= 0) {
+			return;
+		}
+		System.arraycopy(a, from, tmp, from, to - from);
+		int i = from;
+		int j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid && compareSuffixes(tmp[i], tmp[j]) <= 0)) {
+				a[k] = tmp[i++];
+			} else {
+				a[k] = tmp[j++];
+			}
+		}
+	}
+
+	/**
+	 * Compares two word starts by the keys from them on, then by name id.
+	 */
+	private int compareSuffixes(long a, long b) {
+		String s = keys[(int) (a >>> 32)];
+		String t = keys[(int) (b >>> 32)];
+		int i = (int) a;
+		int j = (int) b;
+		while (i < s.length() && j < t.length()) {
+			int c = s.charAt(i++) - t.charAt(j++);
+			if (c != 0) {
+				return c;
+			}
+		}
+		int c = (s.length() - i) - (t.length() - j);
+		return c != 0 ? c : Long.compare(a >>> 32, b >>> 32);
+	}
+
+	/**
+	 * Returns the index of the first key not less than q.
+	 */
+	private int lowerBound(String q) {
+		int lo = 0;
+		int hi = keys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid].compareTo(q) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the index of the first word start whose suffix is not less
+	 * than q.
+	 */
+	private int lowerBoundWordStart(String q) {
+		int lo = 0;
+		int hi = wordStarts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			String key = keys[(int) (wordStarts[mid] >>> 32)];
+			int at = (int) wordStarts[mid];
+			if (compareFrom(key, at, q) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private static int compareFrom(String s, int at, String q) {
+		int n = Math.min(s.length() - at, q.length());
+		for (int k = 0; k < n; k++) {
+			int c = s.charAt(at + k) - q.charAt(k);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return (s.length() - at) - q.length();
+	}
+
+	/**
+	 * Returns the index in trigrams of the trigram of q listed under the
+	 * fewest names, or -1 if some trigram of q is in no name.
+	 * @requires q.length() >= 3
+	 */
+	private int rarestTrigram(String q) {
+		int best = -1;
+		int bestSize = Integer.MAX_VALUE;
+		for (int j = 0; j + 3 <= q.length(); j++) {
+			int t = Arrays.binarySearch(trigrams, trigram(q, j));
+			if (t < 0) {
+				return -1;
+			}
+			int size = postingStart[t + 1] - postingStart[t];
+			if (size < bestSize) {
+				best = t;
+				bestSize = size;
+			}
+		}
+		return best;
+	}
+
+	private static long trigram(String s, int at) {
+		return ((long) s.charAt(at) << 32) | ((long) s.charAt(at + 1) << 16) | s.charAt(at + 2);
+	}
+
+	private static String normalize(String s) {
+		return s.toLowerCase(Locale.ROOT);
+	}
+}
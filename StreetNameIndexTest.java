@@ -0,0 +1,323 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+public class StreetNameIndexTest {
+
+	private List<GeoSegment> mSegments;
+	private StreetNameIndex mIndex;
+	private List<String> mQueries;
+	private boolean mFailed;	// makes main() exit with status 1
+
+
+	public StreetNameIndexTest() {
+		mSegments = new ArrayList<GeoSegment>(Arrays.asList(ExampleGeoSegments.segments));
+		mSegments.addAll(Arrays.asList(SyntheticNetworks.grid(20000, 23)));
+		// names that differ only in case, punctuation between words, digits
+		GeoPoint a = new GeoPoint(32780000, 35010000);
+		GeoPoint b = new GeoPoint(32781000, 35010000);
+		for (String name : new String[] { "HANKIN ROAD", "hankin road", "Ben-Gurion Boulevard",
+				"Derech Ha'Atzmaut", "Road 70", "Rd. 4 North", "aaa", "aaaa aa" })
+			mSegments.add(new GeoSegment(name, a, b));
+		mIndex = new StreetNameIndex(mSegments);
+
+		Set<String> queries = new LinkedHashSet<String>();
+		queries.addAll(Arrays.asList("", "h", "H", "ha", "han", "HANK", "road", "ROAD", "oad",
+			"an", "ur", "gur", "-g", "'a", "a'", "7", "70", "0", "4 n", ". 4", "aa", "aaa",
+			"a a", "zzz", "hankin road ", " ", "x"));
+		Random random = new Random(23);
+		for (int i = 0; i < 300; i++) {
+			String name = mSegments.get(random.nextInt(mSegments.size())).getName();
+			int from = random.nextInt(name.length());
+			int to = from + 1 + random.nextInt(Math.min(5, name.length() - from));
+			queries.add(name.substring(from, to));
+		}
+		mQueries = new ArrayList<String>(queries);
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static boolean isWordStart(String s, int at) {
+		return Character.isLetterOrDigit(s.charAt(at)) && !Character.isLetterOrDigit(s.charAt(at - 1));
+	}
+
+
+	/**
+	 * @return the rank of name for query, by the definition of findNames().
+	 */
+	private static int referenceRank(String name, String query) {
+		String key = name.toLowerCase(Locale.ROOT);
+		String q = query.toLowerCase(Locale.ROOT);
+		if (key.startsWith(q))
+			return 0;
+		if (wordSuffix(key, q) != null)
+			return 1;
+		return q.length() >= 3 && key.contains(q) ? 2 : -1;
+	}
+
+
+	/**
+	 * @return the least suffix of key from the start of a word other than its
+	 *         first that starts with q, or null if there is none.
+	 */
+	private static String wordSuffix(String key, String q) {
+		String least = null;
+		for (int at = 1; at < key.length(); at++) {
+			if (isWordStart(key, at) && key.startsWith(q, at)) {
+				String suffix = key.substring(at);
+				if (least == null || suffix.compareTo(least) < 0)
+					least = suffix;
+			}
+		}
+		return least;
+	}
+
+
+	/**
+	 * @return the ids of the names of index matching query, best first,
+	 *         found by checking every name.
+	 */
+	private static List<Integer> bruteForce(StreetNameIndex index, String query) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < index.getNameCount(); i++) {
+			if (referenceRank(index.getName(i), query) >= 0)
+				ids.add(i);
+		}
+		String q = query.toLowerCase(Locale.ROOT);
+		ids.sort(Comparator.<Integer>comparingInt(i -> referenceRank(index.getName(i), query))
+			.thenComparing(i -> referenceRank(index.getName(i), query) == 1
+				? wordSuffix(index.getName(i).toLowerCase(Locale.ROOT), q) : "")
+			.thenComparing(i -> i));
+		return ids;
+	}
+
+
+	private static List<Integer> list(int[] ids) {
+		List<Integer> result = new ArrayList<Integer>();
+		for (int i : ids)
+			result.add(i);
+		return result;
+	}
+
+
+	public void testNames() {
+		show("Names");
+		boolean grouped = true;
+		boolean sorted = true;
+		int segments = 0;
+		for (int i = 0; i < mIndex.getNameCount(); i++) {
+			String key = mIndex.getName(i).toLowerCase(Locale.ROOT);
+			if (i > 0 && mIndex.getName(i - 1).toLowerCase(Locale.ROOT).compareTo(key) >= 0)
+				sorted = false;
+			List<GeoSegment> expected = new ArrayList<GeoSegment>();
+			for (GeoSegment gs : mSegments) {
+				if (gs.getName().toLowerCase(Locale.ROOT).equals(key))
+					expected.add(gs);
+			}
+			List<GeoSegment> actual = new ArrayList<GeoSegment>();
+			for (int j = 0; j < mIndex.getSegmentCount(i); j++)
+				actual.add(mIndex.getSegment(i, j));
+			// equal segments are interchangeable, so compare by identity
+			for (int j = 0; j < expected.size() && j < actual.size(); j++) {
+				if (expected.get(j) != actual.get(j))
+					grouped = false;
+			}
+			if (expected.size() != actual.size())
+				grouped = false;
+			segments += actual.size();
+		}
+		show("Names are distinct and sorted, ignoring case", sorted);
+		show("Segments are grouped by name, in their order", grouped && segments == mSegments.size()
+			&& mIndex.getSegmentCount() == mSegments.size());
+		int hankin = mIndex.findNames("hankin road", 1)[0];
+		show("Names differing in case are one street",
+			mIndex.getName(hankin).equals("Hankin Road") && mIndex.getSegmentCount(hankin)
+				== mSegments.stream().filter(gs -> gs.getName().equalsIgnoreCase("hankin road")).count());
+	}
+
+
+	public void testFindNames() {
+		show("findNames()");
+		boolean all = true;
+		boolean firstK = true;
+		boolean ranks = true;
+		for (String q : mQueries) {
+			List<Integer> expected = bruteForce(mIndex, q);
+			if (!list(mIndex.findNames(q, mIndex.getNameCount())).equals(expected))
+				all = false;
+			for (int k : new int[] { 0, 1, 5, 20 }) {
+				if (!list(mIndex.findNames(q, k)).equals(expected.subList(0, Math.min(k, expected.size()))))
+					firstK = false;
+			}
+			for (int i = 0; i < mIndex.getNameCount(); i += 7) {
+				if (mIndex.getRank(i, q) != referenceRank(mIndex.getName(i), q))
+					ranks = false;
+			}
+		}
+		show("Match brute force over every name", all);
+		show("The first k matches are the best k", firstK);
+		show("getRank() matches the definition", ranks);
+		show("Every street matches the empty query",
+			mIndex.findNames("", Integer.MAX_VALUE).length == mIndex.getNameCount());
+		show("Substrings match from three characters",
+			mIndex.getRank(mIndex.findNames("Hankin", 1)[0], "an") == -1
+			&& mIndex.getRank(mIndex.findNames("Hankin", 1)[0], "ank") == 2);
+		show("A later word outranks a substring",
+			mIndex.getRank(mIndex.findNames("Ben-Gurion", 1)[0], "gur") == 1
+			&& mIndex.getRank(mIndex.findNames("Road 70", 1)[0], "70") == 1);
+
+		show("Refinement");
+		Random random = new Random(29);
+		boolean refined = true;
+		for (String q : mQueries) {
+			int[] ids = new int[mIndex.getNameCount() / 2];
+			for (int i = 0; i < ids.length; i++)
+				ids[i] = random.nextInt(mIndex.getNameCount());
+			Set<Integer> subset = new LinkedHashSet<Integer>(list(ids));
+			List<Integer> expected = new ArrayList<Integer>(bruteForce(mIndex, q));
+			expected.retainAll(subset);
+			if (!list(mIndex.findNames(q, ids)).equals(expected))
+				refined = false;
+		}
+		show("Orders any set of streets like findNames()", refined);
+		boolean typed = true;
+		for (String q : mQueries) {
+			for (int len = 3; len < q.length(); len++) {
+				if (!list(mIndex.findNames(q, mIndex.findNames(q.substring(0, len), mIndex.getNameCount())))
+						.equals(bruteForce(mIndex, q)))
+					typed = false;
+			}
+		}
+		show("Refines complete results of a prefix of three characters", typed);
+	}
+
+
+	public void testSearch() {
+		show("search()");
+		boolean same = true;
+		for (String q : mQueries) {
+			for (int k : new int[] { 0, 1, 10, 200 }) {
+				List<GeoSegment> expected = new ArrayList<GeoSegment>();
+				for (int id : mIndex.findNames(q, k)) {
+					for (int j = 0; j < mIndex.getSegmentCount(id) && expected.size() < k; j++)
+						expected.add(mIndex.getSegment(id, j));
+				}
+				if (!mIndex.search(q, k).equals(expected))
+					same = false;
+			}
+		}
+		show("The segments of the matching streets, in order", same);
+
+		show("Arguments");
+		boolean rejected = true;
+		List<GeoSegment> withNull = new ArrayList<GeoSegment>();
+		withNull.add(null);
+		for (Runnable r : new Runnable[] {
+				() -> new StreetNameIndex(null),
+				() -> new StreetNameIndex(withNull),
+				() -> mIndex.findNames(null, 1),
+				() -> mIndex.findNames("a", -1),
+				() -> mIndex.findNames("a", (int[]) null),
+				() -> mIndex.getRank(0, null) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+		show("An empty index matches nothing",
+			new StreetNameIndex(new ArrayList<GeoSegment>()).findNames("", 10).length == 0);
+	}
+
+
+	/**
+	 * @return true iff model shows the segments of index.findNames(query, maxNames).
+	 */
+	private boolean shows(StreetSearchListModel model, String query, int maxNames) {
+		List<GeoSegment> expected = new ArrayList<GeoSegment>();
+		for (int id : mIndex.findNames(query, maxNames)) {
+			for (int j = 0; j < mIndex.getSegmentCount(id); j++)
+				expected.add(mIndex.getSegment(id, j));
+		}
+		if (model.getSize() != expected.size() || !query.equals(model.getQuery()))
+			return false;
+		for (int row = 0; row < expected.size(); row++) {
+			if (model.getElementAt(row) != expected.get(row))
+				return false;
+		}
+		return true;
+	}
+
+
+	public void testListModel() {
+		show("StreetSearchListModel");
+		for (int maxNames : new int[] { 3, 50, Integer.MAX_VALUE }) {
+			StreetSearchListModel model = new StreetSearchListModel(mIndex, maxNames);
+			boolean typing = model.getSize() == 0 && model.getQuery() == null;
+			for (String q : mQueries) {
+				// type the query, then delete it back to its first character
+				for (int len = 0; len <= q.length(); len++) {
+					model.setQuery(q.substring(0, len));
+					if (!shows(model, q.substring(0, len), maxNames))
+						typing = false;
+				}
+				for (int len = q.length() - 1; len > 0; len--) {
+					model.setQuery(q.substring(0, len));
+					if (!shows(model, q.substring(0, len), maxNames))
+						typing = false;
+				}
+			}
+			show("Typing and deleting, " + (maxNames == Integer.MAX_VALUE ? "unbounded" : "at most "
+				+ maxNames + " streets"), typing);
+		}
+		boolean rejected = true;
+		for (Runnable r : new Runnable[] {
+				() -> new StreetSearchListModel(null, 1),
+				() -> new StreetSearchListModel(mIndex, 0),
+				() -> new StreetSearchListModel(mIndex, 1).setQuery(null) }) {
+			try {
+				r.run();
+				rejected = false;
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		show("Invalid arguments are rejected", rejected);
+	}
+
+
+	public static void main(String[] args) {
+		StreetNameIndexTest indexTest = new StreetNameIndexTest();
+		indexTest.testNames();
+		indexTest.testFindNames();
+		indexTest.testSearch();
+		indexTest.testListModel();
+		if (indexTest.mFailed)
+			System.exit(1);
+	}
+}
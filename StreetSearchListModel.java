@@ -0,0 +1,145 @@
+package homework1;
+
+import java.util.Arrays;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * A ListModel of the GeoSegments of the streets matching a query in a
+ * StreetNameIndex, for type-ahead search in a JList.
+ * <p>
+ * The model holds only the ids of the matching streets and the running
+ * count of their segments; a segment is looked up in the index when the
+ * JList asks for its row, so the rows are paged in as they are scrolled
+ * into view. A query that extends the previous one, and whose results were
+ * complete, refines those results instead of searching the index again.
+ */
+public class StreetSearchListModel extends AbstractListModel<GeoSegment> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final StreetNameIndex index;
+	private final int maxNames;
+
+	private String query = null;
+	private int[] nameIds = new int[0];
+	// rowStart[i] is the row of the first segment of street nameIds[i]
+	private int[] rowStart = new int[] { 0 };
+
+	// Abs. Function: the segments of the streets index.findNames(query,
+	// maxNames), in order, or the empty sequence if query == null.
+	// Rep. Invariant: index != null && maxNames > 0 &&
+	// rowStart.length == nameIds.length + 1 && rowStart[0] == 0 &&
+	// rowStart[i+1] - rowStart[i] == index.getSegmentCount(nameIds[i])
+
+	/**
+	 * Constructs a new StreetSearchListModel.
+	 *
+	 * @requires index != null && maxNames > 0
+	 * @effects Constructs a new, empty StreetSearchListModel over index,
+	 *          showing the segments of at most maxNames streets.
+	 */
+	public StreetSearchListModel(StreetNameIndex index, int maxNames) {
+		if (index == null) {
+			throw new IllegalArgumentException("Index cannot be null");
+		}
+		if (maxNames <= 0) {
+			throw new IllegalArgumentException("maxNames must be positive");
+		}
+		this.index = index;
+		this.maxNames = maxNames;
+	}
+
+	/**
+	 * Returns the index searched by this.
+	 *
+	 * @return the StreetNameIndex searched by this.
+	 */
+	public StreetNameIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the current query.
+	 *
+	 * @return the query whose results are shown, or null if none is.
+	 */
+	public String getQuery() {
+		return query;
+	}
+
+	/**
+	 * Shows the results of a query.
+	 *
+	 * @requires newQuery != null && called on the event dispatch thread
+	 * @modifies this
+	 * @effects makes the segments of the streets
+	 *          index.findNames(newQuery, maxNames) the elements of this, and
+	 *          notifies the listeners of this.
+	 */
+	public void setQuery(String newQuery) {
+		if (newQuery == null) {
+			throw new IllegalArgumentException("Query cannot be null");
+		}
+		if (newQuery.equals(query)) {
+			return;
+		}
+		int[] found;
+		if (canRefine(newQuery)) {
+			found = index.findNames(newQuery, nameIds);
+		} else {
+			found = index.findNames(newQuery, maxNames);
+		}
+
+		int oldSize = getSize();
+		query = newQuery;
+		nameIds = found;
+		rowStart = new int[found.length + 1];
+		for (int i = 0; i < found.length; i++) {
+			rowStart[i + 1] = rowStart[i] + index.getSegmentCount(found[i]);
+		}
+		int newSize = getSize();
+		if (oldSize > 0) {
+			fireIntervalRemoved(this, 0, oldSize - 1);
+		}
+		if (newSize > 0) {
+			fireIntervalAdded(this, 0, newSize - 1);
+		}
+	}
+
+	/**
+	 * Returns the number of segments shown.
+	 *
+	 * @return the number of segments of the matching streets.
+	 */
+	public int getSize() {
+		return rowStart[nameIds.length];
+	}
+
+	/**
+	 * Returns a segment.
+	 *
+	 * @requires 0 <= row < getSize()
+	 * @return the row-th segment of the matching streets.
+	 */
+	public GeoSegment getElementAt(int row) {
+		// every street has a segment, so rowStart has no repeated values
+		int i = Arrays.binarySearch(rowStart, row);
+		if (i < 0) {
+			i = -i - 2;
+		}
+		return index.getSegment(nameIds[i], row - rowStart[i]);
+	}
+
+	/**
+	 * Returns whether the results of newQuery are among those shown: the
+	 * shown results are complete, and every street matching newQuery
+	 * matches query too. Substring matching starts at three characters, so
+	 * crossing that length may add matches.
+	 */
+	private boolean canRefine(String newQuery) {
+		return query != null && nameIds.length < maxNames
+				&& newQuery.startsWith(query)
+				&& (query.length() >= 3 || newQuery.length() < 3);
+	}
+}
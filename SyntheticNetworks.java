@@ -0,0 +1,347 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SyntheticNetworks generates road networks of any size for finding scaling
+ * problems, as ExampleGeoSegments does for a few streets near the Technion.
+ * <p>
+ * A network is an array of GeoSegments, one per piece of a two-way street
+ * between two intersections, as in ExampleGeoSegments; give the network and
+ * the reverses of its segments to a RoadNetwork to route over it. Segments
+ * meeting at an intersection share the same GeoPoint. Every street has a
+ * name, and the names are drawn from a pool smaller than the number of
+ * streets with a skewed distribution, so some names are common and appear
+ * all over the network, as "Herzl" does in Israel. The networks are centered
+ * on Haifa, with intersections about 100 meters apart.
+ * <p>
+ * The same arguments always give the same network.
+ */
+public final class SyntheticNetworks {
+
+	// Distance between neighboring intersections, in millionths of degrees
+	// of latitude (about 100 meters).
+	private static final int SPACING = 900;
+
+	// Longitudes are stretched by this factor, so that blocks are square.
+	private static final double LON_SCALE = GeoPoint.KM_PER_DEGREE_LATITUDE / GeoPoint.KM_PER_DEGREE_LONGITUDE;
+
+	private static final int CENTER_LATITUDE = 32800000;
+	private static final int CENTER_LONGITUDE = 35000000;
+
+	// Number of avenues leaving the center of a radial network.
+	private static final int SPOKES = 32;
+
+	private static final String[] BASES = { "Herzl", "Ben Gurion", "Weizmann", "Jabotinsky", "Rothschild",
+			"HaNassi", "Hagalil", "Hanita", "Trumpeldor", "Hankin", "Ruppin", "Allenby", "Bialik", "Sokolov",
+			"Ahad Ha'am", "Dizengoff", "King George", "Balfour", "Moriah", "Carmel", "HaAtzmaut", "Golomb",
+			"Arlozorov", "Katznelson", "Yefe Nof", "HaShalom", "Oak", "Maple", "Cedar", "Pine", "Elm", "Olive",
+			"Palm", "Cypress", "Lake", "Hill", "Park", "Church", "Mill", "Station" };
+
+	private static final String[] SUFFIXES = { "Street", "Road", "Avenue", "Boulevard", "Lane", "Way",
+			"Drive", "Square" };
+
+	private SyntheticNetworks() {
+	}
+
+	/**
+	 * Generates a grid network: a square lattice of straight streets
+	 * crossing at right angles, with the intersections slightly displaced.
+	 * Every row and every column of the lattice is a street.
+	 *
+	 * @requires segments > 0
+	 * @return a grid network of at least segments, and about segments,
+	 *         GeoSegments.
+	 */
+	public static GeoSegment[] grid(int segments, long seed) {
+		checkSize(segments);
+		Random random = new Random(seed);
+		int side = latticeSide(segments);
+		GeoPoint[] points = lattice(side, 0.1, random);
+		String[] rowNames = streetNames(side, 2 * side, random);
+		String[] columnNames = streetNames(side, 2 * side, random);
+
+		List<GeoSegment> network = new ArrayList<GeoSegment>(2 * side * (side - 1));
+		for (int i = 0; i < side; i++) {
+			for (int j = 0; j + 1 < side; j++) {
+				network.add(new GeoSegment(rowNames[i], points[i * side + j], points[i * side + j + 1]));
+			}
+		}
+		for (int j = 0; j < side; j++) {
+			for (int i = 0; i + 1 < side; i++) {
+				network.add(new GeoSegment(columnNames[j], points[i * side + j], points[(i + 1) * side + j]));
+			}
+		}
+		return network.toArray(new GeoSegment[0]);
+	}
+
+	/**
+	 * Generates a radial network: ring roads around a center, crossed by
+	 * avenues leaving the center. Every ring and every avenue is a street,
+	 * and the rings are divided into pieces of about the spacing of the
+	 * rings.
+	 *
+	 * @requires segments > 0
+	 * @return a radial network of at least segments, and about segments,
+	 *         GeoSegments.
+	 */
+	public static GeoSegment[] radial(int segments, long seed) {
+		checkSize(segments);
+		Random random = new Random(seed);
+		// ring k has SPOKES avenue pieces leading to it and about 2 pi k ring
+		// pieces, so k rings have about SPOKES k + pi k^2 segments
+		int rings = 1;
+		while (SPOKES * rings + ringPieces(rings) < segments) {
+			rings++;
+		}
+		String[] avenueNames = streetNames(SPOKES, SPOKES + rings, random);
+		String[] ringNames = streetNames(rings, SPOKES + rings, random);
+
+		List<GeoSegment> network = new ArrayList<GeoSegment>(SPOKES * rings + ringPieces(rings));
+		GeoPoint center = new GeoPoint(CENTER_LATITUDE, CENTER_LONGITUDE);
+		GeoPoint[] inner = new GeoPoint[SPOKES];
+		Arrays.fill(inner, center);
+		for (int k = 1; k <= rings; k++) {
+			int perSpoke = Math.max(1, (int) Math.round(2 * Math.PI * k / SPOKES));
+			GeoPoint[] ring = new GeoPoint[SPOKES * perSpoke];
+			for (int t = 0; t < ring.length; t++) {
+				double angle = 2 * Math.PI * t / ring.length;
+				ring[t] = point(k * Math.cos(angle), k * Math.sin(angle), 0.1, random);
+			}
+			for (int s = 0; s < SPOKES; s++) {
+				network.add(new GeoSegment(avenueNames[s], inner[s], ring[s * perSpoke]));
+				inner[s] = ring[s * perSpoke];
+			}
+			for (int t = 0; t < ring.length; t++) {
+				network.add(new GeoSegment(ringNames[k - 1], ring[t], ring[(t + 1) % ring.length]));
+			}
+		}
+		return network.toArray(new GeoSegment[0]);
+	}
+
+	/**
+	 * Generates a random planar network: a lattice whose intersections are
+	 * displaced at random, from which a random sixth of the streets are
+	 * missing, and across a random fifth of whose blocks runs a diagonal
+	 * street. The displacement is small enough that every block stays
+	 * convex, so no two streets cross except at an intersection.
+	 *
+	 * @requires segments > 0
+	 * @return a random planar network of about segments GeoSegments.
+	 */
+	public static GeoSegment[] randomPlanar(int segments, long seed) {
+		checkSize(segments);
+		Random random = new Random(seed);
+		// the lattice has 2 side (side - 1) streets, 5/6 of which are kept,
+		// and (side - 1)^2 blocks, 1/5 of which get a diagonal
+		int side = 2;
+		while (2 * side * (side - 1) * 5L / 6 + (side - 1) * (long) (side - 1) / 5 < segments) {
+			side++;
+		}
+		GeoPoint[] points = lattice(side, 0.2, random);
+		String[] rowNames = streetNames(side, 4 * side, random);
+		String[] columnNames = streetNames(side, 4 * side, random);
+		String[] diagonalNames = streetNames(2 * side, 4 * side, random);
+
+		List<GeoSegment> network = new ArrayList<GeoSegment>(segments + segments / 8);
+		for (int i = 0; i < side; i++) {
+			for (int j = 0; j < side; j++) {
+				GeoPoint p = points[i * side + j];
+				if (j + 1 < side && random.nextInt(6) != 0) {
+					network.add(new GeoSegment(rowNames[i], p, points[i * side + j + 1]));
+				}
+				if (i + 1 < side && random.nextInt(6) != 0) {
+					network.add(new GeoSegment(columnNames[j], p, points[(i + 1) * side + j]));
+				}
+				if (i + 1 < side && j + 1 < side && random.nextInt(5) == 0) {
+					if (random.nextBoolean()) {
+						// along the line i - j == const
+						network.add(new GeoSegment(diagonalNames[i - j + side - 1], p,
+								points[(i + 1) * side + j + 1]));
+					} else {
+						// along the line i + j == const
+						network.add(new GeoSegment(diagonalNames[i + j], points[i * side + j + 1],
+								points[(i + 1) * side + j]));
+					}
+				}
+			}
+		}
+		return network.toArray(new GeoSegment[0]);
+	}
+
+	/**
+	 * Takes a random walk through a network, to build a long Route from.
+	 * The walk treats every street as two-way, prefers to go on along the
+	 * street it is on, and turns back only at a dead end.
+	 *
+	 * @requires network != null && network.length > 0 && no element of
+	 *           network is null && length > 0
+	 * @return a list of length GeoSegments, each of which is an element of
+	 *         network or its reverse, and each starting where the previous
+	 *         one ends. The same arguments always give the same walk.
+	 */
+	public static List<GeoSegment> randomWalk(GeoSegment[] network, int length, long seed) {
+		if (network == null || network.length == 0) {
+			throw new IllegalArgumentException("Network cannot be empty");
+		}
+		checkSize(length);
+		int m = network.length;
+
+		// number the intersections by sorting their coordinates
+		long[] keys = new long[2 * m];
+		for (int e = 0; e < m; e++) {
+			keys[2 * e] = key(network[e].p1);
+			keys[2 * e + 1] = key(network[e].p2);
+		}
+		long[] nodes = keys.clone();
+		Arrays.sort(nodes);
+		int n = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			if (i == 0 || nodes[i] != nodes[i - 1]) {
+				nodes[n++] = nodes[i];
+			}
+		}
+		int[] end = new int[2 * m];
+		for (int i = 0; i < end.length; i++) {
+			end[i] = Arrays.binarySearch(nodes, 0, n, keys[i]);
+		}
+		keys = null;
+
+		// the ends of the segments at each intersection: 2 e + 0 leaves along
+		// network[e], 2 e + 1 leaves along its reverse
+		int[] first = new int[n + 1];
+		for (int i = 0; i < end.length; i++) {
+			first[end[i] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			first[v + 1] += first[v];
+		}
+		int[] fill = Arrays.copyOf(first, n);
+		int[] leaving = new int[2 * m];
+		for (int i = 0; i < end.length; i++) {
+			leaving[fill[end[i]]++] = i;
+		}
+
+		Random random = new Random(seed);
+		List<GeoSegment> walk = new ArrayList<GeoSegment>(length);
+		int step = 2 * random.nextInt(m);
+		while (true) {
+			GeoSegment gs = network[step >> 1];
+			walk.add((step & 1) == 0 ? gs : gs.reverse());
+			if (walk.size() == length) {
+				return walk;
+			}
+			// the intersection reached is the other end of the segment
+			int v = end[step ^ 1];
+			int others = 0;
+			int sameStreet = -1;
+			for (int k = first[v]; k < first[v + 1]; k++) {
+				int candidate = leaving[k];
+				if ((candidate >> 1) != (step >> 1)) {
+					others++;
+					if (sameStreet < 0 && network[candidate >> 1].name.equals(gs.name)) {
+						sameStreet = candidate;
+					}
+				}
+			}
+			if (others == 0) {
+				// a dead end: turn back
+				step ^= 1;
+			} else if (sameStreet >= 0 && random.nextInt(4) != 0) {
+				step = sameStreet;
+			} else {
+				int choice = random.nextInt(others);
+				for (int k = first[v];; k++) {
+					if ((leaving[k] >> 1) != (step >> 1) && choice-- == 0) {
+						step = leaving[k];
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private static void checkSize(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be positive");
+		}
+	}
+
+	private static long key(GeoPoint p) {
+		return ((long) p.latitude << 32) | (p.longitude & 0xFFFFFFFFL);
+	}
+
+	private static int ringPieces(int rings) {
+		int pieces = 0;
+		for (int k = 1; k <= rings; k++) {
+			pieces += SPOKES * Math.max(1, (int) Math.round(2 * Math.PI * k / SPOKES));
+		}
+		return pieces;
+	}
+
+	/**
+	 * Returns the smallest side of a square lattice with at least segments
+	 * streets between neighboring points.
+	 */
+	private static int latticeSide(int segments) {
+		int side = 2;
+		while (2L * side * (side - 1) < segments) {
+			side++;
+		}
+		return side;
+	}
+
+	/**
+	 * Returns the points of a side x side lattice centered on the center of
+	 * the networks, row by row, each displaced at random by up to jitter
+	 * times the spacing along each axis.
+	 */
+	private static GeoPoint[] lattice(int side, double jitter, Random random) {
+		GeoPoint[] points = new GeoPoint[side * side];
+		for (int i = 0; i < side; i++) {
+			for (int j = 0; j < side; j++) {
+				points[i * side + j] = point(i - (side - 1) / 2.0, j - (side - 1) / 2.0, jitter, random);
+			}
+		}
+		return points;
+	}
+
+	/**
+	 * Returns the point y spacings north and x spacings east of the center of
+	 * the networks, displaced at random by up to jitter spacings along each
+	 * axis.
+	 */
+	private static GeoPoint point(double y, double x, double jitter, Random random) {
+		double dy = y + jitter * (2 * random.nextDouble() - 1);
+		double dx = x + jitter * (2 * random.nextDouble() - 1);
+		return new GeoPoint(CENTER_LATITUDE + (int) Math.round(dy * SPACING),
+				CENTER_LONGITUDE + (int) Math.round(dx * SPACING * LON_SCALE));
+	}
+
+	/**
+	 * Returns count street names drawn from a pool of poolSize / 3 names, with
+	 * the first names of the pool much more likely than the last.
+	 */
+	private static String[] streetNames(int count, int poolSize, Random random) {
+		int pool = Math.max(8, poolSize / 3);
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			// u^3 skews towards 0: a tenth of the pool gets nearly half the streets
+			double u = random.nextDouble();
+			names[i] = streetName((int) (pool * u * u * u));
+		}
+		return names;
+	}
+
+	private static String streetName(int k) {
+		int combinations = BASES.length * SUFFIXES.length;
+		String name = BASES[k % BASES.length] + " " + SUFFIXES[(k / BASES.length) % SUFFIXES.length];
+		if (k >= combinations) {
+			name = name + " " + (k / combinations + 1);
+		}
+		return name;
+	}
+}
@@ -0,0 +1,68 @@
+package homework1;
+
+import java.io.IOException;
+
+/**
+ * A TemplateRouteFormatter creates a textual description of directions
+ * whose lines have the form given by a DirectionTemplate, so that new
+ * output formats need no new subclass of RouteFormatter.
+ * <p>
+ * For example, a TemplateRouteFormatter for the template
+ * <tt>"{turn} onto {name} and go {km} kilometers."</tt> produces the same
+ * directions as DrivingRouteFormatter, and one for
+ * <tt>"{turn} onto {name} and walk for {min} minutes."</tt> the same
+ * directions as WalkingRouteFormatter.
+ */
+public class TemplateRouteFormatter extends RouteFormatter {
+
+	private final DirectionTemplate template;
+
+	/**
+	 * Constructs a new TemplateRouteFormatter.
+	 *
+	 * @requires template != null
+	 * @effects Constructs a new TemplateRouteFormatter whose lines are
+	 *          rendered by template.
+	 */
+	public TemplateRouteFormatter(DirectionTemplate template) {
+		if (template == null) {
+			throw new IllegalArgumentException("Template cannot be null");
+		}
+		this.template = template;
+	}
+
+	/**
+	 * Constructs a new TemplateRouteFormatter.
+	 *
+	 * @requires template != null && template is well formed
+	 * @effects Constructs a new TemplateRouteFormatter whose lines are
+	 *          rendered by new DirectionTemplate(template).
+	 */
+	public TemplateRouteFormatter(String template) {
+		this(new DirectionTemplate(template));
+	}
+
+	/**
+	 * Returns the template of this formatter.
+	 *
+	 * @return the template the lines of this formatter are rendered by.
+	 */
+	public DirectionTemplate getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Writes a single line of directions, as rendered by the template of
+	 * this formatter.
+	 * @param turn the turn taken onto the geographical feature.
+	 * @param name the name of the geographical feature.
+	 * @param length the length of the geographical feature, in kilometers.
+	 * @param out the sink to write the line to.
+	 * @effects appends to out the line
+	 *          template.render(turn, name, length).
+	 */
+	protected void appendLine(TurnType turn, String name, double length, Appendable out)
+			throws IOException {
+		template.render(turn, name, length, out);
+	}
+}
@@ -0,0 +1,74 @@
+package homework1;
+
+/**
+ * A TimeDependentRouter finds the Route through a RoadNetwork that arrives
+ * earliest when leaving at a given time of day, with driving speeds taken
+ * from a SpeedProfileTable.
+ * <p>
+ * Since the travel times of the table are FIFO, waiting never helps, and a
+ * Dijkstra search keyed by arrival time finds an earliest-arrival Route.
+ * <p>
+ * TimeDependentRouters are not thread-safe; each thread should use its own
+ * instance.
+ */
+public class TimeDependentRouter {
+	private final RoadNetwork network;
+	private final SpeedProfileTable profiles;
+	private final int[] edgeProfile;
+
+	// Scratch state of the searches, reused by every call.
+	private final NetworkSearch search;
+
+	/**
+	 * Constructs a new TimeDependentRouter.
+	 *
+	 * @requires network != null && profiles != null
+	 * @effects Constructs a new TimeDependentRouter over network using the
+	 *          speeds of profiles. Profiles set in profiles after this
+	 *          call are not seen by this router.
+	 */
+	public TimeDependentRouter(RoadNetwork network, SpeedProfileTable profiles) {
+		if (network == null || profiles == null) {
+			throw new IllegalArgumentException("Network and profiles cannot be null");
+		}
+		this.network = network;
+		this.profiles = profiles;
+		edgeProfile = new int[network.getEdgeCount()];
+		for (int e = 0; e < edgeProfile.length; e++) {
+			edgeProfile[e] = profiles.getProfileId(network.edges[e].name);
+		}
+		search = new NetworkSearch(network);
+	}
+
+	/**
+	 * Computes an earliest-arrival Route.
+	 *
+	 * @requires from != null && to != null && !from.equals(to) &&
+	 *           departure is finite
+	 * @return a Route from from to to that arrives earliest when leaving at
+	 *         minute departure of the day, or null if to cannot be reached
+	 *         from from.
+	 */
+	public Route computeRoute(GeoPoint from, GeoPoint to, double departure) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("GeoPoints cannot be null");
+		}
+		if (from.equals(to)) {
+			throw new IllegalArgumentException("Start and end must differ");
+		}
+		SpeedProfileTable.checkDeparture(departure);
+		int source = network.getNodeId(from);
+		int target = network.getNodeId(to);
+		if (source < 0 || target < 0) {
+			return null;
+		}
+
+		// keyed by arrival time, so the weight of an edge is its travel time
+		// when entered at the arrival time of its source
+		if (!search.run(source, departure, target, Double.POSITIVE_INFINITY, NetworkSearch.ALL_EDGES,
+				(e, t) -> profiles.getTravelMinutes(edgeProfile[e], network.edges[e].length, t))) {
+			return null;
+		}
+		return network.toRoute(search.getPath(target));
+	}
+}
@@ -0,0 +1,216 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class TimeDependentRouterTest {
+
+	private static final double tolerance = 0.001;
+
+	private RoadNetwork mNetwork;
+	private SpeedProfileTable mProfiles;
+	private GeoPoint gpHankin;			// Hankin Road, Natan Komoi & A.D. Gordon Intersection
+	private GeoPoint gpHagalilHanita;	// Hagalil & Hanita Intersection
+	private boolean mFailed;			// makes main() exit with status 1
+
+
+	public TimeDependentRouterTest() {
+		List<GeoSegment> segments = new ArrayList<GeoSegment>();
+		for (GeoSegment gs : ExampleGeoSegments.segments) {
+			segments.add(gs);
+			segments.add(gs.reverse());
+		}
+		mNetwork = new RoadNetwork(segments);
+		gpHankin = ExampleGeoSegments.points[0];
+		gpHagalilHanita = ExampleGeoSegments.points[5];
+
+		mProfiles = new SpeedProfileTable(50);
+		// 4 km/h from 07:00 to 10:00, 50 km/h otherwise
+		double[] rushHour = new double[24];
+		for (int hour = 0; hour < 24; hour++)
+			rushHour[hour] = hour >= 7 && hour <= 10 ? 4 : 50;
+		mProfiles.setProfile("Trumpeldor Avenue", rushHour);
+		// 20 km/h at midnight, 100 km/h at noon
+		mProfiles.setProfile("Hagalil", new double[] { 20, 100 });
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	boolean same(double x, double y) {
+		return Math.abs(x - y) <= tolerance;
+	}
+
+
+	/**
+	 * Drives km kilometers in small steps, sampling the speed of the profile.
+	 */
+	private double integrate(int profileId, double km, double departure) {
+		double step = 0.001;
+		double time = departure;
+		double remaining = km;
+		while (true) {
+			double kmPerMinute = mProfiles.getKmh(profileId, time) / 60;
+			if (kmPerMinute * step >= remaining)
+				return time + remaining / kmPerMinute - departure;
+			remaining -= kmPerMinute * step;
+			time += step;
+		}
+	}
+
+
+	private boolean rejects(int profileId, double km, double departure) {
+		try {
+			mProfiles.getTravelMinutes(profileId, km, departure);
+			return false;
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+
+	private boolean uses(Route route, String name) {
+		Iterator<GeoFeature> it = route.getGeoFeatures();
+		while (it.hasNext()) {
+			if (it.next().getName().equals(name))
+				return true;
+		}
+		return false;
+	}
+
+
+	public void testProfiles() {
+		int hagalil = mProfiles.getProfileId("Hagalil");
+		int trumpeldor = mProfiles.getProfileId("Trumpeldor Avenue");
+
+		show("SpeedProfileTable");
+		show("Unknown streets use the default profile",
+			mProfiles.getProfileId("Ruppin Road") == 0);
+		show("Identical profiles are shared",
+			new SpeedProfileTable(50).getProfileCount() == 1
+			&& mProfiles.getProfileCount() == 3);
+		show("Default speed is constant",
+			same(mProfiles.getTravelMinutes(0, 10, 123), 12));
+		show("Speed is interpolated between buckets",
+			same(mProfiles.getKmh(hagalil, 360), 60));
+		show("Speed wraps around midnight",
+			same(mProfiles.getKmh(hagalil, 1440 + 360), 60)
+			&& same(mProfiles.getKmh(hagalil, -1080), 60));
+
+		show("getTravelMinutes()");
+		show("Matches integrating the speed",
+			Math.abs(mProfiles.getTravelMinutes(hagalil, 5, 600) - integrate(hagalil, 5, 600)) < 0.01
+			&& Math.abs(mProfiles.getTravelMinutes(trumpeldor, 3, 400) - integrate(trumpeldor, 3, 400)) < 0.01);
+		show("Crosses midnight",
+			Math.abs(mProfiles.getTravelMinutes(hagalil, 5, 1430) - integrate(hagalil, 5, 1430)) < 0.01);
+		show("Departures a day apart take as long",
+			same(mProfiles.getTravelMinutes(hagalil, 5, 1430), mProfiles.getTravelMinutes(hagalil, 5, -10))
+			&& same(mProfiles.getTravelMinutes(hagalil, 5, 20), mProfiles.getTravelMinutes(hagalil, 5, 1460)));
+		boolean fifo = true;
+		for (int p = 0; p < mProfiles.getProfileCount(); p++) {
+			double previous = Double.NEGATIVE_INFINITY;
+			for (double departure = -60; departure <= 1500; departure += 0.5) {
+				double arrival = departure + mProfiles.getTravelMinutes(p, 7, departure);
+				if (arrival < previous - 1e-9)
+					fifo = false;
+				previous = arrival;
+			}
+		}
+		show("Leaving later never arrives earlier", fifo);
+		show("Zero km takes no time",
+			mProfiles.getTravelMinutes(hagalil, 0, 100) == 0);
+		double dayKm = 60 * 24;		// Hagalil averages 60 km/h
+		show("Whole days of driving are skipped",
+			Math.abs(mProfiles.getTravelMinutes(hagalil, 3 * dayKm + 5, 600)
+				- (3 * 1440 + mProfiles.getTravelMinutes(hagalil, 5, 600))) < 0.01
+			&& mProfiles.getTravelMinutes(0, 1e12, 0) > 0);
+		show("NaN or infinite departures are rejected",
+			rejects(hagalil, 1, Double.NaN)
+			&& rejects(hagalil, 1, Double.POSITIVE_INFINITY)
+			&& rejects(0, 1, Double.NEGATIVE_INFINITY));
+		show("NaN, infinite or negative distances are rejected",
+			rejects(hagalil, Double.NaN, 0)
+			&& rejects(hagalil, Double.POSITIVE_INFINITY, 0)
+			&& rejects(0, -1, 0));
+		show("Unknown profiles are rejected",
+			rejects(-1, 1, 0) && rejects(mProfiles.getProfileCount(), 1, 0));
+		boolean routeRejects;
+		try {
+			mProfiles.getTravelMinutes(new Route(ExampleGeoSegments.segments[0]), Double.NaN);
+			routeRejects = false;
+		} catch (IllegalArgumentException e) {
+			routeRejects = true;
+		}
+		show("Route travel times reject NaN departures", routeRejects);
+	}
+
+
+	public void testRouter() {
+		TimeDependentRouter router = new TimeDependentRouter(mNetwork, mProfiles);
+		AlternativeRoutes alternatives = new AlternativeRoutes(mNetwork, 0.9, 1);
+		Route shortest = alternatives.computeAlternatives(gpHankin, gpHagalilHanita, 1).get(0);
+
+		show("computeRoute()");
+		Route night = router.computeRoute(gpHankin, gpHagalilHanita, 180);
+		show("At night the route takes Trumpeldor Avenue",
+			night != null && uses(night, "Trumpeldor Avenue"));
+		Route rushHour = router.computeRoute(gpHankin, gpHagalilHanita, 480);
+		show("At rush hour the route avoids Trumpeldor Avenue",
+			rushHour != null && !uses(rushHour, "Trumpeldor Avenue")
+			&& rushHour.getStart().equals(gpHankin) && rushHour.getEnd().equals(gpHagalilHanita));
+		show("The rush-hour route arrives earlier than the shortest one",
+			rushHour != null && mProfiles.getTravelMinutes(rushHour, 480)
+				< mProfiles.getTravelMinutes(shortest, 480));
+		Route late = router.computeRoute(gpHankin, gpHagalilHanita, 180 + 1440);
+		show("Departures a day apart give the same route",
+			late != null && late.equals(night));
+		show("Unreachable points give no route",
+			router.computeRoute(gpHankin, new GeoPoint(0, 0), 0) == null);
+		boolean rejected;
+		try {
+			router.computeRoute(gpHankin, gpHagalilHanita, Double.NaN);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("NaN departures are rejected", rejected);
+
+		show("DrivingRouteFormatter");
+		String directions = new DrivingRouteFormatter()
+			.computeDirections(night, 0, mProfiles, 1439.5);
+		show("Arrival times wrap around midnight",
+			directions.indexOf(", arriving at 00:0") > 0);
+		try {
+			new DrivingRouteFormatter().computeDirections(night, 0, mProfiles, Double.POSITIVE_INFINITY);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("Infinite departures are rejected", rejected);
+	}
+
+
+	public static void main(String[] args) {
+		TimeDependentRouterTest routerTest = new TimeDependentRouterTest();
+		routerTest.testProfiles();
+		routerTest.testRouter();
+		if (routerTest.mFailed)
+			System.exit(1);
+	}
+}
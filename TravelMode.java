@@ -0,0 +1,39 @@
+package homework1;
+
+/**
+ * A TravelMode is a way of traversing GeoSegments at a fixed pace.
+ * <p>
+ * The walking pace is the one used by WalkingRouteFormatter, 20 minutes
+ * per kilometer. The driving pace assumes an average urban speed of 50
+ * kilometers per hour.
+ */
+public enum TravelMode {
+
+	WALKING(20.0),
+	DRIVING(60.0 / 50.0);
+
+	private final double minutesPerKm;
+
+	private TravelMode(double minutesPerKm) {
+		this.minutesPerKm = minutesPerKm;
+	}
+
+	/**
+	 * Returns the pace of this mode.
+	 *
+	 * @return the time it takes to travel one kilometer, in minutes.
+	 */
+	public double getMinutesPerKm() {
+		return minutesPerKm;
+	}
+
+	/**
+	 * Returns the time it takes to travel a distance in this mode.
+	 *
+	 * @requires km >= 0
+	 * @return the time to travel km kilometers, in minutes.
+	 */
+	public double getMinutes(double km) {
+		return km * minutesPerKm;
+	}
+}
@@ -0,0 +1,144 @@
+package homework1;
+
+/**
+ * A TurnAwareRouter finds the fastest Route through a RoadNetwork when
+ * every turn costs time, as given by a TurnCostTable.
+ * <p>
+ * The search runs on the edge-based (turn-expanded) graph, whose states are
+ * the edges of the network: moving from edge e to an edge f leaving the end
+ * of e costs the travel time of f plus the penalty of the turn from the
+ * heading of e to the heading of f. The expanded graph is never
+ * materialized; turns are classified on the fly from the edge headings,
+ * which are kept in a float array, and priced by a single table lookup.
+ * <p>
+ * TurnAwareRouters are not thread-safe; each thread should use its own
+ * instance.
+ */
+public class TurnAwareRouter {
+	private final RoadNetwork network;
+	private final TravelMode mode;
+	private final TurnCostTable turnCosts;
+	private final float[] edgeHeading;
+	private final double[] edgeMinutes;
+
+	// Scratch state of the search over edges, reset lazily using a generation stamp.
+	private final double[] time;
+	private final int[] prevEdge;
+	private final int[] reachedStamp;
+	private final int[] settledStamp;
+	private final NodeHeap heap;
+	private int stamp;
+
+	/**
+	 * Constructs a new TurnAwareRouter.
+	 *
+	 * @requires network != null && mode != null && turnCosts != null
+	 * @effects Constructs a new TurnAwareRouter over network, traveling in
+	 *          mode with the turn penalties of turnCosts.
+	 */
+	public TurnAwareRouter(RoadNetwork network, TravelMode mode, TurnCostTable turnCosts) {
+		if (network == null || mode == null || turnCosts == null) {
+			throw new IllegalArgumentException("Arguments cannot be null");
+		}
+		this.network = network;
+		this.mode = mode;
+		this.turnCosts = turnCosts;
+		int m = network.getEdgeCount();
+		edgeHeading = new float[m];
+		edgeMinutes = new double[m];
+		for (int e = 0; e < m; e++) {
+			float h = (float) network.edges[e].heading;
+			edgeHeading[e] = h < 360 ? h : 0; // rounding may reach 360, which is north
+			edgeMinutes[e] = mode.getMinutes(network.edges[e].length);
+		}
+		time = new double[m];
+		prevEdge = new int[m];
+		reachedStamp = new int[m];
+		settledStamp = new int[m];
+		heap = new NodeHeap();
+		stamp = 0;
+	}
+
+	/**
+	 * Returns the travel mode of this router.
+	 *
+	 * @return the way the network is traversed.
+	 */
+	public TravelMode getTravelMode() {
+		return mode;
+	}
+
+	/**
+	 * Computes a fastest Route taking turns into account.
+	 *
+	 * @requires from != null && to != null && !from.equals(to) &&
+	 *           0 <= heading < 360
+	 * @return a Route from from to to that minimizes the travel time plus
+	 *         the penalties of all its turns, including the first turn from
+	 *         the initial heading, or null if there is no such Route.
+	 */
+	public Route computeRoute(GeoPoint from, GeoPoint to, double heading) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("GeoPoints cannot be null");
+		}
+		if (from.equals(to)) {
+			throw new IllegalArgumentException("Start and end must differ");
+		}
+		if (heading < 0 || heading >= 360) {
+			throw new IllegalArgumentException("heading must be between 0 and 360");
+		}
+		int source = network.getNodeId(from);
+		int target = network.getNodeId(to);
+		if (source < 0 || target < 0) {
+			return null;
+		}
+
+		stamp++;
+		heap.clear();
+		for (int e = network.firstOutEdge[source]; e < network.firstOutEdge[source + 1]; e++) {
+			relax(e, -1, edgeMinutes[e] + turnCosts.getCost(heading, edgeHeading[e]));
+		}
+		while (!heap.isEmpty()) {
+			int e = heap.poll();
+			if (settledStamp[e] == stamp) {
+				continue;
+			}
+			settledStamp[e] = stamp;
+			int v = network.edgeTarget[e];
+			if (v == target) {
+				return network.toRoute(buildPath(e));
+			}
+			double origHeading = edgeHeading[e];
+			for (int f = network.firstOutEdge[v]; f < network.firstOutEdge[v + 1]; f++) {
+				if (settledStamp[f] != stamp) {
+					relax(f, e, time[e] + edgeMinutes[f] + turnCosts.getCost(origHeading, edgeHeading[f]));
+				}
+			}
+		}
+		return null;
+	}
+
+	private void relax(int e, int prev, double t) {
+		if (t == Double.POSITIVE_INFINITY) {
+			return; // a forbidden turn
+		}
+		if (reachedStamp[e] != stamp || t < time[e]) {
+			reachedStamp[e] = stamp;
+			time[e] = t;
+			prevEdge[e] = prev;
+			heap.push(e, t);
+		}
+	}
+
+	private int[] buildPath(int last) {
+		int count = 0;
+		for (int e = last; e != -1; e = prevEdge[e]) {
+			count++;
+		}
+		int[] path = new int[count];
+		for (int e = last; e != -1; e = prevEdge[e]) {
+			path[--count] = e;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,88 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A TurnCostTable gives the time penalty of each TurnType. TurnCostTables
+ * are immutable.
+ * <p>
+ * A penalty of Double.POSITIVE_INFINITY forbids the turn altogether.
+ */
+public class TurnCostTable {
+	private final double[] costs;
+
+	// Abs. Function: the penalty of turn t is costs[t.ordinal()] minutes.
+	// Rep. Invariant: costs != null && costs.length == TurnType.values().length &&
+	// for each i : costs[i] >= 0
+
+	/**
+	 * Constructs a new TurnCostTable with default penalties.
+	 *
+	 * @effects Constructs a new TurnCostTable in which continuing costs
+	 *          nothing, slight turns cost 0.05 minutes, right turns 0.25,
+	 *          left turns 0.4, sharp turns 0.75 and U-turns 2 minutes.
+	 */
+	public TurnCostTable() {
+		costs = new double[TurnType.values().length];
+		costs[TurnType.CONTINUE.ordinal()] = 0;
+		costs[TurnType.SLIGHT_RIGHT.ordinal()] = 0.05;
+		costs[TurnType.SLIGHT_LEFT.ordinal()] = 0.05;
+		costs[TurnType.RIGHT.ordinal()] = 0.25;
+		costs[TurnType.LEFT.ordinal()] = 0.4;
+		costs[TurnType.SHARP_RIGHT.ordinal()] = 0.75;
+		costs[TurnType.SHARP_LEFT.ordinal()] = 0.75;
+		costs[TurnType.U_TURN.ordinal()] = 2;
+		checkRep();
+	}
+
+	private TurnCostTable(double[] costs) {
+		this.costs = costs;
+		checkRep();
+	}
+
+	void checkRep() {
+		assert (costs != null && costs.length == TurnType.values().length);
+		for (int i = 0; i < costs.length; i++) {
+			assert (costs[i] >= 0);
+		}
+	}
+
+	/**
+	 * Returns the penalty of a turn.
+	 *
+	 * @requires turn != null
+	 * @return the time penalty of turn, in minutes.
+	 */
+	public double getCost(TurnType turn) {
+		return costs[turn.ordinal()];
+	}
+
+	/**
+	 * Returns the penalty of the turn between two headings.
+	 *
+	 * @requires 0 <= origHeading < 360 && 0 <= newHeading < 360
+	 * @return getCost(TurnType.classify(origHeading, newHeading)).
+	 */
+	public double getCost(double origHeading, double newHeading) {
+		return costs[TurnType.classify(origHeading, newHeading).ordinal()];
+	}
+
+	/**
+	 * Creates a new TurnCostTable equal to this one except for one penalty.
+	 *
+	 * @requires turn != null && minutes >= 0
+	 * @return a new TurnCostTable t such that t.getCost(turn) = minutes and
+	 *         t.getCost(x) = this.getCost(x) for any other x.
+	 */
+	public TurnCostTable withCost(TurnType turn, double minutes) {
+		if (turn == null) {
+			throw new IllegalArgumentException("TurnType cannot be null");
+		}
+		if (!(minutes >= 0)) {
+			throw new IllegalArgumentException("Cost must be non-negative");
+		}
+		double[] newCosts = Arrays.copyOf(costs, costs.length);
+		newCosts[turn.ordinal()] = minutes;
+		return new TurnCostTable(newCosts);
+	}
+}
@@ -0,0 +1,84 @@
+package homework1;
+
+/**
+ * A TurnType is the kind of turn taken when changing from one heading to
+ * another, as described in RouteFormatter directions.
+ * <p>
+ * Let the angle from the original heading to the new heading be a,
+ * measured clockwise in [0, 360), so that 90 is a turn to the right and
+ * 270 a turn to the left. The turn is classified as:
+ * <pre>
+ * CONTINUE             if a < 10
+ * SLIGHT_RIGHT         if 10 <= a < 60
+ * RIGHT                if 60 <= a < 120
+ * SHARP_RIGHT          if 120 <= a < 179
+ * U_TURN               if 179 <= a < 181
+ * </pre>
+ * and likewise for left turns.
+ */
+public enum TurnType {
+
+	CONTINUE("Continue"),
+	SLIGHT_RIGHT("Turn slight right"),
+	RIGHT("Turn right"),
+	SHARP_RIGHT("Turn sharp right"),
+	U_TURN("U-turn"),
+	SHARP_LEFT("Turn sharp left"),
+	LEFT("Turn left"),
+	SLIGHT_LEFT("Turn slight left");
+
+	private final String description;
+
+	private TurnType(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * Returns the English directions for this turn.
+	 *
+	 * @return the English directions for this turn, as used by
+	 *         RouteFormatter, e.g. "Turn slight right".
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Classifies the turn between two headings.
+	 *
+	 * @requires 0 <= origHeading < 360 &&
+	 *           0 <= newHeading < 360
+	 * @return the kind of turn taken to go from origHeading to newHeading.
+	 */
+	public static TurnType classify(double origHeading, double newHeading) {
+		if (origHeading < 0 || origHeading >= 360) {
+			throw new IllegalArgumentException("origHeading must be between 0 and 360");
+		}
+		if (newHeading < 0 || newHeading >= 360) {
+			throw new IllegalArgumentException("newHeading must be between 0 and 360");
+		}
+		double angle = newHeading - origHeading;
+		if (angle < 0) {
+			angle += 360;
+		}
+		if (angle < 10) {
+			return CONTINUE;
+		} else if (angle < 60) {
+			return SLIGHT_RIGHT;
+		} else if (angle < 120) {
+			return RIGHT;
+		} else if (angle < 179) {
+			return SHARP_RIGHT;
+		} else if (angle < 181) {
+			return U_TURN;
+		} else if (angle < 240) {
+			return SHARP_LEFT;
+		} else if (angle < 300) {
+			return LEFT;
+		} else if (angle < 350) {
+			return SLIGHT_LEFT;
+		} else {
+			return CONTINUE;
+		}
+	}
+}
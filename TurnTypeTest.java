@@ -0,0 +1,141 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class TurnTypeTest {
+
+	private GeoPoint gpStart;
+	private GeoPoint gpEast;			// a little east of gpStart
+	private GeoPoint gpWest;			// a little farther west of gpStart
+	private GeoPoint gpNorth;			// north of gpStart
+	private RoadNetwork mNetwork;
+	private boolean mFailed;			// makes main() exit with status 1
+
+
+	public TurnTypeTest() {
+		gpStart = new GeoPoint(32780000, 35010000);
+		gpEast = new GeoPoint(32780000, 35011000);
+		gpWest = new GeoPoint(32780000, 35008900);
+		gpNorth = new GeoPoint(32781000, 35010000);
+		mNetwork = new RoadNetwork(Arrays.asList(
+			new GeoSegment("East", gpStart, gpEast),
+			new GeoSegment("East", gpEast, gpNorth),
+			new GeoSegment("West", gpStart, gpWest),
+			new GeoSegment("West", gpWest, gpNorth)));
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else {
+			System.out.print("x ");
+			mFailed = true;
+		}
+		System.out.println(str);
+	}
+
+
+	private static String firstName(Route route) {
+		return route.getGeoFeatures().next().getName();
+	}
+
+
+	public void test() {
+		show("classify()");
+		show("Small changes continue",
+			TurnType.classify(0, 9) == TurnType.CONTINUE
+			&& TurnType.classify(9, 0) == TurnType.CONTINUE
+			&& TurnType.classify(355, 3) == TurnType.CONTINUE
+			&& TurnType.classify(3, 355) == TurnType.CONTINUE);
+		show("Increasing headings turn right",
+			TurnType.classify(0, 10) == TurnType.SLIGHT_RIGHT
+			&& TurnType.classify(0, 90) == TurnType.RIGHT
+			&& TurnType.classify(90, 180) == TurnType.RIGHT
+			&& TurnType.classify(0, 150) == TurnType.SHARP_RIGHT);
+		show("Decreasing headings turn left",
+			TurnType.classify(90, 0) == TurnType.LEFT
+			&& TurnType.classify(180, 90) == TurnType.LEFT
+			&& TurnType.classify(100, 50) == TurnType.SLIGHT_LEFT
+			&& TurnType.classify(200, 50) == TurnType.SHARP_LEFT);
+		show("Right turns across north",
+			TurnType.classify(300, 30) == TurnType.RIGHT
+			&& TurnType.classify(340, 20) == TurnType.SLIGHT_RIGHT
+			&& TurnType.classify(270, 60) == TurnType.SHARP_RIGHT);
+		show("Left turns across north",
+			TurnType.classify(30, 300) == TurnType.LEFT
+			&& TurnType.classify(20, 340) == TurnType.SLIGHT_LEFT
+			&& TurnType.classify(60, 270) == TurnType.SHARP_LEFT);
+		show("Reversing is a U-turn",
+			TurnType.classify(0, 180) == TurnType.U_TURN
+			&& TurnType.classify(270, 90) == TurnType.U_TURN
+			&& TurnType.classify(10, 190.5) == TurnType.U_TURN);
+		show("Boundaries",
+			TurnType.classify(0, 60) == TurnType.RIGHT
+			&& TurnType.classify(0, 120) == TurnType.SHARP_RIGHT
+			&& TurnType.classify(0, 179) == TurnType.U_TURN
+			&& TurnType.classify(0, 181) == TurnType.SHARP_LEFT
+			&& TurnType.classify(0, 240) == TurnType.LEFT
+			&& TurnType.classify(0, 300) == TurnType.SLIGHT_LEFT
+			&& TurnType.classify(0, 350) == TurnType.CONTINUE);
+		boolean rejected;
+		try {
+			TurnType.classify(0, 360);
+			rejected = false;
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		show("Headings of 360 are rejected", rejected);
+
+		show("TurnCostTable");
+		TurnCostTable costs = new TurnCostTable();
+		show("Left turns cost more than right turns",
+			costs.getCost(90, 0) == costs.getCost(TurnType.LEFT)
+			&& costs.getCost(300, 30) == costs.getCost(TurnType.RIGHT)
+			&& costs.getCost(TurnType.LEFT) > costs.getCost(TurnType.RIGHT));
+		show("withCost() changes a single penalty",
+			costs.withCost(TurnType.LEFT, 3).getCost(90, 0) == 3
+			&& costs.withCost(TurnType.LEFT, 3).getCost(0, 90) == costs.getCost(TurnType.RIGHT));
+
+		show("TurnAwareRouter");
+		// heading south, the road east starts with a left turn and the
+		// slightly longer road west with a right turn
+		TurnAwareRouter router = new TurnAwareRouter(mNetwork, TravelMode.DRIVING,
+			costs.withCost(TurnType.LEFT, 10));
+		Route route = router.computeRoute(gpStart, gpNorth, 180);
+		show("Expensive left turns are avoided",
+			route != null && firstName(route).equals("West"));
+		router = new TurnAwareRouter(mNetwork, TravelMode.DRIVING, costs);
+		route = router.computeRoute(gpStart, gpNorth, 0);
+		show("Heading north, the cheaper right turn east is taken",
+			route != null && firstName(route).equals("East"));
+		boolean noLeft = true;
+		router = new TurnAwareRouter(mNetwork, TravelMode.DRIVING,
+			costs.withCost(TurnType.LEFT, Double.POSITIVE_INFINITY));
+		route = router.computeRoute(gpStart, gpNorth, 180);
+		double heading = 180;
+		Iterator<GeoFeature> it = route == null ? null : route.getGeoFeatures();
+		while (it != null && it.hasNext()) {
+			GeoFeature gf = it.next();
+			if (TurnType.classify(heading, gf.getStartHeading()) == TurnType.LEFT)
+				noLeft = false;
+			heading = gf.getEndHeading();
+		}
+		show("Forbidden left turns are never taken", route != null && noLeft);
+	}
+
+
+	public static void main(String[] args) {
+		TurnTypeTest turnTest = new TurnTypeTest();
+		turnTest.test();
+		if (turnTest.mFailed)
+			System.exit(1);
+	}
+}
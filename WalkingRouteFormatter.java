@@ -1,6 +1,6 @@
 package homework1;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
 
 /**
  * A WalkingDirections class knows how to create a textual description of
@@ -27,17 +27,17 @@ import java.text.DecimalFormat;
 public class WalkingRouteFormatter extends RouteFormatter {
 
   	/**
-     * Computes a single line of a multi-line directions String that
+     * Writes a single line of a multi-line directions String that
      * represents the instructions for walking along a single geographic
      * feature.
-     * @requires 0 <= origHeading < 360
-     * @param geoFeature the geographical feature to traverse.
-     * @param origHeading the initial heading.
-     * @return A newline-terminated <tt>String</tt> that gives directions
-     * 		   on how to walk along this geographical feature.<br>
-     * Calling <tt>computeLine</tt> with a GeoFeature instance and an
-     * initial heading should produce a newline-terminated String in the
-     * following form:
+     * @param turn the turn taken onto the geographical feature.
+     * @param name the name of the geographical feature.
+     * @param length the length of the geographical feature, in kilometers.
+     * @param out the sink to write the line to.
+     * @effects appends to out a newline-terminated String that gives
+     * 		   directions on how to walk along this geographical feature.<br>
+     * The line has the following form, for a sharp left turn onto a
+     * feature named Hanita:
      * <p>
      * <tt>
      * Turn sharp left onto Hanita and walk for 27 minutes.<br>
@@ -51,35 +51,16 @@ public class WalkingRouteFormatter extends RouteFormatter {
      * newline and should include no extra spaces other than those shown
      * above.
      **/
-  	public String computeLine(GeoFeature geoFeature, double origHeading) {
-  		
-		// Implementation hint:
-		// You may find the class java.text.DecimalFormat useful when
-		// implementing this method. More info can be found at:
-		// http://docs.oracle.com/javase/tutorial/java/data/numberformat.html
-		// and at:
-		// http://docs.oracle.com/javase/8/docs/api/java/text/DecimalFormat.html
-					 
-      if (geoFeature == null) {
-         throw new IllegalArgumentException("GeoFeature must not be null");
-      }
-      if (origHeading < 0 || origHeading >= 360) {
-         throw new IllegalArgumentException("heading must be between 0 and 360");
-      }
-      StringBuffer line = new StringBuffer();
-      double distance = geoFeature.getLength();
-      double time = distance  * 20; // in minutes
+  	protected void appendLine(TurnType turn, String name, double length, Appendable out)
+  			throws IOException {
+      double time = TravelMode.WALKING.getMinutes(length); // in minutes
       int roundedTime = (int) Math.round(time);
-      String featureName = geoFeature.getName();
-      double newHeading = geoFeature.getStartHeading();
-      String turnString = getTurnString(origHeading, newHeading);
 
-      line.append(turnString);
-      line.append(" onto ");
-      line.append(featureName);
-      line.append(" and walk for ");
-      line.append(Integer.toString(roundedTime));
-      line.append(" minutes.\n");
-      return line.toString();
+      out.append(turn.getDescription());
+      out.append(" onto ");
+      out.append(name);
+      out.append(" and walk for ");
+      numberFormat.appendInteger(roundedTime, out);
+      out.append(" minutes.\n");
   	}
 }
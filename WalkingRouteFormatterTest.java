@@ -5,6 +5,7 @@ public class WalkingRouteFormatterTest {
 	private WalkingRouteFormatter mDirections;
   	private Route mShortRoute;
 
+  	private boolean mFailed;
   
   	public WalkingRouteFormatterTest() {
     	mDirections = new WalkingRouteFormatter();
@@ -22,13 +23,17 @@ public class WalkingRouteFormatterTest {
 		// String tmp = mDirections.computeDirections(mShortRoute, 0);
 		if (mDirections.computeDirections(mShortRoute, 0).equals(directions))
 			System.out.println("Test passed correctly");
-		else
+		else {
 			System.out.println("Test not passed correctly");
+			mFailed = true;
+		}
 	}
   	
   	
 	public static void main(String[] args) {
 		WalkingRouteFormatterTest directionsTest = new WalkingRouteFormatterTest();
 		directionsTest.test();
+		if (directionsTest.mFailed)
+			System.exit(1);
 	}
 }
@@ -0,0 +1,81 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BenchmarkRoutes generates the inputs of the benchmarks: connected
+ * sequences of GeoSegments that wind through a city, changing street every
+ * few segments and reusing a small set of street names, so that routes made
+ * of them have many GeoFeatures and every kind of turn.
+ */
+final class BenchmarkRoutes {
+
+	// Number of segments of each street along a generated path.
+	static final int SEGMENTS_PER_STREET = 8;
+
+	private static final int STREET_NAMES = 64;
+
+	// Length of a segment, in millionths of degrees.
+	private static final int STEP = 400;
+
+	private BenchmarkRoutes() {
+	}
+
+	/**
+	 * Generates a path.
+	 *
+	 * @requires size > 0
+	 * @return a list of size GeoSegments, each starting where the previous
+	 *         one ends. The same size always gives the same path.
+	 */
+	static List<GeoSegment> path(int size) {
+		List<GeoSegment> path = new ArrayList<GeoSegment>(size);
+		GeoPoint p = new GeoPoint(32780000, 35000000);
+		double heading = 0;
+		String name = null;
+		for (int i = 0; i < size; i++) {
+			if (i % SEGMENTS_PER_STREET == 0) {
+				int street = i / SEGMENTS_PER_STREET;
+				name = "Street " + (street % STREET_NAMES);
+				// turn by a different angle onto every street, never back
+				heading = (heading + 20 + (street * 37) % 140) % 360;
+			}
+			double radians = Math.toRadians(heading);
+			GeoPoint q = new GeoPoint(p.getLatitude() + (int) Math.round(STEP * Math.cos(radians)),
+					p.getLongitude() + (int) Math.round(STEP * Math.sin(radians)));
+			path.add(new GeoSegment(name, p, q));
+			p = q;
+		}
+		return path;
+	}
+
+	/**
+	 * Generates a street.
+	 *
+	 * @requires size > 0
+	 * @return a list of size GeoSegments with the same name, each starting
+	 *         where the previous one ends.
+	 */
+	static List<GeoSegment> street(int size) {
+		List<GeoSegment> street = new ArrayList<GeoSegment>(size);
+		GeoPoint p = new GeoPoint(32780000, 35000000);
+		for (int i = 0; i < size; i++) {
+			// a gentle zigzag, so the street is not a straight line
+			GeoPoint q = new GeoPoint(p.getLatitude() + STEP, p.getLongitude() + (i % 2 == 0 ? 50 : -50));
+			street.add(new GeoSegment("Hagalil", p, q));
+			p = q;
+		}
+		return street;
+	}
+
+	/**
+	 * Builds a route.
+	 *
+	 * @requires segments is a non-empty list of connected GeoSegments
+	 * @return the Route made of segments, in order.
+	 */
+	static Route route(List<GeoSegment> segments) {
+		return new Route(segments.get(0)).addSegments(segments.subList(1, segments.size()));
+	}
+}
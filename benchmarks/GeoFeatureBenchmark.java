@@ -0,0 +1,63 @@
+package homework1;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of GeoFeature.addSegment: building a GeoFeature of size
+ * segments one at a time, in bulk, and extending one of size segments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoFeatureBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private List<GeoSegment> segments;
+	private GeoFeature feature;
+	private GeoSegment next;
+
+	@Setup
+	public void setUp() {
+		List<GeoSegment> street = BenchmarkRoutes.street(size + 1);
+		segments = street.subList(0, size);
+		feature = new GeoFeature(segments.get(0)).addSegments(segments.subList(1, size));
+		next = street.get(size);
+	}
+
+	@Benchmark
+	public GeoFeature addSegment() {
+		GeoFeature gf = new GeoFeature(segments.get(0));
+		for (int i = 1; i < size; i++) {
+			gf = gf.addSegment(segments.get(i));
+		}
+		return gf;
+	}
+
+	@Benchmark
+	public GeoFeature addSegments() {
+		return new GeoFeature(segments.get(0)).addSegments(segments.subList(1, size));
+	}
+
+	@Benchmark
+	public GeoFeature extend() {
+		return feature.addSegment(next);
+	}
+}
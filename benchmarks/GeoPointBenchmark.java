@@ -0,0 +1,39 @@
+package homework1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of GeoPoint.distanceTo and GeoPoint.headingTo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoPointBenchmark {
+
+	// not final, so that the computations are not constant folded
+	private GeoPoint from = new GeoPoint(32782269, 35013820);
+	private GeoPoint to = new GeoPoint(32795631, 35010296);
+
+	@Benchmark
+	public double distanceTo() {
+		return from.distanceTo(to);
+	}
+
+	@Benchmark
+	public double headingTo() {
+		return from.headingTo(to);
+	}
+}
@@ -0,0 +1,40 @@
+package homework1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of GeoSegment construction, which computes the length and
+ * heading of the segment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoSegmentBenchmark {
+
+	private String name = "Trumpeldor Avenue";
+	private GeoPoint p1 = new GeoPoint(32783098, 35014528);
+	private GeoPoint p2 = new GeoPoint(32787081, 35020735);
+
+	@Benchmark
+	public GeoSegment construct() {
+		return new GeoSegment(name, p1, p2);
+	}
+
+	@Benchmark
+	public GeoSegment reverse() {
+		return new GeoSegment(name, p1, p2).reverse();
+	}
+}
@@ -0,0 +1,85 @@
+package homework1;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of Route: building a Route of size segments one at a time and
+ * in bulk, extending one of size segments by a segment, and comparing and
+ * hashing Routes of size segments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	private List<GeoSegment> segments;
+	private Route route;
+	private Route sameRoute;
+	private GeoSegment next;
+	private GeoSegment nextOnNewStreet;
+
+	@Setup
+	public void setUp() {
+		List<GeoSegment> path = BenchmarkRoutes.path(size + BenchmarkRoutes.SEGMENTS_PER_STREET);
+		segments = path.subList(0, size);
+		route = BenchmarkRoutes.route(segments);
+		// equal to route, but sharing none of its objects
+		sameRoute = BenchmarkRoutes.route(BenchmarkRoutes.path(size));
+		next = path.get(size);
+		GeoSegment last = segments.get(size - 1);
+		nextOnNewStreet = new GeoSegment(last.getName() + " North", last.getP2(), next.getP2());
+	}
+
+	@Benchmark
+	public Route addSegment() {
+		Route r = new Route(segments.get(0));
+		for (int i = 1; i < size; i++) {
+			r = r.addSegment(segments.get(i));
+		}
+		return r;
+	}
+
+	@Benchmark
+	public Route addSegments() {
+		return BenchmarkRoutes.route(segments);
+	}
+
+	@Benchmark
+	public Route extend() {
+		return route.addSegment(next);
+	}
+
+	@Benchmark
+	public Route extendOnNewStreet() {
+		return route.addSegment(nextOnNewStreet);
+	}
+
+	@Benchmark
+	public boolean equalsRoute() {
+		return route.equals(sameRoute);
+	}
+
+	@Benchmark
+	public int hashCodeRoute() {
+		return route.hashCode();
+	}
+}
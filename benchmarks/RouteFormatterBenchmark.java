@@ -0,0 +1,58 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of RouteFormatter.computeDirections over a Route of size
+ * segments, into a new String and into a reused StringBuilder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteFormatterBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	private int size;
+
+	@Param({ "walking", "driving" })
+	private String formatterName;
+
+	private RouteFormatter formatter;
+	private Route route;
+	private StringBuilder out;
+
+	@Setup
+	public void setUp() {
+		formatter = formatterName.equals("walking") ? new WalkingRouteFormatter() : new DrivingRouteFormatter();
+		route = BenchmarkRoutes.route(BenchmarkRoutes.path(size));
+		out = new StringBuilder();
+	}
+
+	@Benchmark
+	public String computeDirections() {
+		return formatter.computeDirections(route, 0);
+	}
+
+	@Benchmark
+	public int computeDirectionsAppendable() throws IOException {
+		out.setLength(0);
+		formatter.computeDirections(route, 0, out);
+		return out.length();
+	}
+}